@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id ("application")
+    id("me.champeau.jmh") version "0.7.2" //benchmarks com JMH (src/jmh/java)
 }
 
 group = "org.example"
@@ -16,6 +17,11 @@ dependencies {
     implementation("org.jdbi:jdbi3-core:3.43.0")
     implementation("org.jdbi:jdbi3-sqlobject:3.43.0")
     implementation("io.javalin:javalin-bundle:6.6.0")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.18.3") //corpos em Smile (mesma versão do Jackson do javalin-bundle)
+    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8") //cache em memória (W-TinyLFU)
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2") //histogramas de latência do gerador de carga
+    implementation("io.micrometer:micrometer-registry-prometheus:1.13.6") //métricas no formato Prometheus
+    implementation("org.roaringbitmap:RoaringBitmap:1.0.6") //listas de IDs compactas do índice de busca
 
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -26,6 +32,44 @@ dependencies {
     testImplementation("org.assertj:assertj-core:3.25.3")
 }
 
+application {
+    mainClass.set("br.com.notes.App")
+}
+
+// Repassa o modo de threads virtuais, o motor de armazenamento, o journal, o agrupamento de escritas
+// o limiar de compressão e a retenção do log de alterações para a aplicação:
+// ./gradlew run -Papp.virtualThreads=true -Papp.storage=memoria -Papp.journal=dados
+// ./gradlew run -Papp.groupCommit=true -Papp.compressao.limiar=1024
+tasks.named<JavaExec>("run") {
+    findProperty("app.virtualThreads")?.let { systemProperty("app.virtualThreads", it) }
+    findProperty("app.storage")?.let { systemProperty("app.storage", it) }
+    findProperty("app.journal")?.let { systemProperty("app.journal", it) }
+    findProperty("app.groupCommit")?.let { systemProperty("app.groupCommit", it) }
+    findProperty("app.compressao.limiar")?.let { systemProperty("app.compressao.limiar", it) }
+    findProperty("app.mudancas.retidas")?.let { systemProperty("app.mudancas.retidas", it) }
+}
+
+// Gerador de carga contra a API: ./gradlew carga -Pcarga="--rate=500 --duration=30 --local"
+// Com --local, a App é iniciada na mesma JVM antes da carga.
+tasks.register<JavaExec>("carga") {
+    group = "application"
+    description = "Executa o gerador de carga HTTP contra a API de Tarefas."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("br.com.notes.ApiClient")
+    args((findProperty("carga")?.toString() ?: "--local").split(" ").filter { it.isNotBlank() })
+}
+
 tasks.test {
     useJUnitPlatform()
+}
+
+// Configuração padrão dos benchmarks: ./gradlew jmh (resultados em build/results/jmh)
+// Para rodar apenas alguns: ./gradlew jmh -Pjmh.includes=Serializacao
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
 }
\ No newline at end of file
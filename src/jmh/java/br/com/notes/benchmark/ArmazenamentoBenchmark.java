@@ -0,0 +1,119 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.AlteracaoTarefa;
+import br.com.notes.repository.ColunarTarefaRepository;
+import br.com.notes.repository.FiltroTarefas;
+import br.com.notes.repository.JdbiTarefaRepository;
+import br.com.notes.repository.MemoriaTarefaRepository;
+import br.com.notes.repository.TarefaRepository;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara os motores de armazenamento (H2 via Jdbi, em memória e colunar fora do heap) nas mesmas operações do TarefaRepository.
+ * <p>
+ * O motor H2 é usado sem o cache do CachedTarefaRepository, para medir o custo do próprio motor.
+ * Para rodar: ./gradlew jmh -Pjmh.includes=Armazenamento
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArmazenamentoBenchmark {
+    private static final FiltroTarefas CONCLUIDAS = new FiltroTarefas(true, null, null, FiltroTarefas.Ordenacao.ID);
+    private static final FiltroTarefas CONCLUIDAS_POR_DATA =
+            new FiltroTarefas(true, null, null, FiltroTarefas.Ordenacao.DATA_CRIACAO);
+
+    @Param({"h2", "memoria", "colunar"})
+    public String motor;
+
+    @Param({"100000"})
+    public int linhas;
+
+    private TarefaRepository repository;
+    private int[] ids;
+
+    @Setup
+    public void setUp() {
+        switch (motor) {
+            case "h2" -> {
+                Jdbi jdbi = DbConfig.createJdbi();
+                jdbi.useHandle(handle -> handle.execute("DELETE FROM tarefas"));
+                repository = new JdbiTarefaRepository(jdbi);
+            }
+            case "memoria" -> repository = new MemoriaTarefaRepository();
+            default -> repository = new ColunarTarefaRepository();
+        }
+        ids = Massa.popular(repository, linhas);
+        // Marca uma a cada três tarefas como concluída, para o filtro por status.
+        for (int i = 0; i < ids.length; i += 3) {
+            repository.update(new Tarefa(ids[i], "Concluída " + i, null, true, null));
+        }
+    }
+
+    @Benchmark
+    public Optional<Tarefa> findById() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Tarefa> findByIdConcorrente() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Tarefa> findPage() {
+        return repository.findPage(ids[ThreadLocalRandom.current().nextInt(ids.length)], 50);
+    }
+
+    @Benchmark
+    public List<Tarefa> findPageConcluidasPorData() {
+        return repository.findPage(CONCLUIDAS_POR_DATA, null, 50);
+    }
+
+    @Benchmark
+    public List<Tarefa> findPageConcluidas() {
+        int id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return repository.findPage(CONCLUIDAS, new FiltroTarefas.Posicao(id, null), 50);
+    }
+
+    @Benchmark
+    public Optional<Tarefa> update() {
+        int id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return repository.update(new Tarefa(id, "Atualizada", "Descrição", false, null));
+    }
+
+    /**
+     * Marca ou desmarca uma tarefa como concluída pelo caminho dedicado do PATCH, sem reescrever os textos.
+     */
+    @Benchmark
+    public Optional<Tarefa> patchConcluida() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = ids[random.nextInt(ids.length)];
+        return repository.patch(id, AlteracaoTarefa.concluida(random.nextBoolean()), TarefaRepository.QUALQUER_VERSAO);
+    }
+
+    /**
+     * Insere e remove uma tarefa, para que a base não cresça sem limite durante a medição
+     * (e para exercitar o reaproveitamento de slots do motor colunar).
+     */
+    @Benchmark
+    public boolean insertEDelete() {
+        return repository.delete(repository.insert(Massa.tarefa(0)).getId());
+    }
+}
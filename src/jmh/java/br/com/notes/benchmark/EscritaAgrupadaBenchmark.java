@@ -0,0 +1,68 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.EscritaAgrupada;
+import br.com.notes.repository.JdbiTarefaRepository;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de escritas concorrentes no H2, com e sem o agrupamento em uma única transação.
+ * <p>
+ * Mede a vazão de updates vindos de várias threads, como nas rajadas de PUT /tarefas/{id}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EscritaAgrupadaBenchmark {
+
+    @Param({"false", "true"})
+    public boolean agrupada;
+
+    private JdbiTarefaRepository repository;
+    private EscritaAgrupada escritaAgrupada;
+    private int[] ids;
+
+    @Setup
+    public void setUp() {
+        Jdbi jdbi = DbConfig.createJdbi();
+        jdbi.useHandle(handle -> handle.execute("DELETE FROM tarefas"));
+        repository = new JdbiTarefaRepository(jdbi);
+        ids = Massa.popular(repository, 10_000);
+        if (agrupada) {
+            escritaAgrupada = new EscritaAgrupada(jdbi, 64, Duration.ofNanos(200_000));
+            repository.habilitarEscritaAgrupada(escritaAgrupada);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (escritaAgrupada != null) {
+            escritaAgrupada.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Optional<Tarefa> update() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Tarefa tarefa = Massa.tarefa(ids[random.nextInt(ids.length)]);
+        tarefa.setConcluida(random.nextBoolean());
+        return repository.update(tarefa);
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.TarefaRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geração da massa de dados usada pelos benchmarks.
+ */
+final class Massa {
+    private static final int LOTE = 1000;
+
+    private Massa() {
+    }
+
+    static Tarefa tarefa(int i) {
+        return new Tarefa(i, "Tarefa de benchmark " + i, "Descrição da tarefa número " + i,
+                i % 3 == 0, Instant.now());
+    }
+
+    static List<Tarefa> tarefas(int quantidade) {
+        List<Tarefa> tarefas = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            tarefas.add(tarefa(i));
+        }
+        return tarefas;
+    }
+
+    static List<RespostaTarefaDTO> dtos(int quantidade) {
+        List<RespostaTarefaDTO> dtos = new ArrayList<>(quantidade);
+        for (Tarefa t : tarefas(quantidade)) {
+            dtos.add(new RespostaTarefaDTO(t.getId(), t.getTitulo(), t.getDescricao(), t.isConcluida(), t.getDataCriacao()));
+        }
+        return dtos;
+    }
+
+    /**
+     * Insere a quantidade pedida de tarefas em lotes e retorna os IDs gerados.
+     */
+    static int[] popular(TarefaRepository repository, int quantidade) {
+        int[] ids = new int[quantidade];
+        int posicao = 0;
+        List<Tarefa> todas = tarefas(quantidade);
+        for (int inicio = 0; inicio < quantidade; inicio += LOTE) {
+            List<Tarefa> lote = todas.subList(inicio, Math.min(inicio + LOTE, quantidade));
+            for (Tarefa inserida : repository.insertAll(lote)) {
+                ids[posicao++] = inserida.getId();
+            }
+        }
+        return ids;
+    }
+}
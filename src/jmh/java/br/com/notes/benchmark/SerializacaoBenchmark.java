@@ -0,0 +1,102 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.config.Compressao;
+import br.com.notes.dto.RespostaTarefaDTO;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da serialização JSON de listas de RespostaTarefaDTO,
+ * usando o mesmo ObjectMapper padrão que o Javalin usa nas respostas,
+ * comparada à serialização e à leitura da mesma lista em Smile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int linhas;
+
+    private List<RespostaTarefaDTO> dtos;
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private ObjectWriter writerSmile;
+    private ObjectReader reader;
+    private ObjectReader readerSmile;
+    private byte[] json;
+    private byte[] smile;
+    private Compressao compressao;
+
+    @Setup
+    public void setUp() {
+        dtos = Massa.dtos(linhas);
+        mapper = JavalinJackson.defaultMapper();
+        JavaType lista = mapper.getTypeFactory().constructCollectionType(List.class, RespostaTarefaDTO.class);
+        writer = mapper.writerFor(lista);
+        reader = mapper.readerFor(lista);
+        ObjectMapper mapperSmile = mapper.copyWith(new SmileFactory());
+        writerSmile = mapperSmile.writerFor(lista);
+        readerSmile = mapperSmile.readerFor(lista);
+        compressao = new Compressao(0, false);
+        try {
+            json = writer.writeValueAsBytes(dtos);
+            smile = writerSmile.writeValueAsBytes(dtos);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] paraBytes() throws IOException {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public void paraStream() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+
+    @Benchmark
+    public byte[] paraBytesSmile() throws IOException {
+        return writerSmile.writeValueAsBytes(dtos);
+    }
+
+    /**
+     * Custo de um cliente (ou da leitura de um corpo) para converter a resposta de volta nos DTOs.
+     */
+    @Benchmark
+    public List<RespostaTarefaDTO> deBytes() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public List<RespostaTarefaDTO> deBytesSmile() throws IOException {
+        return readerSmile.readValue(smile);
+    }
+
+    /**
+     * Custo por requisição da listagem comprimida sem o cache de bytes: serialização mais gzip.
+     */
+    @Benchmark
+    public byte[] paraBytesGzip() throws IOException {
+        return compressao.comprimir(writer.writeValueAsBytes(dtos), Compressao.Codificacao.GZIP, false);
+    }
+}
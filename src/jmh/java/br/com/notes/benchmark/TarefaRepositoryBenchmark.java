@@ -0,0 +1,86 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.JdbiTarefaRepository;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do TarefaRepository contra o H2 em memória.
+ * <p>
+ * Mede as consultas principais com a tabela em diferentes tamanhos e compara o custo
+ * do mapToBean(Tarefa.class) com um RowMapper escrito à mão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TarefaRepositoryBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int linhas;
+
+    private Jdbi jdbi;
+    private JdbiTarefaRepository repository;
+    private int[] ids;
+
+    // Mapeamento manual, usado como referência para o custo da reflexão do mapToBean.
+    private static final RowMapper<Tarefa> MAPPER_MANUAL = (rs, ctx) -> new Tarefa(
+            rs.getInt("id"),
+            rs.getString("titulo"),
+            rs.getString("descricao"),
+            rs.getBoolean("concluida"),
+            rs.getObject("dataCriacao", OffsetDateTime.class).toInstant()
+    );
+
+    @Setup
+    public void setUp() {
+        jdbi = DbConfig.createJdbi();
+        jdbi.useHandle(handle -> handle.execute("DELETE FROM tarefas"));
+        repository = new JdbiTarefaRepository(jdbi);
+        ids = Massa.popular(repository, linhas);
+    }
+
+    @Benchmark
+    public List<Tarefa> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Tarefa> findById() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Tarefa insert() {
+        return repository.insert(Massa.tarefa(0));
+    }
+
+    @Benchmark
+    public List<Tarefa> mapToBean() {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT * FROM tarefas")
+                .mapToBean(Tarefa.class)
+                .list());
+    }
+
+    @Benchmark
+    public List<Tarefa> rowMapperManual() {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT * FROM tarefas")
+                .map(MAPPER_MANUAL)
+                .list());
+    }
+}
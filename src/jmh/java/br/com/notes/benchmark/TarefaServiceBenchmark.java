@@ -0,0 +1,61 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.dto.PaginaTarefasDTO;
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.JdbiTarefaRepository;
+import br.com.notes.service.TarefaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da TarefaService isolada do banco.
+ * <p>
+ * O repositório devolve listas já montadas em memória, de modo que o resultado
+ * reflete apenas o custo da conversão Tarefa -> RespostaTarefaDTO feita pela service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TarefaServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int linhas;
+
+    private TarefaService service;
+
+    @Setup
+    public void setUp() {
+        List<Tarefa> tarefas = Massa.tarefas(linhas);
+        service = new TarefaService(new JdbiTarefaRepository(null) {
+            @Override
+            public List<Tarefa> findAll() {
+                return tarefas;
+            }
+
+            @Override
+            public List<Tarefa> findPage(int afterId, int limit) {
+                return tarefas.subList(0, Math.min(limit, tarefas.size()));
+            }
+        });
+    }
+
+    @Benchmark
+    public List<RespostaTarefaDTO> converterListaCompleta() {
+        return service.listarTarefas();
+    }
+
+    @Benchmark
+    public PaginaTarefasDTO converterPagina() {
+        return service.listarPagina(null, TarefaService.TAMANHO_PADRAO_PAGINA);
+    }
+}
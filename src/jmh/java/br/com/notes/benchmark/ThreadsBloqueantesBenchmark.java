@@ -0,0 +1,85 @@
+package br.com.notes.benchmark;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.repository.JdbiTarefaRepository;
+import io.javalin.util.ConcurrencyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara threads de plataforma e threads virtuais sob carga bloqueante.
+ * <p>
+ * Cada operação dispara 'requisicoes' tarefas simultâneas; cada uma simula 1 ms de espera de I/O
+ * e depois faz um findById no H2, como um handler típico da API. A versão com threads de plataforma
+ * usa um pool fixo do tamanho padrão do Jetty (200); a versão virtual usa uma thread por tarefa e o
+ * semáforo de conexões do DbConfig. O modo 'virtual' só roda em JVMs com threads virtuais (JDK 21+).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadsBloqueantesBenchmark {
+    private static final int THREADS_JETTY = 200;
+
+    @Param({"plataforma", "virtual"})
+    public String modo;
+
+    @Param({"1000", "10000"})
+    public int requisicoes;
+
+    private ExecutorService executor;
+    private JdbiTarefaRepository repository;
+    private int[] ids;
+
+    @Setup
+    public void setUp() {
+        boolean virtual = "virtual".equals(modo);
+        if (virtual && !ConcurrencyUtil.isLoomAvailable()) {
+            throw new IllegalStateException("Threads virtuais não estão disponíveis nesta JVM.");
+        }
+        executor = virtual
+                ? ConcurrencyUtil.executorService("benchmark", true)
+                : Executors.newFixedThreadPool(THREADS_JETTY);
+        var jdbi = DbConfig.createJdbi(virtual);
+        jdbi.useHandle(handle -> handle.execute("DELETE FROM tarefas"));
+        repository = new JdbiTarefaRepository(jdbi);
+        ids = Massa.popular(repository, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int atenderRequisicoes() throws Exception {
+        List<Future<Boolean>> respostas = new ArrayList<>(requisicoes);
+        for (int i = 0; i < requisicoes; i++) {
+            respostas.add(executor.submit(() -> {
+                Thread.sleep(1);
+                return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).isPresent();
+            }));
+        }
+        int encontradas = 0;
+        for (Future<Boolean> resposta : respostas) {
+            if (resposta.get()) {
+                encontradas++;
+            }
+        }
+        return encontradas;
+    }
+}
@@ -1,5 +1,7 @@
 package br.com.notes;
 
+import br.com.notes.carga.GeradorDeCarga;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -12,13 +14,19 @@ import java.util.Scanner;
 /**
  * Cliente de linha de comando para interagir com a API de Tarefas.
  * Esta aplicação é independente e simula um consumidor da API.
+ * Quando recebe argumentos (ex: --rate=500 --duration=30), roda como gerador de carga não interativo.
  */
 public class ApiClient {
     private static final String SERVER_URL = "http://localhost:7000";
     private static final String AUTH_TOKEN = "vasco-da-gama"; // Token para autenticação na API
     private static Scanner scanner = new Scanner(System.in);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            GeradorDeCarga.main(args);
+            return;
+        }
+
         System.out.println("=== Cliente da API de Tarefas ===");
 
         // Mantém o cliente rodando em loop para permitir múltiplas requisições.
@@ -1,45 +1,97 @@
 package br.com.notes;
 
+import br.com.notes.config.AccessLog;
+import br.com.notes.config.Compressao;
 import br.com.notes.config.DbConfig;
+import br.com.notes.config.HttpMetrics;
+import br.com.notes.config.MetricsConfig;
+import br.com.notes.controller.CacheController;
+import br.com.notes.controller.MetricsController;
 import br.com.notes.controller.TarefaController;
 import br.com.notes.controller.UtilController;
+import br.com.notes.feed.FeedTarefas;
+import br.com.notes.repository.CachedTarefaRepository;
+import br.com.notes.repository.ColunarTarefaRepository;
+import br.com.notes.repository.EscritaAgrupada;
+import br.com.notes.repository.JournaledTarefaRepository;
+import br.com.notes.repository.MemoriaTarefaRepository;
 import br.com.notes.repository.TarefaRepository;
+import br.com.notes.repository.TarefaRepositoryRestauravel;
+import br.com.notes.search.IndiceTarefas;
 import br.com.notes.service.TarefaService;
 import io.javalin.Javalin;
 import io.javalin.http.UnauthorizedResponse;
 import io.javalin.json.JavalinJackson;
+import io.javalin.util.ConcurrencyUtil;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 
 public class App {
 
     private static final String TOKEN_AUTENTICACAO = "vasco-da-gama";
+    private static final long CACHE_TAMANHO_MAXIMO = 10_000;
+    private static final Duration CACHE_TEMPO_DE_VIDA = Duration.ofMinutes(5);
+    // Ativa o atendimento das requisições em threads virtuais (requer JDK 21+): -Dapp.virtualThreads=true
+    private static final boolean THREADS_VIRTUAIS =
+            Boolean.getBoolean("app.virtualThreads") && ConcurrencyUtil.isLoomAvailable();
+    // Log de acesso: fração amostrada (-Dapp.accessLog.sample=0.1) e corpo da requisição (-Dapp.accessLog.body=true)
+    private static final double ACCESS_LOG_AMOSTRAGEM = Double.parseDouble(System.getProperty("app.accessLog.sample", "1.0"));
+    private static final boolean ACCESS_LOG_CORPO = Boolean.getBoolean("app.accessLog.body");
+    private static final int ACCESS_LOG_CAPACIDADE = 16_384;
+    // Motor de armazenamento das tarefas: -Dapp.storage=h2 (padrão), memoria ou colunar
+    private static final String ARMAZENAMENTO = System.getProperty("app.storage", "h2");
+    // Diretório do journal que torna duráveis os motores memoria e colunar: -Dapp.journal=dados
+    private static final String DIRETORIO_JOURNAL = System.getProperty("app.journal");
+    // Agrupa os inserts, updates e deletes concorrentes no H2 em uma única transação: -Dapp.groupCommit=true
+    private static final boolean ESCRITA_AGRUPADA = Boolean.getBoolean("app.groupCommit");
+    private static final int ESCRITA_AGRUPADA_MAXIMO = 64;
+    private static final Duration ESCRITA_AGRUPADA_JANELA = Duration.ofNanos(200_000);
+    // Respostas menores que o limiar seguem sem compressão: -Dapp.compressao.limiar=1024
+    private static final int COMPRESSAO_LIMIAR = Integer.getInteger("app.compressao.limiar", 1024);
+    // Feed de alterações (GET /tarefas/stream): eventos guardados para a retomada, fila por cliente e heartbeat.
+    private static final int FEED_HISTORICO = 4096;
+    private static final int FEED_FILA_ASSINANTE = 256;
+    private static final Duration FEED_HEARTBEAT = Duration.ofSeconds(15);
+    // Sincronização incremental (GET /tarefas/changes): lápides das últimas sequências mantidas pela compactação.
+    private static final long MUDANCAS_RETIDAS = Long.getLong("app.mudancas.retidas", 100_000);
+    private static final Duration MUDANCAS_INTERVALO_COMPACTACAO = Duration.ofMinutes(1);
     private static final Logger log = LoggerFactory.getLogger(App.class);
 
     public static void main(String[] args) {
-        var tarefaService = setupDependencies();
-        Javalin app = createAndConfigureApp(tarefaService);
-        printStartupBanner(app);
+        if (Boolean.getBoolean("app.virtualThreads") && !THREADS_VIRTUAIS) {
+            log.warn("Threads virtuais não estão disponíveis nesta JVM; usando o pool de threads padrão.");
+        }
+        var dependencias = setupDependencies();
+        Javalin app = createAndConfigureApp(dependencias);
+        printStartupBanner(app, dependencias.compressao());
     }
 
     /**
      * Centraliza a criação e configuração da instância do Javalin.
      */
-    private static Javalin createAndConfigureApp(TarefaService tarefaService) {
+    private static Javalin createAndConfigureApp(Dependencias dependencias) {
         Javalin app = Javalin.create(config -> {
             // Configurações globais do Javalin podem vir aqui
             config.jsonMapper(new JavalinJackson());
             config.showJavalinBanner = false; // Desativa o banner padrão do Javalin
+            config.useVirtualThreads = THREADS_VIRTUAIS; // Jetty atende cada requisição em uma thread virtual
         });
 
-        // Registra os middlewares (validação de acesso, logs, etc.)
-        registerMiddlewares(app);
+        // Registra os middlewares (métricas, validação de acesso, etc.)
+        registerMiddlewares(app, dependencias);
 
         // Registra todas as rotas da aplicação
-        registerRoutes(app, tarefaService);
+        registerRoutes(app, dependencias);
 
         // Inicia o servidor na porta 7000
         return app.start(7000);
@@ -48,16 +100,28 @@ public class App {
     /**
      * Configura e registra os middlewares da aplicação.
      */
-    private static void registerMiddlewares(Javalin app) {
-        // Middleware para logar todas as requisições após serem processadas
-        app.after(ctx -> {
-            log.info("Requisição {} {} -> status {}", ctx.method(), ctx.path(), ctx.status());
-        });
+    private static void registerMiddlewares(Javalin app, Dependencias dependencias) {
+        // Middleware de compressão: comprime as respostas em memória com br, gzip ou deflate, conforme o Accept-Encoding.
+        // Os after-handlers rodam na ordem de registro: este vem antes dos de métricas e de log de acesso,
+        // para que a latência medida inclua a compressão.
+        app.after(dependencias.compressao()::aplicar);
+
+        // Middleware de métricas: mede latência, status e requisições em andamento por rota.
+        // É registrado antes da autenticação para que as requisições rejeitadas por ela também sejam medidas.
+        var httpMetrics = new HttpMetrics(dependencias.metricas());
+        app.before(httpMetrics::inicio);
+        app.after(httpMetrics::fim);
+
+        // Middleware de log de acesso: enfileira um registro amostrado, escrito por uma thread em segundo plano.
+        var accessLog = new AccessLog(ACCESS_LOG_AMOSTRAGEM, ACCESS_LOG_CORPO, ACCESS_LOG_CAPACIDADE);
+        Runtime.getRuntime().addShutdownHook(new Thread(accessLog::fechar));
+        app.before(accessLog::inicio);
+        app.after(accessLog::fim);
 
         // Middleware de validação de acesso (executa antes de cada requisição)
         app.before(ctx -> {
             // Define um conjunto de rotas que não precisam de autenticação
-            Set<String> rotasPublicas = Set.of("/hello", "/status", "/echo", "/saudacao");
+            Set<String> rotasPublicas = Set.of("/hello", "/status", "/echo", "/saudacao", MetricsController.METRICS_PATH);
 
             // Verifica se o início da rota atual está na lista de rotas públicas
             boolean ehRotaPublica = rotasPublicas.stream().anyMatch(rota -> ctx.path().startsWith(rota));
@@ -77,29 +141,129 @@ public class App {
     /**
      * Centraliza o registro de todos os controllers e suas rotas.
      */
-    private static void registerRoutes(Javalin app, TarefaService tarefaService) {
+    private static void registerRoutes(Javalin app, Dependencias dependencias) {
         new UtilController().registrarRotas(app);
-        new TarefaController(tarefaService).registrarRotas(app);
+        var tarefaController = new TarefaController(dependencias.tarefaService());
+        tarefaController.habilitarCompressao(dependencias.compressao());
+        tarefaController.habilitarFeed(dependencias.feed());
+        tarefaController.registrarRotas(app);
+        if (dependencias.cacheTarefas() != null) {
+            new CacheController(dependencias.cacheTarefas()).registrarRotas(app);
+        }
+        new MetricsController(dependencias.metricas()).registrarRotas(app);
     }
 
     /**
      * Centraliza a criação das dependências (Injeção de Dependência manual).
      */
     @NotNull
-    private static TarefaService setupDependencies() {
-        var jdbi = DbConfig.createJdbi();
-        var tarefaRepository = new TarefaRepository(jdbi);
-        return new TarefaService(tarefaRepository);
+    private static Dependencias setupDependencies() {
+        var metricas = MetricsConfig.createRegistry();
+        TarefaRepository tarefaRepository;
+        CachedTarefaRepository cacheTarefas = null;
+        switch (ARMAZENAMENTO) {
+            case "h2" -> {
+                var jdbi = DbConfig.createJdbi(THREADS_VIRTUAIS, metricas);
+                cacheTarefas = new CachedTarefaRepository(jdbi, CACHE_TAMANHO_MAXIMO, CACHE_TEMPO_DE_VIDA);
+                cacheTarefas.registrarMetricas(metricas);
+                if (ESCRITA_AGRUPADA) {
+                    var escritaAgrupada = new EscritaAgrupada(jdbi, ESCRITA_AGRUPADA_MAXIMO, ESCRITA_AGRUPADA_JANELA);
+                    escritaAgrupada.registrarMetricas(metricas);
+                    Runtime.getRuntime().addShutdownHook(new Thread(escritaAgrupada::close));
+                    cacheTarefas.habilitarEscritaAgrupada(escritaAgrupada);
+                }
+                tarefaRepository = cacheTarefas;
+            }
+            // Sem banco, as leituras já são servidas da memória e o cache não teria utilidade.
+            case "memoria" -> tarefaRepository = comJournal(new MemoriaTarefaRepository());
+            case "colunar" -> tarefaRepository = comJournal(new ColunarTarefaRepository());
+            default -> throw new IllegalArgumentException("Motor de armazenamento desconhecido: " + ARMAZENAMENTO
+                    + ". Use 'h2', 'memoria' ou 'colunar'.");
+        }
+        if (DIRETORIO_JOURNAL != null && cacheTarefas != null) {
+            log.warn("O journal só é usado com os motores 'memoria' e 'colunar'; -Dapp.journal será ignorado.");
+        }
+        if (ESCRITA_AGRUPADA && cacheTarefas == null) {
+            log.warn("O agrupamento de escritas só é usado com o motor 'h2'; -Dapp.groupCommit será ignorado.");
+        }
+
+        var tarefaService = new TarefaService(tarefaRepository);
+        tarefaService.carregarVersoes();
+        var indiceBusca = new IndiceTarefas();
+        indiceBusca.reconstruir(tarefaRepository);
+        tarefaService.habilitarBusca(indiceBusca);
+
+        var feed = new FeedTarefas(FEED_HISTORICO, FEED_FILA_ASSINANTE, FEED_HEARTBEAT, THREADS_VIRTUAIS);
+        feed.registrarMetricas(metricas);
+        Runtime.getRuntime().addShutdownHook(new Thread(feed::close));
+        tarefaService.adicionarOuvinte(feed);
+        agendarCompactacaoMudancas(tarefaService);
+        return new Dependencias(tarefaService, cacheTarefas, metricas, new Compressao(COMPRESSAO_LIMIAR), feed);
     }
 
+    /**
+     * Agenda a compactação periódica do log de alterações da sincronização incremental.
+     * Uma falha é registrada no log e a compactação é tentada de novo no próximo intervalo.
+     */
+    private static void agendarCompactacaoMudancas(TarefaService tarefaService) {
+        var agendador = ConcurrencyUtil.newSingleThreadScheduledExecutor("compactacao-mudancas");
+        long intervalo = MUDANCAS_INTERVALO_COMPACTACAO.toMillis();
+        agendador.scheduleAtFixedRate(() -> {
+            try {
+                int apagadas = tarefaService.compactarMudancas(MUDANCAS_RETIDAS);
+                if (apagadas > 0) {
+                    log.debug("Compactação do log de alterações: {} lápides apagadas.", apagadas);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao compactar o log de alterações.", e);
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(agendador::shutdownNow));
+    }
+
+    /**
+     * Envolve o motor em memória com o journal, se um diretório foi configurado, recuperando as tarefas salvas.
+     * O journal grava um snapshot final e é fechado quando a JVM termina.
+     */
+    private static TarefaRepository comJournal(TarefaRepositoryRestauravel motor) {
+        if (DIRETORIO_JOURNAL == null) {
+            return motor;
+        }
+        try {
+            var repository = JournaledTarefaRepository.abrir(Path.of(DIRETORIO_JOURNAL), motor);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    repository.close();
+                } catch (IOException e) {
+                    log.error("Falha ao fechar o journal.", e);
+                }
+            }));
+            return repository;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Agrupa as dependências criadas na inicialização que precisam ser repassadas aos controllers.
+     * O cacheTarefas é nulo quando o motor de armazenamento não usa cache.
+     */
+    private record Dependencias(TarefaService tarefaService, CachedTarefaRepository cacheTarefas,
+                                PrometheusMeterRegistry metricas, Compressao compressao, FeedTarefas feed) {}
+
     /**
      * Imprime um banner informativo no console ao iniciar a aplicação.
      */
-    private static void printStartupBanner(Javalin app) {
+    private static void printStartupBanner(Javalin app, Compressao compressao) {
         log.info("\n" +
                 "==================================================================\n" +
                 "  API de Gerenciamento de Tarefas iniciada com sucesso!  \n" +
                 "  Servidor rodando em: http://localhost:" + app.port() + "\n" +
+                "  Threads virtuais: " + (THREADS_VIRTUAIS ? "ativadas" : "desativadas") + "\n" +
+                "  Armazenamento: " + ARMAZENAMENTO + (DIRETORIO_JOURNAL == null ? "" : " (journal em " + DIRETORIO_JOURNAL + ")")
+                        + (ESCRITA_AGRUPADA && ARMAZENAMENTO.equals("h2") ? " (escritas agrupadas)" : "") + "\n" +
+                "  Compressão: " + compressao.suportadas().stream().map(Compressao.Codificacao::nome).toList()
+                        + " a partir de " + compressao.limiar() + " bytes\n" +
                 "  Use o token de autenticação: " + TOKEN_AUTENTICACAO + "\n" +
                 "==================================================================");
     }
@@ -0,0 +1,98 @@
+package br.com.notes.carga;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do gerador de carga, lidos da linha de comando no formato --chave=valor.
+ *
+ * @param url          URL base da API.
+ * @param taxa         Requisições por segundo a serem disparadas (taxa alvo, em malha aberta).
+ * @param concorrencia Quantidade máxima de requisições em andamento ao mesmo tempo.
+ * @param duracao      Duração do teste.
+ * @param mix          Peso de cada operação na mistura de requisições.
+ * @param local        Se true, sobe a App na mesma JVM antes de iniciar a carga.
+ */
+public record Configuracao(String url, int taxa, int concorrencia, Duration duracao,
+                           Map<Operacao, Integer> mix, boolean local) {
+
+    public static final String USO = """
+            Uso: ApiClient --rate=500 --concurrency=64 --duration=30 \\
+                           --mix=post:20,list:10,get:50,put:15,delete:5 [--url=http://localhost:7000] [--local]
+            """;
+
+    /**
+     * Lê a configuração a partir dos argumentos da linha de comando, usando valores padrão
+     * para os parâmetros não informados.
+     * Lança IllegalArgumentException se algum argumento for inválido.
+     */
+    public static Configuracao parse(String[] args) {
+        String url = "http://localhost:7000";
+        int taxa = 200;
+        int concorrencia = 32;
+        Duration duracao = Duration.ofSeconds(30);
+        Map<Operacao, Integer> mix = parseMix("post:20,list:10,get:50,put:15,delete:5");
+        boolean local = false;
+
+        for (String arg : args) {
+            if (arg.equals("--local")) {
+                local = true;
+                continue;
+            }
+            String[] partes = arg.split("=", 2);
+            if (partes.length != 2 || !partes[0].startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg);
+            }
+            String valor = partes[1];
+            switch (partes[0]) {
+                case "--url" -> url = valor;
+                case "--rate" -> taxa = positivo(partes[0], valor);
+                case "--concurrency" -> concorrencia = positivo(partes[0], valor);
+                case "--duration" -> duracao = Duration.ofSeconds(positivo(partes[0], valor));
+                case "--mix" -> mix = parseMix(valor);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + partes[0]);
+            }
+        }
+        return new Configuracao(url, taxa, concorrencia, duracao, mix, local);
+    }
+
+    private static int positivo(String nome, String valor) {
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero > 0) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // tratado abaixo
+        }
+        throw new IllegalArgumentException(nome + " deve ser um inteiro positivo: " + valor);
+    }
+
+    private static int naoNegativo(String nome, String valor) {
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero >= 0) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // tratado abaixo
+        }
+        throw new IllegalArgumentException(nome + " deve ser um inteiro não negativo: " + valor);
+    }
+
+    private static Map<Operacao, Integer> parseMix(String valor) {
+        Map<Operacao, Integer> mix = new EnumMap<>(Operacao.class);
+        for (String item : valor.split(",")) {
+            String[] partes = item.split(":", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Item inválido no --mix: " + item);
+            }
+            mix.put(Operacao.porNome(partes[0].trim()), naoNegativo("--mix " + partes[0].trim(), partes[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("O --mix deve ter ao menos um peso positivo.");
+        }
+        return mix;
+    }
+}
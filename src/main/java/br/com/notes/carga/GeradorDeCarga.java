@@ -0,0 +1,220 @@
+package br.com.notes.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP para a API de Tarefas.
+ * <p>
+ * Dispara requisições em malha aberta, na taxa configurada, usando um único HttpClient com conexões
+ * keep-alive. A latência de cada requisição é medida a partir do instante em que ela <i>deveria</i>
+ * ter sido enviada segundo o agendamento, e não de quando foi de fato enviada. Assim, quando o
+ * servidor (ou o limite de concorrência) atrasa o envio, esse atraso aparece nos percentis
+ * (correção de "coordinated omission").
+ */
+public class GeradorDeCarga {
+    private static final String AUTH_TOKEN = "vasco-da-gama";
+    private static final long LATENCIA_MAXIMA_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9};
+
+    private final Configuracao config;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore emAndamento;
+    private final ConcurrentLinkedDeque<Integer> ids = new ConcurrentLinkedDeque<>();
+    private final Map<Operacao, Histogram> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, LongAdder> erros = new EnumMap<>(Operacao.class);
+    private final Operacao[] roleta;
+
+    public GeradorDeCarga(Configuracao config) {
+        this.config = config;
+        this.executor = Executors.newFixedThreadPool(Math.max(2, config.concorrencia()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.emAndamento = new Semaphore(config.concorrencia());
+        for (Operacao operacao : Operacao.values()) {
+            latencias.put(operacao, new ConcurrentHistogram(LATENCIA_MAXIMA_MICROS, 3));
+            erros.put(operacao, new LongAdder());
+        }
+        this.roleta = montarRoleta(config.mix());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao config;
+        try {
+            config = Configuracao.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(Configuracao.USO);
+            System.exit(2);
+            return;
+        }
+        if (config.local()) {
+            br.com.notes.App.main(new String[0]);
+        }
+        new GeradorDeCarga(config).executar();
+        System.exit(0);
+    }
+
+    /**
+     * Executa o teste de carga pelo tempo configurado e imprime o relatório ao final.
+     */
+    public void executar() throws InterruptedException {
+        carregarIdsExistentes();
+        System.out.printf("Carga: %d req/s, concorrência %d, duração %ds, alvo %s%n",
+                config.taxa(), config.concorrencia(), config.duracao().toSeconds(), config.url());
+
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / config.taxa();
+        long inicio = System.nanoTime();
+        long fim = inicio + config.duracao().toNanos();
+        long enviadas = 0;
+
+        for (long agendado = inicio; agendado < fim; agendado = inicio + (++enviadas) * intervalo) {
+            long espera = agendado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            emAndamento.acquire();
+            disparar(sortearOperacao(), agendado);
+        }
+
+        // Aguarda as requisições ainda em andamento.
+        emAndamento.acquire(config.concorrencia());
+        long decorrido = System.nanoTime() - inicio;
+        imprimirRelatorio(enviadas, decorrido);
+        executor.shutdownNow();
+    }
+
+    private void disparar(Operacao operacao, long agendado) {
+        Integer id = operacao == Operacao.POST || operacao == Operacao.LISTAR ? null
+                : operacao == Operacao.DELETAR ? ids.pollFirst() : ids.peekLast();
+        if (id == null && operacao != Operacao.LISTAR) {
+            operacao = Operacao.POST; // Sem IDs conhecidos: cria uma tarefa no lugar.
+        }
+        final Operacao op = operacao;
+
+        client.sendAsync(montarRequisicao(op, id), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((resposta, erro) -> {
+                    latencias.get(op).recordValue(Math.min(
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - agendado), LATENCIA_MAXIMA_MICROS));
+                    if (erro != null || resposta.statusCode() >= 400) {
+                        erros.get(op).increment();
+                    } else if (op == Operacao.POST) {
+                        registrarIdCriado(resposta.body());
+                    }
+                    emAndamento.release();
+                });
+    }
+
+    private HttpRequest montarRequisicao(Operacao operacao, Integer id) {
+        var builder = HttpRequest.newBuilder()
+                .header("Authorization", AUTH_TOKEN)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        return switch (operacao) {
+            case POST -> builder.uri(URI.create(config.url() + "/tarefas"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"titulo\":\"Tarefa de carga\",\"descricao\":\"Criada pelo gerador de carga\"}"))
+                    .build();
+            case LISTAR -> builder.uri(URI.create(config.url() + "/tarefas?limit=50")).GET().build();
+            case BUSCAR -> builder.uri(URI.create(config.url() + "/tarefas/" + id)).GET().build();
+            case ATUALIZAR -> builder.uri(URI.create(config.url() + "/tarefas/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(
+                            "{\"titulo\":\"Tarefa de carga atualizada\",\"descricao\":null,\"concluida\":true}"))
+                    .build();
+            case DELETAR -> builder.uri(URI.create(config.url() + "/tarefas/" + id)).DELETE().build();
+        };
+    }
+
+    /**
+     * Busca uma página de tarefas já existentes para que GET/PUT/DELETE tenham IDs válidos desde o início.
+     */
+    private void carregarIdsExistentes() {
+        try {
+            HttpResponse<String> resposta = client.send(montarRequisicao(Operacao.LISTAR, null),
+                    HttpResponse.BodyHandlers.ofString());
+            for (JsonNode tarefa : objectMapper.readTree(resposta.body()).path("tarefas")) {
+                ids.add(tarefa.get("id").asInt());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Não foi possível acessar a API em " + config.url(), e);
+        }
+    }
+
+    private void registrarIdCriado(String corpo) {
+        try {
+            ids.addLast(objectMapper.readTree(corpo).get("id").asInt());
+        } catch (Exception e) {
+            // Resposta sem ID: a tarefa simplesmente não entra no conjunto de IDs conhecidos.
+        }
+    }
+
+    private Operacao sortearOperacao() {
+        return roleta[ThreadLocalRandom.current().nextInt(roleta.length)];
+    }
+
+    private static Operacao[] montarRoleta(Map<Operacao, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operacao[] roleta = new Operacao[total];
+        int posicao = 0;
+        for (var entrada : mix.entrySet()) {
+            for (int i = 0; i < entrada.getValue(); i++) {
+                roleta[posicao++] = entrada.getKey();
+            }
+        }
+        return roleta;
+    }
+
+    private void imprimirRelatorio(long enviadas, long decorridoNanos) {
+        double segundos = decorridoNanos / 1e9;
+        System.out.printf("%nRequisições: %d em %.1fs (%.1f req/s)%n", enviadas, segundos, enviadas / segundos);
+        System.out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s%n",
+                "op", "total", "erros", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        Histogram todas = new Histogram(LATENCIA_MAXIMA_MICROS, 3);
+        long totalErros = 0;
+        for (Operacao operacao : Operacao.values()) {
+            Histogram histograma = latencias.get(operacao);
+            if (histograma.getTotalCount() == 0) {
+                continue;
+            }
+            todas.add(histograma);
+            totalErros += erros.get(operacao).sum();
+            imprimirLinha(operacao.nome(), histograma, erros.get(operacao).sum());
+        }
+        imprimirLinha("total", todas, totalErros);
+    }
+
+    private static void imprimirLinha(String nome, Histogram histograma, long erros) {
+        StringBuilder linha = new StringBuilder(String.format("%-8s %8d %7d", nome, histograma.getTotalCount(), erros));
+        for (double percentil : PERCENTIS) {
+            linha.append(String.format(" %9.2f", histograma.getValueAtPercentile(percentil) / 1000.0));
+        }
+        linha.append(String.format(" %9.2f", histograma.getMaxValue() / 1000.0));
+        System.out.println(linha);
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.notes.carga;
+
+/**
+ * Operações da API que o gerador de carga sabe disparar.
+ */
+public enum Operacao {
+    POST("post"),
+    LISTAR("list"),
+    BUSCAR("get"),
+    ATUALIZAR("put"),
+    DELETAR("delete");
+
+    private final String nome;
+
+    Operacao(String nome) {
+        this.nome = nome;
+    }
+
+    public String nome() {
+        return nome;
+    }
+
+    /**
+     * Retorna a operação correspondente ao nome usado no parâmetro --mix.
+     */
+    public static Operacao porNome(String nome) {
+        for (Operacao operacao : values()) {
+            if (operacao.nome.equalsIgnoreCase(nome)) {
+                return operacao;
+            }
+        }
+        throw new IllegalArgumentException("Operação desconhecida no --mix: " + nome);
+    }
+}
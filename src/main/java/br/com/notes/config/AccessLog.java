@@ -0,0 +1,133 @@
+package br.com.notes.config;
+
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Log de acesso assíncrono e amostrado.
+ * <p>
+ * A thread da requisição apenas monta um registro e o coloca em uma fila circular sem locks;
+ * uma thread em segundo plano esvazia a fila e escreve no log. Assim nenhuma E/S de console
+ * acontece no caminho da requisição. Se a fila encher, os registros excedentes são descartados
+ * (e contados) em vez de atrasar a resposta.
+ */
+public class AccessLog {
+    private static final Logger log = LoggerFactory.getLogger("access");
+    private static final String ATRIBUTO_INICIO = "accessLog.inicio";
+    private static final int TAMANHO_MAXIMO_CORPO = 1024;
+    private static final long ESPERA_FILA_VAZIA_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final double amostragem;
+    private final boolean logarCorpo;
+    private final RingBuffer<Registro> fila;
+    private final Consumer<String> saida;
+    private final LongAdder descartados = new LongAdder();
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+
+    /**
+     * Cria um log de acesso que escreve no logger "access".
+     *
+     * @param amostragem fração das requisições bem-sucedidas registradas (0.0 a 1.0); erros 5xx são sempre registrados
+     * @param logarCorpo se o corpo da requisição (truncado) deve ser incluído no registro
+     * @param capacidade quantidade máxima de registros aguardando escrita
+     */
+    public AccessLog(double amostragem, boolean logarCorpo, int capacidade) {
+        this(amostragem, logarCorpo, capacidade, log::info);
+    }
+
+    AccessLog(double amostragem, boolean logarCorpo, int capacidade, Consumer<String> saida) {
+        this.amostragem = amostragem;
+        this.logarCorpo = logarCorpo;
+        this.fila = new RingBuffer<>(capacidade);
+        this.saida = saida;
+        this.escritor = new Thread(this::escrever, "access-log-writer");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Deve ser registrado como before-handler.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    public void inicio(Context ctx) {
+        ctx.attribute(ATRIBUTO_INICIO, System.nanoTime());
+    }
+
+    /**
+     * Deve ser registrado como after-handler. Decide se a requisição entra na amostra e,
+     * se entrar, enfileira o registro sem bloquear.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    public void fim(Context ctx) {
+        int status = ctx.statusCode();
+        if (status < 500 && (amostragem <= 0 || ThreadLocalRandom.current().nextDouble() >= amostragem)) {
+            return;
+        }
+        Long inicio = ctx.attribute(ATRIBUTO_INICIO);
+        long duracaoMicros = inicio == null ? -1 : TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio);
+        var registro = new Registro(Instant.now(), ctx.method().name(), ctx.path(), status, duracaoMicros,
+                logarCorpo ? corpoTruncado(ctx) : null);
+        if (!fila.offer(registro)) {
+            descartados.increment();
+        }
+    }
+
+    /**
+     * Retorna quantos registros foram descartados por a fila estar cheia.
+     */
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Interrompe a thread escritora depois de escrever os registros pendentes.
+     */
+    public void fechar() {
+        ativo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void escrever() {
+        while (true) {
+            Registro registro = fila.poll();
+            if (registro != null) {
+                saida.accept(registro.formatar());
+            } else if (ativo) {
+                LockSupport.parkNanos(ESPERA_FILA_VAZIA_NANOS);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static String corpoTruncado(Context ctx) {
+        try {
+            String corpo = ctx.body();
+            return corpo.length() > TAMANHO_MAXIMO_CORPO ? corpo.substring(0, TAMANHO_MAXIMO_CORPO) + "..." : corpo;
+        } catch (RuntimeException e) {
+            return null; // Corpo já consumido como stream pelo handler.
+        }
+    }
+
+    private record Registro(Instant instante, String metodo, String caminho, int status, long duracaoMicros,
+                            String corpo) {
+        String formatar() {
+            String linha = instante + " " + metodo + " " + caminho + " -> " + status + " (" + duracaoMicros + " µs)";
+            return corpo == null || corpo.isEmpty() ? linha : linha + " corpo=" + corpo;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package br.com.notes.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressão das respostas HTTP negociada pelo cabeçalho Accept-Encoding.
+ * <p>
+ * Suporta brotli (quando a biblioteca nativa do brotli4j carrega nesta JVM), gzip e deflate, respeitando
+ * os pesos 'q' do cabeçalho (inclusive q=0 e '*'); em caso de empate, a preferência é nessa ordem.
+ * Respostas menores que o limiar não são comprimidas: o ganho em bytes não paga a CPU nem os cabeçalhos.
+ * <p>
+ * Como after-handler, comprime as respostas já montadas em memória (ctx.json, ctx.result) em JSON, texto
+ * ou Smile. As respostas escritas diretamente na saída, como a listagem com stream=true, continuam com a
+ * compressão do Javalin, exceto as que usam {@link #comprimindo(OutputStream, Codificacao)}, como a exportação.
+ */
+public class Compressao {
+    // Níveis usados por requisição: um bom meio-termo entre tamanho e CPU.
+    private static final int NIVEL_ZLIB_DINAMICO = 6;
+    private static final int QUALIDADE_BROTLI_DINAMICA = 4;
+    // Níveis usados quando o resultado é guardado em cache: a compressão acontece uma vez e é servida muitas.
+    private static final int NIVEL_ZLIB_MAXIMO = Deflater.BEST_COMPRESSION;
+    private static final int QUALIDADE_BROTLI_MAXIMA = 11;
+    // Buffer dos compressores de fluxo: blocos maiores que o padrão de 512 bytes reduzem as chamadas ao zlib.
+    private static final int TAMANHO_BUFFER_FLUXO = 16 * 1024;
+
+    /**
+     * As codificações suportadas, em ordem de preferência, com o nome usado no HTTP.
+     */
+    public enum Codificacao {
+        BROTLI("br"), GZIP("gzip"), DEFLATE("deflate");
+
+        private final String nome;
+
+        Codificacao(String nome) {
+            this.nome = nome;
+        }
+
+        public String nome() {
+            return nome;
+        }
+    }
+
+    private final int limiar;
+    private final List<Codificacao> suportadas;
+
+    /**
+     * Cria a compressão com o limiar informado, usando brotli se estiver disponível nesta JVM.
+     *
+     * @param limiar tamanho mínimo, em bytes, de uma resposta para que ela seja comprimida
+     */
+    public Compressao(int limiar) {
+        this(limiar, brotliDisponivel());
+    }
+
+    /**
+     * @param limiar tamanho mínimo, em bytes, de uma resposta para que ela seja comprimida
+     * @param brotli se brotli deve ser oferecido (só deve ser verdadeiro se {@link #brotliDisponivel()})
+     */
+    public Compressao(int limiar, boolean brotli) {
+        if (limiar < 0) {
+            throw new IllegalArgumentException("O limiar de compressão não pode ser negativo: " + limiar);
+        }
+        this.limiar = limiar;
+        this.suportadas = new ArrayList<>(List.of(Codificacao.values()));
+        if (!brotli) {
+            suportadas.remove(Codificacao.BROTLI);
+        }
+    }
+
+    /**
+     * Indica se a biblioteca nativa do brotli carrega nesta plataforma.
+     */
+    public static boolean brotliDisponivel() {
+        try {
+            return Brotli4jLoader.isAvailable();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Retorna o tamanho mínimo, em bytes, de uma resposta para que ela seja comprimida.
+     */
+    public int limiar() {
+        return limiar;
+    }
+
+    /**
+     * Retorna as codificações oferecidas, em ordem de preferência.
+     */
+    public List<Codificacao> suportadas() {
+        return List.copyOf(suportadas);
+    }
+
+    /**
+     * Escolhe a codificação da resposta a partir do cabeçalho Accept-Encoding.
+     * A de maior peso 'q' vence; codificações não citadas recebem o peso de '*', se houver.
+     *
+     * @param acceptEncoding o valor do cabeçalho (pode ser nulo)
+     * @return a codificação escolhida, ou nulo se a resposta deve seguir sem compressão
+     */
+    public Codificacao negociar(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double[] pesos = new double[Codificacao.values().length];
+        Arrays.fill(pesos, -1);
+        double curinga = -1;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String nome = partes[0].trim().toLowerCase(Locale.ROOT);
+            double peso = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=") || parametro.startsWith("Q=")) {
+                    peso = parsePeso(parametro.substring(2));
+                }
+            }
+            if (nome.equals("*")) {
+                curinga = peso;
+            } else if (nome.equals("x-gzip")) {
+                pesos[Codificacao.GZIP.ordinal()] = peso;
+            } else {
+                for (Codificacao codificacao : Codificacao.values()) {
+                    if (codificacao.nome.equals(nome)) {
+                        pesos[codificacao.ordinal()] = peso;
+                    }
+                }
+            }
+        }
+
+        Codificacao escolhida = null;
+        double maiorPeso = 0;
+        for (Codificacao codificacao : suportadas) {
+            double peso = pesos[codificacao.ordinal()] >= 0 ? pesos[codificacao.ordinal()] : curinga;
+            if (peso > maiorPeso) {
+                escolhida = codificacao;
+                maiorPeso = peso;
+            }
+        }
+        return escolhida;
+    }
+
+    /**
+     * Comprime os bytes na codificação informada.
+     *
+     * @param dados       os bytes da resposta
+     * @param codificacao a codificação negociada
+     * @param nivelMaximo se deve usar o nível máximo de compressão, indicado quando o resultado vai para um cache
+     * @return os bytes comprimidos
+     */
+    public byte[] comprimir(byte[] dados, Codificacao codificacao, boolean nivelMaximo) {
+        int nivelZlib = nivelMaximo ? NIVEL_ZLIB_MAXIMO : NIVEL_ZLIB_DINAMICO;
+        try {
+            return switch (codificacao) {
+                case BROTLI -> Encoder.compress(dados, new Encoder.Parameters()
+                        .setQuality(nivelMaximo ? QUALIDADE_BROTLI_MAXIMA : QUALIDADE_BROTLI_DINAMICA));
+                case GZIP -> {
+                    var saida = new ByteArrayOutputStream(dados.length / 4 + 64);
+                    try (var gzip = new GZIPOutputStream(saida) {{ def.setLevel(nivelZlib); }}) {
+                        gzip.write(dados);
+                    }
+                    yield saida.toByteArray();
+                }
+                case DEFLATE -> {
+                    var saida = new ByteArrayOutputStream(dados.length / 4 + 64);
+                    var deflater = new Deflater(nivelZlib);
+                    try (var deflate = new DeflaterOutputStream(saida, deflater)) {
+                        deflate.write(dados);
+                    } finally {
+                        deflater.end();
+                    }
+                    yield saida.toByteArray();
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao comprimir a resposta em " + codificacao.nome + ".", e);
+        }
+    }
+
+    /**
+     * Envolve a saída com um compressor na codificação informada, para respostas escritas aos poucos.
+     * Usa o nível dinâmico, já que cada resposta é comprimida uma única vez. Fechar o fluxo devolvido
+     * termina a compressão e fecha a saída.
+     *
+     * @param saida       a saída da resposta
+     * @param codificacao a codificação negociada
+     * @return o fluxo que comprime o que for escrito nele
+     */
+    public OutputStream comprimindo(OutputStream saida, Codificacao codificacao) {
+        try {
+            return switch (codificacao) {
+                case BROTLI -> new BrotliOutputStream(saida, new Encoder.Parameters().setQuality(QUALIDADE_BROTLI_DINAMICA));
+                case GZIP -> new GZIPOutputStream(saida, TAMANHO_BUFFER_FLUXO) {{ def.setLevel(NIVEL_ZLIB_DINAMICO); }};
+                case DEFLATE -> new DeflaterOutputStream(saida, new Deflater(NIVEL_ZLIB_DINAMICO), TAMANHO_BUFFER_FLUXO) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            def.end();
+                        }
+                    }
+                };
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao iniciar a compressão em " + codificacao.nome + ".", e);
+        }
+    }
+
+    /**
+     * Deve ser registrado como after-handler. Comprime o resultado da requisição se ele estiver em memória,
+     * tiver um tipo de conteúdo textual, alcançar o limiar e o cliente aceitar alguma codificação.
+     * Respostas que já definiram o Content-Encoding (como a listagem pré-comprimida) não são tocadas.
+     * O ETag forte de uma resposta comprimida recebe o sufixo da codificação.
+     *
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    public void aplicar(Context ctx) {
+        if (ctx.res().containsHeader(Header.CONTENT_ENCODING)
+                || !(ctx.resultInputStream() instanceof ByteArrayInputStream corpo)
+                || !compressivel(ctx.res().getContentType())) {
+            return;
+        }
+        if (corpo.available() < limiar) {
+            // Sem compressão abaixo do limiar, nem a do Javalin, que manteria o ETag da resposta original.
+            ctx.minSizeForCompression(Integer.MAX_VALUE);
+            return;
+        }
+        adicionarVary(ctx, Header.ACCEPT_ENCODING);
+        Codificacao codificacao = negociar(ctx.header(Header.ACCEPT_ENCODING));
+        if (codificacao == null) {
+            // A compressão do Javalin não conhece q=0: a decisão já foi tomada aqui.
+            ctx.minSizeForCompression(Integer.MAX_VALUE);
+            return;
+        }
+        codificarEtag(ctx, codificacao);
+        ctx.header(Header.CONTENT_ENCODING, codificacao.nome)
+                .result(comprimir(corpo.readAllBytes(), codificacao, false));
+    }
+
+    /**
+     * Acrescenta o nome da codificação ao ETag forte da resposta, se houver ("v" vira "v-gzip"): os bytes
+     * comprimidos são outra representação e não podem ter o mesmo ETag forte da original. ETags fracos
+     * ficam como estão, já que só prometem o mesmo conteúdo.
+     *
+     * @param ctx         O contexto da requisição do Javalin.
+     * @param codificacao A codificação aplicada ao corpo.
+     */
+    public static void codificarEtag(Context ctx, Codificacao codificacao) {
+        String etag = ctx.res().getHeader(Header.ETAG);
+        if (etag != null && etag.length() > 1 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            ctx.header(Header.ETAG, etag.substring(0, etag.length() - 1) + "-" + codificacao.nome + "\"");
+        }
+    }
+
+    /**
+     * Retira do ETag entre aspas o sufixo posto por {@link #codificarEtag(Context, Codificacao)}, para
+     * comparar o ETag recebido de um cliente com o da representação sem compressão.
+     *
+     * @param etag O ETag, sem o prefixo W/.
+     * @return O ETag sem o sufixo da codificação.
+     */
+    public static String etagSemCodificacao(String etag) {
+        for (Codificacao codificacao : Codificacao.values()) {
+            String sufixo = "-" + codificacao.nome + "\"";
+            if (etag.endsWith(sufixo)) {
+                return etag.substring(0, etag.length() - sufixo.length()) + "\"";
+            }
+        }
+        return etag;
+    }
+
+    /**
+     * Acrescenta o cabeçalho ao Vary da resposta, sem apagar os que já estão lá (a listagem varia pelo
+     * Accept-Encoding e pelo Accept) e sem repeti-lo.
+     *
+     * @param ctx       O contexto da requisição do Javalin.
+     * @param cabecalho O cabeçalho da requisição que influencia a resposta.
+     */
+    public static void adicionarVary(Context ctx, String cabecalho) {
+        String vary = ctx.res().getHeader(Header.VARY);
+        if (vary == null) {
+            ctx.header(Header.VARY, cabecalho);
+        } else if (!vary.toLowerCase(Locale.ROOT).contains(cabecalho.toLowerCase(Locale.ROOT))) {
+            ctx.header(Header.VARY, vary + ", " + cabecalho);
+        }
+    }
+
+    private static boolean compressivel(String contentType) {
+        return contentType != null && (contentType.startsWith("text/") || contentType.contains("json")
+                || contentType.startsWith(ConteudoSmile.CONTENT_TYPE));
+    }
+
+    static double parsePeso(String valor) {
+        try {
+            double peso = Double.parseDouble(valor.trim());
+            return peso >= 0 && peso <= 1 ? peso : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.notes.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.javalin.json.JavalinJackson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Representação binária das tarefas em Smile, o formato binário do Jackson, negociada pelos cabeçalhos
+ * Accept (respostas) e Content-Type (requisições).
+ * <p>
+ * O Smile tem o mesmo modelo de dados do JSON, então os mesmos DTOs são lidos e escritos sem nenhuma anotação
+ * a mais. Os nomes dos campos repetidos em uma lista são escritos uma vez e depois referenciados, e os números
+ * vão em binário: o corpo fica menor e o parser não precisa reconhecer texto.
+ * <p>
+ * Os mappers são cópias dos usados em JSON, com a fábrica trocada: os DTOs têm a mesma forma nos dois formatos,
+ * inclusive a data de criação em segundos com nanossegundos.
+ */
+public class ConteudoSmile {
+    public static final String CONTENT_TYPE = "application/x-jackson-smile";
+    private static final String JSON = "application/json";
+
+    private final ObjectMapper leitura;
+    private final ObjectMapper escrita;
+
+    /**
+     * @param leituraJson o mapper que lê os corpos JSON das requisições, copiado com a mesma configuração
+     */
+    public ConteudoSmile(ObjectMapper leituraJson) {
+        this.leitura = leituraJson.copyWith(new SmileFactory());
+        // A mesma configuração do JavalinJackson que escreve as respostas JSON.
+        this.escrita = JavalinJackson.defaultMapper().copyWith(new SmileFactory());
+    }
+
+    /**
+     * Retorna o mapper que lê os corpos das requisições em Smile.
+     */
+    public ObjectMapper leitura() {
+        return leitura;
+    }
+
+    /**
+     * Indica se o corpo da requisição foi enviado em Smile, pelo Content-Type.
+     *
+     * @param contentType o valor do cabeçalho (pode ser nulo)
+     */
+    public boolean enviado(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith(CONTENT_TYPE);
+    }
+
+    /**
+     * Indica se a resposta deve ir em Smile, a partir do cabeçalho Accept. O Smile só é escolhido quando
+     * o cliente o cita explicitamente, com peso 'q' maior que zero e não menor que o do JSON; um Accept
+     * ausente ou só com curingas continua recebendo JSON.
+     *
+     * @param accept o valor do cabeçalho (pode ser nulo)
+     */
+    public boolean aceito(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        double smile = -1;
+        double json = -1;
+        double aplicacao = -1;
+        double curinga = -1;
+        for (String item : accept.split(",")) {
+            String[] partes = item.split(";");
+            String tipo = partes[0].trim().toLowerCase(Locale.ROOT);
+            double peso = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=") || parametro.startsWith("Q=")) {
+                    peso = Compressao.parsePeso(parametro.substring(2));
+                }
+            }
+            switch (tipo) {
+                case CONTENT_TYPE -> smile = peso;
+                case JSON -> json = peso;
+                case "application/*" -> aplicacao = peso;
+                case "*/*" -> curinga = peso;
+                default -> {
+                }
+            }
+        }
+        if (json < 0) {
+            json = aplicacao >= 0 ? aplicacao : curinga;
+        }
+        return smile > 0 && smile >= json;
+    }
+
+    /**
+     * Serializa o valor em Smile.
+     */
+    public byte[] escrever(Object valor) {
+        try {
+            return escrita.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao serializar a resposta em Smile.", e);
+        }
+    }
+
+    /**
+     * Escreve os valores na saída como um array Smile, à medida que o Stream os entrega,
+     * como o ctx.writeJsonStream faz em JSON. Fecha a saída ao terminar.
+     *
+     * @param saida   a saída da resposta
+     * @param valores os elementos do array
+     */
+    public void escreverStream(OutputStream saida, Stream<?> valores) {
+        try (SequenceWriter array = escrita.writer().writeValuesAsArray(saida)) {
+            for (var iterador = valores.iterator(); iterador.hasNext(); ) {
+                array.write(iterador.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao escrever a resposta em Smile.", e);
+        }
+    }
+}
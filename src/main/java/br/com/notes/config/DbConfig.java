@@ -2,6 +2,8 @@ package br.com.notes.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.jdbi.v3.core.Jdbi;
 
 import javax.sql.DataSource;
@@ -11,6 +13,10 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 public class DbConfig {
+    // Tamanho fixo do pool do Hikari e tempo máximo de espera por uma conexão.
+    public static final int TAMANHO_POOL = 10;
+    private static final long TIMEOUT_CONEXAO_MS = 30_000;
+
     /**
      * Cria uma instância do Jdbi configurada para usar um banco de dados H2 em memória.
      * Executa o script SQL fornecido para inicializar o banco de dados.
@@ -18,25 +24,65 @@ public class DbConfig {
      * @return uma instância do Jdbi configurada
      */
     public static Jdbi createJdbi() {
-        var ds = createDaSouce();
+        return createJdbi(false);
+    }
+
+    /**
+     * Cria uma instância do Jdbi configurada para usar um banco de dados H2 em memória.
+     * Com threads virtuais, o acesso ao pool passa por um semáforo do tamanho do pool,
+     * para que milhares de requisições simultâneas aguardem em fila em vez de disputarem as conexões.
+     *
+     * @param threadsVirtuais se a aplicação está atendendo requisições em threads virtuais
+     * @return uma instância do Jdbi configurada
+     */
+    public static Jdbi createJdbi(boolean threadsVirtuais) {
+        return createJdbi(threadsVirtuais, null);
+    }
+
+    /**
+     * Cria uma instância do Jdbi como em {@link #createJdbi(boolean)}, publicando as estatísticas
+     * do pool (conexões ativas, ociosas e threads aguardando) no registro de métricas informado.
+     *
+     * @param threadsVirtuais se a aplicação está atendendo requisições em threads virtuais
+     * @param metricas        o registro de métricas (pode ser nulo)
+     * @return uma instância do Jdbi configurada
+     */
+    public static Jdbi createJdbi(boolean threadsVirtuais, MeterRegistry metricas) {
+        var ds = createDaSouce(metricas);
         try (Connection conn = ds.getConnection()) {
             runScript(conn, "script.sql");
         } catch (SQLException | IOException e) {
             throw new RuntimeException(e);
         }
+        if (threadsVirtuais) {
+            var connectionFactory = new SemaphoreConnectionFactory(ds, TAMANHO_POOL, TIMEOUT_CONEXAO_MS);
+            if (metricas != null) {
+                Gauge.builder("db_semaphore_waiting", connectionFactory, SemaphoreConnectionFactory::threadsAguardando)
+                        .description("Threads aguardando uma conexão no semáforo do modo de threads virtuais")
+                        .register(metricas);
+            }
+            return Jdbi.create(connectionFactory);
+        }
         return Jdbi.create(ds);
     }
 
     /**
      * Cria uma instância do DataSource configurada para usar um banco de dados H2 em memória.
      *
+     * @param metricas o registro onde o Hikari publica as métricas do pool (pode ser nulo)
      * @return uma instância do DataSource configurada
      */
-    private static DataSource createDaSouce() {
+    private static DataSource createDaSouce(MeterRegistry metricas) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
         config.setUsername("sa");
         config.setPassword("");
+        config.setMaximumPoolSize(TAMANHO_POOL);
+        config.setMinimumIdle(TAMANHO_POOL);
+        config.setConnectionTimeout(TIMEOUT_CONEXAO_MS);
+        if (metricas != null) {
+            config.setMetricRegistry(metricas);
+        }
         return new HikariDataSource(config);
     }
 
@@ -0,0 +1,69 @@
+package br.com.notes.config;
+
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Middleware que mede cada requisição HTTP.
+ * <p>
+ * Registra, por método, rota (o template, ex: /tarefas/{id}) e classe de status (2xx, 4xx...),
+ * a quantidade e o histograma de latência das requisições, além de um gauge com as
+ * requisições em andamento.
+ */
+public class HttpMetrics {
+    private static final String ATRIBUTO_INICIO = "metrics.inicio";
+    private static final String ROTA_DESCONHECIDA = "desconhecida";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    public HttpMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        registry.gauge("http_server_requests_in_flight", emAndamento);
+    }
+
+    /**
+     * Deve ser registrado como o primeiro before-handler da aplicação.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    public void inicio(Context ctx) {
+        emAndamento.incrementAndGet();
+        ctx.attribute(ATRIBUTO_INICIO, System.nanoTime());
+    }
+
+    /**
+     * Deve ser registrado como after-handler; roda inclusive quando a requisição termina em erro.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    public void fim(Context ctx) {
+        Long inicio = ctx.attribute(ATRIBUTO_INICIO);
+        if (inicio == null) {
+            return;
+        }
+        emAndamento.decrementAndGet();
+        Timer.builder("http_server_requests")
+                .tag("method", ctx.method().name())
+                .tag("route", rota(ctx))
+                .tag("status", (ctx.statusCode() / 100) + "xx")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Retorna o template da rota atendida, para que /tarefas/1 e /tarefas/2 sejam agregadas juntas.
+     * Requisições que não casaram com nenhuma rota são agrupadas para não explodir a cardinalidade.
+     */
+    private static String rota(Context ctx) {
+        try {
+            String rota = ctx.endpointHandlerPath();
+            return rota == null || rota.isEmpty() ? ROTA_DESCONHECIDA : rota;
+        } catch (RuntimeException e) {
+            return ROTA_DESCONHECIDA;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.notes.config;
+
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+public class MetricsConfig {
+    /**
+     * Cria o registro de métricas da aplicação, exportável no formato texto do Prometheus.
+     * Já inclui as métricas da JVM (memória, GC, threads e CPU), úteis para separar
+     * a latência causada pela JVM da causada pelo banco ou pela serialização.
+     *
+     * @return um registro de métricas configurado
+     */
+    public static PrometheusMeterRegistry createRegistry() {
+        var registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+}
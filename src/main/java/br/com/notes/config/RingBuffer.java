@@ -0,0 +1,74 @@
+package br.com.notes.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fila circular limitada e sem locks para vários produtores e um único consumidor.
+ * <p>
+ * Cada posição guarda um número de sequência que indica se ela está livre para o produtor
+ * ou pronta para o consumidor (algoritmo de D. Vyukov). Quando a fila está cheia,
+ * {@link #offer(Object)} retorna false imediatamente em vez de bloquear quem produz.
+ *
+ * @param <T> o tipo dos elementos
+ */
+class RingBuffer<T> {
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray sequencias;
+    private final AtomicLong cauda = new AtomicLong();
+    private long cabeca; // Só é acessada pela thread consumidora.
+
+    /**
+     * @param capacidade capacidade da fila; é arredondada para a próxima potência de 2
+     */
+    RingBuffer(int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.mascara = tamanho - 1;
+        this.elementos = new AtomicReferenceArray<>(tamanho);
+        this.sequencias = new AtomicLongArray(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * Insere um elemento sem bloquear. Pode ser chamado por várias threads ao mesmo tempo.
+     *
+     * @return false se a fila estiver cheia
+     */
+    boolean offer(T elemento) {
+        while (true) {
+            long posicao = cauda.get();
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    sequencias.set(indice, posicao + 1);
+                    return true;
+                }
+            } else if (diferenca < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Remove o próximo elemento. Deve ser chamado apenas pela thread consumidora.
+     *
+     * @return o elemento, ou null se a fila estiver vazia
+     */
+    T poll() {
+        int indice = (int) (cabeca & mascara);
+        if (sequencias.get(indice) != cabeca + 1) {
+            return null;
+        }
+        T elemento = elementos.get(indice);
+        elementos.lazySet(indice, null);
+        sequencias.set(indice, cabeca + mascara + 1);
+        cabeca++;
+        return elemento;
+    }
+}
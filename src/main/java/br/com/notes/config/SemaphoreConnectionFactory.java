@@ -0,0 +1,70 @@
+package br.com.notes.config;
+
+import org.jdbi.v3.core.ConnectionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fábrica de conexões do Jdbi que limita, com um semáforo justo (FIFO), quantas threads
+ * podem usar o banco ao mesmo tempo.
+ * <p>
+ * Com threads virtuais, milhares de requisições podem chegar ao banco simultaneamente. Sem este
+ * limite, todas disputariam o pool do Hikari de uma vez. Com ele, as threads excedentes ficam
+ * estacionadas no semáforo (sem prender a thread carregadora) e são atendidas por ordem de chegada.
+ */
+public class SemaphoreConnectionFactory implements ConnectionFactory {
+    private final DataSource dataSource;
+    private final Semaphore permissoes;
+    private final long timeoutMillis;
+
+    /**
+     * @param dataSource    o DataSource (pool) de onde as conexões são obtidas
+     * @param maxConexoes   quantidade máxima de conexões em uso ao mesmo tempo (normalmente o tamanho do pool)
+     * @param timeoutMillis tempo máximo de espera por uma permissão, em milissegundos
+     */
+    public SemaphoreConnectionFactory(DataSource dataSource, int maxConexoes, long timeoutMillis) {
+        this.dataSource = dataSource;
+        this.permissoes = new Semaphore(maxConexoes, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection openConnection() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Tempo esgotado aguardando uma conexão disponível (" + timeoutMillis + " ms).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando uma conexão disponível.", e);
+        }
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        try {
+            conn.close();
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    /**
+     * Retorna quantas threads estão aguardando uma conexão no momento (valor aproximado).
+     */
+    public int threadsAguardando() {
+        return permissoes.getQueueLength();
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.notes.controller;
+
+import br.com.notes.repository.CachedTarefaRepository;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.util.Map;
+
+/**
+ * Controller que expõe os contadores do cache de tarefas.
+ * Útil para acompanhar a taxa de acerto do cache em produção.
+ */
+public class CacheController {
+    public static final String CACHE_STATS_PATH = "/cache/stats";
+
+    private final CachedTarefaRepository tarefaRepository;
+
+    public CacheController(CachedTarefaRepository tarefaRepository) {
+        this.tarefaRepository = tarefaRepository;
+    }
+
+    /**
+     * Registra as rotas do cache na instância do Javalin.
+     * @param app A instância do Javalin.
+     */
+    public void registrarRotas(Javalin app) {
+        app.get(CACHE_STATS_PATH, this::estatisticas);
+    }
+
+    /**
+     * Handler para a rota GET /cache/stats.
+     * Retorna um objeto JSON com os acertos, falhas, remoções e o tamanho atual do cache.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void estatisticas(Context ctx) {
+        var stats = tarefaRepository.stats();
+        ctx.json(Map.of(
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", stats.hitRate(),
+                "size", tarefaRepository.tamanho()
+        ));
+    }
+}
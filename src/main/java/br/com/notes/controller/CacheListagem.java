@@ -0,0 +1,95 @@
+package br.com.notes.controller;
+
+import br.com.notes.config.Compressao;
+import br.com.notes.config.ConteudoSmile;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Cache da resposta da listagem completa de tarefas (GET /tarefas sem parâmetros).
+ * <p>
+ * Guarda os bytes já serializados em JSON ou em Smile e, sob demanda, já comprimidos em cada codificação
+ * pedida, associados à versão da listagem (o contador de modificações do TarefaService). Cada formato tem
+ * a sua entrada, montada na primeira leitura nele. Enquanto nenhuma tarefa for criada, alterada ou removida,
+ * as leituras repetidas não passam pelo Jackson nem pelo compressor. Uma escrita muda a versão e a próxima
+ * leitura monta a entrada de novo.
+ * <p>
+ * A versão é lida antes da consulta; se uma escrita acontecer entre as duas, a entrada guarda dados mais
+ * novos que a sua versão, nunca mais antigos, e é descartada na leitura seguinte.
+ */
+class CacheListagem {
+    private static final int JSON = 0;
+    private static final int SMILE = 1;
+
+    private final Compressao compressao;
+    private final ConteudoSmile smile;
+    // A entrada atual de cada formato, nos índices JSON e SMILE.
+    private final AtomicReferenceArray<Entrada> atuais = new AtomicReferenceArray<>(2);
+
+    CacheListagem(Compressao compressao, ConteudoSmile smile) {
+        this.compressao = compressao;
+        this.smile = smile;
+    }
+
+    /**
+     * Responde com a listagem da versão informada, usando a entrada em cache se ela for dessa versão.
+     *
+     * @param ctx      O contexto da requisição do Javalin.
+     * @param versao   A versão atual da listagem, o ETag da representação sem compressão.
+     * @param emSmile  Se a resposta deve ir em Smile, e não em JSON.
+     * @param listagem Consulta a listagem, chamada apenas quando a entrada precisa ser montada.
+     */
+    void responder(Context ctx, String versao, boolean emSmile, Supplier<?> listagem) {
+        int formato = emSmile ? SMILE : JSON;
+        Entrada entrada = atuais.get(formato);
+        if (entrada == null || !entrada.versao.equals(versao)) {
+            Object tarefas = listagem.get();
+            byte[] corpo = emSmile
+                    ? smile.escrever(tarefas)
+                    : ctx.jsonMapper().toJsonString(tarefas, tarefas.getClass()).getBytes(StandardCharsets.UTF_8);
+            entrada = new Entrada(versao, corpo);
+            atuais.set(formato, entrada);
+        }
+
+        ctx.contentType(emSmile ? ConteudoSmile.CONTENT_TYPE : ContentType.APPLICATION_JSON.getMimeType());
+        if (entrada.corpo.length >= compressao.limiar()) {
+            Compressao.adicionarVary(ctx, Header.ACCEPT_ENCODING);
+            Compressao.Codificacao codificacao = compressao.negociar(ctx.header(Header.ACCEPT_ENCODING));
+            if (codificacao != null) {
+                Compressao.codificarEtag(ctx, codificacao);
+                ctx.header(Header.CONTENT_ENCODING, codificacao.nome()).result(entrada.comprimida(codificacao, compressao));
+                return;
+            }
+        }
+        ctx.result(entrada.corpo);
+    }
+
+    private static final class Entrada {
+        private final String versao;
+        private final byte[] corpo;
+        private final AtomicReferenceArray<byte[]> comprimidas = new AtomicReferenceArray<>(Compressao.Codificacao.values().length);
+
+        private Entrada(String versao, byte[] corpo) {
+            this.versao = versao;
+            this.corpo = corpo;
+        }
+
+        /**
+         * Retorna o corpo comprimido na codificação informada, comprimindo-o na primeira vez com o nível máximo.
+         * Duas requisições simultâneas podem comprimir o mesmo conteúdo; o resultado é idêntico e uma delas vence.
+         */
+        private byte[] comprimida(Compressao.Codificacao codificacao, Compressao compressao) {
+            byte[] bytes = comprimidas.get(codificacao.ordinal());
+            if (bytes == null) {
+                bytes = compressao.comprimir(corpo, codificacao, true);
+                comprimidas.set(codificacao.ordinal(), bytes);
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package br.com.notes.controller;
+
+import br.com.notes.repository.VisitanteTarefas;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.datatype.jsr310.DecimalUtils;
+import io.javalin.http.BadRequestResponse;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Escreve a exportação de todas as tarefas (GET /tarefas/export) diretamente na saída da resposta.
+ * <p>
+ * Como visitante do repositório, recebe as colunas de cada tarefa e as grava no formato pedido sem montar
+ * objetos intermediários: em NDJSON, pelo gerador de streaming do Jackson; em CSV, por um Writer com buffer.
+ * Quando o buffer enche, a escrita bloqueia até o cliente consumir os dados, o que segura a leitura do
+ * banco: a memória usada é a dos buffers, independente da quantidade de tarefas.
+ */
+class ExportacaoTarefas implements VisitanteTarefas, Closeable {
+    private static final int TAMANHO_BUFFER = 16 * 1024;
+
+    /**
+     * Formatos aceitos no parâmetro 'format', com o tipo de conteúdo e a extensão do arquivo.
+     */
+    enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv; charset=utf-8", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        String contentType() {
+            return contentType;
+        }
+
+        String extensao() {
+            return extensao;
+        }
+
+        /**
+         * Converte o parâmetro 'format'; sem o parâmetro, o formato é NDJSON.
+         * Lança BadRequestResponse se o formato não for suportado.
+         */
+        static Formato de(String valor) {
+            if (valor == null || valor.equalsIgnoreCase("ndjson")) {
+                return NDJSON;
+            }
+            if (valor.equalsIgnoreCase("csv")) {
+                return CSV;
+            }
+            throw new BadRequestResponse("O parâmetro 'format' deve ser 'ndjson' ou 'csv'.");
+        }
+    }
+
+    private final Formato formato;
+    private final JsonGenerator json;
+    private final Writer csv;
+
+    /**
+     * @param saida   a saída da resposta, já com a compressão negociada; é fechada por {@link #close()}
+     * @param formato o formato da exportação
+     * @param fabrica a fábrica de geradores do Jackson, usada no formato NDJSON
+     */
+    ExportacaoTarefas(OutputStream saida, Formato formato, JsonFactory fabrica) throws IOException {
+        this.formato = formato;
+        if (formato == Formato.NDJSON) {
+            this.json = fabrica.createGenerator(saida);
+            // Um objeto por linha: sem o espaço que o Jackson põe entre valores na raiz.
+            this.json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.csv = null;
+        } else {
+            this.json = null;
+            this.csv = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            csv.write("id,titulo,descricao,concluida,dataCriacao,versao\r\n");
+        }
+    }
+
+    @Override
+    public void visitar(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao, int versao) {
+        try {
+            if (formato == Formato.NDJSON) {
+                escreverJson(id, titulo, descricao, concluida, dataCriacao, versao);
+            } else {
+                escreverCsv(id, titulo, descricao, concluida, dataCriacao, versao);
+            }
+        } catch (IOException e) {
+            // Em geral, o cliente fechou a conexão: a exceção interrompe a leitura do banco.
+            throw new UncheckedIOException("Falha ao escrever a exportação de tarefas.", e);
+        }
+    }
+
+    /**
+     * Esvazia os buffers e fecha a saída, terminando a compressão, se houver.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        } else {
+            csv.close();
+        }
+    }
+
+    /**
+     * Escreve a tarefa com os mesmos campos e a mesma representação de RespostaTarefaDTO nas demais rotas,
+     * inclusive a data de criação em segundos com nanossegundos.
+     */
+    private void escreverJson(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao,
+                              int versao) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("titulo", titulo);
+        json.writeStringField("descricao", descricao);
+        json.writeBooleanField("concluida", concluida);
+        json.writeFieldName("dataCriacao");
+        json.writeNumber(DecimalUtils.toDecimal(dataCriacao.getEpochSecond(), dataCriacao.getNano()));
+        json.writeNumberField("versao", versao);
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * Escreve a tarefa como uma linha CSV (RFC 4180), com a data de criação em ISO-8601 (UTC).
+     */
+    private void escreverCsv(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao,
+                             int versao) throws IOException {
+        csv.write(Integer.toString(id));
+        csv.write(',');
+        escreverCampoCsv(titulo);
+        csv.write(',');
+        if (descricao != null) {
+            escreverCampoCsv(descricao);
+        }
+        csv.write(',');
+        csv.write(concluida ? "true" : "false");
+        csv.write(',');
+        csv.write(dataCriacao.toString());
+        csv.write(',');
+        csv.write(Integer.toString(versao));
+        csv.write("\r\n");
+    }
+
+    /**
+     * Escreve o texto entre aspas só quando ele contém vírgula, aspas ou quebra de linha, dobrando as aspas internas.
+     */
+    private void escreverCampoCsv(String valor) throws IOException {
+        boolean precisaAspas = false;
+        for (int i = 0; i < valor.length() && !precisaAspas; i++) {
+            char c = valor.charAt(i);
+            precisaAspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!precisaAspas) {
+            csv.write(valor);
+            return;
+        }
+        csv.write('"');
+        csv.write(valor.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
@@ -0,0 +1,265 @@
+package br.com.notes.controller;
+
+import br.com.notes.dto.CriarTarefaDTO;
+import br.com.notes.dto.ResultadoImportacaoDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lê a importação de tarefas (POST /tarefas/import), um objeto JSON por linha (NDJSON), direto do corpo da requisição.
+ * <p>
+ * O corpo é lido linha a linha, à medida que chega, e cada linha passa pelo parser de streaming do Jackson, sem
+ * montar árvore nem usar o databind. As linhas válidas se acumulam em um lote, gravado de uma vez quando enche;
+ * durante a gravação o corpo não é lido, e o cliente é segurado pelo próprio TCP. A memória usada é a de um lote,
+ * independente do tamanho do corpo.
+ * <p>
+ * Uma linha inválida é rejeitada sozinha, com o seu número e o motivo no relatório, e a importação continua.
+ * Se a gravação de um lote falhar, todas as linhas dele são rejeitadas. Linhas em branco são ignoradas.
+ * Uma linha maior que {@link #TAMANHO_MAXIMO_LINHA} é rejeitada sem ser guardada: o restante dela é descartado
+ * até a próxima quebra de linha, e um corpo sem quebras não ocupa mais memória que isso.
+ */
+class ImportacaoTarefas {
+    static final int TAMANHO_PADRAO_LOTE = 500;
+    // Relatórios de corpos inteiros inválidos ficariam do tamanho do corpo: depois destes, só a contagem.
+    static final int MAXIMO_ERROS_RELATADOS = 1000;
+    // Tamanho das colunas titulo e descricao no script.sql: um texto maior derrubaria o lote inteiro na gravação.
+    static final int TAMANHO_MAXIMO_TEXTO = 255;
+    // Cada caractere dos dois textos ocupa até 6 na linha, se escapado em hexadecimal; o restante cobre
+    // as chaves, os nomes dos campos e campos desconhecidos pequenos.
+    static final int TAMANHO_MAXIMO_LINHA = 2 * 6 * TAMANHO_MAXIMO_TEXTO + 1024;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoTarefas.class);
+
+    private final JsonFactory fabrica;
+    private final int tamanhoLote;
+    private final Consumer<List<CriarTarefaDTO>> gravarLote;
+    private final List<CriarTarefaDTO> lote;
+    private final long[] linhasLote;
+    private final List<ResultadoImportacaoDTO.ErroLinha> erros = new ArrayList<>();
+    private long importadas;
+    private long rejeitadas;
+
+    /**
+     * @param fabrica     a fábrica de parsers do Jackson
+     * @param tamanhoLote quantidade de tarefas gravadas de cada vez
+     * @param gravarLote  grava um lote de tarefas em uma única transação
+     */
+    ImportacaoTarefas(JsonFactory fabrica, int tamanhoLote, Consumer<List<CriarTarefaDTO>> gravarLote) {
+        this.fabrica = fabrica;
+        this.tamanhoLote = tamanhoLote;
+        this.gravarLote = gravarLote;
+        this.lote = new ArrayList<>(tamanhoLote);
+        this.linhasLote = new long[tamanhoLote];
+    }
+
+    /**
+     * Lê o corpo até o fim, gravando as tarefas válidas em lotes, e retorna o relatório da importação.
+     *
+     * @param corpo o corpo da requisição, em UTF-8
+     * @return as quantidades de tarefas importadas e de linhas rejeitadas, com o motivo de cada rejeição
+     * @throws IOException se a leitura do corpo falhar
+     */
+    ResultadoImportacaoDTO importar(InputStream corpo) throws IOException {
+        var leitor = new LeitorLinhas(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        long numeroLinha = 0;
+        String linha;
+        while ((linha = leitor.proxima()) != null) {
+            numeroLinha++;
+            if (leitor.excedida()) {
+                rejeitar(numeroLinha, "A linha deve ter no máximo " + TAMANHO_MAXIMO_LINHA + " caracteres.");
+                continue;
+            }
+            if (linha.isBlank()) {
+                continue;
+            }
+            try {
+                linhasLote[lote.size()] = numeroLinha;
+                lote.add(lerLinha(linha));
+            } catch (LinhaInvalidaException e) {
+                rejeitar(numeroLinha, e.getMessage());
+                continue;
+            }
+            if (lote.size() == tamanhoLote) {
+                gravar();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravar();
+        }
+        return new ResultadoImportacaoDTO(importadas, rejeitadas, erros);
+    }
+
+    /**
+     * Converte uma linha em tarefa, validando o título e a descrição. Campos desconhecidos são ignorados,
+     * como no databind das demais rotas.
+     */
+    private CriarTarefaDTO lerLinha(String linha) throws LinhaInvalidaException {
+        String titulo = null;
+        String descricao = null;
+        try (JsonParser parser = fabrica.createParser(linha)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new LinhaInvalidaException("A linha deve conter um objeto JSON.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if (campo.equals("titulo")) {
+                    titulo = lerTexto(parser, valor, campo);
+                } else if (campo.equals("descricao")) {
+                    descricao = lerTexto(parser, valor, campo);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new LinhaInvalidaException("A linha deve conter um único objeto JSON.");
+            }
+        } catch (JsonProcessingException e) {
+            throw new LinhaInvalidaException("JSON inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            // O parser lê de uma String: não há E/S que possa falhar aqui.
+            throw new IllegalStateException(e);
+        }
+
+        if (titulo == null || titulo.isBlank()) {
+            throw new LinhaInvalidaException("O campo 'titulo' é obrigatório.");
+        }
+        return new CriarTarefaDTO(titulo, descricao);
+    }
+
+    private static String lerTexto(JsonParser parser, JsonToken valor, String campo) throws IOException, LinhaInvalidaException {
+        if (valor == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (valor != JsonToken.VALUE_STRING) {
+            throw new LinhaInvalidaException("O campo '" + campo + "' deve ser um texto.");
+        }
+        String texto = parser.getText();
+        if (texto.length() > TAMANHO_MAXIMO_TEXTO) {
+            throw new LinhaInvalidaException("O campo '" + campo + "' deve ter no máximo " + TAMANHO_MAXIMO_TEXTO + " caracteres.");
+        }
+        return texto;
+    }
+
+    /**
+     * Grava o lote acumulado. As linhas já foram validadas; uma falha aqui vem do banco e rejeita o lote inteiro,
+     * que foi gravado em uma única transação.
+     */
+    private void gravar() {
+        try {
+            gravarLote.accept(List.copyOf(lote));
+            importadas += lote.size();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar um lote de {} tarefas importadas (linhas {} a {}).",
+                    lote.size(), linhasLote[0], linhasLote[lote.size() - 1], e);
+            for (int i = 0; i < lote.size(); i++) {
+                rejeitar(linhasLote[i], "Falha ao gravar o lote desta linha.");
+            }
+        }
+        lote.clear();
+    }
+
+    private void rejeitar(long linha, String mensagem) {
+        rejeitadas++;
+        if (erros.size() < MAXIMO_ERROS_RELATADOS) {
+            erros.add(new ResultadoImportacaoDTO.ErroLinha(linha, mensagem));
+        }
+    }
+
+    /**
+     * Motivo da rejeição de uma linha. Sem stack trace: é um resultado esperado, não uma falha.
+     */
+    private static final class LinhaInvalidaException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private LinhaInvalidaException(String mensagem) {
+            super(mensagem, null, false, false);
+        }
+    }
+
+    /**
+     * Lê o corpo linha a linha, como o BufferedReader.readLine, mas sem guardar mais que
+     * {@link #TAMANHO_MAXIMO_LINHA} caracteres de uma linha. As linhas terminam em '\n' ou "\r\n".
+     */
+    private static final class LeitorLinhas {
+        private final Reader origem;
+        private final char[] buffer = new char[TAMANHO_BUFFER];
+        private final StringBuilder linha = new StringBuilder();
+        private int posicao;
+        private int limite;
+        private boolean excedida;
+
+        private LeitorLinhas(Reader origem) {
+            this.origem = origem;
+        }
+
+        /**
+         * Retorna a próxima linha, sem a quebra, ou nulo no fim do corpo. Se a linha passar do máximo,
+         * ela é consumida até a quebra, {@link #excedida()} passa a ser verdadeiro e o texto devolvido é vazio.
+         */
+        private String proxima() throws IOException {
+            linha.setLength(0);
+            excedida = false;
+            boolean leu = false;
+            while (true) {
+                if (posicao == limite) {
+                    int lidos = origem.read(buffer, 0, buffer.length);
+                    if (lidos < 0) {
+                        if (!leu) {
+                            return null;
+                        }
+                        break;
+                    }
+                    posicao = 0;
+                    limite = lidos;
+                }
+                leu = true;
+                int inicio = posicao;
+                while (posicao < limite && buffer[posicao] != '\n') {
+                    posicao++;
+                }
+                if (!excedida) {
+                    if (linha.length() + (posicao - inicio) > TAMANHO_MAXIMO_LINHA + 1) {
+                        excedida = true;
+                        linha.setLength(0);
+                    } else {
+                        linha.append(buffer, inicio, posicao - inicio);
+                    }
+                }
+                if (posicao < limite) {
+                    posicao++;
+                    break;
+                }
+            }
+            int tamanho = linha.length();
+            if (tamanho > 0 && linha.charAt(tamanho - 1) == '\r') {
+                linha.setLength(--tamanho);
+            }
+            if (tamanho > TAMANHO_MAXIMO_LINHA) {
+                excedida = true;
+                return "";
+            }
+            return excedida ? "" : linha.toString();
+        }
+
+        /**
+         * Indica se a última linha lida passou do tamanho máximo.
+         */
+        private boolean excedida() {
+            return excedida;
+        }
+    }
+}
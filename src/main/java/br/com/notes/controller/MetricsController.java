@@ -0,0 +1,36 @@
+package br.com.notes.controller;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Controller que expõe as métricas da aplicação no formato texto do Prometheus.
+ */
+public class MetricsController {
+    public static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry registry;
+
+    public MetricsController(PrometheusMeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registra a rota de métricas na instância do Javalin.
+     * @param app A instância do Javalin.
+     */
+    public void registrarRotas(Javalin app) {
+        app.get(METRICS_PATH, this::metricas);
+    }
+
+    /**
+     * Handler para a rota GET /metrics.
+     * Retorna todas as métricas registradas (HTTP, pool de conexões, cache e JVM).
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void metricas(Context ctx) {
+        ctx.contentType(CONTENT_TYPE_PROMETHEUS).result(registry.scrape());
+    }
+}
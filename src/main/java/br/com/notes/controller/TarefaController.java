@@ -1,62 +1,233 @@
 package br.com.notes.controller;
 
+import br.com.notes.config.Compressao;
+import br.com.notes.config.ConteudoSmile;
 import br.com.notes.dto.AtualizarTarefaDTO;
 import br.com.notes.dto.CriarTarefaDTO;
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.dto.ResultadoImportacaoDTO;
+import br.com.notes.feed.FeedTarefas;
+import br.com.notes.repository.AlteracaoTarefa;
+import br.com.notes.repository.FiltroTarefas;
 import br.com.notes.service.TarefaService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.Javalin;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.javalin.http.PreconditionFailedResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Controller responsável por gerenciar as requisições HTTP para o recurso 'tarefas'.
  * Ele faz a ponte entre as requisições da web e a lógica de negócio na TarefaService.
+ * Os corpos em JSON também são aceitos e respondidos em Smile (application/x-jackson-smile), com os mesmos DTOs,
+ * conforme o Content-Type e o Accept; a exportação, a importação e o feed têm formatos próprios.
  */
 public class TarefaController {
     // Constantes para os caminhos das rotas, evitando "magic strings".
     public static final String TAREFA_PATH = "/tarefas";
     public static final String TAREFA_ID_PATH = "/tarefas/{id}";
+    public static final String TAREFA_BATCH_PATH = "/tarefas/batch";
+    public static final String TAREFA_STREAM_PATH = "/tarefas/stream";
+    public static final String TAREFA_CHANGES_PATH = "/tarefas/changes";
+    public static final String TAREFA_EXPORT_PATH = "/tarefas/export";
+    public static final String TAREFA_IMPORT_PATH = "/tarefas/import";
+    // Corpo do PATCH mais comum, {"concluida": true} ou {"concluida": false}, reconhecido sem montar a árvore JSON.
+    private static final Pattern PATCH_SOMENTE_CONCLUIDA = Pattern.compile("\\s*\\{\\s*\"concluida\"\\s*:\\s*(true|false)\\s*}\\s*");
+    // Sufixo do ETag das respostas em Smile, que têm bytes diferentes das respostas em JSON.
+    private static final String SUFIXO_ETAG_SMILE = "-smile";
 
     private final TarefaService tarefaService;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConteudoSmile smile = new ConteudoSmile(objectMapper);
+    private Compressao compressao;
+    private CacheListagem cacheListagem;
+    private FeedTarefas feed;
 
     public TarefaController(TarefaService tarefaService) {
         this.tarefaService = tarefaService;
     }
 
+    /**
+     * Habilita a compressão negociada da listagem completa, que passa a ser servida de um cache com os
+     * bytes já serializados e já comprimidos, renovado a cada modificação das tarefas, e da exportação,
+     * comprimida à medida que é escrita.
+     * @param compressao A compressão usada nas respostas da aplicação.
+     */
+    public void habilitarCompressao(Compressao compressao) {
+        this.compressao = compressao;
+        this.cacheListagem = new CacheListagem(compressao, smile);
+    }
+
+    /**
+     * Habilita a rota GET /tarefas/stream, que envia as alterações das tarefas por Server-Sent Events.
+     * Deve ser chamado antes de registrarRotas.
+     * @param feed O feed de alterações, registrado como ouvinte da TarefaService.
+     */
+    public void habilitarFeed(FeedTarefas feed) {
+        this.feed = feed;
+    }
+
     /**
      * Registra todas as rotas de tarefas na instância do Javalin.
      * @param app A instância do Javalin.
      */
     public void registrarRotas(Javalin app) {
         app.get(TAREFA_PATH, this::listarTarefas);
+        // Registradas antes de /tarefas/{id}, que também casaria com /tarefas/changes e /tarefas/export.
+        app.get(TAREFA_CHANGES_PATH, this::listarMudancas);
+        app.get(TAREFA_EXPORT_PATH, this::exportar);
+        if (feed != null) {
+            // Registrada antes de /tarefas/{id}, que também casaria com /tarefas/stream.
+            app.sse(TAREFA_STREAM_PATH, feed::assinar);
+        }
         app.get(TAREFA_ID_PATH, this::buscarPorId);
         app.post(TAREFA_PATH, this::criar);
+        app.post(TAREFA_BATCH_PATH, this::criarEmLote);
+        app.post(TAREFA_IMPORT_PATH, this::importar);
         app.put(TAREFA_ID_PATH, this::atualizar);
+        app.patch(TAREFA_ID_PATH, this::alterar);
         app.delete(TAREFA_ID_PATH, this::deletar);
     }
 
     /**
      * Handler para a rota GET /tarefas.
-     * Lista todas as tarefas existentes.
-     * Retorna status 200 OK com um array de tarefas no corpo da resposta.
+     * Sem parâmetros, lista todas as tarefas existentes e retorna um array de tarefas.
+     * Com os parâmetros 'limit' e/ou 'after', retorna uma página de tarefas e o cursor da próxima página.
+     * Com o parâmetro 'q', faz uma busca textual no título e na descrição e retorna os resultados
+     * por relevância, paginados com 'limit' e 'offset'.
+     * Com os parâmetros 'concluida', 'criadaDe' (inclusive), 'criadaAte' (exclusive) e/ou 'sort'
+     * ('id', '-id', 'dataCriacao' ou '-dataCriacao'), retorna uma página de tarefas filtradas,
+     * paginada com 'limit' e 'after' como na listagem paginada.
+     * Com o parâmetro 'stream=true', escreve o array de tarefas diretamente na resposta, linha a linha,
+     * à medida que são lidas do banco (transferência em chunks, memória constante).
+     * Todas as variações respondem com um ETag derivado do contador global de modificações e da representação
+     * (JSON ou Smile, comprimida ou não); se o cabeçalho If-None-Match corresponder a ele, retorna 304 Not Modified
+     * sem consultar o banco. Com 'stream=true' o ETag é fraco, já que a compressão fica a cargo do Javalin.
+     * Com a compressão habilitada, a listagem completa é servida do cache de bytes serializados e comprimidos.
+     * Retorna status 200 OK em caso de sucesso.
+     * Retorna status 400 Bad Request se o limite, o cursor ou algum filtro forem inválidos.
      * @param ctx O contexto da requisição do Javalin.
      */
     private void listarTarefas(Context ctx) {
-        ctx.json(tarefaService.listarTarefas());
+        String consulta = ctx.queryParam("q");
+        boolean stream = consulta == null && "true".equalsIgnoreCase(ctx.queryParam("stream"));
+        String limit = ctx.queryParam("limit");
+        String after = ctx.queryParam("after");
+        // Os parâmetros são validados antes do ETag, para que um 304 nunca esconda um 400.
+        int offset = consulta == null ? 0 : parseIntParam(ctx.queryParam("offset"), 0, "Offset inválido. Use um numero inteiro!");
+        if (offset < 0) {
+            throw new BadRequestResponse("O parâmetro 'offset' não pode ser negativo.");
+        }
+        FiltroTarefas filtro = consulta == null && !stream ? parseFiltro(ctx) : null;
+        int limite = stream ? 0 : parseLimitParam(limit);
+
+        // A versão é lida antes da consulta: uma escrita concorrente muda a versão e o próximo GET recebe 200.
+        boolean emSmile = respondeEmSmile(ctx);
+        String etag = etagDaRepresentacao(tarefaService.versaoListagem(), emSmile);
+        if (stream) {
+            etag = "W/" + etag;
+        }
+        if (naoModificado(ctx, etag)) {
+            return;
+        }
+        ctx.header(Header.ETAG, etag);
+
+        if (consulta != null) {
+            responder(ctx, tarefaService.buscar(consulta, limite, offset));
+        } else if (stream && emSmile) {
+            ctx.contentType(ConteudoSmile.CONTENT_TYPE);
+            tarefaService.percorrerTarefas(tarefas -> smile.escreverStream(ctx.outputStream(), tarefas));
+        } else if (stream) {
+            tarefaService.percorrerTarefas(ctx::writeJsonStream);
+        } else if (filtro != null) {
+            responder(ctx, tarefaService.listarPagina(filtro, after, limite));
+        } else if (limit == null && after == null && cacheListagem != null) {
+            cacheListagem.responder(ctx, etag, emSmile, tarefaService::listarTarefas);
+        } else if (limit == null && after == null) {
+            responder(ctx, tarefaService.listarTarefas());
+        } else {
+            responder(ctx, tarefaService.listarPagina(after, limite));
+        }
+    }
+
+    /**
+     * Handler para a rota GET /tarefas/changes.
+     * Retorna as tarefas criadas ou alteradas e os IDs das removidas desde o cursor do parâmetro 'since',
+     * com o cursor a usar na próxima chamada; 'limit' limita a quantidade de alterações por resposta.
+     * Sem 'since', ou com um cursor antigo demais, a resposta vem com 'ressincronizar' verdadeiro: o cliente
+     * deve recarregar a listagem completa (GET /tarefas) e seguir com o cursor devolvido.
+     * Retorna status 200 OK em caso de sucesso.
+     * Retorna status 400 Bad Request se o limite ou o cursor forem inválidos.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void listarMudancas(Context ctx) {
+        int limite = parseLimitParam(ctx.queryParam("limit"));
+        responder(ctx, tarefaService.listarMudancas(ctx.queryParam("since"), limite));
+    }
+
+    /**
+     * Handler para a rota GET /tarefas/export.
+     * Escreve todas as tarefas no formato do parâmetro 'format' ('ndjson', o padrão, ou 'csv') diretamente
+     * na resposta, à medida que são lidas do banco, com memória constante mesmo para milhões de tarefas.
+     * Com a compressão habilitada, a resposta é comprimida enquanto é escrita, na codificação negociada
+     * pelo Accept-Encoding.
+     * Retorna status 200 OK com o arquivo da exportação.
+     * Retorna status 400 Bad Request se o formato não for suportado.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void exportar(Context ctx) throws IOException {
+        ExportacaoTarefas.Formato formato = ExportacaoTarefas.Formato.de(ctx.queryParam("format"));
+        ctx.contentType(formato.contentType())
+                .header(Header.CONTENT_DISPOSITION, "attachment; filename=\"tarefas." + formato.extensao() + "\"");
+
+        Compressao.Codificacao codificacao = null;
+        if (compressao != null) {
+            Compressao.adicionarVary(ctx, Header.ACCEPT_ENCODING);
+            codificacao = compressao.negociar(ctx.header(Header.ACCEPT_ENCODING));
+            // A compressão do Javalin não é usada: a decisão já foi tomada aqui, para a resposta inteira.
+            ctx.minSizeForCompression(Integer.MAX_VALUE);
+        }
+        OutputStream saida = ctx.outputStream();
+        if (codificacao != null) {
+            ctx.header(Header.CONTENT_ENCODING, codificacao.nome());
+            saida = compressao.comprimindo(saida, codificacao);
+        }
+        try (var exportacao = new ExportacaoTarefas(saida, formato, objectMapper.getFactory())) {
+            tarefaService.exportar(exportacao);
+        }
     }
 
     /**
      * Handler para a rota GET /tarefas/{id}.
      * Busca uma única tarefa pelo seu ID.
-     * Retorna status 200 OK com o objeto da tarefa se encontrada.
+     * Retorna status 200 OK com o objeto da tarefa se encontrada e o ETag da sua versão na representação enviada.
+     * Retorna status 304 Not Modified, sem corpo, se o cabeçalho If-None-Match corresponder à versão atual.
      * Retorna status 404 Not Found se a tarefa não existir.
      * @param ctx O contexto da requisição do Javalin.
      */
     private void buscarPorId(Context ctx) {
         int id = parseIdParam(ctx);
-        ctx.json(tarefaService.buscarPorId(id));
+        RespostaTarefaDTO tarefa = tarefaService.buscarPorId(id);
+        if (naoModificado(ctx, etag(tarefa, respondeEmSmile(ctx)))) {
+            return;
+        }
+        responderComEtag(ctx, tarefa);
     }
 
     /**
@@ -68,53 +239,132 @@ public class TarefaController {
      */
     private void criar(Context ctx) {
         try {
-            String jsonBody = ctx.body();
-            System.out.println("JSON recebido: " + jsonBody);
-
-            CriarTarefaDTO dto = objectMapper.readValue(jsonBody, CriarTarefaDTO.class);
-            System.out.println("DTO desserializado: " + dto);
+            CriarTarefaDTO dto = leitor(ctx).readValue(ctx.bodyAsBytes(), CriarTarefaDTO.class);
 
             if (dto.titulo() == null || dto.titulo().isBlank()) {
                 throw new BadRequestResponse("O campo 'titulo' é obrigatório.");
             }
 
             var novaTarefa = tarefaService.criar(dto);
-            ctx.status(201).json(novaTarefa);
+            responderComEtag(ctx.status(201), novaTarefa);
 
-        } catch (JsonProcessingException e) {
-            System.err.println("Erro de desserialização: " + e.getMessage()); // Log detalhado
+        } catch (IOException e) {
             throw new BadRequestResponse("Corpo da requisição inválido. Certifique-se de enviar um JSON válido.");
         }
     }
 
+    /**
+     * Handler para a rota POST /tarefas/batch.
+     * Cria várias tarefas de uma só vez a partir de um array JSON de tarefas.
+     * Todas as tarefas são validadas antes de qualquer inserção; se uma for inválida, nenhuma é criada.
+     * Retorna status 201 Created com o array das tarefas criadas, na mesma ordem do corpo.
+     * Retorna status 400 Bad Request se o JSON for inválido, se o array estiver vazio, nulo ou for grande demais,
+     * ou se alguma tarefa estiver sem título.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void criarEmLote(Context ctx) {
+        CriarTarefaDTO[] corpo;
+        try {
+            corpo = leitor(ctx).readValue(ctx.bodyInputStream(), CriarTarefaDTO[].class);
+        } catch (IOException e) {
+            throw new BadRequestResponse("Corpo da requisição inválido. Certifique-se de enviar um array JSON válido.");
+        }
+
+        // O corpo 'null' é JSON válido e chega aqui como um array nulo.
+        List<CriarTarefaDTO> dtos = corpo == null ? List.of() : Arrays.asList(corpo);
+        if (dtos.isEmpty() || dtos.size() > TarefaService.TAMANHO_MAXIMO_LOTE) {
+            throw new BadRequestResponse("O lote deve conter entre 1 e " + TarefaService.TAMANHO_MAXIMO_LOTE + " tarefas.");
+        }
+        for (int i = 0; i < dtos.size(); i++) {
+            CriarTarefaDTO dto = dtos.get(i);
+            if (dto == null || dto.titulo() == null || dto.titulo().isBlank()) {
+                throw new BadRequestResponse("O campo 'titulo' é obrigatório (tarefa na posição " + i + ").");
+            }
+        }
+
+        responder(ctx.status(201), tarefaService.criarEmLote(dtos));
+    }
+
+    /**
+     * Handler para a rota POST /tarefas/import.
+     * Importa as tarefas de um corpo NDJSON (um objeto com 'titulo' e 'descricao' por linha), lido à medida que
+     * chega, sem carregar o corpo inteiro na memória. As tarefas são gravadas em lotes de 'batch' linhas (500 por
+     * padrão), cada lote em uma única transação. Linhas inválidas são rejeitadas sem interromper a importação.
+     * Retorna status 200 OK com a quantidade de tarefas importadas e de linhas rejeitadas, e o motivo de cada rejeição.
+     * Retorna status 400 Bad Request se o tamanho do lote for inválido ou se o corpo não tiver nenhuma linha.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void importar(Context ctx) throws IOException {
+        int tamanhoLote = parseIntParam(ctx.queryParam("batch"), ImportacaoTarefas.TAMANHO_PADRAO_LOTE,
+                "Tamanho de lote inválido. Use um numero inteiro!");
+        if (tamanhoLote < 1 || tamanhoLote > TarefaService.TAMANHO_MAXIMO_LOTE) {
+            throw new BadRequestResponse("O parâmetro 'batch' deve estar entre 1 e " + TarefaService.TAMANHO_MAXIMO_LOTE + ".");
+        }
+
+        var importacao = new ImportacaoTarefas(objectMapper.getFactory(), tamanhoLote, tarefaService::importar);
+        ResultadoImportacaoDTO resultado = importacao.importar(ctx.bodyInputStream());
+        if (resultado.importadas() == 0 && resultado.rejeitadas() == 0) {
+            throw new BadRequestResponse("O corpo da requisição não contém nenhuma tarefa.");
+        }
+        responder(ctx, resultado);
+    }
+
     /**
      * Handler para a rota PUT /tarefas/{id}.
      * Atualiza uma tarefa existente com base nos dados do corpo da requisição.
+     * Com o cabeçalho If-Match (o ETag recebido no GET), a tarefa só é atualizada se ainda estiver
+     * naquela versão, evitando que uma edição concorrente seja sobrescrita sem aviso.
      * Retorna status 200 OK com a tarefa atualizada no corpo da resposta.
      * Retorna status 404 Not Found se a tarefa não existir.
+     * Retorna status 412 Precondition Failed se o If-Match não corresponder à versão atual.
      * @param ctx O contexto da requisição do Javalin.
      */
     private void atualizar(Context ctx) {
         try {
             int id = parseIdParam(ctx);
-            String jsonBody = ctx.body();
-            AtualizarTarefaDTO dto = objectMapper.readValue(jsonBody, AtualizarTarefaDTO.class);
+            AtualizarTarefaDTO dto = leitor(ctx).readValue(ctx.bodyAsBytes(), AtualizarTarefaDTO.class);
 
             if (dto.titulo() == null || dto.titulo().isBlank()) {
                 throw new BadRequestResponse("O campo 'titulo' é obrigatório.");
             }
 
-            var tarefaAtualizada = tarefaService.atualizar(id, dto);
-            ctx.status(200).json(tarefaAtualizada);
-        } catch (JsonProcessingException e) {
+            String ifMatch = ctx.header(Header.IF_MATCH);
+            var tarefaAtualizada = ifMatch == null || ifMatch.trim().equals("*")
+                    ? tarefaService.atualizar(id, dto)
+                    : tarefaService.atualizar(id, dto, parseIfMatch(ifMatch, id));
+            responderComEtag(ctx.status(200), tarefaAtualizada);
+        } catch (IOException e) {
             throw new BadRequestResponse("Corpo da requisição inválido. Certifique-se de enviar um JSON válido.");
         } catch (BadRequestResponse e) {
             ctx.status(400).result(e.getMessage());
+        } catch (PreconditionFailedResponse e) {
+            ctx.status(412).result(e.getMessage());
         } catch (Exception e) {
             ctx.status(404).result("Tarefa não encontrada com o ID fornecido.");
         }
     }
 
+    /**
+     * Handler para a rota PATCH /tarefas/{id}.
+     * Altera apenas os campos presentes no corpo (JSON Merge Patch): 'titulo', 'descricao' (aceita null)
+     * e 'concluida'. O corpo {"concluida": true} (ou false) segue um caminho dedicado, sem montar a árvore JSON.
+     * Aceita o cabeçalho If-Match como o PUT.
+     * Retorna status 200 OK com a tarefa alterada no corpo da resposta e o seu novo ETag.
+     * Retorna status 400 Bad Request se o corpo não for um objeto JSON, tiver campos desconhecidos ou valores inválidos.
+     * Retorna status 404 Not Found se a tarefa não existir.
+     * Retorna status 412 Precondition Failed se o If-Match não corresponder à versão atual.
+     * @param ctx O contexto da requisição do Javalin.
+     */
+    private void alterar(Context ctx) {
+        int id = parseIdParam(ctx);
+        AlteracaoTarefa alteracao = parseAlteracao(ctx);
+        String ifMatch = ctx.header(Header.IF_MATCH);
+        Integer versaoEsperada = ifMatch == null || ifMatch.trim().equals("*") ? null : parseIfMatch(ifMatch, id);
+
+        var tarefaAlterada = tarefaService.alterar(id, alteracao, versaoEsperada);
+        responderComEtag(ctx, tarefaAlterada);
+    }
+
     /**
      * Handler para a rota DELETE /tarefas/{id}.
      * Deleta uma tarefa pelo seu ID.
@@ -128,6 +378,284 @@ public class TarefaController {
         ctx.status(204); // Status 204 No Content, indicando sucesso sem corpo de resposta.
     }
 
+    /**
+     * Método auxiliar para converter o corpo de um PATCH (JSON Merge Patch) na alteração correspondente.
+     * O corpo em Smile tem o mesmo formato, mas não passa pelo caminho dedicado de {"concluida": ...}.
+     * Lança uma BadRequestResponse se o corpo for inválido.
+     * @param ctx O contexto da requisição.
+     * @return A alteração, com apenas os campos presentes no corpo.
+     */
+    private AlteracaoTarefa parseAlteracao(Context ctx) {
+        JsonNode json;
+        try {
+            if (smile.enviado(ctx.contentType())) {
+                json = smile.leitura().readTree(ctx.bodyAsBytes());
+            } else {
+                String corpo = ctx.body();
+                Matcher somenteConcluida = PATCH_SOMENTE_CONCLUIDA.matcher(corpo);
+                if (somenteConcluida.matches()) {
+                    return AlteracaoTarefa.concluida(somenteConcluida.group(1).equals("true"));
+                }
+                json = objectMapper.readTree(corpo);
+            }
+        } catch (IOException e) {
+            throw new BadRequestResponse("Corpo da requisição inválido. Certifique-se de enviar um JSON válido.");
+        }
+        if (json == null || !json.isObject()) {
+            throw new BadRequestResponse("O corpo do PATCH deve ser um objeto JSON.");
+        }
+
+        String titulo = null;
+        boolean alteraDescricao = false;
+        String descricao = null;
+        Boolean concluida = null;
+        for (Iterator<Map.Entry<String, JsonNode>> campos = json.fields(); campos.hasNext(); ) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            JsonNode valor = campo.getValue();
+            switch (campo.getKey()) {
+                case "titulo" -> {
+                    if (!valor.isTextual() || valor.asText().isBlank()) {
+                        throw new BadRequestResponse("O campo 'titulo' não pode ser vazio ou nulo.");
+                    }
+                    titulo = valor.asText();
+                }
+                case "descricao" -> {
+                    if (!valor.isTextual() && !valor.isNull()) {
+                        throw new BadRequestResponse("O campo 'descricao' deve ser um texto ou null.");
+                    }
+                    alteraDescricao = true;
+                    descricao = valor.isNull() ? null : valor.asText();
+                }
+                case "concluida" -> {
+                    if (!valor.isBoolean()) {
+                        throw new BadRequestResponse("O campo 'concluida' deve ser true ou false.");
+                    }
+                    concluida = valor.booleanValue();
+                }
+                default -> throw new BadRequestResponse("Campo desconhecido: '" + campo.getKey() + "'.");
+            }
+        }
+        return new AlteracaoTarefa(titulo, alteraDescricao, descricao, concluida);
+    }
+
+    /**
+     * Método auxiliar para gerar o ETag forte de uma tarefa, a partir do seu ID, da sua versão e do formato.
+     * @param tarefa A tarefa.
+     * @param emSmile Se a representação é em Smile.
+     * @return O ETag, já entre aspas.
+     */
+    private static String etag(RespostaTarefaDTO tarefa, boolean emSmile) {
+        return etagDaRepresentacao(tarefa.id() + "-" + tarefa.versao(), emSmile);
+    }
+
+    /**
+     * Método auxiliar que monta o ETag forte de uma representação. JSON e Smile têm bytes diferentes e, por isso,
+     * ETags diferentes: o Smile recebe o sufixo '-smile'. A codificação, quando houver, é acrescentada pela
+     * compressão ('-gzip', '-br' ou '-deflate').
+     * @param valor O valor que identifica o estado do recurso.
+     * @param emSmile Se a representação é em Smile.
+     * @return O ETag, já entre aspas.
+     */
+    private static String etagDaRepresentacao(String valor, boolean emSmile) {
+        return "\"" + valor + (emSmile ? SUFIXO_ETAG_SMILE : "") + "\"";
+    }
+
+    /**
+     * Método auxiliar para extrair a versão esperada do cabeçalho If-Match, no formato do ETag da tarefa.
+     * Usa a comparação forte: ETags fracos (W/) e ETags de outra tarefa não correspondem. O ETag de qualquer
+     * representação da versão (JSON ou Smile, comprimida ou não) é aceito.
+     * Lança uma PreconditionFailedResponse se nenhum ETag da lista for desta tarefa.
+     * @param ifMatch O valor do cabeçalho.
+     * @param id O ID da tarefa sendo atualizada.
+     * @return A versão esperada.
+     */
+    private static int parseIfMatch(String ifMatch, int id) {
+        String prefixo = "\"" + id + "-";
+        for (String candidato : ifMatch.split(",")) {
+            String valor = semSufixoSmile(Compressao.etagSemCodificacao(candidato.trim()));
+            if (valor.startsWith(prefixo) && valor.endsWith("\"") && valor.length() > prefixo.length() + 1) {
+                try {
+                    return Integer.parseInt(valor.substring(prefixo.length(), valor.length() - 1));
+                } catch (NumberFormatException e) {
+                    // ETag malformado: tenta o próximo da lista.
+                }
+            }
+        }
+        throw new PreconditionFailedResponse("O cabeçalho If-Match não corresponde à versão atual da tarefa.");
+    }
+
+    /**
+     * Método auxiliar para retirar o sufixo do Smile de um ETag entre aspas.
+     * @param etag O ETag.
+     * @return O ETag da representação em JSON.
+     */
+    private static String semSufixoSmile(String etag) {
+        String sufixo = SUFIXO_ETAG_SMILE + "\"";
+        return etag.endsWith(sufixo) ? etag.substring(0, etag.length() - sufixo.length()) + "\"" : etag;
+    }
+
+    /**
+     * Método auxiliar que responde 304 Not Modified se o cabeçalho If-None-Match corresponder ao ETag atual.
+     * Aceita uma lista de ETags separados por vírgula, ETags fracos (W/) e '*'. O sufixo da codificação é
+     * ignorado na comparação: a versão comprimida tem o mesmo conteúdo, e o 304 devolve o ETag que o
+     * cliente guardou. O formato (JSON ou Smile) precisa corresponder.
+     * @param ctx O contexto da requisição.
+     * @param etag O ETag atual do recurso, na representação que seria enviada, sem a codificação.
+     * @return true se a resposta 304 foi enviada e o handler deve parar.
+     */
+    private static boolean naoModificado(Context ctx, String etag) {
+        String ifNoneMatch = ctx.header(Header.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String atual = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*")) {
+                ctx.status(HttpStatus.NOT_MODIFIED).header(Header.ETAG, etag);
+                return true;
+            }
+            String comparado = Compressao.etagSemCodificacao(valor.startsWith("W/") ? valor.substring(2) : valor);
+            if (comparado.equals(atual)) {
+                ctx.status(HttpStatus.NOT_MODIFIED).header(Header.ETAG, valor);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método auxiliar para montar o filtro da listagem a partir dos query params.
+     * Lança uma BadRequestResponse se algum dos valores for inválido.
+     * @param ctx O contexto da requisição.
+     * @return O filtro, ou nulo se nenhum parâmetro de filtro foi informado.
+     */
+    private FiltroTarefas parseFiltro(Context ctx) {
+        String concluida = ctx.queryParam("concluida");
+        String criadaDe = ctx.queryParam("criadaDe");
+        String criadaAte = ctx.queryParam("criadaAte");
+        String sort = ctx.queryParam("sort");
+        if (concluida == null && criadaDe == null && criadaAte == null && sort == null) {
+            return null;
+        }
+
+        Boolean status = null;
+        if (concluida != null) {
+            if (!concluida.equals("true") && !concluida.equals("false")) {
+                throw new BadRequestResponse("O parâmetro 'concluida' deve ser 'true' ou 'false'.");
+            }
+            status = Boolean.valueOf(concluida);
+        }
+        FiltroTarefas.Ordenacao ordenacao = FiltroTarefas.Ordenacao.ID;
+        if (sort != null) {
+            try {
+                ordenacao = FiltroTarefas.Ordenacao.porParametro(sort);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestResponse("Ordenação inválida. Use 'id', '-id', 'dataCriacao' ou '-dataCriacao'.");
+            }
+        }
+        return new FiltroTarefas(status, parseDataParam(criadaDe, "criadaDe"), parseDataParam(criadaAte, "criadaAte"), ordenacao);
+    }
+
+    /**
+     * Método auxiliar para converter um query param opcional de data para um Instant.
+     * Aceita um instante ISO-8601 (2024-05-01T12:00:00Z) ou uma data (2024-05-01, meia-noite em UTC).
+     * Lança uma BadRequestResponse se o valor for inválido.
+     * @param valor O valor do parâmetro (pode ser nulo).
+     * @param nome O nome do parâmetro, usado na mensagem de erro.
+     * @return O instante, ou nulo se o parâmetro não foi informado.
+     */
+    private Instant parseDataParam(String valor, String nome) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return valor.length() == 10
+                    ? LocalDate.parse(valor).atStartOfDay(ZoneOffset.UTC).toInstant()
+                    : Instant.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestResponse("Data inválida no parâmetro '" + nome + "'. Use o formato ISO-8601.");
+        }
+    }
+
+    /**
+     * Método auxiliar para responder com o corpo em Smile, se o cliente o preferir no cabeçalho Accept,
+     * ou em JSON.
+     * @param ctx O contexto da requisição.
+     * @param corpo O DTO da resposta.
+     */
+    private void responder(Context ctx, Object corpo) {
+        if (respondeEmSmile(ctx)) {
+            ctx.contentType(ConteudoSmile.CONTENT_TYPE).result(smile.escrever(corpo));
+        } else {
+            ctx.json(corpo);
+        }
+    }
+
+    /**
+     * Método auxiliar para responder com uma tarefa e o ETag da sua versão no formato negociado.
+     * @param ctx O contexto da requisição.
+     * @param tarefa A tarefa da resposta.
+     */
+    private void responderComEtag(Context ctx, RespostaTarefaDTO tarefa) {
+        ctx.header(Header.ETAG, etag(tarefa, respondeEmSmile(ctx)));
+        responder(ctx, tarefa);
+    }
+
+    /**
+     * Método auxiliar que negocia o formato da resposta pelo cabeçalho Accept e informa o Vary,
+     * já que a mesma URL tem as duas representações.
+     * @param ctx O contexto da requisição.
+     * @return Se a resposta deve ir em Smile.
+     */
+    private boolean respondeEmSmile(Context ctx) {
+        Compressao.adicionarVary(ctx, Header.ACCEPT);
+        return smile.aceito(ctx.header(Header.ACCEPT));
+    }
+
+    /**
+     * Método auxiliar que escolhe o mapper do corpo da requisição pelo Content-Type: Smile ou JSON.
+     * @param ctx O contexto da requisição.
+     * @return O mapper que lê o corpo.
+     */
+    private ObjectMapper leitor(Context ctx) {
+        return smile.enviado(ctx.contentType()) ? smile.leitura() : objectMapper;
+    }
+
+    /**
+     * Método auxiliar para converter o query param 'limit' para um inteiro maior que zero.
+     * Usa o tamanho de página padrão se o parâmetro não for informado.
+     * Lança uma BadRequestResponse se o valor não for um inteiro ou não for positivo.
+     * @param limit O valor do parâmetro 'limit' (pode ser nulo).
+     * @return O limite como um inteiro.
+     */
+    private int parseLimitParam(String limit) {
+        int limite = parseIntParam(limit, TarefaService.TAMANHO_PADRAO_PAGINA, "Limite inválido. Use um numero inteiro!");
+        if (limite <= 0) {
+            throw new BadRequestResponse("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        return limite;
+    }
+
+    /**
+     * Método auxiliar para converter um query param opcional para um inteiro.
+     * Lança uma BadRequestResponse com a mensagem informada se o valor for inválido.
+     * @param valor O valor do parâmetro (pode ser nulo).
+     * @param padrao O valor usado se o parâmetro não for informado.
+     * @param mensagemErro A mensagem de erro para valores inválidos.
+     * @return O valor como um inteiro.
+     */
+    private int parseIntParam(String valor, int padrao, String mensagemErro) {
+        if (valor == null) {
+            return padrao;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestResponse(mensagemErro);
+        }
+    }
+
     /**
      * Método auxiliar para converter o path param 'id' para um inteiro.
      * Lança uma BadRequestResponse se o ID for inválido.
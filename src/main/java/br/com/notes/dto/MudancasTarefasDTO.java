@@ -0,0 +1,17 @@
+package br.com.notes.dto;
+
+import java.util.List;
+
+/**
+ * DTO para representar as alterações de tarefas desde o último cursor do cliente (sincronização incremental).
+ * Retornado pela rota GET /tarefas/changes.
+ *
+ * @param alteradas      As tarefas criadas ou alteradas, no estado atual, em ordem de alteração.
+ * @param removidas      Os IDs das tarefas removidas (lápides).
+ * @param proximo        Cursor opaco a enviar no próximo 'since'.
+ * @param ressincronizar Se o cliente deve descartar o que tem e recarregar a listagem completa antes de usar o cursor.
+ * @param temMais        Se ainda há alterações depois desta página; o cliente deve repetir a chamada com o cursor.
+ */
+public record MudancasTarefasDTO(List<RespostaTarefaDTO> alteradas, List<Integer> removidas, String proximo,
+                                 boolean ressincronizar, boolean temMais) {
+}
@@ -0,0 +1,13 @@
+package br.com.notes.dto;
+
+import java.util.List;
+
+/**
+ * DTO para representar uma página da listagem de tarefas.
+ * Retornado pela rota GET /tarefas quando os parâmetros 'limit' ou 'after' são informados.
+ *
+ * @param tarefas       As tarefas da página atual, ordenadas por ID.
+ * @param proximoCursor Cursor opaco para buscar a próxima página (nulo se esta for a última).
+ */
+public record PaginaTarefasDTO(List<RespostaTarefaDTO> tarefas, String proximoCursor) {
+}
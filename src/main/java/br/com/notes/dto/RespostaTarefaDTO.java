@@ -1,5 +1,7 @@
 package br.com.notes.dto;
 
+import br.com.notes.model.Tarefa;
+
 import java.time.Instant;
 
 /**
@@ -11,6 +13,29 @@ import java.time.Instant;
  * @param descricao   A descrição detalhada da tarefa (pode ser nula).
  * @param concluida   Indica se a tarefa foi marcada como concluída.
  * @param dataCriacao A data e hora exatas (em UTC) em que a tarefa foi criada.
+ * @param versao      A versão da tarefa, incrementada a cada atualização (base do ETag).
  */
-public record RespostaTarefaDTO(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao) {
+public record RespostaTarefaDTO(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao,
+                                int versao) {
+
+    /**
+     * Cria a resposta de uma tarefa que ainda não foi atualizada (versão 1).
+     */
+    public RespostaTarefaDTO(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao) {
+        this(id, titulo, descricao, concluida, dataCriacao, 1);
+    }
+
+    /**
+     * Converte o modelo Tarefa para o DTO de resposta.
+     */
+    public static RespostaTarefaDTO de(Tarefa tarefa) {
+        return new RespostaTarefaDTO(
+                tarefa.getId(),
+                tarefa.getTitulo(),
+                tarefa.getDescricao(),
+                tarefa.isConcluida(),
+                tarefa.getDataCriacao(),
+                tarefa.getVersao()
+        );
+    }
 }
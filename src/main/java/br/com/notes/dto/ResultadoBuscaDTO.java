@@ -0,0 +1,14 @@
+package br.com.notes.dto;
+
+import java.util.List;
+
+/**
+ * DTO para representar uma página de resultados da busca textual de tarefas.
+ * Retornado pela rota GET /tarefas quando o parâmetro 'q' é informado.
+ *
+ * @param tarefas       As tarefas encontradas nesta página, da mais para a menos relevante.
+ * @param total         A quantidade total de tarefas encontradas.
+ * @param proximoOffset O offset da próxima página (nulo se esta for a última).
+ */
+public record ResultadoBuscaDTO(List<RespostaTarefaDTO> tarefas, int total, Integer proximoOffset) {
+}
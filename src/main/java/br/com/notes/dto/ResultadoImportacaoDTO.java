@@ -0,0 +1,21 @@
+package br.com.notes.dto;
+
+import java.util.List;
+
+/**
+ * DTO para representar o relatório de uma importação de tarefas.
+ * Retornado pela rota POST /tarefas/import.
+ *
+ * @param importadas A quantidade de tarefas gravadas.
+ * @param rejeitadas A quantidade de linhas não importadas, por serem inválidas ou por falha na gravação do seu lote.
+ * @param erros      O motivo de cada linha rejeitada, limitado às primeiras; os demais entram apenas na contagem.
+ */
+public record ResultadoImportacaoDTO(long importadas, long rejeitadas, List<ErroLinha> erros) {
+
+    /**
+     * @param linha    O número da linha no corpo da requisição, a partir de 1.
+     * @param mensagem O motivo da rejeição.
+     */
+    public record ErroLinha(long linha, String mensagem) {
+    }
+}
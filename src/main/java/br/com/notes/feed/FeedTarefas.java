@@ -0,0 +1,299 @@
+package br.com.notes.feed;
+
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.model.Tarefa;
+import br.com.notes.service.OuvinteTarefas;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.sse.SseClient;
+import io.javalin.json.JavalinJackson;
+import io.javalin.util.ConcurrencyUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feed das alterações de tarefas enviado por Server-Sent Events (GET /tarefas/stream).
+ * <p>
+ * Como ouvinte da TarefaService, cada criação, atualização ou remoção vira um evento com um ID
+ * sequencial, serializado uma única vez e compartilhado por todos os assinantes. Os últimos eventos
+ * ficam em um histórico circular: um cliente que reconecta com o cabeçalho Last-Event-ID recebe
+ * os eventos que perdeu, desde que eles ainda estejam no histórico.
+ * <p>
+ * Cada assinante tem uma fila limitada. A publicação apenas oferece o evento às filas, sem bloquear
+ * e sem E/S; a escrita na conexão é feita por um pool de entrega, só para os assinantes com eventos
+ * pendentes. Um assinante ocioso não ocupa thread nenhuma, apenas a sua conexão e a sua fila.
+ * Se a fila de um cliente lento encher, os eventos pendentes são descartados e ele recebe um evento
+ * 'ressincronizar', indicando que deve recarregar a listagem completa. O mesmo acontece quando o
+ * Last-Event-ID é desconhecido ou antigo demais.
+ * <p>
+ * Todo evento leva a versão da tarefa, inclusive o de remoção, que leva a última versão publicada.
+ * A TarefaService notifica na ordem das escritas de cada tarefa: as versões de uma tarefa chegam
+ * sempre crescentes, e nenhum evento dela chega depois da remoção.
+ */
+public class FeedTarefas implements OuvinteTarefas, Closeable {
+    public static final String EVENTO_CRIADA = "criada";
+    public static final String EVENTO_ATUALIZADA = "atualizada";
+    public static final String EVENTO_REMOVIDA = "removida";
+    public static final String EVENTO_RESSINCRONIZAR = "ressincronizar";
+    public static final String CABECALHO_ULTIMO_EVENTO = "Last-Event-ID";
+    private static final Logger log = LoggerFactory.getLogger(FeedTarefas.class);
+
+    private final ObjectMapper mapper = JavalinJackson.defaultMapper();
+    // O instante de criação diferencia os IDs de execuções diferentes da aplicação, que recomeçam do um.
+    private final String prefixoId = Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final Evento[] historico;
+    private final int capacidadeAssinante;
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService entrega;
+    private final ScheduledExecutorService heartbeat;
+    private final LongAdder eventos = new LongAdder();
+    private final LongAdder ressincronizacoes = new LongAdder();
+    // Protegido pelo lock do histórico.
+    private long proximoId = 1;
+
+    /**
+     * Cria o feed e agenda o heartbeat que mantém as conexões ociosas abertas.
+     *
+     * @param capacidadeHistorico quantidade de eventos guardados para a retomada com Last-Event-ID
+     * @param capacidadeAssinante quantidade máxima de eventos pendentes por assinante
+     * @param intervaloHeartbeat  intervalo entre os comentários enviados a todos os assinantes
+     * @param threadsVirtuais     se as entregas devem usar threads virtuais (requer JDK 21+)
+     */
+    public FeedTarefas(int capacidadeHistorico, int capacidadeAssinante, Duration intervaloHeartbeat, boolean threadsVirtuais) {
+        if (capacidadeHistorico <= 0 || capacidadeAssinante <= 0) {
+            throw new IllegalArgumentException("As capacidades do feed devem ser positivas.");
+        }
+        this.historico = new Evento[capacidadeHistorico];
+        this.capacidadeAssinante = capacidadeAssinante;
+        this.entrega = ConcurrencyUtil.executorService("feed-tarefas", threadsVirtuais);
+        this.heartbeat = ConcurrencyUtil.newSingleThreadScheduledExecutor("feed-tarefas-heartbeat");
+        long intervalo = intervaloHeartbeat.toMillis();
+        heartbeat.scheduleAtFixedRate(this::enviarHeartbeat, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Handler da rota SSE: registra o cliente, reenvia os eventos perdidos desde o Last-Event-ID
+     * (ou pede a ressincronização) e mantém a conexão aberta até o cliente desconectar.
+     *
+     * @param cliente O cliente SSE do Javalin.
+     */
+    public void assinar(SseClient cliente) {
+        var assinante = new Assinante(cliente);
+        cliente.onClose(() -> assinantes.remove(assinante));
+        String ultimoEvento = cliente.ctx().header(CABECALHO_ULTIMO_EVENTO);
+        synchronized (historico) {
+            if (ultimoEvento != null) {
+                retomar(assinante, parseId(ultimoEvento));
+            }
+            // Registrado sob o mesmo lock da publicação: nenhum evento fica entre a retomada e a assinatura.
+            assinantes.add(assinante);
+        }
+        cliente.keepAlive();
+        assinante.iniciar();
+    }
+
+    /**
+     * Retorna quantos clientes estão conectados ao feed.
+     */
+    public int assinantes() {
+        return assinantes.size();
+    }
+
+    /**
+     * Publica o gauge de assinantes e os contadores de eventos e ressincronizações no registro de métricas informado.
+     *
+     * @param registry o registro de métricas da aplicação
+     */
+    public void registrarMetricas(MeterRegistry registry) {
+        Gauge.builder("tarefas_feed_assinantes", assinantes, Set::size)
+                .description("Clientes conectados ao feed de alterações")
+                .register(registry);
+        FunctionCounter.builder("tarefas_feed_eventos", eventos, LongAdder::sum)
+                .description("Eventos publicados no feed de alterações")
+                .register(registry);
+        FunctionCounter.builder("tarefas_feed_ressincronizacoes", ressincronizacoes, LongAdder::sum)
+                .description("Assinantes que perderam eventos e precisaram ressincronizar")
+                .register(registry);
+    }
+
+    @Override
+    public void tarefaCriada(Tarefa tarefa) {
+        publicar(EVENTO_CRIADA, json(RespostaTarefaDTO.de(tarefa)));
+    }
+
+    @Override
+    public void tarefaAtualizada(Tarefa tarefa) {
+        publicar(EVENTO_ATUALIZADA, json(RespostaTarefaDTO.de(tarefa)));
+    }
+
+    @Override
+    public void tarefaRemovida(int id, int versao) {
+        publicar(EVENTO_REMOVIDA, "{\"id\":" + id + ",\"versao\":" + versao + "}");
+    }
+
+    /**
+     * Encerra o heartbeat e as entregas e fecha as conexões dos assinantes.
+     */
+    @Override
+    public void close() {
+        heartbeat.shutdownNow();
+        entrega.shutdownNow();
+        assinantes.forEach(assinante -> assinante.cliente.close());
+        assinantes.clear();
+    }
+
+    private void publicar(String tipo, String dados) {
+        synchronized (historico) {
+            var evento = new Evento(proximoId, tipo, dados);
+            historico[(int) (proximoId % historico.length)] = evento;
+            proximoId++;
+            for (Assinante assinante : assinantes) {
+                assinante.entregar(evento);
+            }
+        }
+        eventos.increment();
+    }
+
+    /**
+     * Coloca na fila do assinante os eventos posteriores ao último recebido, ou pede a ressincronização
+     * se algum deles já saiu do histórico. Deve ser chamado com o lock do histórico.
+     */
+    private void retomar(Assinante assinante, long ultimoRecebido) {
+        long maisAntigo = Math.max(1, proximoId - historico.length);
+        if (ultimoRecebido < 0 || ultimoRecebido + 1 < maisAntigo || ultimoRecebido >= proximoId) {
+            assinante.ressincronizar(proximoId - 1);
+            return;
+        }
+        for (long id = ultimoRecebido + 1; id < proximoId; id++) {
+            assinante.entregar(historico[(int) (id % historico.length)]);
+        }
+    }
+
+    /**
+     * Converte o Last-Event-ID no número do evento. IDs de outra execução da aplicação ou malformados valem -1.
+     */
+    private long parseId(String id) {
+        if (!id.startsWith(prefixoId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(prefixoId.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void enviarHeartbeat() {
+        for (Assinante assinante : assinantes) {
+            assinante.ping = true;
+            assinante.agendar();
+        }
+    }
+
+    private String json(RespostaTarefaDTO tarefa) {
+        try {
+            return mapper.writeValueAsString(tarefa);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Evento(long id, String tipo, String dados) {}
+
+    /**
+     * Uma conexão do feed, com a sua fila de eventos pendentes. No máximo uma entrega por assinante
+     * fica agendada de cada vez, o que mantém a ordem dos eventos na conexão.
+     */
+    private final class Assinante {
+        private final SseClient cliente;
+        private final ArrayBlockingQueue<Evento> fila = new ArrayBlockingQueue<>(capacidadeAssinante);
+        // Começa agendado: a retomada enche a fila antes da primeira entrega, iniciada por iniciar().
+        private final AtomicBoolean agendado = new AtomicBoolean(true);
+        private volatile long ressincronizarEm = -1;
+        private volatile boolean ping = true;
+
+        private Assinante(SseClient cliente) {
+            this.cliente = cliente;
+        }
+
+        /**
+         * Oferece o evento à fila sem bloquear. Se a fila estiver cheia, descarta os pendentes e pede a ressincronização.
+         */
+        private void entregar(Evento evento) {
+            if (!fila.offer(evento)) {
+                fila.clear();
+                ressincronizar(evento.id());
+            }
+            agendar();
+        }
+
+        private void ressincronizar(long ultimoId) {
+            ressincronizarEm = ultimoId;
+            ressincronizacoes.increment();
+        }
+
+        private void iniciar() {
+            agendado.set(false);
+            agendar();
+        }
+
+        private void agendar() {
+            if (agendado.compareAndSet(false, true)) {
+                try {
+                    entrega.execute(this::drenar);
+                } catch (RejectedExecutionException e) {
+                    // O feed está sendo encerrado.
+                    agendado.set(false);
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                do {
+                    if (cliente.terminated()) {
+                        assinantes.remove(this);
+                        fila.clear();
+                        return;
+                    }
+                    long ultimoId = ressincronizarEm;
+                    if (ultimoId >= 0) {
+                        ressincronizarEm = -1;
+                        cliente.sendEvent(EVENTO_RESSINCRONIZAR, "{}", prefixoId + ultimoId);
+                    }
+                    Evento evento;
+                    while ((evento = fila.poll()) != null) {
+                        cliente.sendEvent(evento.tipo(), evento.dados(), prefixoId + evento.id());
+                    }
+                    if (ping) {
+                        ping = false;
+                        cliente.sendComment("ping");
+                    }
+                    agendado.set(false);
+                    // Um evento pode ter chegado depois do último poll: retoma se ninguém agendou outra entrega.
+                } while ((!fila.isEmpty() || ressincronizarEm >= 0) && agendado.compareAndSet(false, true));
+            } catch (RuntimeException e) {
+                log.warn("Falha ao entregar eventos do feed; a conexão será fechada.", e);
+                agendado.set(false);
+                assinantes.remove(this);
+                cliente.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.notes.journal;
+
+import br.com.notes.model.Tarefa;
+
+/**
+ * Recebe as operações lidas de um snapshot ou do journal durante a recuperação.
+ */
+public interface DestinoRegistros {
+
+    /**
+     * Grava a tarefa com o ID e todos os campos informados, substituindo a anterior, se existir.
+     */
+    void gravar(Tarefa tarefa);
+
+    /**
+     * Remove a tarefa com o ID informado, se existir.
+     */
+    void remover(int id);
+}
@@ -0,0 +1,382 @@
+package br.com.notes.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal de escrita sequencial (append-only) em arquivos mapeados em memória.
+ * <p>
+ * O journal é dividido em segmentos de tamanho fixo, cada um nomeado pela posição global do seu
+ * primeiro byte. Cada registro é gravado em um quadro com o tamanho e o CRC32C do conteúdo; na
+ * recuperação, um quadro incompleto ou com o CRC errado no fim do último segmento (uma escrita
+ * interrompida) marca o fim do journal e é descartado.
+ * <p>
+ * As escritas apenas copiam o quadro para o mapeamento. Uma thread em segundo plano força para o
+ * disco tudo o que foi escrito desde a última sincronização, e cada escritor espera pela sincronização
+ * que cobre o seu registro ({@link #aguardar(long)}): os registros que chegam enquanto um fsync está
+ * em andamento são sincronizados juntos no próximo (group commit).
+ */
+public final class Journal implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(Journal.class);
+    private static final String PREFIXO = "journal-";
+    private static final String SUFIXO = ".log";
+    // Tamanho e CRC do conteúdo, antes de cada registro.
+    private static final int CABECALHO_QUADRO = 8;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendente = lock.newCondition();
+    private final Condition sincronizado = lock.newCondition();
+    private final Thread sincronizador;
+
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private long inicioSegmento;
+    private long escrito;
+    private long duravel;
+    private long sincronizacoes;
+    private boolean fechado;
+    private RuntimeException falha;
+
+    private Journal(Path diretorio, int tamanhoSegmento, long inicioSegmento, int fimDosDados, boolean limpar) throws IOException {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        abrirSegmento(inicioSegmento);
+        if (limpar) {
+            // Apaga o que sobrou de uma escrita interrompida, para que não seja lido como parte de um registro novo.
+            byte[] zeros = new byte[8192];
+            for (int i = fimDosDados; i < segmento.capacity(); i += zeros.length) {
+                segmento.put(i, zeros, 0, Math.min(zeros.length, segmento.capacity() - i));
+            }
+            segmento.force();
+        }
+        this.escrito = inicioSegmento + fimDosDados;
+        this.duravel = escrito;
+        this.sincronizador = new Thread(this::sincronizar, "journal-fsync");
+        this.sincronizador.setDaemon(true);
+        this.sincronizador.start();
+    }
+
+    /**
+     * Abre o journal do diretório, reaplicando os registros a partir da posição informada,
+     * e o deixa pronto para novas escritas a partir do último registro válido.
+     *
+     * @param diretorio       o diretório dos segmentos (criado se não existir)
+     * @param tamanhoSegmento o tamanho de cada segmento, em bytes
+     * @param aPartirDe       a posição do primeiro registro a reaplicar (a do snapshot carregado, ou 0)
+     * @param aplicar         recebe o conteúdo de cada registro, em ordem
+     * @return o journal aberto
+     * @throws IllegalStateException se um segmento que não é o último estiver corrompido
+     */
+    public static Journal abrir(Path diretorio, int tamanhoSegmento, long aPartirDe, Consumer<ByteBuffer> aplicar) throws IOException {
+        Files.createDirectories(diretorio);
+        List<Long> inicios = listarSegmentos(diretorio);
+        if (inicios.isEmpty()) {
+            return new Journal(diretorio, tamanhoSegmento, aPartirDe, 0, false);
+        }
+
+        int fimDosDados = 0;
+        boolean rasgado = false;
+        for (int i = 0; i < inicios.size(); i++) {
+            long inicio = inicios.get(i);
+            boolean ultimo = i == inicios.size() - 1;
+            if (!ultimo && inicios.get(i + 1) <= aPartirDe) {
+                continue;
+            }
+            Path arquivo = arquivoSegmento(diretorio, inicio);
+            try (FileChannel leitura = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+                MappedByteBuffer dados = leitura.map(FileChannel.MapMode.READ_ONLY, 0, leitura.size());
+                int fim = lerSegmento(dados, (int) Math.max(0, aPartirDe - inicio), aplicar);
+                if (fim < 0) {
+                    if (!ultimo) {
+                        throw new IllegalStateException("Journal corrompido no segmento " + arquivo);
+                    }
+                    fim = -fim - 1;
+                    rasgado = true;
+                    log.warn("Registro incompleto descartado no fim do journal ({}, posição {}).", arquivo, inicio + fim);
+                }
+                fimDosDados = fim;
+            }
+        }
+        return new Journal(diretorio, tamanhoSegmento, inicios.get(inicios.size() - 1), fimDosDados, rasgado);
+    }
+
+    /**
+     * Anexa um registro ao journal. O registro ainda não está no disco quando o método retorna:
+     * para isso, chame {@link #aguardar(long)} com a posição devolvida.
+     *
+     * @param registro o conteúdo do registro
+     * @return a posição logo após o registro
+     */
+    public long anexar(ByteBuffer registro) {
+        int tamanho = registro.remaining();
+        if (CABECALHO_QUADRO + tamanho > tamanhoSegmento) {
+            throw new IllegalArgumentException("Registro maior que o segmento do journal: " + tamanho + " bytes.");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(registro.duplicate());
+
+        lock.lock();
+        try {
+            verificarAberto();
+            if (escrito - inicioSegmento + CABECALHO_QUADRO + tamanho > segmento.capacity()) {
+                rolar();
+            }
+            int posicao = (int) (escrito - inicioSegmento);
+            segmento.putInt(posicao + 4, (int) crc.getValue());
+            segmento.put(posicao + CABECALHO_QUADRO, registro, registro.position(), tamanho);
+            segmento.putInt(posicao, tamanho);
+            escrito += CABECALHO_QUADRO + tamanho;
+            pendente.signal();
+            return escrito;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Confere, sem escrever nada, se um registro do tamanho informado pode ser anexado agora: permite
+     * recusar uma escrita antes de aplicá-la em outro lugar.
+     *
+     * @param tamanho o tamanho do conteúdo do registro, em bytes
+     * @throws IllegalArgumentException se o registro for maior que um segmento
+     * @throws IllegalStateException    se o journal estiver fechado ou tiver falhado
+     */
+    public void verificarAnexavel(int tamanho) {
+        if (CABECALHO_QUADRO + (long) tamanho > tamanhoSegmento) {
+            throw new IllegalArgumentException("Registro maior que o segmento do journal: " + tamanho + " bytes.");
+        }
+        lock.lock();
+        try {
+            verificarAberto();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bloqueia até que tudo o que foi escrito antes da posição informada esteja no disco.
+     *
+     * @throws IllegalStateException se o journal for fechado ou falhar antes disso
+     */
+    public void aguardar(long posicao) {
+        lock.lock();
+        try {
+            while (duravel < posicao && falha == null && !fechado) {
+                sincronizado.awaitUninterruptibly();
+            }
+            if (duravel < posicao) {
+                throw new IllegalStateException("O journal foi fechado ou falhou antes de gravar o registro.", falha);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Posição logo após o último registro escrito.
+     */
+    public long posicao() {
+        lock.lock();
+        try {
+            return escrito;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quantidade de sincronizações com o disco feitas pela thread em segundo plano.
+     */
+    public long sincronizacoes() {
+        lock.lock();
+        try {
+            return sincronizacoes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apaga os segmentos que só contêm registros anteriores à posição informada
+     * (já cobertos por um snapshot). O segmento atual nunca é apagado.
+     */
+    public void descartarAte(long posicao) throws IOException {
+        List<Long> inicios = listarSegmentos(diretorio);
+        lock.lock();
+        try {
+            for (int i = 0; i < inicios.size() - 1; i++) {
+                if (inicios.get(i + 1) <= posicao && inicios.get(i) != inicioSegmento) {
+                    Files.deleteIfExists(arquivoSegmento(diretorio, inicios.get(i)));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sincroniza o que falta com o disco e fecha o journal.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (fechado) {
+                return;
+            }
+            fechado = true;
+            pendente.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            sincronizador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segmento.force();
+            canal.close();
+            sincronizado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Laço da thread de sincronização: força para o disco o intervalo escrito desde a última vez.
+     */
+    private void sincronizar() {
+        while (true) {
+            MappedByteBuffer alvo;
+            long inicio;
+            long de;
+            long ate;
+            lock.lock();
+            try {
+                while (duravel >= escrito && !fechado) {
+                    pendente.awaitUninterruptibly();
+                }
+                if (duravel >= escrito) {
+                    return;
+                }
+                alvo = segmento;
+                inicio = inicioSegmento;
+                ate = escrito;
+                de = Math.max(duravel, inicio);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                alvo.force((int) (de - inicio), (int) (ate - de));
+            } catch (RuntimeException e) {
+                log.error("Falha ao sincronizar o journal com o disco.", e);
+                lock.lock();
+                try {
+                    falha = e;
+                    sincronizado.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                duravel = Math.max(duravel, ate);
+                sincronizacoes++;
+                sincronizado.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Fecha o segmento atual (sincronizando-o por completo) e abre o próximo. Chamado com o lock.
+     */
+    private void rolar() throws IOException {
+        segmento.force();
+        canal.close();
+        abrirSegmento(escrito);
+        duravel = Math.max(duravel, escrito);
+        sincronizado.signalAll();
+    }
+
+    private void abrirSegmento(long inicio) throws IOException {
+        Path arquivo = arquivoSegmento(diretorio, inicio);
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(canal.size(), tamanhoSegmento));
+        inicioSegmento = inicio;
+    }
+
+    private void verificarAberto() {
+        if (fechado || falha != null) {
+            throw new IllegalStateException("O journal está fechado.", falha);
+        }
+    }
+
+    /**
+     * Reaplica os registros do segmento a partir da posição informada.
+     *
+     * @return a posição do fim dos dados, ou (-posição - 1) se o segmento terminar em um registro inválido
+     */
+    private static int lerSegmento(ByteBuffer dados, int posicao, Consumer<ByteBuffer> aplicar) {
+        CRC32C crc = new CRC32C();
+        while (posicao + CABECALHO_QUADRO <= dados.limit()) {
+            int tamanho = dados.getInt(posicao);
+            if (tamanho == 0) {
+                return posicao;
+            }
+            if (tamanho < 0 || posicao + CABECALHO_QUADRO + tamanho > dados.limit()) {
+                return -posicao - 1;
+            }
+            ByteBuffer registro = dados.slice(posicao + CABECALHO_QUADRO, tamanho);
+            crc.reset();
+            crc.update(registro.duplicate());
+            if ((int) crc.getValue() != dados.getInt(posicao + 4)) {
+                return -posicao - 1;
+            }
+            aplicar.accept(registro);
+            posicao += CABECALHO_QUADRO + tamanho;
+        }
+        return posicao;
+    }
+
+    private static List<Long> listarSegmentos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Path arquivoSegmento(Path diretorio, long inicio) {
+        return diretorio.resolve(String.format("%s%020d%s", PREFIXO, inicio, SUFIXO));
+    }
+}
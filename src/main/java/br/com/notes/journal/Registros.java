@@ -0,0 +1,174 @@
+package br.com.notes.journal;
+
+import br.com.notes.model.Tarefa;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binário dos registros gravados no journal e nos snapshots.
+ * <p>
+ * Cada registro começa com um byte de tipo. As gravações levam a tarefa completa (e não só os campos
+ * alterados), de modo que reaplicar um registro sobre um estado que já o contém não muda nada:
+ * isso permite gerar snapshots sem bloquear as escritas.
+ */
+public final class Registros {
+    static final byte GRAVACAO = 1;
+    static final byte REMOCAO = 2;
+    static final byte LOTE = 3;
+    // Tamanho gravado para uma descrição nula.
+    private static final int SEM_TEXTO = -1;
+    // id, versão, concluida, segundos e nanos da data de criação, e os tamanhos dos dois textos.
+    private static final int TAMANHO_FIXO_TAREFA = 4 + 4 + 1 + 8 + 4 + 4 + 4;
+
+    private Registros() {
+    }
+
+    /**
+     * Registro de criação ou atualização, com todos os campos da tarefa.
+     */
+    public static ByteBuffer gravacao(Tarefa tarefa) {
+        return lote(List.of(tarefa), GRAVACAO);
+    }
+
+    /**
+     * Registro de várias criações, recuperadas todas juntas ou nenhuma.
+     */
+    public static ByteBuffer lote(List<Tarefa> tarefas) {
+        return lote(tarefas, LOTE);
+    }
+
+    /**
+     * Tamanho, em bytes, do registro de gravação da tarefa, calculado sem montá-lo.
+     */
+    public static int tamanhoGravacao(Tarefa tarefa) {
+        return tamanho(List.of(tarefa), GRAVACAO);
+    }
+
+    /**
+     * Tamanho, em bytes, do registro de lote das tarefas, calculado sem montá-lo. O ID, a versão e a data
+     * têm tamanho fixo: o tamanho pode ser conferido antes de a escrita gerar esses campos.
+     */
+    public static int tamanhoLote(List<Tarefa> tarefas) {
+        return tamanho(tarefas, LOTE);
+    }
+
+    /**
+     * Registro de remoção de uma tarefa.
+     */
+    public static ByteBuffer remocao(int id) {
+        return ByteBuffer.allocate(5).put(REMOCAO).putInt(id).flip();
+    }
+
+    /**
+     * Lê o registro e repassa as operações ao destino.
+     *
+     * @throws IllegalArgumentException se o tipo do registro for desconhecido
+     */
+    public static void aplicar(ByteBuffer registro, DestinoRegistros destino) {
+        byte tipo = registro.get();
+        switch (tipo) {
+            case GRAVACAO -> destino.gravar(lerTarefa(registro));
+            case REMOCAO -> destino.remover(registro.getInt());
+            case LOTE -> {
+                int quantidade = registro.getInt();
+                for (int i = 0; i < quantidade; i++) {
+                    destino.gravar(lerTarefa(registro));
+                }
+            }
+            default -> throw new IllegalArgumentException("Tipo de registro desconhecido: " + tipo);
+        }
+    }
+
+    private static ByteBuffer lote(List<Tarefa> tarefas, byte tipo) {
+        List<byte[]> textos = new ArrayList<>(tarefas.size() * 2);
+        int tamanho = 1 + (tipo == LOTE ? 4 : 0);
+        for (Tarefa tarefa : tarefas) {
+            byte[] titulo = tarefa.getTitulo().getBytes(StandardCharsets.UTF_8);
+            byte[] descricao = tarefa.getDescricao() == null ? null : tarefa.getDescricao().getBytes(StandardCharsets.UTF_8);
+            textos.add(titulo);
+            textos.add(descricao);
+            tamanho += TAMANHO_FIXO_TAREFA + titulo.length + (descricao == null ? 0 : descricao.length);
+        }
+
+        ByteBuffer registro = ByteBuffer.allocate(tamanho).put(tipo);
+        if (tipo == LOTE) {
+            registro.putInt(tarefas.size());
+        }
+        for (int i = 0; i < tarefas.size(); i++) {
+            Tarefa tarefa = tarefas.get(i);
+            registro.putInt(tarefa.getId())
+                    .putInt(tarefa.getVersao())
+                    .put((byte) (tarefa.isConcluida() ? 1 : 0))
+                    .putLong(tarefa.getDataCriacao().getEpochSecond())
+                    .putInt(tarefa.getDataCriacao().getNano());
+            escreverTexto(registro, textos.get(i * 2));
+            escreverTexto(registro, textos.get(i * 2 + 1));
+        }
+        return registro.flip();
+    }
+
+    private static int tamanho(List<Tarefa> tarefas, byte tipo) {
+        long tamanho = 1 + (tipo == LOTE ? 4 : 0);
+        for (Tarefa tarefa : tarefas) {
+            tamanho += TAMANHO_FIXO_TAREFA + bytesUtf8(tarefa.getTitulo())
+                    + (tarefa.getDescricao() == null ? 0 : bytesUtf8(tarefa.getDescricao()));
+        }
+        return (int) Math.min(tamanho, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Quantidade de bytes do texto em UTF-8, como o String.getBytes, sem codificá-lo.
+     * Um surrogate sem par vira '?', com um byte.
+     */
+    private static int bytesUtf8(String texto) {
+        int bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static Tarefa lerTarefa(ByteBuffer registro) {
+        int id = registro.getInt();
+        int versao = registro.getInt();
+        boolean concluida = registro.get() == 1;
+        Instant dataCriacao = Instant.ofEpochSecond(registro.getLong(), registro.getInt());
+        String titulo = lerTexto(registro);
+        String descricao = lerTexto(registro);
+        return new Tarefa(id, titulo, descricao, concluida, dataCriacao, versao);
+    }
+
+    private static void escreverTexto(ByteBuffer registro, byte[] texto) {
+        if (texto == null) {
+            registro.putInt(SEM_TEXTO);
+        } else {
+            registro.putInt(texto.length).put(texto);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer registro) {
+        int tamanho = registro.getInt();
+        if (tamanho == SEM_TEXTO) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        registro.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,153 @@
+package br.com.notes.journal;
+
+import br.com.notes.model.Tarefa;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshots compactos do estado completo das tarefas, usados para que a recuperação não precise
+ * reaplicar o journal desde o início.
+ * <p>
+ * O arquivo tem um cabeçalho com a posição do journal a partir da qual a recuperação deve continuar
+ * e o último ID gerado, seguido de um registro de gravação por tarefa (com o mesmo quadro de tamanho
+ * e CRC32C do journal) e de um marcador de fim com a quantidade de tarefas. Ele é escrito em um arquivo
+ * temporário, sincronizado e só então renomeado, então um snapshot visível está sempre completo.
+ */
+public final class Snapshot {
+    private static final int MAGICO = 0x54534E50; // "TSNP"
+    private static final int VERSAO = 2;
+    private static final int FIM = -1;
+    private static final String PREFIXO = "snapshot-";
+    private static final String SUFIXO = ".snap";
+
+    private Snapshot() {
+    }
+
+    /**
+     * Dados do cabeçalho de um snapshot.
+     *
+     * @param posicaoJournal a posição do journal a partir da qual os registros ainda precisam ser reaplicados
+     * @param ultimoId       o último ID gerado quando o snapshot começou
+     */
+    public record Info(long posicaoJournal, int ultimoId) {
+    }
+
+    /**
+     * Grava um snapshot com as tarefas fornecidas e apaga os snapshots anteriores.
+     *
+     * @param diretorio o diretório dos snapshots
+     * @param info      o cabeçalho do snapshot
+     * @param tarefas   função que fornece o Stream de todas as tarefas (como o streamAll do repositório)
+     */
+    public static void gravar(Path diretorio, Info info, Consumer<Consumer<Stream<Tarefa>>> tarefas) throws IOException {
+        Path temporario = diretorio.resolve("snapshot.tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeLong(info.posicaoJournal());
+            saida.writeInt(info.ultimoId());
+
+            long[] quantidade = {0};
+            CRC32C crc = new CRC32C();
+            tarefas.accept(stream -> stream.forEach(tarefa -> {
+                ByteBuffer registro = Registros.gravacao(tarefa);
+                crc.reset();
+                crc.update(registro.duplicate());
+                try {
+                    saida.writeInt(registro.remaining());
+                    saida.writeInt((int) crc.getValue());
+                    saida.write(registro.array(), registro.arrayOffset(), registro.remaining());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                quantidade[0]++;
+            }));
+            saida.writeInt(FIM);
+            saida.writeLong(quantidade[0]);
+            saida.flush();
+            canal.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Path arquivo = diretorio.resolve(String.format("%s%020d%s", PREFIXO, info.posicaoJournal(), SUFIXO));
+        Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path antigo : listar(diretorio)) {
+            if (!antigo.equals(arquivo)) {
+                Files.deleteIfExists(antigo);
+            }
+        }
+    }
+
+    /**
+     * Carrega o snapshot mais recente do diretório, repassando as tarefas ao destino.
+     *
+     * @return o cabeçalho do snapshot carregado, ou vazio se não houver snapshot
+     * @throws IllegalStateException se o snapshot estiver incompleto ou corrompido
+     */
+    public static Optional<Info> carregar(Path diretorio, DestinoRegistros destino) throws IOException {
+        List<Path> snapshots = listar(diretorio);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        Path arquivo = snapshots.get(snapshots.size() - 1);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO) {
+                throw new IllegalStateException("Arquivo de snapshot inválido: " + arquivo);
+            }
+            Info info = new Info(entrada.readLong(), entrada.readInt());
+
+            CRC32C crc = new CRC32C();
+            long lidas = 0;
+            int tamanho;
+            while ((tamanho = entrada.readInt()) != FIM) {
+                int esperado = entrada.readInt();
+                byte[] registro = new byte[tamanho];
+                entrada.readFully(registro);
+                crc.reset();
+                crc.update(registro);
+                if ((int) crc.getValue() != esperado) {
+                    throw new IllegalStateException("Snapshot corrompido: " + arquivo);
+                }
+                Registros.aplicar(ByteBuffer.wrap(registro), destino);
+                lidas++;
+            }
+            if (entrada.readLong() != lidas) {
+                throw new IllegalStateException("Snapshot incompleto: " + arquivo);
+            }
+            return Optional.of(info);
+        } catch (EOFException e) {
+            throw new IllegalStateException("Snapshot incompleto: " + arquivo, e);
+        }
+    }
+
+    private static List<Path> listar(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith(PREFIXO)
+                            && arquivo.getFileName().toString().endsWith(SUFIXO))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
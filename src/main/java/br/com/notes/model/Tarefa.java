@@ -9,17 +9,24 @@ public class Tarefa {
     private String descricao;
     private boolean concluida;
     private Instant dataCriacao;
+    // Começa em 1 na criação e é incrementada a cada atualização da tarefa.
+    private int versao;
 
     public Tarefa() {
         // Construtor padrão
     }
 
     public Tarefa(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao) {
+        this(id, titulo, descricao, concluida, dataCriacao, 1);
+    }
+
+    public Tarefa(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao, int versao) {
         this.id = id;
         this.titulo = titulo;
         this.descricao = descricao;
         this.concluida = concluida;
         this.dataCriacao = dataCriacao;
+        this.versao = versao;
     }
 
     public int getId() {
@@ -61,4 +68,12 @@ public class Tarefa {
     public void setTitulo(String titulo) {
         this.titulo = titulo;
     }
+
+    public int getVersao() {
+        return versao;
+    }
+
+    public void setVersao(int versao) {
+        this.versao = versao;
+    }
 }
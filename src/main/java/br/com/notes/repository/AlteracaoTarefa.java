@@ -0,0 +1,36 @@
+package br.com.notes.repository;
+
+/**
+ * Alteração parcial de uma tarefa (JSON Merge Patch): só os campos presentes são gravados.
+ * Título e status nulos indicam campos ausentes; a descrição, que aceita nulo, tem um
+ * indicador próprio de presença.
+ *
+ * @param titulo           O novo título, ou nulo para manter o atual.
+ * @param alteraDescricao  Se a descrição deve ser substituída (inclusive por nulo).
+ * @param descricao        A nova descrição, usada apenas se alteraDescricao for verdadeiro.
+ * @param concluida        O novo status, ou nulo para manter o atual.
+ */
+public record AlteracaoTarefa(String titulo, boolean alteraDescricao, String descricao, Boolean concluida) {
+
+    /**
+     * Alteração apenas do status, o caso mais comum (marcar e desmarcar a tarefa como concluída).
+     */
+    public static AlteracaoTarefa concluida(boolean concluida) {
+        return new AlteracaoTarefa(null, false, null, concluida);
+    }
+
+    /**
+     * Indica se nenhum campo foi informado.
+     */
+    public boolean vazia() {
+        return titulo == null && !alteraDescricao && concluida == null;
+    }
+
+    /**
+     * Indica se só o status é alterado. Os motores usam um caminho dedicado para esse caso,
+     * que não toca nas colunas de texto.
+     */
+    public boolean somenteConcluida() {
+        return titulo == null && !alteraDescricao && concluida != null;
+    }
+}
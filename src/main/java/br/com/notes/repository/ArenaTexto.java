@@ -0,0 +1,67 @@
+package br.com.notes.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Área de memória fora do heap onde os textos das tarefas são gravados em UTF-8, um após o outro.
+ * <p>
+ * A arena é formada por blocos diretos de tamanho fixo; cada texto é identificado por uma
+ * referência long (índice do bloco nos 32 bits altos, posição no bloco nos 32 bits baixos)
+ * e pelo seu tamanho em bytes. Textos substituídos ou removidos não são reaproveitados no lugar:
+ * o espaço perdido é contabilizado e recuperado por quem usa a arena, copiando os textos vivos
+ * para uma arena nova. Não é thread-safe.
+ */
+final class ArenaTexto {
+    private final int tamanhoBloco;
+    private final List<ByteBuffer> blocos = new ArrayList<>();
+    private ByteBuffer blocoAtual;
+    private long bytesGravados;
+
+    ArenaTexto(int tamanhoBloco) {
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Grava o texto e retorna a sua referência.
+     */
+    long gravar(byte[] bytes) {
+        if (blocoAtual == null || blocoAtual.remaining() < bytes.length) {
+            // Textos maiores que o bloco ganham um bloco exclusivo, do tamanho exato.
+            blocoAtual = ByteBuffer.allocateDirect(Math.max(tamanhoBloco, bytes.length));
+            blocos.add(blocoAtual);
+        }
+        int posicao = blocoAtual.position();
+        blocoAtual.put(bytes);
+        bytesGravados += bytes.length;
+        return ((long) (blocos.size() - 1) << 32) | posicao;
+    }
+
+    String ler(long referencia, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        blocos.get((int) (referencia >>> 32)).get((int) referencia, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copia um texto desta arena para outra, sem decodificá-lo, e retorna a referência na arena de destino.
+     */
+    long copiarPara(ArenaTexto destino, long referencia, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        blocos.get((int) (referencia >>> 32)).get((int) referencia, bytes);
+        return destino.gravar(bytes);
+    }
+
+    /**
+     * Total de bytes já gravados, incluindo os de textos que não estão mais em uso.
+     */
+    long bytesGravados() {
+        return bytesGravados;
+    }
+
+    static byte[] codificar(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jdbi.v3.core.Jdbi;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório de tarefas com um cache de leitura (read-through) na frente do findById.
+ * <p>
+ * O cache é limitado em tamanho e em tempo de vida, usa a política de admissão W-TinyLFU do
+ * Caffeine (que privilegia as tarefas mais acessadas) e é invalidado a cada insert, update ou delete.
+ * Apenas tarefas encontradas são armazenadas; consultas por IDs inexistentes sempre vão ao banco.
+ */
+public class CachedTarefaRepository extends JdbiTarefaRepository {
+    private final Cache<Integer, Tarefa> cache;
+
+    public CachedTarefaRepository(Jdbi dataSource, long tamanhoMaximo, Duration tempoDeVida) {
+        super(dataSource);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(tempoDeVida)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Busca a tarefa no cache e, se não estiver lá, no banco de dados.
+     * Retorna sempre uma cópia, para que alterações feitas pelo chamador não afetem o cache.
+     *
+     * @param id ID da tarefa a ser buscada.
+     * @return Optional contendo a tarefa, se encontrada.
+     */
+    @Override
+    public Optional<Tarefa> findById(int id) {
+        Tarefa tarefa = cache.get(id, chave -> super.findById(chave).orElse(null));
+        return Optional.ofNullable(tarefa).map(CachedTarefaRepository::copiar);
+    }
+
+    @Override
+    public Tarefa insert(Tarefa tarefa) {
+        Tarefa inserida = super.insert(tarefa);
+        cache.invalidate(inserida.getId());
+        return inserida;
+    }
+
+    @Override
+    public List<Tarefa> insertAll(List<Tarefa> tarefas) {
+        List<Tarefa> inseridas = super.insertAll(tarefas);
+        inseridas.forEach(tarefa -> cache.invalidate(tarefa.getId()));
+        return inseridas;
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa) {
+        Optional<Tarefa> atualizada = super.update(tarefa);
+        cache.invalidate(tarefa.getId());
+        return atualizada;
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada) {
+        Optional<Tarefa> atualizada = super.update(tarefa, versaoEsperada);
+        cache.invalidate(tarefa.getId());
+        return atualizada;
+    }
+
+    @Override
+    public Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada) {
+        Optional<Tarefa> alterada = super.patch(id, alteracao, versaoEsperada);
+        cache.invalidate(id);
+        return alterada;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        boolean removida = super.delete(id);
+        cache.invalidate(id);
+        return removida;
+    }
+
+    /**
+     * Retorna os contadores de acertos, falhas e remoções do cache.
+     *
+     * @return Estatísticas acumuladas desde a criação do repositório.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Publica os contadores do cache no registro de métricas informado.
+     *
+     * @param registry o registro de métricas da aplicação
+     */
+    public void registrarMetricas(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tarefas");
+    }
+
+    /**
+     * Retorna a quantidade aproximada de tarefas atualmente em cache.
+     */
+    public long tamanho() {
+        return cache.estimatedSize();
+    }
+
+    private static Tarefa copiar(Tarefa tarefa) {
+        return new Tarefa(tarefa.getId(), tarefa.getTitulo(), tarefa.getDescricao(),
+                tarefa.isConcluida(), tarefa.getDataCriacao(), tarefa.getVersao());
+    }
+}
@@ -0,0 +1,630 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Motor de armazenamento de tarefas em colunas fora do heap, para bases com dezenas de milhões de tarefas.
+ * <p>
+ * Cada tarefa ocupa uma posição (slot) em colunas de buffers diretos: ID, data de criação em
+ * milissegundos, referência e tamanho do título e da descrição (gravados em UTF-8 em uma
+ * {@link ArenaTexto}) e dois bitmaps, um com os slots ocupados e outro com as tarefas concluídas.
+ * Um índice ID → slot, também fora do heap, dá acesso direto por ID e permite percorrer as tarefas
+ * em ordem de ID. Os slots liberados pelo delete vão para uma lista de livres e são reaproveitados
+ * pelos próximos inserts; o espaço dos textos substituídos é recuperado compactando a arena.
+ * <p>
+ * O heap guarda apenas as referências aos buffers, então o tamanho da base não aumenta as pausas do GC.
+ * Os filtros são avaliados direto nas colunas e só as tarefas da página são convertidas em objetos.
+ * Um único lock de leitura/escrita protege as colunas: as leituras são paralelas, as escritas são exclusivas.
+ * Cada escrita é registrada no {@link LogMudancas} ainda com o lock de escrita.
+ * A data de criação é guardada com precisão de milissegundos e os dados não sobrevivem a um reinício.
+ */
+public class ColunarTarefaRepository implements TarefaRepositoryRestauravel {
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int TAMANHO_BLOCO_TEXTO = 8 * 1024 * 1024;
+    // Tamanho gravado para uma descrição nula.
+    private static final int SEM_TEXTO = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int tamanhoBlocoTexto;
+
+    // Colunas indexadas pelo slot.
+    private ByteBuffer ids;
+    private ByteBuffer datasCriacao;
+    private ByteBuffer versoes;
+    private ByteBuffer refsTitulo;
+    private ByteBuffer tamanhosTitulo;
+    private ByteBuffer refsDescricao;
+    private ByteBuffer tamanhosDescricao;
+    private ByteBuffer ocupados;
+    private ByteBuffer concluidas;
+    private int capacidade;
+    private int proximoSlot;
+
+    // Índice ID → slot + 1 (0 indica que o ID não existe), indexado pelo ID.
+    private ByteBuffer slotPorId;
+    private int sequencia;
+
+    // Pilha de slots liberados pelo delete.
+    private ByteBuffer slotsLivres;
+    private int quantidadeLivres;
+
+    private ArenaTexto textos;
+    private long bytesTextoVivos;
+    private final LogMudancas mudancas = new LogMudancas();
+
+    public ColunarTarefaRepository() {
+        this(CAPACIDADE_INICIAL, TAMANHO_BLOCO_TEXTO);
+    }
+
+    ColunarTarefaRepository(int capacidadeInicial, int tamanhoBlocoTexto) {
+        this.tamanhoBlocoTexto = tamanhoBlocoTexto;
+        this.capacidade = Math.max(64, Integer.highestOneBit(capacidadeInicial - 1) << 1);
+        ids = alocar(capacidade * 4L);
+        datasCriacao = alocar(capacidade * 8L);
+        versoes = alocar(capacidade * 4L);
+        refsTitulo = alocar(capacidade * 8L);
+        tamanhosTitulo = alocar(capacidade * 4L);
+        refsDescricao = alocar(capacidade * 8L);
+        tamanhosDescricao = alocar(capacidade * 4L);
+        ocupados = alocar(capacidade / 8L);
+        concluidas = alocar(capacidade / 8L);
+        slotPorId = alocar(capacidade * 4L);
+        slotsLivres = alocar(capacidade * 4L);
+        textos = new ArenaTexto(tamanhoBlocoTexto);
+    }
+
+    @Override
+    public List<Tarefa> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Tarefa> tarefas = new ArrayList<>();
+            for (int id = 1; id <= sequencia; id++) {
+                int slot = slot(id);
+                if (slot >= 0) {
+                    tarefas.add(materializar(slot));
+                }
+            }
+            return tarefas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Percorre as tarefas em ordem de ID, segurando o lock de leitura apenas para cada tarefa,
+     * para que um consumidor lento não bloqueie as escritas.
+     */
+    @Override
+    public void streamAll(Consumer<Stream<Tarefa>> consumidor) {
+        int ultimo = lerSequencia();
+        consumidor.accept(IntStream.rangeClosed(1, ultimo)
+                .mapToObj(id -> findById(id).orElse(null))
+                .filter(Objects::nonNull));
+    }
+
+    /**
+     * Percorre os IDs em ordem, lendo as colunas de cada tarefa com o lock de leitura e chamando o visitante
+     * já sem o lock, para que um visitante lento não atrase as escritas.
+     */
+    @Override
+    public void visitarTodas(VisitanteTarefas visitante) {
+        int ultimo = lerSequencia();
+        for (int id = 1; id <= ultimo; id++) {
+            String titulo;
+            String descricao;
+            boolean concluida;
+            long dataCriacao;
+            int versao;
+            lock.readLock().lock();
+            try {
+                int slot = slot(id);
+                if (slot < 0) {
+                    continue;
+                }
+                int tamanhoDescricao = tamanhosDescricao.getInt(slot * 4);
+                titulo = textos.ler(refsTitulo.getLong(slot * 8), tamanhosTitulo.getInt(slot * 4));
+                descricao = tamanhoDescricao == SEM_TEXTO ? null : textos.ler(refsDescricao.getLong(slot * 8), tamanhoDescricao);
+                concluida = bit(concluidas, slot);
+                dataCriacao = datasCriacao.getLong(slot * 8);
+                versao = versoes.getInt(slot * 4);
+            } finally {
+                lock.readLock().unlock();
+            }
+            visitante.visitar(id, titulo, descricao, concluida, Instant.ofEpochMilli(dataCriacao), versao);
+        }
+    }
+
+    @Override
+    public List<Tarefa> findPage(int afterId, int limit) {
+        return findPage(new FiltroTarefas(null, null, null, FiltroTarefas.Ordenacao.ID),
+                afterId <= 0 ? null : new FiltroTarefas.Posicao(afterId, null), limit);
+    }
+
+    /**
+     * Busca uma página de tarefas filtradas. Nas ordenações por ID, percorre o índice ID → slot a partir
+     * do cursor e para assim que a página estiver completa; nas ordenações por data, varre os bitmaps
+     * palavra a palavra e mantém apenas as melhores tarefas em um heap do tamanho da página.
+     * Em ambos os casos, os filtros são avaliados nas colunas e só a página é convertida em objetos.
+     */
+    @Override
+    public List<Tarefa> findPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit) {
+        long de = filtro.criadaDe() == null ? Long.MIN_VALUE : tetoMillis(filtro.criadaDe());
+        long ate = filtro.criadaAte() == null ? Long.MAX_VALUE : tetoMillis(filtro.criadaAte());
+        lock.readLock().lock();
+        try {
+            if (filtro.ordenacao().porDataCriacao()) {
+                return paginaPorData(filtro, de, ate, posicao, limit);
+            }
+            List<Tarefa> tarefas = new ArrayList<>(Math.min(limit, 1024));
+            boolean crescente = filtro.ordenacao() == FiltroTarefas.Ordenacao.ID;
+            int passo = crescente ? 1 : -1;
+            int inicio = posicao == null ? (crescente ? 1 : sequencia) : Math.min(posicao.id() + passo, sequencia);
+            for (int id = inicio; id >= 1 && id <= sequencia && tarefas.size() < limit; id += passo) {
+                int slot = slot(id);
+                if (slot >= 0 && atende(slot, filtro.concluida(), de, ate)) {
+                    tarefas.add(materializar(slot));
+                }
+            }
+            return tarefas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Tarefa> findById(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = slot(id);
+            return slot < 0 ? Optional.empty() : Optional.of(materializar(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Tarefa> findByIds(Collection<Integer> ids) {
+        lock.readLock().lock();
+        try {
+            List<Tarefa> tarefas = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                int slot = slot(id);
+                if (slot >= 0) {
+                    tarefas.add(materializar(slot));
+                }
+            }
+            return tarefas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Tarefa insert(Tarefa tarefa) {
+        byte[] titulo = ArenaTexto.codificar(tarefa.getTitulo());
+        byte[] descricao = tarefa.getDescricao() == null ? null : ArenaTexto.codificar(tarefa.getDescricao());
+        lock.writeLock().lock();
+        try {
+            int slot = inserir(titulo, descricao, System.currentTimeMillis());
+            mudancas.registrar(ids.getInt(slot * 4), false);
+            return materializar(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Tarefa> insertAll(List<Tarefa> tarefas) {
+        List<Tarefa> inseridas = new ArrayList<>(tarefas.size());
+        long agora = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            for (Tarefa tarefa : tarefas) {
+                byte[] descricao = tarefa.getDescricao() == null ? null : ArenaTexto.codificar(tarefa.getDescricao());
+                int slot = inserir(ArenaTexto.codificar(tarefa.getTitulo()), descricao, agora);
+                mudancas.registrar(ids.getInt(slot * 4), false);
+                inseridas.add(materializar(slot));
+            }
+            return inseridas;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa) {
+        return atualizar(tarefa, QUALQUER_VERSAO);
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada) {
+        return atualizar(tarefa, versaoEsperada);
+    }
+
+    private Optional<Tarefa> atualizar(Tarefa tarefa, int versaoEsperada) {
+        byte[] titulo = ArenaTexto.codificar(tarefa.getTitulo());
+        byte[] descricao = tarefa.getDescricao() == null ? null : ArenaTexto.codificar(tarefa.getDescricao());
+        lock.writeLock().lock();
+        try {
+            int slot = slot(tarefa.getId());
+            if (slot < 0 || (versaoEsperada != QUALQUER_VERSAO && versoes.getInt(slot * 4) != versaoEsperada)) {
+                return Optional.empty();
+            }
+            bytesTextoVivos -= bytesTexto(slot);
+            gravarTextos(slot, titulo, descricao);
+            definirBit(concluidas, slot, tarefa.isConcluida());
+            versoes.putInt(slot * 4, versoes.getInt(slot * 4) + 1);
+            compactarSeNecessario();
+            mudancas.registrar(ids.getInt(slot * 4), false);
+            return Optional.of(materializar(slot));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Altera apenas as colunas dos campos presentes. Só o status alterado é o caminho mais barato:
+     * troca um bit e a versão, sem gravar nada na arena de textos.
+     */
+    @Override
+    public Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada) {
+        byte[] titulo = alteracao.titulo() == null ? null : ArenaTexto.codificar(alteracao.titulo());
+        byte[] descricao = alteracao.alteraDescricao() && alteracao.descricao() != null
+                ? ArenaTexto.codificar(alteracao.descricao()) : null;
+        lock.writeLock().lock();
+        try {
+            int slot = slot(id);
+            if (slot < 0 || (versaoEsperada != QUALQUER_VERSAO && versoes.getInt(slot * 4) != versaoEsperada)) {
+                return Optional.empty();
+            }
+            if (!alteracao.somenteConcluida()) {
+                bytesTextoVivos -= bytesTexto(slot);
+                if (titulo != null) {
+                    gravarTitulo(slot, titulo);
+                }
+                if (alteracao.alteraDescricao()) {
+                    gravarDescricao(slot, descricao);
+                }
+                bytesTextoVivos += bytesTexto(slot);
+            }
+            if (alteracao.concluida() != null) {
+                definirBit(concluidas, slot, alteracao.concluida());
+            }
+            versoes.putInt(slot * 4, versoes.getInt(slot * 4) + 1);
+            compactarSeNecessario();
+            mudancas.registrar(ids.getInt(slot * 4), false);
+            return Optional.of(materializar(slot));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = slot(id);
+            if (slot < 0) {
+                return false;
+            }
+            bytesTextoVivos -= bytesTexto(slot);
+            slotPorId.putInt(id * 4, 0);
+            ids.putInt(slot * 4, 0);
+            definirBit(ocupados, slot, false);
+            definirBit(concluidas, slot, false);
+            slotsLivres.putInt(quantidadeLivres++ * 4, slot);
+            compactarSeNecessario();
+            mudancas.registrar(id, true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<List<MudancaTarefa>> findMudancas(long desde, int limite) {
+        return mudancas.buscar(desde, limite, id -> findById(id).orElse(null));
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        return mudancas.ultimaSequencia();
+    }
+
+    @Override
+    public int compactarMudancas(long ateSequencia) {
+        return mudancas.compactar(ateSequencia);
+    }
+
+    @Override
+    public void restaurar(Tarefa tarefa) {
+        byte[] titulo = ArenaTexto.codificar(tarefa.getTitulo());
+        byte[] descricao = tarefa.getDescricao() == null ? null : ArenaTexto.codificar(tarefa.getDescricao());
+        lock.writeLock().lock();
+        try {
+            int slot = slot(tarefa.getId());
+            if (slot < 0) {
+                ajustarSequencia(tarefa.getId());
+                slot = inserir(tarefa.getId(), titulo, descricao, tarefa.getDataCriacao().toEpochMilli());
+            } else {
+                bytesTextoVivos -= bytesTexto(slot);
+                gravarTextos(slot, titulo, descricao);
+                datasCriacao.putLong(slot * 8, tarefa.getDataCriacao().toEpochMilli());
+                compactarSeNecessario();
+            }
+            definirBit(concluidas, slot, tarefa.isConcluida());
+            versoes.putInt(slot * 4, tarefa.getVersao());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int ultimoId() {
+        return lerSequencia();
+    }
+
+    @Override
+    public void ajustarUltimoId(int id) {
+        lock.writeLock().lock();
+        try {
+            ajustarSequencia(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quantidade de slots já usados, incluindo os que estão na lista de livres.
+     */
+    int slotsAlocados() {
+        lock.readLock().lock();
+        try {
+            return proximoSlot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total de bytes gravados na arena de textos atual, incluindo os de textos que não estão mais em uso.
+     */
+    long bytesArena() {
+        lock.readLock().lock();
+        try {
+            return textos.bytesGravados();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Tarefa> paginaPorData(FiltroTarefas filtro, long de, long ate, FiltroTarefas.Posicao posicao, int limit) {
+        int sentido = filtro.ordenacao() == FiltroTarefas.Ordenacao.DATA_CRIACAO_DESC ? -1 : 1;
+        long dataCursor = posicao == null ? 0 : posicao.dataCriacao().toEpochMilli();
+        // Heap com a pior tarefa da página no topo, para ser descartada quando surgir uma melhor.
+        PriorityQueue<Integer> melhores = new PriorityQueue<>(limit + 1, (a, b) -> sentido * comparar(b, a));
+
+        for (int palavra = 0; palavra < (proximoSlot + 63) / 64; palavra++) {
+            long candidatos = ocupados.getLong(palavra * 8);
+            if (filtro.concluida() != null) {
+                long bits = concluidas.getLong(palavra * 8);
+                candidatos &= filtro.concluida() ? bits : ~bits;
+            }
+            while (candidatos != 0) {
+                int slot = palavra * 64 + Long.numberOfTrailingZeros(candidatos);
+                candidatos &= candidatos - 1;
+                if (!atende(slot, null, de, ate)) {
+                    continue;
+                }
+                if (posicao != null && sentido * comparar(slot, dataCursor, posicao.id()) <= 0) {
+                    continue;
+                }
+                if (melhores.size() < limit) {
+                    melhores.add(slot);
+                } else if (limit > 0 && sentido * comparar(slot, melhores.peek()) < 0) {
+                    melhores.poll();
+                    melhores.add(slot);
+                }
+            }
+        }
+
+        List<Integer> slots = new ArrayList<>(melhores);
+        slots.sort((a, b) -> sentido * comparar(a, b));
+        List<Tarefa> tarefas = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            tarefas.add(materializar(slot));
+        }
+        return tarefas;
+    }
+
+    private int inserir(byte[] titulo, byte[] descricao, long dataCriacao) {
+        ajustarSequencia(sequencia + 1);
+        return inserir(sequencia, titulo, descricao, dataCriacao);
+    }
+
+    /**
+     * Avança a sequência de IDs e garante que o índice ID → slot comporte o novo último ID.
+     */
+    private void ajustarSequencia(int id) {
+        if (id <= sequencia) {
+            return;
+        }
+        while ((long) id * 4 >= slotPorId.capacity()) {
+            slotPorId = crescer(slotPorId, slotPorId.capacity() * 2L);
+        }
+        sequencia = id;
+    }
+
+    private int inserir(int id, byte[] titulo, byte[] descricao, long dataCriacao) {
+        int slot;
+        if (quantidadeLivres > 0) {
+            slot = slotsLivres.getInt(--quantidadeLivres * 4);
+        } else {
+            if (proximoSlot == capacidade) {
+                crescerColunas();
+            }
+            slot = proximoSlot++;
+        }
+
+        ids.putInt(slot * 4, id);
+        datasCriacao.putLong(slot * 8, dataCriacao);
+        versoes.putInt(slot * 4, 1);
+        gravarTextos(slot, titulo, descricao);
+        definirBit(ocupados, slot, true);
+        definirBit(concluidas, slot, false);
+        slotPorId.putInt(id * 4, slot + 1);
+        return slot;
+    }
+
+    private void gravarTextos(int slot, byte[] titulo, byte[] descricao) {
+        gravarTitulo(slot, titulo);
+        gravarDescricao(slot, descricao);
+        bytesTextoVivos += bytesTexto(slot);
+    }
+
+    private void gravarTitulo(int slot, byte[] titulo) {
+        refsTitulo.putLong(slot * 8, textos.gravar(titulo));
+        tamanhosTitulo.putInt(slot * 4, titulo.length);
+    }
+
+    private void gravarDescricao(int slot, byte[] descricao) {
+        if (descricao == null) {
+            tamanhosDescricao.putInt(slot * 4, SEM_TEXTO);
+        } else {
+            refsDescricao.putLong(slot * 8, textos.gravar(descricao));
+            tamanhosDescricao.putInt(slot * 4, descricao.length);
+        }
+    }
+
+    /**
+     * Copia os textos vivos para uma arena nova quando mais da metade da arena atual é espaço perdido.
+     */
+    private void compactarSeNecessario() {
+        long perdidos = textos.bytesGravados() - bytesTextoVivos;
+        if (perdidos <= Math.max(tamanhoBlocoTexto, bytesTextoVivos)) {
+            return;
+        }
+        ArenaTexto nova = new ArenaTexto(tamanhoBlocoTexto);
+        for (int slot = 0; slot < proximoSlot; slot++) {
+            if (!bit(ocupados, slot)) {
+                continue;
+            }
+            refsTitulo.putLong(slot * 8, textos.copiarPara(nova, refsTitulo.getLong(slot * 8), tamanhosTitulo.getInt(slot * 4)));
+            int tamanhoDescricao = tamanhosDescricao.getInt(slot * 4);
+            if (tamanhoDescricao != SEM_TEXTO) {
+                refsDescricao.putLong(slot * 8, textos.copiarPara(nova, refsDescricao.getLong(slot * 8), tamanhoDescricao));
+            }
+        }
+        textos = nova;
+    }
+
+    private void crescerColunas() {
+        long novaCapacidade = capacidade * 2L;
+        ids = crescer(ids, novaCapacidade * 4);
+        datasCriacao = crescer(datasCriacao, novaCapacidade * 8);
+        versoes = crescer(versoes, novaCapacidade * 4);
+        refsTitulo = crescer(refsTitulo, novaCapacidade * 8);
+        tamanhosTitulo = crescer(tamanhosTitulo, novaCapacidade * 4);
+        refsDescricao = crescer(refsDescricao, novaCapacidade * 8);
+        tamanhosDescricao = crescer(tamanhosDescricao, novaCapacidade * 4);
+        ocupados = crescer(ocupados, novaCapacidade / 8);
+        concluidas = crescer(concluidas, novaCapacidade / 8);
+        slotsLivres = crescer(slotsLivres, novaCapacidade * 4);
+        capacidade = (int) novaCapacidade;
+    }
+
+    private Tarefa materializar(int slot) {
+        int tamanhoDescricao = tamanhosDescricao.getInt(slot * 4);
+        return new Tarefa(
+                ids.getInt(slot * 4),
+                textos.ler(refsTitulo.getLong(slot * 8), tamanhosTitulo.getInt(slot * 4)),
+                tamanhoDescricao == SEM_TEXTO ? null : textos.ler(refsDescricao.getLong(slot * 8), tamanhoDescricao),
+                bit(concluidas, slot),
+                Instant.ofEpochMilli(datasCriacao.getLong(slot * 8)),
+                versoes.getInt(slot * 4)
+        );
+    }
+
+    private boolean atende(int slot, Boolean concluida, long de, long ate) {
+        if (concluida != null && bit(concluidas, slot) != concluida) {
+            return false;
+        }
+        long dataCriacao = datasCriacao.getLong(slot * 8);
+        return dataCriacao >= de && dataCriacao < ate;
+    }
+
+    private int comparar(int slotA, int slotB) {
+        return comparar(slotA, datasCriacao.getLong(slotB * 8), ids.getInt(slotB * 4));
+    }
+
+    private int comparar(int slot, long dataCriacao, int id) {
+        int porData = Long.compare(datasCriacao.getLong(slot * 8), dataCriacao);
+        return porData != 0 ? porData : Integer.compare(ids.getInt(slot * 4), id);
+    }
+
+    private int slot(int id) {
+        if (id <= 0 || id > sequencia) {
+            return -1;
+        }
+        return slotPorId.getInt(id * 4) - 1;
+    }
+
+    private int lerSequencia() {
+        lock.readLock().lock();
+        try {
+            return sequencia;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long bytesTexto(int slot) {
+        return tamanhosTitulo.getInt(slot * 4) + Math.max(0, tamanhosDescricao.getInt(slot * 4));
+    }
+
+    private static boolean bit(ByteBuffer bitmap, int slot) {
+        return (bitmap.getLong((slot >>> 6) * 8) & (1L << slot)) != 0;
+    }
+
+    private static void definirBit(ByteBuffer bitmap, int slot, boolean valor) {
+        int posicao = (slot >>> 6) * 8;
+        long palavra = bitmap.getLong(posicao);
+        bitmap.putLong(posicao, valor ? palavra | (1L << slot) : palavra & ~(1L << slot));
+    }
+
+    /**
+     * Converte para milissegundos arredondando para cima, para que a comparação com as datas
+     * guardadas em milissegundos dê o mesmo resultado da comparação entre os instantes.
+     */
+    private static long tetoMillis(Instant instante) {
+        long millis = instante.toEpochMilli();
+        return instante.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    private static ByteBuffer alocar(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Capacidade máxima do armazenamento colunar atingida.");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer crescer(ByteBuffer atual, long bytes) {
+        ByteBuffer novo = alocar(bytes);
+        novo.put(0, atual, 0, atual.capacity());
+        return novo;
+    }
+}
@@ -0,0 +1,240 @@
+package br.com.notes.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrupa as escritas concorrentes no banco em uma única transação (group commit).
+ * <p>
+ * Cada escrita é colocada em uma fila e a thread da requisição aguarda o seu futuro. Uma thread
+ * em segundo plano retira da fila até {@code maximoOperacoes} escritas, esperando no máximo
+ * {@code janela} por outras que cheguem logo depois da primeira, e executa todas com a mesma
+ * conexão e um único commit. O futuro de cada escrita só é completado depois do commit.
+ * <p>
+ * Se alguma escrita do lote falhar, a transação inteira é desfeita e as escritas são refeitas uma a
+ * uma, cada uma em sua própria transação: só a escrita com problema recebe o erro, as demais não
+ * são afetadas.
+ */
+public class EscritaAgrupada implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(EscritaAgrupada.class);
+    private static final long ESPERA_FILA_VAZIA_MS = 100;
+
+    private final Jdbi dataSource;
+    private final int maximoOperacoes;
+    private final long janelaNanos;
+    private final BlockingQueue<Operacao<?>> fila;
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder operacoes = new LongAdder();
+    private final LongAdder refeitas = new LongAdder();
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+
+    /**
+     * Cria o agrupador e inicia a thread que executa os lotes.
+     *
+     * @param dataSource      o Jdbi usado para abrir as transações
+     * @param maximoOperacoes quantidade máxima de escritas por transação
+     * @param janela          tempo máximo de espera por outras escritas depois da primeira do lote
+     */
+    public EscritaAgrupada(Jdbi dataSource, int maximoOperacoes, Duration janela) {
+        if (maximoOperacoes <= 0) {
+            throw new IllegalArgumentException("A quantidade máxima de operações deve ser positiva: " + maximoOperacoes);
+        }
+        this.dataSource = dataSource;
+        this.maximoOperacoes = maximoOperacoes;
+        this.janelaNanos = janela.toNanos();
+        // Fila limitada: se o banco não acompanhar, as requisições aguardam em vez de acumular memória.
+        this.fila = new ArrayBlockingQueue<>(maximoOperacoes * 4);
+        this.escritor = new Thread(this::executarLotes, "escrita-agrupada");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Enfileira uma escrita e aguarda o commit do lote em que ela foi incluída.
+     * As exceções lançadas pela escrita são repassadas ao chamador sem alteração.
+     *
+     * @param escrita comandos a executar com a conexão do lote, sem controlar a transação
+     * @return o resultado da escrita, depois do commit
+     */
+    public <T> T executar(HandleCallback<T, RuntimeException> escrita) {
+        try {
+            return enfileirar(escrita).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Enfileira uma escrita sem aguardar. O futuro é completado depois do commit do lote
+     * ou, em caso de erro, com a exceção lançada pela escrita.
+     *
+     * @param escrita comandos a executar com a conexão do lote, sem controlar a transação
+     * @return o futuro com o resultado da escrita
+     */
+    public <T> CompletableFuture<T> enfileirar(HandleCallback<T, RuntimeException> escrita) {
+        var operacao = new Operacao<>(escrita, new CompletableFuture<T>());
+        try {
+            // Com a fila cheia, aguarda em intervalos curtos: um close no meio da espera é percebido.
+            while (!fila.offer(operacao, ESPERA_FILA_VAZIA_MS, TimeUnit.MILLISECONDS)) {
+                if (!ativo || !escritor.isAlive()) {
+                    throw new IllegalStateException("O agrupador de escritas está fechado.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando espaço na fila de escritas.", e);
+        }
+        // O close pode ter acontecido durante o offer, depois que o escritor e o próprio close esvaziaram a fila.
+        // Se a operação ainda estiver lá, ninguém mais vai retirá-la: sai da fila e falha aqui. Se não estiver,
+        // quem a retirou completa o futuro.
+        if (!ativo && fila.remove(operacao)) {
+            throw new IllegalStateException("O agrupador de escritas está fechado.");
+        }
+        return operacao.futuro();
+    }
+
+    /**
+     * Retorna quantas transações foram confirmadas.
+     */
+    public long commits() {
+        return commits.sum();
+    }
+
+    /**
+     * Retorna quantas escritas foram executadas, com sucesso ou não.
+     */
+    public long operacoes() {
+        return operacoes.sum();
+    }
+
+    /**
+     * Publica os contadores de commits, escritas e lotes refeitos no registro de métricas informado.
+     *
+     * @param registry o registro de métricas da aplicação
+     */
+    public void registrarMetricas(MeterRegistry registry) {
+        FunctionCounter.builder("tarefas_escrita_commits", commits, LongAdder::sum)
+                .description("Transações confirmadas pelo agrupador de escritas")
+                .register(registry);
+        FunctionCounter.builder("tarefas_escrita_operacoes", operacoes, LongAdder::sum)
+                .description("Escritas executadas pelo agrupador de escritas")
+                .register(registry);
+        FunctionCounter.builder("tarefas_escrita_lotes_refeitos", refeitas, LongAdder::sum)
+                .description("Lotes desfeitos por erro e refeitos escrita a escrita")
+                .register(registry);
+    }
+
+    /**
+     * Executa as escritas que já estão na fila e encerra a thread do agrupador.
+     * Novas escritas passam a ser rejeitadas; as que chegarem à fila durante o fechamento são
+     * executadas ou rejeitadas, nunca esquecidas.
+     */
+    @Override
+    public void close() {
+        ativo = false;
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Operacao<?> pendente;
+        while ((pendente = fila.poll()) != null) {
+            pendente.futuro().completeExceptionally(new IllegalStateException("O agrupador de escritas está fechado."));
+        }
+    }
+
+    private void executarLotes() {
+        List<Operacao<?>> lote = new ArrayList<>(maximoOperacoes);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Operacao<?> primeira = fila.poll(ESPERA_FILA_VAZIA_MS, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                long limite = System.nanoTime() + janelaNanos;
+                while (lote.size() < maximoOperacoes) {
+                    fila.drainTo(lote, maximoOperacoes - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= maximoOperacoes || restante <= 0) {
+                        break;
+                    }
+                    Operacao<?> proxima = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proxima == null) {
+                        break;
+                    }
+                    lote.add(proxima);
+                }
+                executarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Não deixa a thread morrer: os futuros do lote já foram completados com o erro.
+                log.error("Falha inesperada no agrupador de escritas.", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void executarLote(List<Operacao<?>> lote) {
+        operacoes.add(lote.size());
+        Object[] resultados = new Object[lote.size()];
+        try {
+            dataSource.useTransaction(handle -> {
+                for (int i = 0; i < lote.size(); i++) {
+                    resultados[i] = lote.get(i).escrita().withHandle(handle);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).futuro().completeExceptionally(e);
+                return;
+            }
+            refeitas.increment();
+            lote.forEach(this::executarSozinha);
+            return;
+        }
+        commits.increment();
+        for (int i = 0; i < lote.size(); i++) {
+            completar(lote.get(i), resultados[i]);
+        }
+    }
+
+    private <T> void executarSozinha(Operacao<T> operacao) {
+        try {
+            T resultado = dataSource.inTransaction(handle -> operacao.escrita().withHandle(handle));
+            commits.increment();
+            operacao.futuro().complete(resultado);
+        } catch (RuntimeException e) {
+            operacao.futuro().completeExceptionally(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void completar(Operacao<T> operacao, Object resultado) {
+        operacao.futuro().complete((T) resultado);
+    }
+
+    private record Operacao<T>(HandleCallback<T, RuntimeException> escrita, CompletableFuture<T> futuro) {}
+}
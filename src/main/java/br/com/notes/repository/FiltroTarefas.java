@@ -0,0 +1,79 @@
+package br.com.notes.repository;
+
+import java.time.Instant;
+
+/**
+ * Critérios de filtro e ordenação para a listagem paginada de tarefas.
+ * Campos nulos não filtram.
+ *
+ * @param concluida Filtra pelo status de conclusão.
+ * @param criadaDe  Filtra as tarefas criadas a partir deste instante (inclusive).
+ * @param criadaAte Filtra as tarefas criadas antes deste instante (exclusive).
+ * @param ordenacao A ordem dos resultados.
+ */
+public record FiltroTarefas(Boolean concluida, Instant criadaDe, Instant criadaAte, Ordenacao ordenacao) {
+
+    public FiltroTarefas {
+        if (ordenacao == null) {
+            ordenacao = Ordenacao.ID;
+        }
+    }
+
+    /**
+     * Ordenações suportadas. Cada uma tem uma condição de keyset equivalente, usada para continuar
+     * a listagem a partir da última tarefa da página anterior sem OFFSET.
+     */
+    public enum Ordenacao {
+        ID("id", "id", "id > :afterId"),
+        ID_DESC("-id", "id DESC", "id < :afterId"),
+        DATA_CRIACAO("dataCriacao", "dataCriacao, id", "(dataCriacao, id) > (:afterData, :afterId)"),
+        DATA_CRIACAO_DESC("-dataCriacao", "dataCriacao DESC, id DESC", "(dataCriacao, id) < (:afterData, :afterId)");
+
+        private final String parametro;
+        private final String orderBy;
+        private final String condicaoKeyset;
+
+        Ordenacao(String parametro, String orderBy, String condicaoKeyset) {
+            this.parametro = parametro;
+            this.orderBy = orderBy;
+            this.condicaoKeyset = condicaoKeyset;
+        }
+
+        String orderBy() {
+            return orderBy;
+        }
+
+        String condicaoKeyset() {
+            return condicaoKeyset;
+        }
+
+        /**
+         * Indica se a ordenação usa a data de criação (e, portanto, se o cursor precisa dela).
+         */
+        public boolean porDataCriacao() {
+            return this == DATA_CRIACAO || this == DATA_CRIACAO_DESC;
+        }
+
+        /**
+         * Retorna a ordenação correspondente ao valor do parâmetro 'sort'.
+         * Lança IllegalArgumentException se o valor não for suportado.
+         */
+        public static Ordenacao porParametro(String parametro) {
+            for (Ordenacao ordenacao : values()) {
+                if (ordenacao.parametro.equals(parametro)) {
+                    return ordenacao;
+                }
+            }
+            throw new IllegalArgumentException(parametro);
+        }
+    }
+
+    /**
+     * Posição da última tarefa da página anterior, usada como ponto de partida da próxima página.
+     *
+     * @param id          O ID da última tarefa.
+     * @param dataCriacao A data de criação da última tarefa (usada apenas nas ordenações por data).
+     */
+    public record Posicao(int id, Instant dataCriacao) {
+    }
+}
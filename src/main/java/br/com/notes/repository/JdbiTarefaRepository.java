@@ -0,0 +1,528 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.Query;
+import org.jdbi.v3.core.statement.Update;
+
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Motor de armazenamento de tarefas sobre o banco H2, acessado via Jdbi e o pool do Hikari.
+ */
+public class JdbiTarefaRepository implements TarefaRepository {
+    // Quantidade de linhas buscadas por vez do banco ao percorrer a tabela com um cursor.
+    private static final int FETCH_SIZE = 500;
+    // Caminho dedicado para a alteração mais comum, marcar ou desmarcar a tarefa como concluída.
+    private static final String SQL_ALTERAR_CONCLUIDA = "UPDATE tarefas SET concluida = :concluida, versao = versao + 1 WHERE id = :id";
+    // Colunas devolvidas pelos comandos INSERT e UPDATE, evitando um SELECT após cada escrita.
+    private static final String[] COLUNAS = {"id", "titulo", "descricao", "concluida", "dataCriacao", "versao"};
+    // Log de alterações: a sequência é reservada por último, para manter bloqueada pelo menor tempo possível a
+    // linha de controle, que serializa os commits das escritas.
+    private static final String SQL_RESERVAR_SEQUENCIAS = "UPDATE tarefas_mudancas_controle SET ultima_seq = ultima_seq + :quantidade WHERE id = 1";
+    private static final String SQL_REGISTRAR_MUDANCA = "MERGE INTO tarefas_mudancas (tarefa_id, seq, removida) KEY (tarefa_id) " +
+            "SELECT :id, ultima_seq - :deslocamento, :removida FROM tarefas_mudancas_controle WHERE id = 1";
+    private static final RowMapper<Tarefa> MAPEADOR_TAREFA = BeanMapper.of(Tarefa.class);
+
+    private final Jdbi dataSource;
+    private volatile EscritaAgrupada escritaAgrupada;
+
+    public JdbiTarefaRepository(Jdbi dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Passa a enviar o insert, o update e o delete individuais pelo agrupador informado,
+     * que confirma várias escritas concorrentes em uma única transação.
+     * O insertAll continua usando a sua própria transação.
+     *
+     * @param escritaAgrupada o agrupador de escritas, criado sobre o mesmo Jdbi
+     */
+    public void habilitarEscritaAgrupada(EscritaAgrupada escritaAgrupada) {
+        this.escritaAgrupada = escritaAgrupada;
+    }
+
+    /**
+     * Método para buscar todas as tarefas.
+     *
+     * @return Lista de tarefas.
+     */
+    @Override
+    public List<Tarefa> findAll() {
+        return dataSource.withHandle(handle ->
+            handle.createQuery("SELECT * FROM tarefas")
+                  .mapToBean(Tarefa.class)
+                  .list()
+        );
+    }
+
+    /**
+     * Método para percorrer todas as tarefas sem carregá-las em memória de uma só vez.
+     * Com a execução preguiçosa do H2, a primeira tarefa chega sem esperar a leitura da tabela inteira.
+     * O Stream fica aberto apenas durante a execução do consumidor, que deve consumi-lo
+     * por completo antes de retornar; a conexão é devolvida ao pool logo em seguida.
+     *
+     * @param consumidor Função que recebe o Stream de tarefas, em ordem crescente de ID.
+     */
+    @Override
+    public void streamAll(Consumer<Stream<Tarefa>> consumidor) {
+        percorrerComExecucaoPreguicosa(handle -> {
+            try (Stream<Tarefa> tarefas = handle.createQuery("SELECT * FROM tarefas ORDER BY id")
+                    .setFetchSize(FETCH_SIZE)
+                    .mapToBean(Tarefa.class)
+                    .stream()) {
+                consumidor.accept(tarefas);
+            }
+        });
+    }
+
+    /**
+     * Método para percorrer todas as tarefas com um cursor somente para frente, lendo as colunas direto do
+     * ResultSet, sem mapear cada linha para um objeto, com a execução preguiçosa do H2: a memória usada
+     * não depende da quantidade de tarefas. A conexão fica ocupada até o visitante terminar.
+     *
+     * @param visitante Função chamada para cada tarefa, em ordem crescente de ID.
+     */
+    @Override
+    public void visitarTodas(VisitanteTarefas visitante) {
+        percorrerComExecucaoPreguicosa(handle ->
+            handle.createQuery("SELECT id, titulo, descricao, concluida, dataCriacao, versao FROM tarefas ORDER BY id")
+                  .setFetchSize(FETCH_SIZE)
+                  .scanResultSet((resultado, ctx) -> {
+                      ResultSet rs = resultado.get();
+                      while (rs.next()) {
+                          visitante.visitar(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getBoolean(4),
+                                  rs.getObject(5, OffsetDateTime.class).toInstant(), rs.getInt(6));
+                      }
+                      return null;
+                  })
+        );
+    }
+
+    /**
+     * Executa a leitura com a execução preguiçosa do H2 ligada na conexão: a consulta avança pelo índice
+     * da chave primária à medida que o ResultSet é lido, em vez de montar o resultado inteiro antes da
+     * primeira linha. Sem ela, o fetch size não adianta.
+     *
+     * @param leitura A leitura feita com a conexão.
+     */
+    private void percorrerComExecucaoPreguicosa(HandleConsumer<RuntimeException> leitura) {
+        dataSource.useHandle(handle -> {
+            handle.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            try {
+                leitura.useHandle(handle);
+            } finally {
+                // A conexão volta ao pool: as outras consultas seguem com a execução padrão.
+                handle.execute("SET LAZY_QUERY_EXECUTION FALSE");
+            }
+        });
+    }
+
+    /**
+     * Método para buscar uma página de tarefas usando paginação por chave (keyset).
+     * Retorna apenas as tarefas com ID maior que o informado, em ordem crescente de ID,
+     * evitando o custo de OFFSET e a leitura da tabela inteira.
+     *
+     * @param afterId ID da última tarefa da página anterior (0 para a primeira página).
+     * @param limit   Quantidade máxima de tarefas a retornar.
+     * @return Lista de tarefas da página.
+     */
+    @Override
+    public List<Tarefa> findPage(int afterId, int limit) {
+        return dataSource.withHandle(handle ->
+            handle.createQuery("SELECT * FROM tarefas WHERE id > :after ORDER BY id LIMIT :limit")
+                  .bind("after", afterId)
+                  .bind("limit", limit)
+                  .mapToBean(Tarefa.class)
+                  .list()
+        );
+    }
+
+    /**
+     * Método para buscar uma página de tarefas filtradas, usando paginação por chave (keyset).
+     * Os filtros por status e por data de criação são atendidos pelos índices
+     * (concluida, id) e (dataCriacao, id) definidos no script.sql.
+     *
+     * @param filtro  Filtros e ordenação a aplicar.
+     * @param posicao Última tarefa da página anterior (nulo para a primeira página).
+     * @param limit   Quantidade máxima de tarefas a retornar.
+     * @return Lista de tarefas da página, na ordem solicitada.
+     */
+    @Override
+    public List<Tarefa> findPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit) {
+        return dataSource.withHandle(handle ->
+            consultaFiltrada(handle, "", filtro, posicao, limit)
+                  .mapToBean(Tarefa.class)
+                  .list()
+        );
+    }
+
+    /**
+     * Retorna o plano de execução do H2 para a mesma consulta feita por
+     * {@link #findPage(FiltroTarefas, FiltroTarefas.Posicao, int)}. Usado nos testes de índices.
+     */
+    String explainPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit) {
+        return dataSource.withHandle(handle ->
+            consultaFiltrada(handle, "EXPLAIN ", filtro, posicao, limit)
+                  .mapTo(String.class)
+                  .one()
+        );
+    }
+
+    private static Query consultaFiltrada(Handle handle, String prefixo, FiltroTarefas filtro,
+                                          FiltroTarefas.Posicao posicao, int limit) {
+        StringBuilder sql = new StringBuilder(prefixo).append("SELECT * FROM tarefas WHERE 1 = 1");
+        if (filtro.concluida() != null) {
+            sql.append(" AND concluida = :concluida");
+        }
+        if (filtro.criadaDe() != null) {
+            sql.append(" AND dataCriacao >= :criadaDe");
+        }
+        if (filtro.criadaAte() != null) {
+            sql.append(" AND dataCriacao < :criadaAte");
+        }
+        if (posicao != null) {
+            sql.append(" AND ").append(filtro.ordenacao().condicaoKeyset());
+        }
+        sql.append(" ORDER BY ");
+        if (filtro.concluida() != null && !filtro.ordenacao().porDataCriacao()) {
+            // Com o status fixo, ordenar pela chave completa do índice (concluida, id) faz o H2 ler o
+            // índice já em ordem e parar no LIMIT, em vez de ordenar todas as tarefas com aquele status.
+            sql.append(filtro.ordenacao() == FiltroTarefas.Ordenacao.ID_DESC ? "concluida DESC, " : "concluida, ");
+        }
+        sql.append(filtro.ordenacao().orderBy()).append(" LIMIT :limit");
+
+        Query query = handle.createQuery(sql.toString()).bind("limit", limit);
+        if (filtro.concluida() != null) {
+            query.bind("concluida", filtro.concluida());
+        }
+        if (filtro.criadaDe() != null) {
+            query.bind("criadaDe", filtro.criadaDe().atOffset(ZoneOffset.UTC));
+        }
+        if (filtro.criadaAte() != null) {
+            query.bind("criadaAte", filtro.criadaAte().atOffset(ZoneOffset.UTC));
+        }
+        if (posicao != null) {
+            query.bind("afterId", posicao.id());
+            if (filtro.ordenacao().porDataCriacao()) {
+                query.bind("afterData", posicao.dataCriacao().atOffset(ZoneOffset.UTC));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Método para buscar uma tarefa pelo ID.
+     *
+     * @param id ID da tarefa a ser buscada.
+     * @return Optional contendo a tarefa, se encontrada.
+     */
+    @Override
+    public Optional<Tarefa> findById(int id) {
+        return dataSource.withHandle(handle ->
+            handle.createQuery("SELECT * FROM tarefas WHERE id = :id")
+                  .bind("id", id)
+                  .mapToBean(Tarefa.class)
+                  .findFirst()
+        );
+    }
+
+    /**
+     * Método para buscar várias tarefas pelos seus IDs em uma única consulta.
+     * A ordem do resultado não é garantida.
+     *
+     * @param ids IDs das tarefas a serem buscadas.
+     * @return Lista com as tarefas encontradas.
+     */
+    @Override
+    public List<Tarefa> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return dataSource.withHandle(handle ->
+            handle.createQuery("SELECT * FROM tarefas WHERE id IN (<ids>)")
+                  .bindList("ids", ids)
+                  .mapToBean(Tarefa.class)
+                  .list()
+        );
+    }
+
+    /**
+     * Método para inserir uma nova tarefa.
+     * As colunas geradas pelo banco (id, concluida, dataCriacao) são devolvidas pelo próprio INSERT,
+     * sem a necessidade de um SELECT adicional.
+     *
+     * @param tarefa Tarefa a ser inserida.
+     * @return A tarefa inserida, com todas as colunas preenchidas pelo banco.
+     */
+    @Override
+    public Tarefa insert(Tarefa tarefa) {
+        return escrever(handle -> {
+            Tarefa inserida = handle.createUpdate("INSERT INTO tarefas (titulo, descricao) " +
+                            "VALUES (:titulo, :descricao)")
+                    .bind("titulo", tarefa.getTitulo())
+                    .bind("descricao", tarefa.getDescricao())
+                    .executeAndReturnGeneratedKeys(COLUNAS)
+                    .mapToBean(Tarefa.class)
+                    .one();
+            registrarMudanca(handle, inserida.getId(), false);
+            return inserida;
+        });
+    }
+
+    /**
+     * Método para inserir várias tarefas de uma só vez.
+     * Todas as linhas são enviadas em um único PreparedBatch, dentro de uma única transação:
+     * ou todas as tarefas são criadas, ou nenhuma é. As entradas do log de alterações são gravadas
+     * com um segundo PreparedBatch na mesma transação, depois de uma única reserva de sequências.
+     *
+     * @param tarefas Tarefas a serem inseridas.
+     * @return As tarefas inseridas, na mesma ordem, com todas as colunas preenchidas pelo banco.
+     */
+    @Override
+    public List<Tarefa> insertAll(List<Tarefa> tarefas) {
+        return dataSource.inTransaction(handle -> {
+            PreparedBatch batch = handle.prepareBatch("INSERT INTO tarefas (titulo, descricao) " +
+                    "VALUES (:titulo, :descricao)");
+            for (Tarefa tarefa : tarefas) {
+                batch.bind("titulo", tarefa.getTitulo())
+                     .bind("descricao", tarefa.getDescricao())
+                     .add();
+            }
+            List<Tarefa> inseridas = batch.executePreparedBatch(COLUNAS)
+                        .mapToBean(Tarefa.class)
+                        .list();
+            if (inseridas.isEmpty()) {
+                return inseridas;
+            }
+            handle.createUpdate(SQL_RESERVAR_SEQUENCIAS).bind("quantidade", inseridas.size()).execute();
+            PreparedBatch mudancas = handle.prepareBatch(SQL_REGISTRAR_MUDANCA);
+            for (int i = 0; i < inseridas.size(); i++) {
+                mudancas.bind("id", inseridas.get(i).getId())
+                        .bind("deslocamento", inseridas.size() - 1 - i)
+                        .bind("removida", false)
+                        .add();
+            }
+            mudancas.execute();
+            return inseridas;
+        });
+    }
+
+    /**
+     * Método para atualizar uma tarefa existente.
+     * A versão da tarefa é incrementada no mesmo comando.
+     * A linha atualizada é devolvida pelo próprio UPDATE; se nenhuma linha for afetada,
+     * a tarefa não existe e o retorno é vazio.
+     *
+     * @param tarefa Tarefa com os dados atualizados.
+     * @return Optional contendo a tarefa atualizada, ou vazio se ela não existir.
+     */
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa) {
+        return escrever(handle -> registrarAtualizacao(handle,
+            handle.createUpdate("UPDATE tarefas SET titulo = :titulo, descricao = :descricao, " +
+                                "concluida = :concluida, versao = versao + 1 WHERE id = :id")
+                    .bindBean(tarefa)
+                    .executeAndReturnGeneratedKeys(COLUNAS)
+                    .mapToBean(Tarefa.class)
+                    .findFirst()
+        ));
+    }
+
+    /**
+     * Método para atualizar uma tarefa somente se ela ainda estiver na versão informada.
+     * A versão entra no WHERE do próprio UPDATE, então nenhuma linha é bloqueada antes da escrita:
+     * se outra requisição atualizou a tarefa antes, nenhuma linha é afetada e o retorno é vazio.
+     *
+     * @param tarefa         Tarefa com os dados atualizados.
+     * @param versaoEsperada Versão que a tarefa deve ter para ser atualizada.
+     * @return Optional contendo a tarefa atualizada, ou vazio se ela não existir ou estiver em outra versão.
+     */
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada) {
+        return escrever(handle -> registrarAtualizacao(handle,
+            handle.createUpdate("UPDATE tarefas SET titulo = :titulo, descricao = :descricao, " +
+                                "concluida = :concluida, versao = versao + 1 WHERE id = :id AND versao = :versaoEsperada")
+                    .bind("titulo", tarefa.getTitulo())
+                    .bind("descricao", tarefa.getDescricao())
+                    .bind("concluida", tarefa.isConcluida())
+                    .bind("id", tarefa.getId())
+                    .bind("versaoEsperada", versaoEsperada)
+                    .executeAndReturnGeneratedKeys(COLUNAS)
+                    .mapToBean(Tarefa.class)
+                    .findFirst()
+        ));
+    }
+
+    /**
+     * Método para alterar apenas os campos presentes, com um UPDATE montado só com essas colunas.
+     * A linha alterada é devolvida pelo próprio UPDATE, sem um SELECT antes nem depois.
+     *
+     * @param id             ID da tarefa a ser alterada.
+     * @param alteracao      Campos a alterar; não pode ser vazia.
+     * @param versaoEsperada Versão que a tarefa deve ter, ou QUALQUER_VERSAO para não verificar.
+     * @return Optional contendo a tarefa alterada, ou vazio se ela não existir ou estiver em outra versão.
+     */
+    @Override
+    public Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada) {
+        String sql;
+        if (alteracao.somenteConcluida()) {
+            sql = SQL_ALTERAR_CONCLUIDA;
+        } else {
+            StringBuilder comando = new StringBuilder("UPDATE tarefas SET ");
+            if (alteracao.titulo() != null) {
+                comando.append("titulo = :titulo, ");
+            }
+            if (alteracao.alteraDescricao()) {
+                comando.append("descricao = :descricao, ");
+            }
+            if (alteracao.concluida() != null) {
+                comando.append("concluida = :concluida, ");
+            }
+            sql = comando.append("versao = versao + 1 WHERE id = :id").toString();
+        }
+        String sqlFinal = versaoEsperada == QUALQUER_VERSAO ? sql : sql + " AND versao = :versaoEsperada";
+
+        return escrever(handle -> {
+            Update update = handle.createUpdate(sqlFinal).bind("id", id);
+            if (alteracao.titulo() != null) {
+                update.bind("titulo", alteracao.titulo());
+            }
+            if (alteracao.alteraDescricao()) {
+                update.bind("descricao", alteracao.descricao());
+            }
+            if (alteracao.concluida() != null) {
+                update.bind("concluida", alteracao.concluida());
+            }
+            if (versaoEsperada != QUALQUER_VERSAO) {
+                update.bind("versaoEsperada", versaoEsperada);
+            }
+            return registrarAtualizacao(handle, update.executeAndReturnGeneratedKeys(COLUNAS)
+                    .mapToBean(Tarefa.class)
+                    .findFirst());
+        });
+    }
+
+    /**
+     * Método para deletar uma tarefa pelo ID.
+     *
+     * @param id ID da tarefa a ser deletada.
+     * @return true se a tarefa existia e foi removida, false caso contrário.
+     */
+    @Override
+    public boolean delete(int id) {
+        return escrever(handle -> {
+            boolean removida = handle.createUpdate("DELETE FROM tarefas WHERE id = :id")
+                    .bind("id", id)
+                    .execute() > 0;
+            if (removida) {
+                registrarMudanca(handle, id, true);
+            }
+            return removida;
+        });
+    }
+
+    /**
+     * Busca as alterações posteriores à sequência informada, com o estado atual de cada tarefa alterada
+     * em uma única consulta (o log de alterações junto com a tabela de tarefas), pelo índice da sequência.
+     * O controle é lido depois das alterações: se uma compactação apagou lápides no meio tempo,
+     * o horizonte já reflete isso e o cliente é mandado ressincronizar.
+     *
+     * @param desde  Última sequência já conhecida pelo cliente.
+     * @param limite Quantidade máxima de alterações a retornar.
+     * @return Optional contendo as alterações, ou vazio se o cliente deve ressincronizar.
+     */
+    @Override
+    public Optional<List<MudancaTarefa>> findMudancas(long desde, int limite) {
+        return dataSource.withHandle(handle -> {
+            List<MudancaTarefa> mudancas = handle.createQuery("SELECT m.seq AS mudanca_seq, m.tarefa_id AS mudanca_id, " +
+                            "m.removida AS mudanca_removida, t.* FROM tarefas_mudancas m " +
+                            "LEFT JOIN tarefas t ON t.id = m.tarefa_id WHERE m.seq > :desde ORDER BY m.seq LIMIT :limite")
+                    .bind("desde", desde)
+                    .bind("limite", limite)
+                    .map((rs, ctx) -> {
+                        // A consulta é um único instantâneo: a junção só fica vazia para as lápides.
+                        boolean removida = rs.getBoolean("mudanca_removida") || rs.getObject("id") == null;
+                        return new MudancaTarefa(rs.getLong("mudanca_seq"), rs.getInt("mudanca_id"),
+                                removida ? null : MAPEADOR_TAREFA.map(rs, ctx));
+                    })
+                    .list();
+            long[] controle = handle.createQuery("SELECT ultima_seq, horizonte FROM tarefas_mudancas_controle WHERE id = 1")
+                    .map((rs, ctx) -> new long[]{rs.getLong("ultima_seq"), rs.getLong("horizonte")})
+                    .one();
+            return desde < controle[1] || desde > controle[0] ? Optional.<List<MudancaTarefa>>empty() : Optional.of(mudancas);
+        });
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        return dataSource.withHandle(handle ->
+            handle.createQuery("SELECT ultima_seq FROM tarefas_mudancas_controle WHERE id = 1")
+                  .mapTo(Long.class)
+                  .one()
+        );
+    }
+
+    /**
+     * Apaga as lápides até a sequência informada e avança o horizonte, em uma única transação.
+     * O UPDATE do controle vem primeiro: com a linha bloqueada, nenhuma escrita registra uma lápide
+     * enquanto a compactação decide o novo horizonte.
+     *
+     * @param ateSequencia Maior sequência que pode ser apagada.
+     * @return Quantidade de lápides apagadas.
+     */
+    @Override
+    public int compactarMudancas(long ateSequencia) {
+        return dataSource.inTransaction(handle -> {
+            handle.createUpdate("UPDATE tarefas_mudancas_controle SET horizonte = GREATEST(horizonte, " +
+                            "COALESCE((SELECT MAX(seq) FROM tarefas_mudancas WHERE removida AND seq <= :ate), 0)) WHERE id = 1")
+                    .bind("ate", ateSequencia)
+                    .execute();
+            return handle.createUpdate("DELETE FROM tarefas_mudancas WHERE removida AND seq <= :ate")
+                    .bind("ate", ateSequencia)
+                    .execute();
+        });
+    }
+
+    /**
+     * Executa uma escrita individual pelo agrupador de escritas, se habilitado,
+     * ou em uma transação própria, que confirma a escrita junto com a sua entrada no log de alterações.
+     */
+    private <T> T escrever(HandleCallback<T, RuntimeException> escrita) {
+        EscritaAgrupada agrupada = escritaAgrupada;
+        return agrupada == null ? dataSource.inTransaction(escrita) : agrupada.executar(escrita);
+    }
+
+    /**
+     * Registra a tarefa atualizada no log de alterações, se a atualização afetou alguma linha.
+     */
+    private static Optional<Tarefa> registrarAtualizacao(Handle handle, Optional<Tarefa> atualizada) {
+        atualizada.ifPresent(tarefa -> registrarMudanca(handle, tarefa.getId(), false));
+        return atualizada;
+    }
+
+    /**
+     * Reserva a próxima sequência e grava a entrada da tarefa no log de alterações, na transação da escrita.
+     */
+    private static void registrarMudanca(Handle handle, int id, boolean removida) {
+        handle.createUpdate(SQL_RESERVAR_SEQUENCIAS).bind("quantidade", 1).execute();
+        handle.createUpdate(SQL_REGISTRAR_MUDANCA)
+                .bind("id", id)
+                .bind("deslocamento", 0)
+                .bind("removida", removida)
+                .execute();
+    }
+}
@@ -0,0 +1,318 @@
+package br.com.notes.repository;
+
+import br.com.notes.journal.DestinoRegistros;
+import br.com.notes.journal.Journal;
+import br.com.notes.journal.Registros;
+import br.com.notes.journal.Snapshot;
+import br.com.notes.model.Tarefa;
+import io.javalin.util.ConcurrencyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Repositório que torna durável um motor de armazenamento em memória, registrando cada criação,
+ * atualização e remoção em um {@link Journal} antes de responder.
+ * <p>
+ * As leituras vão direto ao motor. Cada escrita é aplicada ao motor e anexada ao journal sob um
+ * mesmo lock, para que a ordem do journal seja a ordem em que as escritas foram aplicadas; a espera
+ * pelo fsync acontece fora do lock, de modo que escritas concorrentes são sincronizadas juntas.
+ * Uma escrita pode ficar visível para outras leituras um pouco antes de estar no disco, mas só é
+ * confirmada ao chamador depois disso.
+ * <p>
+ * O motor nunca fica com uma escrita que o journal não tem: antes de aplicá-la, o tamanho do registro
+ * e o estado do journal são conferidos, e se o journal ainda assim recusar o registro, a escrita é
+ * desfeita no motor antes de o erro chegar ao chamador.
+ * <p>
+ * Periodicamente, quando o journal cresce além de um limite, um snapshot de todas as tarefas é gravado
+ * e os segmentos do journal cobertos por ele são apagados: a recuperação carrega o snapshot e reaplica
+ * apenas o que veio depois, em tempo proporcional ao tamanho da base e não ao histórico.
+ */
+public class JournaledTarefaRepository implements TarefaRepository, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(JournaledTarefaRepository.class);
+    private static final int TAMANHO_SEGMENTO = 64 * 1024 * 1024;
+    private static final long LIMIAR_SNAPSHOT = 16 * 1024 * 1024;
+    private static final Duration INTERVALO_VERIFICACAO = Duration.ofSeconds(10);
+
+    private final TarefaRepositoryRestauravel motor;
+    private final Path diretorio;
+    private final Journal journal;
+    private final long limiarSnapshot;
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final ScheduledExecutorService agendador;
+    private long posicaoSnapshot;
+
+    private JournaledTarefaRepository(TarefaRepositoryRestauravel motor, Path diretorio, Journal journal,
+                                      long posicaoSnapshot, long limiarSnapshot) {
+        this.motor = motor;
+        this.diretorio = diretorio;
+        this.journal = journal;
+        this.posicaoSnapshot = posicaoSnapshot;
+        this.limiarSnapshot = limiarSnapshot;
+        this.agendador = ConcurrencyUtil.newSingleThreadScheduledExecutor("journal-snapshot");
+        long intervalo = INTERVALO_VERIFICACAO.toMillis();
+        agendador.scheduleWithFixedDelay(this::snapshotSeNecessario, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recupera o estado salvo no diretório (snapshot mais recente e o journal posterior a ele)
+     * para dentro do motor, que deve estar vazio, e passa a registrar as escritas nesse diretório.
+     *
+     * @param diretorio o diretório do journal e dos snapshots
+     * @param motor     o motor de armazenamento em memória
+     * @return o repositório pronto para uso
+     */
+    public static JournaledTarefaRepository abrir(Path diretorio, TarefaRepositoryRestauravel motor) throws IOException {
+        return abrir(diretorio, motor, TAMANHO_SEGMENTO, LIMIAR_SNAPSHOT);
+    }
+
+    static JournaledTarefaRepository abrir(Path diretorio, TarefaRepositoryRestauravel motor,
+                                           int tamanhoSegmento, long limiarSnapshot) throws IOException {
+        long inicio = System.nanoTime();
+        DestinoRegistros destino = new DestinoRegistros() {
+            @Override
+            public void gravar(Tarefa tarefa) {
+                motor.restaurar(tarefa);
+            }
+
+            @Override
+            public void remover(int id) {
+                motor.delete(id);
+            }
+        };
+
+        Files.createDirectories(diretorio);
+        Optional<Snapshot.Info> snapshot = Snapshot.carregar(diretorio, destino);
+        snapshot.ifPresent(info -> motor.ajustarUltimoId(info.ultimoId()));
+        long posicaoSnapshot = snapshot.map(Snapshot.Info::posicaoJournal).orElse(0L);
+        Journal journal = Journal.abrir(diretorio, tamanhoSegmento, posicaoSnapshot,
+                registro -> Registros.aplicar(registro, destino));
+
+        log.info("Tarefas recuperadas de {} em {} ms (snapshot na posição {}, journal até a posição {}).",
+                diretorio, (System.nanoTime() - inicio) / 1_000_000, posicaoSnapshot, journal.posicao());
+        return new JournaledTarefaRepository(motor, diretorio, journal, posicaoSnapshot, limiarSnapshot);
+    }
+
+    @Override
+    public List<Tarefa> findAll() {
+        return motor.findAll();
+    }
+
+    @Override
+    public void streamAll(Consumer<Stream<Tarefa>> consumidor) {
+        motor.streamAll(consumidor);
+    }
+
+    @Override
+    public void visitarTodas(VisitanteTarefas visitante) {
+        motor.visitarTodas(visitante);
+    }
+
+    @Override
+    public List<Tarefa> findPage(int afterId, int limit) {
+        return motor.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Tarefa> findPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit) {
+        return motor.findPage(filtro, posicao, limit);
+    }
+
+    @Override
+    public Optional<Tarefa> findById(int id) {
+        return motor.findById(id);
+    }
+
+    @Override
+    public List<Tarefa> findByIds(Collection<Integer> ids) {
+        return motor.findByIds(ids);
+    }
+
+    @Override
+    public Tarefa insert(Tarefa tarefa) {
+        Tarefa inserida;
+        long posicao;
+        escrita.lock();
+        try {
+            journal.verificarAnexavel(Registros.tamanhoGravacao(tarefa));
+            inserida = motor.insert(tarefa);
+            try {
+                posicao = journal.anexar(Registros.gravacao(inserida));
+            } catch (RuntimeException e) {
+                motor.delete(inserida.getId());
+                throw e;
+            }
+        } finally {
+            escrita.unlock();
+        }
+        journal.aguardar(posicao);
+        return inserida;
+    }
+
+    /**
+     * Insere as tarefas e as registra no journal como um único registro:
+     * na recuperação, ou todas voltam, ou nenhuma.
+     */
+    @Override
+    public List<Tarefa> insertAll(List<Tarefa> tarefas) {
+        List<Tarefa> inseridas;
+        long posicao;
+        escrita.lock();
+        try {
+            journal.verificarAnexavel(Registros.tamanhoLote(tarefas));
+            inseridas = motor.insertAll(tarefas);
+            try {
+                posicao = journal.anexar(Registros.lote(inseridas));
+            } catch (RuntimeException e) {
+                inseridas.forEach(inserida -> motor.delete(inserida.getId()));
+                throw e;
+            }
+        } finally {
+            escrita.unlock();
+        }
+        journal.aguardar(posicao);
+        return inseridas;
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa) {
+        return atualizar(tarefa.getId(), () -> motor.update(tarefa));
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada) {
+        return atualizar(tarefa.getId(), () -> motor.update(tarefa, versaoEsperada));
+    }
+
+    @Override
+    public Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada) {
+        return atualizar(id, () -> motor.patch(id, alteracao, versaoEsperada));
+    }
+
+    /**
+     * Aplica a atualização no motor e a anexa ao journal. O estado anterior da tarefa é lido antes,
+     * para ser restaurado se o journal recusar o registro.
+     */
+    private Optional<Tarefa> atualizar(int id, Supplier<Optional<Tarefa>> atualizacao) {
+        Optional<Tarefa> atualizada;
+        long posicao = 0;
+        escrita.lock();
+        try {
+            journal.verificarAnexavel(0);
+            Optional<Tarefa> anterior = motor.findById(id);
+            atualizada = atualizacao.get();
+            if (atualizada.isPresent()) {
+                try {
+                    posicao = journal.anexar(Registros.gravacao(atualizada.get()));
+                } catch (RuntimeException e) {
+                    anterior.ifPresent(motor::restaurar);
+                    throw e;
+                }
+            }
+        } finally {
+            escrita.unlock();
+        }
+        journal.aguardar(posicao);
+        return atualizada;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        boolean removida;
+        long posicao = 0;
+        escrita.lock();
+        try {
+            journal.verificarAnexavel(0);
+            Optional<Tarefa> anterior = motor.findById(id);
+            removida = motor.delete(id);
+            if (removida) {
+                try {
+                    posicao = journal.anexar(Registros.remocao(id));
+                } catch (RuntimeException e) {
+                    anterior.ifPresent(motor::restaurar);
+                    throw e;
+                }
+            }
+        } finally {
+            escrita.unlock();
+        }
+        journal.aguardar(posicao);
+        return removida;
+    }
+
+    /**
+     * O log de alterações é o do motor e não é gravado no journal: depois de uma recuperação ele recomeça,
+     * e os cursores da execução anterior são recusados pela TarefaService, que manda o cliente ressincronizar.
+     */
+    @Override
+    public Optional<List<MudancaTarefa>> findMudancas(long desde, int limite) {
+        return motor.findMudancas(desde, limite);
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        return motor.ultimaSequencia();
+    }
+
+    @Override
+    public int compactarMudancas(long ateSequencia) {
+        return motor.compactarMudancas(ateSequencia);
+    }
+
+    /**
+     * Grava um snapshot de todas as tarefas e apaga os segmentos do journal que ele cobre.
+     * As escritas continuam durante o snapshot: as que acontecerem depois da posição registrada
+     * no cabeçalho são reaplicadas na recuperação, e reaplicá-las sobre um snapshot que já as
+     * contém não muda o resultado.
+     */
+    public synchronized void snapshot() throws IOException {
+        Snapshot.Info info;
+        escrita.lock();
+        try {
+            info = new Snapshot.Info(journal.posicao(), motor.ultimoId());
+        } finally {
+            escrita.unlock();
+        }
+        Snapshot.gravar(diretorio, info, motor::streamAll);
+        journal.descartarAte(info.posicaoJournal());
+        posicaoSnapshot = info.posicaoJournal();
+    }
+
+    /**
+     * Grava um snapshot final e fecha o journal.
+     */
+    @Override
+    public void close() throws IOException {
+        agendador.shutdownNow();
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private synchronized void snapshotSeNecessario() {
+        if (journal.posicao() - posicaoSnapshot < limiarSnapshot) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha ao gravar o snapshot das tarefas.", e);
+        }
+    }
+}
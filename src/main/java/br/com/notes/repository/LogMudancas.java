@@ -0,0 +1,98 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Log de alterações dos motores em memória, equivalente às tabelas tarefas_mudancas e
+ * tarefas_mudancas_controle do H2.
+ * <p>
+ * Guarda uma entrada por tarefa (ID → sequência da última alteração) e as mesmas entradas ordenadas
+ * por sequência, de modo que a sincronização percorre apenas as alterações posteriores ao cursor.
+ * As lápides têm um índice próprio, e a compactação visita só elas.
+ * Os motores registram a alteração ainda com o lock da tarefa, então a ordem das sequências de uma
+ * mesma tarefa segue a ordem das suas escritas. Os métodos são sincronizados; as operações são curtas.
+ */
+final class LogMudancas {
+    private final MapaInt<Long> sequenciaPorId = new MapaInt<>();
+    private final TreeMap<Long, Entrada> porSequencia = new TreeMap<>();
+    private final TreeMap<Long, Integer> lapides = new TreeMap<>();
+    private long ultimaSequencia;
+    private long horizonte;
+
+    private record Entrada(int id, boolean removida) {}
+
+    /**
+     * Atribui a próxima sequência à tarefa, substituindo a sua entrada anterior.
+     */
+    synchronized void registrar(int id, boolean removida) {
+        long seq = ++ultimaSequencia;
+        Long anterior = sequenciaPorId.put(id, seq);
+        if (anterior != null) {
+            porSequencia.remove(anterior);
+            lapides.remove(anterior);
+        }
+        porSequencia.put(seq, new Entrada(id, removida));
+        if (removida) {
+            lapides.put(seq, id);
+        }
+    }
+
+    synchronized long ultimaSequencia() {
+        return ultimaSequencia;
+    }
+
+    /**
+     * Retorna as alterações posteriores à sequência informada, ou vazio se o cliente deve ressincronizar.
+     * As entradas são copiadas com o lock do log e as tarefas são lidas depois, com o buscador do motor:
+     * uma tarefa alterada no meio tempo vem no estado mais novo, e a sua nova entrada será entregue de novo
+     * na sincronização seguinte. Uma tarefa que não existe mais é devolvida como lápide.
+     *
+     * @param buscar lê o estado atual de uma tarefa pelo ID, ou nulo se ela não existir
+     */
+    Optional<List<MudancaTarefa>> buscar(long desde, int limite, IntFunction<Tarefa> buscar) {
+        List<Map.Entry<Long, Entrada>> entradas = new ArrayList<>();
+        synchronized (this) {
+            if (desde < horizonte || desde > ultimaSequencia) {
+                return Optional.empty();
+            }
+            for (Map.Entry<Long, Entrada> entrada : porSequencia.tailMap(desde, false).entrySet()) {
+                if (entradas.size() >= limite) {
+                    break;
+                }
+                entradas.add(entrada);
+            }
+        }
+        List<MudancaTarefa> mudancas = new ArrayList<>(entradas.size());
+        for (Map.Entry<Long, Entrada> entrada : entradas) {
+            int id = entrada.getValue().id();
+            Tarefa tarefa = entrada.getValue().removida() ? null : buscar.apply(id);
+            mudancas.add(new MudancaTarefa(entrada.getKey(), id, tarefa));
+        }
+        return Optional.of(mudancas);
+    }
+
+    /**
+     * Apaga as lápides até a sequência informada e avança o horizonte para a maior delas.
+     */
+    synchronized int compactar(long ateSequencia) {
+        int apagadas = 0;
+        Iterator<Map.Entry<Long, Integer>> antigas = lapides.headMap(ateSequencia, true).entrySet().iterator();
+        while (antigas.hasNext()) {
+            Map.Entry<Long, Integer> lapide = antigas.next();
+            horizonte = Math.max(horizonte, lapide.getKey());
+            sequenciaPorId.remove(lapide.getValue());
+            porSequencia.remove(lapide.getKey());
+            antigas.remove();
+            apagadas++;
+        }
+        return apagadas;
+    }
+}
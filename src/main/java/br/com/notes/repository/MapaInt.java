@@ -0,0 +1,123 @@
+package br.com.notes.repository;
+
+/**
+ * Mapa de chaves int para objetos, com endereçamento aberto e sondagem linear.
+ * <p>
+ * Evita o boxing das chaves e os nós de entrada de um HashMap: as chaves ficam em um int[]
+ * e os valores em um Object[] paralelo. A chave 0 é reservada para marcar posições livres,
+ * por isso só aceita chaves positivas (os IDs das tarefas começam em 1).
+ * Não é thread-safe; o acesso concorrente é controlado por quem o usa.
+ */
+final class MapaInt<V> {
+    private static final int LIVRE = 0;
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private int[] chaves;
+    private Object[] valores;
+    private int tamanho;
+    private int mascara;
+    private int limite;
+
+    MapaInt() {
+        alocar(CAPACIDADE_INICIAL);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int chave) {
+        int posicao = indice(chave);
+        while (chaves[posicao] != LIVRE) {
+            if (chaves[posicao] == chave) {
+                return (V) valores[posicao];
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Associa o valor à chave e retorna o valor anterior, ou nulo se a chave não existia.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int chave, V valor) {
+        if (chave <= LIVRE) {
+            throw new IllegalArgumentException("A chave deve ser positiva: " + chave);
+        }
+        int posicao = indice(chave);
+        while (chaves[posicao] != LIVRE) {
+            if (chaves[posicao] == chave) {
+                V anterior = (V) valores[posicao];
+                valores[posicao] = valor;
+                return anterior;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        chaves[posicao] = chave;
+        valores[posicao] = valor;
+        if (++tamanho > limite) {
+            redimensionar();
+        }
+        return null;
+    }
+
+    /**
+     * Remove a chave e retorna o valor associado, ou nulo se a chave não existia.
+     * As entradas seguintes do mesmo agrupamento são recuadas, sem deixar marcas de remoção.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int chave) {
+        int posicao = indice(chave);
+        while (chaves[posicao] != chave) {
+            if (chaves[posicao] == LIVRE) {
+                return null;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        V removido = (V) valores[posicao];
+        tamanho--;
+
+        int livre = posicao;
+        int atual = (posicao + 1) & mascara;
+        while (chaves[atual] != LIVRE) {
+            int ideal = indice(chaves[atual]);
+            // A entrada pode ocupar a posição livre se a posição ideal dela não estiver entre a livre e a atual.
+            if (((atual - ideal) & mascara) >= ((atual - livre) & mascara)) {
+                chaves[livre] = chaves[atual];
+                valores[livre] = valores[atual];
+                livre = atual;
+            }
+            atual = (atual + 1) & mascara;
+        }
+        chaves[livre] = LIVRE;
+        valores[livre] = null;
+        return removido;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    private int indice(int chave) {
+        int h = chave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        valores = new Object[capacidade];
+        mascara = capacidade - 1;
+        limite = capacidade / 4 * 3;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redimensionar() {
+        int[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        alocar(chaves.length * 2);
+        tamanho = 0;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != LIVRE) {
+                put(chavesAntigas[i], (V) valoresAntigos[i]);
+            }
+        }
+    }
+}
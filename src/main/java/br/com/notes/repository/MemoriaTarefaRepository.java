@@ -0,0 +1,357 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Motor de armazenamento de tarefas inteiramente na JVM, sem JDBC, pool de conexões ou SQL.
+ * <p>
+ * As tarefas ficam em mapas de chave int (ID → registro imutável) divididos em listras:
+ * cada ID pertence a uma listra, com o seu próprio lock de leitura/escrita, de modo que
+ * operações sobre IDs diferentes raramente disputam o mesmo lock. Os IDs vêm de uma sequência
+ * atômica, então as listagens em ordem de ID percorrem a sequência sem precisar ordenar.
+ * Cada escrita é registrada no {@link LogMudancas} ainda com o lock da listra.
+ * Os dados não sobrevivem a um reinício da aplicação.
+ */
+public class MemoriaTarefaRepository implements TarefaRepositoryRestauravel {
+    // Quantidade de listras (potência de 2), suficiente para os núcleos de uma máquina comum.
+    private static final int LISTRAS = 64;
+
+    private final MapaInt<Registro>[] mapas;
+    private final ReentrantReadWriteLock[] locks;
+    private final AtomicInteger sequencia = new AtomicInteger();
+    private final LogMudancas mudancas = new LogMudancas();
+
+    @SuppressWarnings("unchecked")
+    public MemoriaTarefaRepository() {
+        mapas = (MapaInt<Registro>[]) new MapaInt<?>[LISTRAS];
+        locks = new ReentrantReadWriteLock[LISTRAS];
+        for (int i = 0; i < LISTRAS; i++) {
+            mapas[i] = new MapaInt<>();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Conteúdo imutável de uma tarefa armazenada; o ID é a chave do mapa.
+     */
+    private record Registro(String titulo, String descricao, boolean concluida, Instant dataCriacao, int versao) {
+        Tarefa paraTarefa(int id) {
+            return new Tarefa(id, titulo, descricao, concluida, dataCriacao, versao);
+        }
+    }
+
+    @Override
+    public List<Tarefa> findAll() {
+        List<Tarefa> tarefas = new ArrayList<>();
+        percorrer(tarefas::add);
+        return tarefas;
+    }
+
+    @Override
+    public void streamAll(Consumer<Stream<Tarefa>> consumidor) {
+        consumidor.accept(IntStream.rangeClosed(1, sequencia.get())
+                .mapToObj(this::buscar)
+                .filter(Objects::nonNull));
+    }
+
+    /**
+     * Percorre a sequência de IDs lendo cada registro com o lock da sua listra e chamando o visitante já
+     * sem o lock. O registro é imutável, então as suas colunas são entregues sem cópia.
+     */
+    @Override
+    public void visitarTodas(VisitanteTarefas visitante) {
+        int ultimo = sequencia.get();
+        for (int id = 1; id <= ultimo; id++) {
+            ReentrantReadWriteLock.ReadLock lock = locks[listra(id)].readLock();
+            Registro registro;
+            lock.lock();
+            try {
+                registro = mapas[listra(id)].get(id);
+            } finally {
+                lock.unlock();
+            }
+            if (registro != null) {
+                visitante.visitar(id, registro.titulo(), registro.descricao(), registro.concluida(),
+                        registro.dataCriacao(), registro.versao());
+            }
+        }
+    }
+
+    @Override
+    public List<Tarefa> findPage(int afterId, int limit) {
+        List<Tarefa> tarefas = new ArrayList<>(Math.min(limit, 1024));
+        int ultimo = sequencia.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= ultimo && tarefas.size() < limit; id++) {
+            Tarefa tarefa = buscar(id);
+            if (tarefa != null) {
+                tarefas.add(tarefa);
+            }
+        }
+        return tarefas;
+    }
+
+    /**
+     * Busca uma página de tarefas filtradas. Nas ordenações por ID, percorre a sequência de IDs
+     * a partir do cursor e para assim que a página estiver completa; nas ordenações por data,
+     * ordena todas as tarefas que atendem ao filtro antes de recortar a página.
+     */
+    @Override
+    public List<Tarefa> findPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit) {
+        FiltroTarefas.Ordenacao ordenacao = filtro.ordenacao();
+        int ultimo = sequencia.get();
+        List<Tarefa> tarefas = new ArrayList<>();
+
+        if (!ordenacao.porDataCriacao()) {
+            boolean crescente = ordenacao == FiltroTarefas.Ordenacao.ID;
+            int passo = crescente ? 1 : -1;
+            int inicio = posicao == null ? (crescente ? 1 : ultimo) : Math.min(posicao.id() + passo, ultimo);
+            for (int id = inicio; id >= 1 && id <= ultimo && tarefas.size() < limit; id += passo) {
+                Tarefa tarefa = buscar(id);
+                if (tarefa != null && atende(filtro, tarefa)) {
+                    tarefas.add(tarefa);
+                }
+            }
+            return tarefas;
+        }
+
+        Comparator<Tarefa> ordem = Comparator.comparing(Tarefa::getDataCriacao).thenComparingInt(Tarefa::getId);
+        if (ordenacao == FiltroTarefas.Ordenacao.DATA_CRIACAO_DESC) {
+            ordem = ordem.reversed();
+        }
+        Tarefa referencia = posicao == null ? null : new Tarefa(posicao.id(), null, null, false, posicao.dataCriacao());
+        Comparator<Tarefa> comparador = ordem;
+        percorrer(tarefa -> {
+            if (atende(filtro, tarefa) && (referencia == null || comparador.compare(tarefa, referencia) > 0)) {
+                tarefas.add(tarefa);
+            }
+        });
+        tarefas.sort(comparador);
+        return new ArrayList<>(tarefas.subList(0, Math.min(limit, tarefas.size())));
+    }
+
+    @Override
+    public Optional<Tarefa> findById(int id) {
+        return Optional.ofNullable(buscar(id));
+    }
+
+    @Override
+    public List<Tarefa> findByIds(Collection<Integer> ids) {
+        List<Tarefa> tarefas = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Tarefa tarefa = buscar(id);
+            if (tarefa != null) {
+                tarefas.add(tarefa);
+            }
+        }
+        return tarefas;
+    }
+
+    @Override
+    public Tarefa insert(Tarefa tarefa) {
+        int id = sequencia.incrementAndGet();
+        Registro registro = new Registro(tarefa.getTitulo(), tarefa.getDescricao(), false, Instant.now(), 1);
+        ReentrantReadWriteLock.WriteLock lock = locks[listra(id)].writeLock();
+        lock.lock();
+        try {
+            mapas[listra(id)].put(id, registro);
+            mudancas.registrar(id, false);
+        } finally {
+            lock.unlock();
+        }
+        return registro.paraTarefa(id);
+    }
+
+    @Override
+    public List<Tarefa> insertAll(List<Tarefa> tarefas) {
+        List<Tarefa> inseridas = new ArrayList<>(tarefas.size());
+        for (Tarefa tarefa : tarefas) {
+            inseridas.add(insert(tarefa));
+        }
+        return inseridas;
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa) {
+        return atualizar(tarefa, QUALQUER_VERSAO);
+    }
+
+    @Override
+    public Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada) {
+        return atualizar(tarefa, versaoEsperada);
+    }
+
+    /**
+     * Altera apenas os campos presentes, substituindo o registro imutável sob o lock da listra.
+     * Só o status alterado não recodifica nem copia os textos: o novo registro reaproveita as Strings atuais.
+     */
+    @Override
+    public Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada) {
+        if (id <= 0) {
+            return Optional.empty();
+        }
+        ReentrantReadWriteLock.WriteLock lock = locks[listra(id)].writeLock();
+        lock.lock();
+        try {
+            MapaInt<Registro> mapa = mapas[listra(id)];
+            Registro atual = mapa.get(id);
+            if (atual == null || (versaoEsperada != QUALQUER_VERSAO && atual.versao() != versaoEsperada)) {
+                return Optional.empty();
+            }
+            Registro novo = new Registro(
+                    alteracao.titulo() != null ? alteracao.titulo() : atual.titulo(),
+                    alteracao.alteraDescricao() ? alteracao.descricao() : atual.descricao(),
+                    alteracao.concluida() != null ? alteracao.concluida() : atual.concluida(),
+                    atual.dataCriacao(), atual.versao() + 1);
+            mapa.put(id, novo);
+            mudancas.registrar(id, false);
+            return Optional.of(novo.paraTarefa(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Tarefa> atualizar(Tarefa tarefa, int versaoEsperada) {
+        int id = tarefa.getId();
+        if (id <= 0) {
+            return Optional.empty();
+        }
+        ReentrantReadWriteLock.WriteLock lock = locks[listra(id)].writeLock();
+        lock.lock();
+        try {
+            MapaInt<Registro> mapa = mapas[listra(id)];
+            Registro atual = mapa.get(id);
+            if (atual == null || (versaoEsperada != QUALQUER_VERSAO && atual.versao() != versaoEsperada)) {
+                return Optional.empty();
+            }
+            Registro novo = new Registro(tarefa.getTitulo(), tarefa.getDescricao(), tarefa.isConcluida(),
+                    atual.dataCriacao(), atual.versao() + 1);
+            mapa.put(id, novo);
+            mudancas.registrar(id, false);
+            return Optional.of(novo.paraTarefa(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        ReentrantReadWriteLock.WriteLock lock = locks[listra(id)].writeLock();
+        lock.lock();
+        try {
+            boolean removida = mapas[listra(id)].remove(id) != null;
+            if (removida) {
+                mudancas.registrar(id, true);
+            }
+            return removida;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<List<MudancaTarefa>> findMudancas(long desde, int limite) {
+        return mudancas.buscar(desde, limite, this::buscar);
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        return mudancas.ultimaSequencia();
+    }
+
+    @Override
+    public int compactarMudancas(long ateSequencia) {
+        return mudancas.compactar(ateSequencia);
+    }
+
+    @Override
+    public void restaurar(Tarefa tarefa) {
+        int id = tarefa.getId();
+        Registro registro = new Registro(tarefa.getTitulo(), tarefa.getDescricao(), tarefa.isConcluida(),
+                tarefa.getDataCriacao(), tarefa.getVersao());
+        ReentrantReadWriteLock.WriteLock lock = locks[listra(id)].writeLock();
+        lock.lock();
+        try {
+            mapas[listra(id)].put(id, registro);
+        } finally {
+            lock.unlock();
+        }
+        ajustarUltimoId(id);
+    }
+
+    @Override
+    public int ultimoId() {
+        return sequencia.get();
+    }
+
+    @Override
+    public void ajustarUltimoId(int id) {
+        sequencia.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Quantidade de tarefas armazenadas.
+     */
+    public int tamanho() {
+        int total = 0;
+        for (int i = 0; i < LISTRAS; i++) {
+            ReentrantReadWriteLock.ReadLock lock = locks[i].readLock();
+            lock.lock();
+            try {
+                total += mapas[i].tamanho();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    private Tarefa buscar(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        ReentrantReadWriteLock.ReadLock lock = locks[listra(id)].readLock();
+        lock.lock();
+        try {
+            Registro registro = mapas[listra(id)].get(id);
+            return registro == null ? null : registro.paraTarefa(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void percorrer(Consumer<Tarefa> consumidor) {
+        int ultimo = sequencia.get();
+        for (int id = 1; id <= ultimo; id++) {
+            Tarefa tarefa = buscar(id);
+            if (tarefa != null) {
+                consumidor.accept(tarefa);
+            }
+        }
+    }
+
+    private static boolean atende(FiltroTarefas filtro, Tarefa tarefa) {
+        return (filtro.concluida() == null || filtro.concluida() == tarefa.isConcluida())
+                && (filtro.criadaDe() == null || !tarefa.getDataCriacao().isBefore(filtro.criadaDe()))
+                && (filtro.criadaAte() == null || tarefa.getDataCriacao().isBefore(filtro.criadaAte()));
+    }
+
+    private static int listra(int id) {
+        return id & (LISTRAS - 1);
+    }
+}
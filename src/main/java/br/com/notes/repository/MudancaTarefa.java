@@ -0,0 +1,21 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+
+/**
+ * Entrada do log de alterações usado na sincronização incremental.
+ * Cada tarefa aparece no log uma única vez, com a sequência da sua alteração mais recente.
+ *
+ * @param seq    A sequência da última alteração da tarefa, crescente em ordem de confirmação.
+ * @param id     O ID da tarefa.
+ * @param tarefa O estado atual da tarefa, ou nulo se ela foi removida (lápide).
+ */
+public record MudancaTarefa(long seq, int id, Tarefa tarefa) {
+
+    /**
+     * Indica se a entrada é uma lápide, isto é, se a tarefa foi removida.
+     */
+    public boolean removida() {
+        return tarefa == null;
+    }
+}
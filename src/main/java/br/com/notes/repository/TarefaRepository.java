@@ -1,30 +1,67 @@
 package br.com.notes.repository;
 
 import br.com.notes.model.Tarefa;
-import org.jdbi.v3.core.Jdbi;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public class TarefaRepository {
-    private final Jdbi dataSource;
-
-    public TarefaRepository(Jdbi dataSource) {
-        this.dataSource = dataSource;
-    }
+/**
+ * Operações de armazenamento de tarefas usadas pela TarefaService.
+ * <p>
+ * O motor é escolhido na inicialização da aplicação: {@link JdbiTarefaRepository} (H2),
+ * {@link MemoriaTarefaRepository} (somente na JVM) ou {@link ColunarTarefaRepository} (em colunas fora
+ * do heap). As tarefas devolvidas são sempre cópias; alterá-las não afeta o que está armazenado.
+ */
+public interface TarefaRepository {
+    // Versão esperada que aceita qualquer versão atual (escrita sem controle de concorrência).
+    int QUALQUER_VERSAO = 0;
 
     /**
      * Método para buscar todas as tarefas.
      *
      * @return Lista de tarefas.
      */
-    public List<Tarefa> findAll() {
-        return dataSource.withHandle(handle ->
-            handle.createQuery("SELECT * FROM tarefas")
-                  .mapToBean(Tarefa.class)
-                  .list()
-        );
-    }
+    List<Tarefa> findAll();
+
+    /**
+     * Método para percorrer todas as tarefas sem carregá-las em memória de uma só vez.
+     * O Stream fica aberto apenas durante a execução do consumidor, que deve consumi-lo
+     * por completo antes de retornar.
+     *
+     * @param consumidor Função que recebe o Stream de tarefas, em ordem crescente de ID.
+     */
+    void streamAll(Consumer<Stream<Tarefa>> consumidor);
+
+    /**
+     * Método para percorrer todas as tarefas entregando as colunas de cada uma ao visitante, sem carregá-las
+     * em memória de uma só vez e sem criar objetos por tarefa. O motor não mantém locks enquanto o visitante
+     * executa; um visitante lento (como uma resposta HTTP esperando o cliente) apenas atrasa a leitura.
+     *
+     * @param visitante Função chamada para cada tarefa, em ordem crescente de ID.
+     */
+    void visitarTodas(VisitanteTarefas visitante);
+
+    /**
+     * Método para buscar uma página de tarefas usando paginação por chave (keyset).
+     *
+     * @param afterId ID da última tarefa da página anterior (0 para a primeira página).
+     * @param limit   Quantidade máxima de tarefas a retornar.
+     * @return Lista de tarefas da página, em ordem crescente de ID.
+     */
+    List<Tarefa> findPage(int afterId, int limit);
+
+    /**
+     * Método para buscar uma página de tarefas filtradas, usando paginação por chave (keyset).
+     *
+     * @param filtro  Filtros e ordenação a aplicar.
+     * @param posicao Última tarefa da página anterior (nulo para a primeira página).
+     * @param limit   Quantidade máxima de tarefas a retornar.
+     * @return Lista de tarefas da página, na ordem solicitada.
+     */
+    List<Tarefa> findPage(FiltroTarefas filtro, FiltroTarefas.Posicao posicao, int limit);
 
     /**
      * Método para buscar uma tarefa pelo ID.
@@ -32,57 +69,96 @@ public class TarefaRepository {
      * @param id ID da tarefa a ser buscada.
      * @return Optional contendo a tarefa, se encontrada.
      */
-    public Optional<Tarefa> findById(int id) {
-        return dataSource.withHandle(handle ->
-            handle.createQuery("SELECT * FROM tarefas WHERE id = :id")
-                  .bind("id", id)
-                  .mapToBean(Tarefa.class)
-                  .findFirst()
-        );
-    }
+    Optional<Tarefa> findById(int id);
 
     /**
-     * Método para inserir uma nova tarefa.
+     * Método para buscar várias tarefas pelos seus IDs. A ordem do resultado não é garantida.
+     *
+     * @param ids IDs das tarefas a serem buscadas.
+     * @return Lista com as tarefas encontradas.
+     */
+    List<Tarefa> findByIds(Collection<Integer> ids);
+
+    /**
+     * Método para inserir uma nova tarefa. Apenas o título e a descrição são usados;
+     * o ID, o status (pendente) e a data de criação são atribuídos pelo motor.
      *
      * @param tarefa Tarefa a ser inserida.
-     * @return ID da tarefa inserida.
+     * @return A tarefa inserida, com todos os campos preenchidos.
      */
-    public int insert(Tarefa tarefa) {
-        return dataSource.withHandle(handle ->
-                handle.createUpdate("INSERT INTO tarefas (titulo, descricao) " +
-                                "VALUES (:titulo, :descricao)")
-                        .bind("titulo", tarefa.getTitulo())
-                        .bind("descricao", tarefa.getDescricao())
-                        .executeAndReturnGeneratedKeys()
-                        .map((rs, ctx) -> rs.getInt((1)))
-                        .one());
+    Tarefa insert(Tarefa tarefa);
 
-    }
+    /**
+     * Método para inserir várias tarefas de uma só vez.
+     *
+     * @param tarefas Tarefas a serem inseridas.
+     * @return As tarefas inseridas, na mesma ordem, com todos os campos preenchidos.
+     */
+    List<Tarefa> insertAll(List<Tarefa> tarefas);
 
     /**
-     * Método para atualizar uma tarefa existente.
+     * Método para atualizar o título, a descrição e o status de uma tarefa existente.
      *
      * @param tarefa Tarefa com os dados atualizados.
+     * @return Optional contendo a tarefa atualizada, ou vazio se ela não existir.
+     */
+    Optional<Tarefa> update(Tarefa tarefa);
+
+    /**
+     * Método para atualizar uma tarefa somente se ela ainda estiver na versão informada (controle de
+     * concorrência otimista). A comparação e a atualização são uma única operação atômica, sem locks
+     * mantidos entre a leitura do cliente e a escrita.
+     *
+     * @param tarefa         Tarefa com os dados atualizados.
+     * @param versaoEsperada Versão que a tarefa deve ter para ser atualizada.
+     * @return Optional contendo a tarefa atualizada, ou vazio se ela não existir ou estiver em outra versão.
      */
-    public void update(Tarefa tarefa) {
-        dataSource.withHandle(handle ->
-            handle.createUpdate("UPDATE tarefas SET titulo = :titulo, descricao = :descricao, " +
-                                "concluida = :concluida WHERE id = :id")
-                    .bindBean(tarefa)
-                    .execute()
-        );
-    }
+    Optional<Tarefa> update(Tarefa tarefa, int versaoEsperada);
+
+    /**
+     * Método para alterar apenas os campos presentes na alteração, sem ler a tarefa antes.
+     * A versão da tarefa é incrementada como em um update completo.
+     *
+     * @param id             ID da tarefa a ser alterada.
+     * @param alteracao      Campos a alterar; não pode ser vazia.
+     * @param versaoEsperada Versão que a tarefa deve ter, ou {@link #QUALQUER_VERSAO} para não verificar.
+     * @return Optional contendo a tarefa alterada, ou vazio se ela não existir ou estiver em outra versão.
+     */
+    Optional<Tarefa> patch(int id, AlteracaoTarefa alteracao, int versaoEsperada);
 
     /**
      * Método para deletar uma tarefa pelo ID.
      *
      * @param id ID da tarefa a ser deletada.
+     * @return true se a tarefa existia e foi removida, false caso contrário.
+     */
+    boolean delete(int id);
+
+    /**
+     * Método para buscar as alterações registradas depois da sequência informada (sincronização incremental).
+     * Cada criação, atualização ou remoção recebe uma sequência crescente, gravada junto com a própria escrita;
+     * cada tarefa aparece no máximo uma vez, com a sua alteração mais recente.
+     *
+     * @param desde  Última sequência já conhecida pelo cliente.
+     * @param limite Quantidade máxima de alterações a retornar.
+     * @return Optional contendo as alterações em ordem crescente de sequência, ou vazio se a sequência for
+     *         anterior ao horizonte da compactação ou posterior à última sequência: o cliente deve ressincronizar.
+     */
+    Optional<List<MudancaTarefa>> findMudancas(long desde, int limite);
+
+    /**
+     * Método para buscar a última sequência atribuída a uma alteração.
+     *
+     * @return A última sequência, ou 0 se nenhuma alteração foi registrada.
+     */
+    long ultimaSequencia();
+
+    /**
+     * Método para apagar do log as lápides com sequência até a informada. O horizonte passa a ser a maior
+     * sequência apagada: os cursores anteriores a ele deixam de ser aceitos por {@link #findMudancas}.
+     *
+     * @param ateSequencia Maior sequência que pode ser apagada.
+     * @return Quantidade de lápides apagadas.
      */
-    public void delete(int id) {
-        dataSource.withHandle(handle ->
-            handle.createUpdate("DELETE FROM tarefas WHERE id = :id")
-                    .bind("id", id)
-                    .execute()
-        );
-    }
+    int compactarMudancas(long ateSequencia);
 }
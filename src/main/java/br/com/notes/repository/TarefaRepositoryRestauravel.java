@@ -0,0 +1,30 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+
+/**
+ * Motor de armazenamento que pode ser reconstruído a partir de um snapshot e de um journal,
+ * gravando as tarefas com os IDs e os campos originais.
+ */
+public interface TarefaRepositoryRestauravel extends TarefaRepository {
+
+    /**
+     * Grava a tarefa exatamente como informada (ID, status e data de criação incluídos),
+     * substituindo a tarefa com o mesmo ID, se existir. A sequência de IDs avança até o ID informado.
+     *
+     * @param tarefa A tarefa a ser gravada.
+     */
+    void restaurar(Tarefa tarefa);
+
+    /**
+     * Retorna o maior ID já gerado, incluindo o de tarefas que foram removidas.
+     */
+    int ultimoId();
+
+    /**
+     * Avança a sequência de IDs até o valor informado, para que IDs de tarefas removidas não sejam reaproveitados.
+     *
+     * @param id O menor valor aceito para o último ID gerado.
+     */
+    void ajustarUltimoId(int id);
+}
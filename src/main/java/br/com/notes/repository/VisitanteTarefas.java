@@ -0,0 +1,23 @@
+package br.com.notes.repository;
+
+import java.time.Instant;
+
+/**
+ * Recebe as colunas de cada tarefa percorrida por {@link TarefaRepository#visitarTodas(VisitanteTarefas)},
+ * sem que o motor precise montar um objeto Tarefa por linha.
+ */
+@FunctionalInterface
+public interface VisitanteTarefas {
+
+    /**
+     * Chamado uma vez por tarefa, em ordem crescente de ID.
+     *
+     * @param id          O ID da tarefa.
+     * @param titulo      O título da tarefa.
+     * @param descricao   A descrição da tarefa (pode ser nula).
+     * @param concluida   Se a tarefa foi concluída.
+     * @param dataCriacao A data de criação da tarefa.
+     * @param versao      A versão da tarefa.
+     */
+    void visitar(int id, String titulo, String descricao, boolean concluida, Instant dataCriacao, int versao);
+}
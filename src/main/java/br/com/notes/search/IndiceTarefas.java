@@ -0,0 +1,166 @@
+package br.com.notes.search;
+
+import br.com.notes.model.Tarefa;
+import br.com.notes.repository.TarefaRepository;
+import br.com.notes.service.OuvinteTarefas;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória para a busca textual em titulo e descricao das tarefas.
+ * <p>
+ * Para cada termo é mantida uma lista de IDs de tarefas (um RoaringBitmap, que guarda conjuntos
+ * de inteiros de forma compacta), separadamente para o título e para a descrição. A busca só
+ * percorre as listas dos termos pesquisados, então seu custo depende da quantidade de resultados
+ * e não do tamanho da tabela. O índice é reconstruído a partir do banco na inicialização e
+ * mantido atualizado como ouvinte da TarefaService, que entrega as notificações de cada tarefa na ordem
+ * das escritas: uma atualização atrasada nunca sobrescreve os termos de uma versão mais nova, nem
+ * devolve ao índice uma tarefa removida.
+ */
+public class IndiceTarefas implements OuvinteTarefas {
+    // Um termo encontrado no título pesa mais que o mesmo termo na descrição.
+    private static final double PESO_TITULO = 2.0;
+    private static final double PESO_DESCRICAO = 1.0;
+
+    private final Map<String, RoaringBitmap> indiceTitulo = new HashMap<>();
+    private final Map<String, RoaringBitmap> indiceDescricao = new HashMap<>();
+    private final Map<Integer, Termos> termosPorTarefa = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Resultado de uma busca: os IDs da página solicitada, em ordem de relevância, e o total de tarefas encontradas.
+     */
+    public record Resultado(List<Integer> ids, int total) {
+    }
+
+    /**
+     * Descarta o conteúdo atual e indexa todas as tarefas do banco.
+     *
+     * @param repository o repositório de onde as tarefas são lidas
+     */
+    public void reconstruir(TarefaRepository repository) {
+        lock.writeLock().lock();
+        try {
+            indiceTitulo.clear();
+            indiceDescricao.clear();
+            termosPorTarefa.clear();
+            repository.streamAll(tarefas -> tarefas.forEach(this::indexar));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca as tarefas que contêm ao menos um dos termos da consulta, ordenadas por relevância
+     * (termos mais raros e presentes no título valem mais; empates são resolvidos pelo ID).
+     *
+     * @param consulta o texto pesquisado
+     * @param offset   quantos resultados pular
+     * @param limite   quantidade máxima de resultados a retornar
+     * @return os IDs da página e o total de tarefas encontradas
+     */
+    public Resultado buscar(String consulta, int offset, int limite) {
+        Set<String> termos = Tokenizador.termos(consulta);
+        lock.readLock().lock();
+        try {
+            int totalTarefas = termosPorTarefa.size();
+            Map<Integer, Double> pontuacao = new HashMap<>();
+            for (String termo : termos) {
+                RoaringBitmap titulo = indiceTitulo.getOrDefault(termo, new RoaringBitmap());
+                RoaringBitmap descricao = indiceDescricao.getOrDefault(termo, new RoaringBitmap());
+                int frequencia = RoaringBitmap.orCardinality(titulo, descricao);
+                if (frequencia == 0) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) totalTarefas / frequencia);
+                titulo.forEach((int id) -> pontuacao.merge(id, idf * PESO_TITULO, Double::sum));
+                descricao.forEach((int id) -> pontuacao.merge(id, idf * PESO_DESCRICAO, Double::sum));
+            }
+
+            List<Map.Entry<Integer, Double>> encontradas = new ArrayList<>(pontuacao.entrySet());
+            encontradas.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Integer> pagina = encontradas.stream()
+                    .skip(offset)
+                    .limit(limite)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            return new Resultado(pagina, encontradas.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void tarefaCriada(Tarefa tarefa) {
+        lock.writeLock().lock();
+        try {
+            indexar(tarefa);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void tarefaAtualizada(Tarefa tarefa) {
+        lock.writeLock().lock();
+        try {
+            remover(tarefa.getId());
+            indexar(tarefa);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void tarefaRemovida(int id, int versao) {
+        lock.writeLock().lock();
+        try {
+            remover(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Os métodos abaixo devem ser chamados com o writeLock adquirido.
+
+    private void indexar(Tarefa tarefa) {
+        var termos = new Termos(Tokenizador.termos(tarefa.getTitulo()), Tokenizador.termos(tarefa.getDescricao()));
+        termos.titulo().forEach(termo -> indiceTitulo.computeIfAbsent(termo, t -> new RoaringBitmap()).add(tarefa.getId()));
+        termos.descricao().forEach(termo -> indiceDescricao.computeIfAbsent(termo, t -> new RoaringBitmap()).add(tarefa.getId()));
+        termosPorTarefa.put(tarefa.getId(), termos);
+    }
+
+    private void remover(int id) {
+        Termos termos = termosPorTarefa.remove(id);
+        if (termos == null) {
+            return;
+        }
+        termos.titulo().forEach(termo -> removerDaLista(indiceTitulo, termo, id));
+        termos.descricao().forEach(termo -> removerDaLista(indiceDescricao, termo, id));
+    }
+
+    private static void removerDaLista(Map<String, RoaringBitmap> indice, String termo, int id) {
+        RoaringBitmap ids = indice.get(termo);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                indice.remove(termo);
+            }
+        }
+    }
+
+    /**
+     * Termos indexados de uma tarefa, guardados para permitir removê-la das listas depois.
+     */
+    private record Termos(Set<String> titulo, Set<String> descricao) {
+    }
+}
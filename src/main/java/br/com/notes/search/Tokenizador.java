@@ -0,0 +1,46 @@
+package br.com.notes.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Quebra textos em termos para o índice de busca.
+ * <p>
+ * Os termos são normalizados para que a busca ignore maiúsculas e acentos ("Café" e "cafe" são o
+ * mesmo termo). Palavras muito curtas e as palavras de ligação mais comuns do português são descartadas.
+ */
+public final class Tokenizador {
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas", "um", "uma", "uns", "umas",
+            "os", "as", "ao", "aos", "para", "pra", "com", "por", "que", "se", "ou", "e", "o", "a");
+
+    private Tokenizador() {
+    }
+
+    /**
+     * Retorna os termos distintos do texto, na ordem em que aparecem.
+     *
+     * @param texto o texto a ser quebrado (pode ser nulo)
+     * @return os termos normalizados
+     */
+    public static Set<String> termos(String texto) {
+        Set<String> termos = new LinkedHashSet<>();
+        if (texto == null || texto.isBlank()) {
+            return termos;
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (termo.length() > 1 && !STOPWORDS.contains(termo)) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.notes.service;
+
+import br.com.notes.model.Tarefa;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entrega as notificações da TarefaService aos ouvintes na ordem em que as escritas de cada tarefa foram confirmadas.
+ * <p>
+ * As notificações são feitas depois que a escrita retorna do repositório: duas escritas concorrentes na mesma tarefa
+ * podem chegar aqui na ordem inversa da confirmação. Como cada escrita confirmada aumenta a versão da tarefa e a
+ * remoção é definitiva (os IDs não são reaproveitados), a ordem é recuperada pela versão: uma notificação de versão
+ * não mais nova que a última entregue, ou de uma tarefa já removida, é descartada, porque os ouvintes já receberam
+ * um estado mais recente. As entregas são serializadas por um único lock, que os ouvintes atuais (o índice de busca,
+ * com o seu writeLock, e o feed, com o lock do histórico) já impunham.
+ * <p>
+ * A última versão entregue de cada tarefa fica em um array indexado pelo ID: 4 bytes por ID, sem boxing. Ela também
+ * acompanha a notificação de remoção, que não tem a tarefa; as versões das tarefas que já existiam ao iniciar a
+ * aplicação são carregadas por {@link #conhecida(int, int)}.
+ */
+final class NotificacoesOrdenadas {
+    private static final int CAPACIDADE_INICIAL = 1024;
+    // Marca de tarefa removida; as versões começam em 1 e o zero indica uma tarefa ainda sem notificações.
+    private static final int REMOVIDA = -1;
+
+    private final List<OuvinteTarefas> ouvintes;
+    // Protegido pelo lock deste objeto.
+    private int[] versoes = new int[CAPACIDADE_INICIAL];
+
+    NotificacoesOrdenadas(List<OuvinteTarefas> ouvintes) {
+        this.ouvintes = ouvintes;
+    }
+
+    /**
+     * Avisa a criação da tarefa, a menos que um estado mais novo dela já tenha sido entregue.
+     */
+    synchronized void criada(Tarefa tarefa) {
+        if (avancar(tarefa)) {
+            ouvintes.forEach(ouvinte -> ouvinte.tarefaCriada(tarefa));
+        }
+    }
+
+    /**
+     * Avisa a atualização da tarefa, a menos que uma versão igual ou mais nova, ou a remoção, já tenha sido entregue.
+     */
+    synchronized void atualizada(Tarefa tarefa) {
+        if (avancar(tarefa)) {
+            ouvintes.forEach(ouvinte -> ouvinte.tarefaAtualizada(tarefa));
+        }
+    }
+
+    /**
+     * Avisa a remoção da tarefa, com a última versão dela entregue (zero se nenhuma for conhecida).
+     * Depois dela, nenhuma notificação atrasada da tarefa é entregue.
+     */
+    synchronized void removida(int id) {
+        garantirCapacidade(id);
+        int versao = Math.max(versoes[id], 0);
+        versoes[id] = REMOVIDA;
+        ouvintes.forEach(ouvinte -> ouvinte.tarefaRemovida(id, versao));
+    }
+
+    /**
+     * Registra a versão de uma tarefa já existente, sem notificar os ouvintes. Não altera uma tarefa que
+     * já teve notificações, cuja versão conhecida é igual ou mais nova.
+     */
+    synchronized void conhecida(int id, int versao) {
+        garantirCapacidade(id);
+        if (versoes[id] == 0) {
+            versoes[id] = versao;
+        }
+    }
+
+    /**
+     * Registra a versão da tarefa se ela for mais nova que a última entregue e a tarefa não tiver sido removida.
+     * Uma tarefa sem versão (0) não é comparada. Deve ser chamado com o lock deste objeto.
+     */
+    private boolean avancar(Tarefa tarefa) {
+        int id = tarefa.getId();
+        garantirCapacidade(id);
+        int ultima = versoes[id];
+        if (ultima == REMOVIDA || (ultima > 0 && tarefa.getVersao() <= ultima)) {
+            return false;
+        }
+        versoes[id] = tarefa.getVersao();
+        return true;
+    }
+
+    private void garantirCapacidade(int id) {
+        if (id >= versoes.length) {
+            versoes = Arrays.copyOf(versoes, Math.max(versoes.length * 2, id + 1));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.notes.service;
+
+import br.com.notes.model.Tarefa;
+
+/**
+ * Recebe as notificações de alteração de tarefas feitas pela TarefaService.
+ * As notificações são enviadas de forma síncrona, logo após cada escrita bem-sucedida no banco, uma de cada vez.
+ * As de uma mesma tarefa chegam na ordem das escritas: uma versão nunca chega depois de outra mais nova,
+ * e nada chega depois da remoção.
+ */
+public interface OuvinteTarefas {
+
+    /**
+     * Chamado após a criação de uma tarefa.
+     * @param tarefa A tarefa criada, com todas as colunas preenchidas pelo banco.
+     */
+    void tarefaCriada(Tarefa tarefa);
+
+    /**
+     * Chamado após a atualização de uma tarefa.
+     * @param tarefa A tarefa com os dados atualizados.
+     */
+    void tarefaAtualizada(Tarefa tarefa);
+
+    /**
+     * Chamado após a remoção de uma tarefa.
+     * @param id O ID da tarefa removida.
+     * @param versao A última versão notificada da tarefa, ou zero se nenhuma for conhecida.
+     */
+    void tarefaRemovida(int id, int versao);
+}
@@ -2,22 +2,88 @@ package br.com.notes.service;
 
 import br.com.notes.dto.AtualizarTarefaDTO;
 import br.com.notes.dto.CriarTarefaDTO;
+import br.com.notes.dto.MudancasTarefasDTO;
+import br.com.notes.dto.PaginaTarefasDTO;
+import br.com.notes.dto.ResultadoBuscaDTO;
 import br.com.notes.dto.RespostaTarefaDTO;
 import br.com.notes.model.Tarefa;
+import br.com.notes.repository.AlteracaoTarefa;
+import br.com.notes.repository.FiltroTarefas;
+import br.com.notes.repository.MudancaTarefa;
 import br.com.notes.repository.TarefaRepository;
+import br.com.notes.repository.VisitanteTarefas;
+import br.com.notes.search.IndiceTarefas;
+import io.javalin.http.BadRequestResponse;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.PreconditionFailedResponse;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TarefaService {
+    // Limites da paginação: o servidor nunca devolve mais que TAMANHO_MAXIMO_PAGINA itens por página.
+    public static final int TAMANHO_PADRAO_PAGINA = 50;
+    public static final int TAMANHO_MAXIMO_PAGINA = 500;
+    // Quantidade máxima de tarefas aceitas em uma única criação em lote.
+    public static final int TAMANHO_MAXIMO_LOTE = 1000;
+    private static final String PREFIXO_CURSOR = "id:";
+    private static final String PREFIXO_CURSOR_DATA = "dt:";
+    private static final String PREFIXO_CURSOR_MUDANCAS = "sq:";
+
     private final TarefaRepository tarefaRepository;
+    private final List<OuvinteTarefas> ouvintes = new CopyOnWriteArrayList<>();
+    // Entrega as notificações de cada tarefa na ordem das escritas, descartando as atrasadas.
+    private final NotificacoesOrdenadas notificacoes = new NotificacoesOrdenadas(ouvintes);
+    // Contador global de modificações, base do ETag das listagens. O instante de criação do serviço
+    // diferencia os contadores de execuções diferentes da aplicação, que recomeçam do zero.
+    private final AtomicLong modificacoes = new AtomicLong();
+    private final String prefixoVersaoListagem = Long.toString(System.currentTimeMillis(), 36) + "-";
+    private volatile IndiceTarefas indiceBusca;
 
     public TarefaService(TarefaRepository tarefaRepository) {
         this.tarefaRepository = tarefaRepository;
     }
 
+    /**
+     * Registra um ouvinte para ser notificado após cada criação, atualização ou remoção de tarefa.
+     * As notificações de uma mesma tarefa chegam na ordem em que as escritas foram confirmadas;
+     * as que chegariam atrasadas são descartadas.
+     */
+    public void adicionarOuvinte(OuvinteTarefas ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Carrega a versão das tarefas já gravadas, enviada aos ouvintes na notificação de remoção.
+     * Deve ser chamado ao iniciar a aplicação, antes das escritas; sem ele, a remoção de uma tarefa
+     * que não foi escrita desde então é notificada com a versão zero.
+     */
+    public void carregarVersoes() {
+        tarefaRepository.visitarTodas((id, titulo, descricao, concluida, dataCriacao, versao) ->
+                notificacoes.conhecida(id, versao));
+    }
+
+    /**
+     * Retorna a versão atual das listagens de tarefas, que muda a cada criação, atualização ou remoção.
+     * Deve ser lida antes da consulta: assim uma escrita concorrente nunca fica com a versão antiga.
+     */
+    public String versaoListagem() {
+        return prefixoVersaoListagem + modificacoes.get();
+    }
+
     /**
      * Retorna uma lista de todas as tarefas, já convertidas para o DTO de resposta.
      */
@@ -27,6 +93,169 @@ public class TarefaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Percorre todas as tarefas, já convertidas para o DTO de resposta, sem montar listas intermediárias.
+     * O Stream só é válido durante a execução do consumidor.
+     */
+    public void percorrerTarefas(Consumer<Stream<RespostaTarefaDTO>> consumidor) {
+        tarefaRepository.streamAll(tarefas ->
+                consumidor.accept(tarefas.map(this::converterParaRespostaTarefaDTO)));
+    }
+
+    /**
+     * Percorre todas as tarefas para a exportação, entregando as colunas de cada uma ao visitante,
+     * sem DTOs nem listas intermediárias.
+     */
+    public void exportar(VisitanteTarefas visitante) {
+        tarefaRepository.visitarTodas(visitante);
+    }
+
+    /**
+     * Retorna uma página de tarefas a partir do cursor informado.
+     * O tamanho da página é limitado a TAMANHO_MAXIMO_PAGINA.
+     * Lança BadRequestResponse se o cursor ou o limite forem inválidos.
+     */
+    public PaginaTarefasDTO listarPagina(String cursor, int limite) {
+        if (limite <= 0) {
+            throw new BadRequestResponse("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        int tamanho = Math.min(limite, TAMANHO_MAXIMO_PAGINA);
+        int afterId = cursor == null || cursor.isBlank() ? 0 : decodificarCursor(cursor);
+
+        // Busca um item a mais para saber se existe uma próxima página sem precisar de um COUNT.
+        List<Tarefa> tarefas = tarefaRepository.findPage(afterId, tamanho + 1);
+        boolean temProxima = tarefas.size() > tamanho;
+        if (temProxima) {
+            tarefas = tarefas.subList(0, tamanho);
+        }
+
+        List<RespostaTarefaDTO> dtos = tarefas.stream()
+                .map(this::converterParaRespostaTarefaDTO)
+                .collect(Collectors.toList());
+        String proximoCursor = temProxima ? codificarCursor(tarefas.get(tamanho - 1).getId()) : null;
+        return new PaginaTarefasDTO(dtos, proximoCursor);
+    }
+
+    /**
+     * Retorna uma página de tarefas que atendem ao filtro, a partir do cursor informado.
+     * O cursor só é válido para a mesma ordenação em que foi gerado.
+     * Lança BadRequestResponse se o cursor ou o limite forem inválidos.
+     */
+    public PaginaTarefasDTO listarPagina(FiltroTarefas filtro, String cursor, int limite) {
+        if (limite <= 0) {
+            throw new BadRequestResponse("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        int tamanho = Math.min(limite, TAMANHO_MAXIMO_PAGINA);
+        boolean porData = filtro.ordenacao().porDataCriacao();
+        FiltroTarefas.Posicao posicao = cursor == null || cursor.isBlank() ? null : decodificarPosicao(cursor, porData);
+
+        List<Tarefa> tarefas = tarefaRepository.findPage(filtro, posicao, tamanho + 1);
+        boolean temProxima = tarefas.size() > tamanho;
+        if (temProxima) {
+            tarefas = tarefas.subList(0, tamanho);
+        }
+
+        List<RespostaTarefaDTO> dtos = tarefas.stream()
+                .map(this::converterParaRespostaTarefaDTO)
+                .collect(Collectors.toList());
+        String proximoCursor = null;
+        if (temProxima) {
+            Tarefa ultima = tarefas.get(tamanho - 1);
+            proximoCursor = porData ? codificarCursor(ultima.getDataCriacao(), ultima.getId()) : codificarCursor(ultima.getId());
+        }
+        return new PaginaTarefasDTO(dtos, proximoCursor);
+    }
+
+    /**
+     * Retorna as alterações de tarefas desde o cursor informado (sincronização incremental): as tarefas
+     * criadas ou alteradas, no estado atual, e os IDs das removidas. O tamanho da resposta é proporcional
+     * ao que mudou, não à quantidade de tarefas; a página é limitada a TAMANHO_MAXIMO_PAGINA alterações.
+     * <p>
+     * Sem cursor, com um cursor de outra execução da aplicação ou com um cursor anterior à compactação do log,
+     * a resposta pede a ressincronização: o cliente recarrega a listagem completa e continua pelo cursor
+     * devolvido, obtido antes da recarga, de modo que nenhuma alteração feita durante ela é perdida.
+     * Lança BadRequestResponse se o cursor ou o limite forem inválidos.
+     */
+    public MudancasTarefasDTO listarMudancas(String cursor, int limite) {
+        if (limite <= 0) {
+            throw new BadRequestResponse("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        int tamanho = Math.min(limite, TAMANHO_MAXIMO_PAGINA);
+        long desde = cursor == null || cursor.isBlank() ? -1 : decodificarCursorMudancas(cursor);
+
+        Optional<List<MudancaTarefa>> encontradas = desde < 0 ? Optional.empty() : tarefaRepository.findMudancas(desde, tamanho + 1);
+        if (encontradas.isEmpty()) {
+            return new MudancasTarefasDTO(List.of(), List.of(),
+                    codificarCursorMudancas(tarefaRepository.ultimaSequencia()), true, false);
+        }
+
+        List<MudancaTarefa> mudancas = encontradas.get();
+        boolean temMais = mudancas.size() > tamanho;
+        if (temMais) {
+            mudancas = mudancas.subList(0, tamanho);
+        }
+        List<RespostaTarefaDTO> alteradas = new ArrayList<>();
+        List<Integer> removidas = new ArrayList<>();
+        for (MudancaTarefa mudanca : mudancas) {
+            if (mudanca.removida()) {
+                removidas.add(mudanca.id());
+            } else {
+                alteradas.add(converterParaRespostaTarefaDTO(mudanca.tarefa()));
+            }
+        }
+        long ultima = mudancas.isEmpty() ? desde : mudancas.get(mudancas.size() - 1).seq();
+        return new MudancasTarefasDTO(alteradas, removidas, codificarCursorMudancas(ultima), false, temMais);
+    }
+
+    /**
+     * Apaga do log de alterações as lápides mais antigas, mantendo as últimas sequências informadas.
+     * Os clientes com cursores anteriores às lápides apagadas passam a receber o pedido de ressincronização.
+     *
+     * @param sequenciasRetidas quantidade de sequências mais recentes que não são compactadas
+     * @return a quantidade de lápides apagadas
+     */
+    public int compactarMudancas(long sequenciasRetidas) {
+        long ate = tarefaRepository.ultimaSequencia() - sequenciasRetidas;
+        return ate > 0 ? tarefaRepository.compactarMudancas(ate) : 0;
+    }
+
+    /**
+     * Habilita a busca textual usando o índice informado, que passa a ser notificado das alterações.
+     * O índice deve ter sido construído a partir do banco antes de ser habilitado.
+     */
+    public void habilitarBusca(IndiceTarefas indice) {
+        adicionarOuvinte(indice);
+        this.indiceBusca = indice;
+    }
+
+    /**
+     * Busca tarefas pelo texto do título e da descrição, da mais para a menos relevante.
+     * O tamanho da página é limitado a TAMANHO_MAXIMO_PAGINA.
+     * Lança BadRequestResponse se a busca não estiver habilitada ou se os parâmetros forem inválidos.
+     */
+    public ResultadoBuscaDTO buscar(String consulta, int limite, int offset) {
+        IndiceTarefas indice = indiceBusca;
+        if (indice == null) {
+            throw new BadRequestResponse("A busca textual não está habilitada.");
+        }
+        if (limite <= 0 || offset < 0) {
+            throw new BadRequestResponse("Os parâmetros 'limit' e 'offset' devem ser positivos.");
+        }
+        int tamanho = Math.min(limite, TAMANHO_MAXIMO_PAGINA);
+
+        IndiceTarefas.Resultado resultado = indice.buscar(consulta, offset, tamanho);
+        Map<Integer, Tarefa> porId = tarefaRepository.findByIds(resultado.ids()).stream()
+                .collect(Collectors.toMap(Tarefa::getId, Function.identity()));
+        List<RespostaTarefaDTO> dtos = resultado.ids().stream()
+                .map(porId::get)
+                .filter(tarefa -> tarefa != null)
+                .map(this::converterParaRespostaTarefaDTO)
+                .collect(Collectors.toList());
+
+        int proximo = offset + resultado.ids().size();
+        return new ResultadoBuscaDTO(dtos, resultado.total(), proximo < resultado.total() ? proximo : null);
+    }
+
     /**
      * Busca uma tarefa por ID e a retorna como um DTO de resposta.
      * Lança NotFoundResponse se não encontrar.
@@ -39,52 +268,242 @@ public class TarefaService {
 
     /**
      * Cria uma nova tarefa a partir de um DTO e retorna a tarefa criada como um DTO de resposta.
+     * Executa um único comando no banco: o INSERT já devolve as colunas geradas.
      */
     public RespostaTarefaDTO criar(CriarTarefaDTO dto) {
         Tarefa novaTarefa = new Tarefa();
         novaTarefa.setTitulo(dto.titulo());
         novaTarefa.setDescricao(dto.descricao());
-        var novoId = tarefaRepository.insert(novaTarefa);
-        return buscarPorId(novoId);
+        Tarefa criada = tarefaRepository.insert(novaTarefa);
+        modificacoes.incrementAndGet();
+        notificacoes.criada(criada);
+        return converterParaRespostaTarefaDTO(criada);
+    }
+
+    /**
+     * Cria várias tarefas em um único lote e as retorna, na mesma ordem, como DTOs de resposta.
+     * Todas são inseridas em uma única transação com um único PreparedBatch.
+     */
+    public List<RespostaTarefaDTO> criarEmLote(List<CriarTarefaDTO> dtos) {
+        return inserirLote(dtos).stream()
+                .map(this::converterParaRespostaTarefaDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Grava um lote da importação (POST /tarefas/import) como o criarEmLote, em uma única transação com um
+     * único PreparedBatch, sem montar os DTOs de resposta, que a importação não devolve.
+     *
+     * @param dtos As tarefas do lote, já validadas.
+     */
+    public void importar(List<CriarTarefaDTO> dtos) {
+        inserirLote(dtos);
     }
 
     /**
      * Atualiza uma tarefa existente com os dados do DTO e retorna a tarefa atualizada como um DTO de resposta.
+     * Executa um único UPDATE; se nenhuma linha for afetada, a tarefa não existe.
      * Lança NotFoundResponse se a tarefa não for encontrada.
      */
     public RespostaTarefaDTO atualizar(int id, AtualizarTarefaDTO dto) {
-        Tarefa tarefaExistente = tarefaRepository.findById(id)
+        Tarefa atualizada = tarefaRepository.update(paraTarefa(id, dto))
                 .orElseThrow(() -> new NotFoundResponse("Tarefa não encontrada com o ID: " + id));
+        return notificarAtualizacao(atualizada);
+    }
 
-        tarefaExistente.setTitulo(dto.titulo());
-        tarefaExistente.setDescricao(dto.descricao());
-        tarefaExistente.setConcluida(dto.concluida());
-        tarefaRepository.update(tarefaExistente);
+    /**
+     * Atualiza a tarefa somente se ela ainda estiver na versão informada, com um único UPDATE condicional.
+     * Só quando nenhuma linha é afetada a tarefa é lida, para diferenciar uma tarefa inexistente
+     * de uma tarefa alterada por outra requisição.
+     * Lança NotFoundResponse se a tarefa não for encontrada.
+     * Lança PreconditionFailedResponse se a tarefa estiver em outra versão.
+     */
+    public RespostaTarefaDTO atualizar(int id, AtualizarTarefaDTO dto, int versaoEsperada) {
+        Optional<Tarefa> atualizada = tarefaRepository.update(paraTarefa(id, dto), versaoEsperada);
+        if (atualizada.isEmpty()) {
+            throw falhaNaAtualizacao(id);
+        }
+        return notificarAtualizacao(atualizada.get());
+    }
 
-        return converterParaRespostaTarefaDTO(tarefaExistente);
+    /**
+     * Altera apenas os campos presentes na alteração (PATCH), com um único UPDATE e sem ler a tarefa antes.
+     * Uma alteração vazia não grava nada e devolve a tarefa atual.
+     * Lança NotFoundResponse se a tarefa não for encontrada.
+     * Lança PreconditionFailedResponse se uma versão foi informada e a tarefa estiver em outra versão.
+     *
+     * @param versaoEsperada a versão do If-Match, ou nulo para não verificar
+     */
+    public RespostaTarefaDTO alterar(int id, AlteracaoTarefa alteracao, Integer versaoEsperada) {
+        if (alteracao.vazia()) {
+            RespostaTarefaDTO atual = buscarPorId(id);
+            if (versaoEsperada != null && atual.versao() != versaoEsperada) {
+                throw new PreconditionFailedResponse("A tarefa foi alterada por outra requisição. Versão atual: "
+                        + atual.versao() + ".");
+            }
+            return atual;
+        }
+        Optional<Tarefa> alterada = tarefaRepository.patch(id, alteracao,
+                versaoEsperada == null ? TarefaRepository.QUALQUER_VERSAO : versaoEsperada);
+        if (alterada.isEmpty()) {
+            throw falhaNaAtualizacao(id);
+        }
+        return notificarAtualizacao(alterada.get());
     }
 
     /**
      * Deleta uma tarefa pelo ID.
+     * Executa um único DELETE; se nenhuma linha for afetada, a tarefa não existe.
      * Lança NotFoundResponse se a tarefa não for encontrada.
      */
     public void deletar(int id) {
-        tarefaRepository.findById(id)
-                .orElseThrow(() -> new NotFoundResponse("Tarefa não encontrada com o ID: " + id));
+        if (!tarefaRepository.delete(id)) {
+            throw new NotFoundResponse("Tarefa não encontrada com o ID: " + id);
+        }
+        modificacoes.incrementAndGet();
+        notificacoes.removida(id);
+    }
+
+    /**
+     * Método auxiliar privado para montar a tarefa a ser atualizada a partir do DTO.
+     */
+    private static Tarefa paraTarefa(int id, AtualizarTarefaDTO dto) {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(id);
+        tarefa.setTitulo(dto.titulo());
+        tarefa.setDescricao(dto.descricao());
+        tarefa.setConcluida(dto.concluida());
+        return tarefa;
+    }
+
+    /**
+     * Método auxiliar privado para explicar uma atualização condicional que não afetou nenhuma linha.
+     * Só nesse caso a tarefa é lida, para diferenciar uma tarefa inexistente de uma versão desatualizada.
+     */
+    private RuntimeException falhaNaAtualizacao(int id) {
+        return tarefaRepository.findById(id)
+                .<RuntimeException>map(atual -> new PreconditionFailedResponse(
+                        "A tarefa foi alterada por outra requisição. Versão atual: " + atual.getVersao() + "."))
+                .orElseGet(() -> new NotFoundResponse("Tarefa não encontrada com o ID: " + id));
+    }
+
+    /**
+     * Método auxiliar privado para registrar uma atualização bem-sucedida e avisar os ouvintes.
+     */
+    private RespostaTarefaDTO notificarAtualizacao(Tarefa atualizada) {
+        modificacoes.incrementAndGet();
+        notificacoes.atualizada(atualizada);
+        return converterParaRespostaTarefaDTO(atualizada);
+    }
+
+    /**
+     * Método auxiliar privado para gerar o cursor opaco a partir do ID da última tarefa da página.
+     */
+    private String codificarCursor(int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO_CURSOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Método auxiliar privado para gerar um cursor opaco com a data de criação e o ID da última tarefa.
+     */
+    private String codificarCursor(Instant dataCriacao, int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO_CURSOR_DATA + dataCriacao + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Método auxiliar privado para gerar o cursor opaco da sincronização a partir de uma sequência do log.
+     * O prefixo da versão das listagens identifica a execução da aplicação em que o cursor foi gerado.
+     */
+    private String codificarCursorMudancas(long seq) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO_CURSOR_MUDANCAS + prefixoVersaoListagem + seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Método auxiliar privado para extrair a sequência de um cursor opaco da sincronização.
+     * Retorna -1 se o cursor foi gerado por outra execução da aplicação, cujas sequências não valem mais.
+     * Lança BadRequestResponse se o cursor não tiver sido gerado por esta API.
+     */
+    private long decodificarCursorMudancas(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIXO_CURSOR_MUDANCAS)) {
+                throw new IllegalArgumentException(valor);
+            }
+            int separador = valor.lastIndexOf('-');
+            long seq = Long.parseLong(valor.substring(separador + 1));
+            if (separador < 0 || seq < 0) {
+                throw new IllegalArgumentException(valor);
+            }
+            String execucao = valor.substring(PREFIXO_CURSOR_MUDANCAS.length(), separador + 1);
+            return execucao.equals(prefixoVersaoListagem) ? seq : -1;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse("Cursor inválido.");
+        }
+    }
+
+    /**
+     * Método auxiliar privado para extrair a posição de um cursor opaco da listagem filtrada.
+     * Lança BadRequestResponse se o cursor não corresponder à ordenação pedida.
+     */
+    private FiltroTarefas.Posicao decodificarPosicao(String cursor, boolean porData) {
+        if (!porData) {
+            return new FiltroTarefas.Posicao(decodificarCursor(cursor), null);
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            if (!valor.startsWith(PREFIXO_CURSOR_DATA) || separador < 0) {
+                throw new IllegalArgumentException(valor);
+            }
+            Instant dataCriacao = Instant.parse(valor.substring(PREFIXO_CURSOR_DATA.length(), separador));
+            return new FiltroTarefas.Posicao(Integer.parseInt(valor.substring(separador + 1)), dataCriacao);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestResponse("Cursor inválido.");
+        }
+    }
+
+    /**
+     * Método auxiliar privado para extrair o ID de um cursor opaco.
+     * Lança BadRequestResponse se o cursor não tiver sido gerado por esta API.
+     */
+    private int decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIXO_CURSOR)) {
+                throw new IllegalArgumentException(valor);
+            }
+            return Integer.parseInt(valor.substring(PREFIXO_CURSOR.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse("Cursor inválido.");
+        }
+    }
+
+    /**
+     * Insere as tarefas em lote, conta uma única modificação e avisa os ouvintes de cada tarefa criada.
+     */
+    private List<Tarefa> inserirLote(List<CriarTarefaDTO> dtos) {
+        List<Tarefa> novasTarefas = dtos.stream()
+                .map(dto -> {
+                    Tarefa tarefa = new Tarefa();
+                    tarefa.setTitulo(dto.titulo());
+                    tarefa.setDescricao(dto.descricao());
+                    return tarefa;
+                })
+                .collect(Collectors.toList());
 
-        tarefaRepository.delete(id);
+        List<Tarefa> criadas = tarefaRepository.insertAll(novasTarefas);
+        modificacoes.incrementAndGet();
+        criadas.forEach(notificacoes::criada);
+        return criadas;
     }
 
     /**
      * Método auxiliar privado para converter o modelo Tarefa para o DTO de Resposta.
      */
     private RespostaTarefaDTO converterParaRespostaTarefaDTO(Tarefa tarefa) {
-        return new RespostaTarefaDTO(
-                tarefa.getId(),
-                tarefa.getTitulo(),
-                tarefa.getDescricao(),
-                tarefa.isConcluida(),
-                tarefa.getDataCriacao()
-        );
+        return RespostaTarefaDTO.de(tarefa);
     }
 }
@@ -1,3 +1,5 @@
+DROP TABLE IF EXISTS tarefas_mudancas;
+DROP TABLE IF EXISTS tarefas_mudancas_controle;
 DROP TABLE IF EXISTS tarefas;
 
 CREATE TABLE tarefas (
@@ -5,9 +7,16 @@ CREATE TABLE tarefas (
     titulo VARCHAR(255) NOT NULL,
     descricao VARCHAR(255),
     concluida BOOLEAN NOT NULL DEFAULT FALSE,
-    dataCriacao TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+    dataCriacao TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Incrementada a cada UPDATE; é a base do ETag de GET /tarefas/{id}.
+    versao INT NOT NULL DEFAULT 1
 );
 
+-- Índices para os filtros da listagem (GET /tarefas?concluida=...&criadaDe=...&criadaAte=...).
+-- O id no fim de cada índice permite a paginação por chave sem ordenação adicional.
+CREATE INDEX idx_tarefas_concluida_id ON tarefas (concluida, id);
+CREATE INDEX idx_tarefas_datacriacao_id ON tarefas (dataCriacao, id);
+
 INSERT INTO tarefas (titulo, descricao) VALUES
  ('Fazer AT de Desenvolvimento de Software', 'Estruturar o projeto com Javalin, JDBI e H2 Database.'),
  ('Estudar para a prova', 'Revisar o conteúdo de concorrência e paralelismo.'),
@@ -15,4 +24,30 @@ INSERT INTO tarefas (titulo, descricao) VALUES
  ('Pagar conta de luz', NULL), -- Exemplo de tarefa sem descrição
  ('Levar o lixo para fora', 'Fazer isso antes das 19h.'),
  ('Preparar apresentação', 'Incluir os gráficos de vendas do último trimestre.'),
- ('Fazer matrícula na academia', NULL);
\ No newline at end of file
+ ('Fazer matrícula na academia', NULL);
+
+-- Log de alterações da sincronização incremental (GET /tarefas/changes?since=...).
+-- Uma linha por tarefa, com a sequência da sua última alteração: a sincronização devolve só as tarefas
+-- alteradas desde a sequência do cliente, e o tamanho do log não cresce com as atualizações repetidas.
+-- As linhas de tarefas removidas (removida = TRUE) são as lápides, apagadas pela compactação.
+CREATE TABLE tarefas_mudancas (
+    tarefa_id INT PRIMARY KEY,
+    seq BIGINT NOT NULL,
+    removida BOOLEAN NOT NULL
+);
+CREATE INDEX idx_tarefas_mudancas_seq ON tarefas_mudancas (seq);
+
+-- Linha única com a última sequência atribuída e o horizonte da compactação: cursores anteriores ao
+-- horizonte podem ter perdido lápides e precisam ressincronizar. O UPDATE da última sequência bloqueia
+-- a linha até o commit, então as sequências são confirmadas na mesma ordem em que são atribuídas.
+CREATE TABLE tarefas_mudancas_controle (
+    id INT PRIMARY KEY,
+    ultima_seq BIGINT NOT NULL,
+    horizonte BIGINT NOT NULL
+);
+
+-- As tarefas iniciais entram no log como se tivessem sido criadas uma a uma.
+INSERT INTO tarefas_mudancas (tarefa_id, seq, removida)
+SELECT id, ROW_NUMBER() OVER (ORDER BY id), FALSE FROM tarefas;
+INSERT INTO tarefas_mudancas_controle (id, ultima_seq, horizonte)
+SELECT 1, COUNT(*), 0 FROM tarefas;
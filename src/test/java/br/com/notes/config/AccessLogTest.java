@@ -0,0 +1,85 @@
+package br.com.notes.config;
+
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o AccessLog e sua fila circular.
+ * <p>
+ * A saída do log é substituída por uma lista em memória para verificar
+ * a amostragem e o conteúdo dos registros escritos pela thread em segundo plano.
+ */
+class AccessLogTest {
+
+    /**
+     * Com amostragem 1.0, todas as requisições são registradas, sem o corpo por padrão.
+     */
+    @Test
+    void fim_deveRegistrarTodasAsRequisicoesComAmostragemTotal() {
+        List<String> linhas = new CopyOnWriteArrayList<>();
+        var accessLog = new AccessLog(1.0, false, 64, linhas::add);
+
+        JavalinTest.test(criarApp(accessLog), (server, client) -> {
+            client.post("/eco", "{\"segredo\":\"nao-logar\"}");
+            client.get("/erro");
+        });
+        accessLog.fechar();
+
+        assertThat(linhas).anyMatch(linha -> linha.contains("POST /eco -> 200"));
+        assertThat(linhas).anyMatch(linha -> linha.contains("GET /erro -> 500"));
+        assertThat(linhas).noneMatch(linha -> linha.contains("nao-logar"));
+    }
+
+    /**
+     * Com amostragem 0, apenas os erros 5xx são registrados; o corpo só aparece quando habilitado.
+     */
+    @Test
+    void fim_deveRegistrarApenasErrosComAmostragemZero() {
+        List<String> linhas = new CopyOnWriteArrayList<>();
+        var accessLog = new AccessLog(0.0, true, 64, linhas::add);
+
+        JavalinTest.test(criarApp(accessLog), (server, client) -> {
+            client.post("/eco", "{\"a\":1}");
+            client.post("/erro", "{\"b\":2}");
+        });
+        accessLog.fechar();
+
+        assertEquals(1, linhas.size());
+        assertThat(linhas.get(0)).contains("POST /erro -> 500", "corpo={\"b\":2}");
+    }
+
+    /**
+     * A fila circular recusa novos elementos quando cheia e os devolve em ordem FIFO.
+     */
+    @Test
+    void ringBuffer_deveRecusarElementosQuandoCheioEManterOrdem() {
+        RingBuffer<Integer> fila = new RingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(fila.offer(i));
+        }
+        assertFalse(fila.offer(4));
+
+        assertEquals(0, fila.poll());
+        assertTrue(fila.offer(4));
+        assertEquals(List.of(1, 2, 3, 4), List.of(fila.poll(), fila.poll(), fila.poll(), fila.poll()));
+        assertNull(fila.poll());
+    }
+
+    private static Javalin criarApp(AccessLog accessLog) {
+        Javalin app = Javalin.create();
+        app.before(accessLog::inicio);
+        app.after(accessLog::fim);
+        app.post("/eco", ctx -> ctx.result(ctx.body()));
+        app.get("/erro", ctx -> ctx.status(500));
+        app.post("/erro", ctx -> ctx.status(500).result(ctx.body()));
+        return app;
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.notes.config;
+
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a negociação do Accept-Encoding e para o after-handler de compressão.
+ */
+class CompressaoTest {
+    private static final String JSON_GRANDE = "[" + "{\"titulo\":\"Tarefa repetida\"},".repeat(100) + "{}]";
+
+    /**
+     * A codificação de maior peso vence, '*' vale para as não citadas, q=0 recusa e o brotli só é
+     * escolhido quando está disponível.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "nulo", value = {
+            "gzip, deflate, br        | true  | br",
+            "gzip, deflate, br        | false | gzip",
+            "deflate;q=1, gzip;q=0.5  | false | deflate",
+            "gzip;q=0, *              | false | deflate",
+            "*;q=0, gzip;q=0.1        | true  | gzip",
+            "x-gzip                   | false | gzip",
+            "identity                 | true  | nulo",
+            "gzip;q=0, deflate;q=0    | false | nulo",
+            "gzip;q=abc               | false | nulo",
+    })
+    void negociar_deveRespeitarPesosECodificacoesSuportadas(String acceptEncoding, boolean brotli, String esperada) {
+        var escolhida = new Compressao(0, brotli).negociar(acceptEncoding);
+        assertEquals(esperada, escolhida == null ? null : escolhida.nome());
+    }
+
+    /**
+     * Os bytes comprimidos em gzip e deflate voltam ao original com as classes padrão do JDK.
+     */
+    @Test
+    void comprimir_deveGerarGzipEDeflateValidos() throws Exception {
+        var compressao = new Compressao(0, false);
+        byte[] dados = JSON_GRANDE.getBytes(StandardCharsets.UTF_8);
+
+        byte[] gzip = compressao.comprimir(dados, Compressao.Codificacao.GZIP, false);
+        byte[] deflate = compressao.comprimir(dados, Compressao.Codificacao.DEFLATE, true);
+
+        assertTrue(gzip.length < dados.length);
+        assertArrayEquals(dados, new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes());
+        assertArrayEquals(dados, new InflaterInputStream(new ByteArrayInputStream(deflate)).readAllBytes());
+    }
+
+    /**
+     * Só as respostas a partir do limiar são comprimidas, e o Vary é informado para os caches intermediários.
+     */
+    @Test
+    void aplicar_deveComprimirApenasRespostasAPartirDoLimiar() {
+        var compressao = new Compressao(512, false);
+        Javalin app = Javalin.create();
+        app.get("/grande", ctx -> ctx.contentType("application/json").result(JSON_GRANDE));
+        app.get("/pequena", ctx -> ctx.contentType("application/json").result("{}"));
+        app.after(compressao::aplicar);
+
+        JavalinTest.test(app, (server, client) -> {
+            var grande = client.get("/grande", request -> request.header("Accept-Encoding", "gzip"));
+            assertEquals("gzip", grande.header("Content-Encoding"));
+            assertEquals("Accept-Encoding", grande.header("Vary"));
+            assertEquals(JSON_GRANDE, new String(new GZIPInputStream(grande.body().byteStream()).readAllBytes(), StandardCharsets.UTF_8));
+
+            var pequena = client.get("/pequena", request -> request.header("Accept-Encoding", "gzip"));
+            assertNull(pequena.header("Content-Encoding"));
+            assertEquals("{}", pequena.body().string());
+
+            var recusada = client.get("/grande", request -> request.header("Accept-Encoding", "gzip;q=0"));
+            assertNull(recusada.header("Content-Encoding"));
+            assertEquals(JSON_GRANDE, recusada.body().string());
+        });
+    }
+
+    /**
+     * A resposta comprimida é outra representação: o ETag forte recebe o sufixo da codificação, que é retirado
+     * para comparar com a original. ETags fracos e respostas sem compressão mantêm o ETag.
+     */
+    @Test
+    void aplicar_deveAcrescentarACodificacaoAoEtagForte() {
+        var compressao = new Compressao(512, false);
+        Javalin app = Javalin.create();
+        app.get("/forte", ctx -> ctx.header("ETag", "\"v1\"").contentType("application/json").result(JSON_GRANDE));
+        app.get("/fraco", ctx -> ctx.header("ETag", "W/\"v1\"").contentType("application/json").result(JSON_GRANDE));
+        app.after(compressao::aplicar);
+
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals("\"v1-gzip\"", client.get("/forte", request -> request.header("Accept-Encoding", "gzip")).header("ETag"));
+            assertEquals("\"v1\"", client.get("/forte", request -> request.header("Accept-Encoding", "identity")).header("ETag"));
+            assertEquals("W/\"v1\"", client.get("/fraco", request -> request.header("Accept-Encoding", "gzip")).header("ETag"));
+        });
+
+        assertEquals("\"v1\"", Compressao.etagSemCodificacao("\"v1-deflate\""));
+        assertEquals("\"v1-smile\"", Compressao.etagSemCodificacao("\"v1-smile-br\""));
+        assertEquals("\"v1\"", Compressao.etagSemCodificacao("\"v1\""));
+    }
+}
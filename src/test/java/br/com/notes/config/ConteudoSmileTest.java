@@ -0,0 +1,69 @@
+package br.com.notes.config;
+
+import br.com.notes.dto.RespostaTarefaDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.javalin.json.JavalinJackson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a negociação do Smile e para a representação das tarefas nesse formato.
+ */
+class ConteudoSmileTest {
+    private final ConteudoSmile smile = new ConteudoSmile(new ObjectMapper());
+    private final ObjectMapper leitor = JavalinJackson.defaultMapper().copyWith(new SmileFactory());
+
+    /**
+     * O Smile só é escolhido quando citado explicitamente, com peso maior que zero e não menor que o do JSON;
+     * os curingas continuam valendo JSON.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "nulo", value = {
+            "application/x-jackson-smile                          | true",
+            "application/x-jackson-smile, application/json;q=0.9 | true",
+            "application/json, application/x-jackson-smile       | true",
+            "application/json, application/x-jackson-smile;q=0.5 | false",
+            "application/x-jackson-smile;q=0, */*                | false",
+            "*/*;q=0.1, application/x-jackson-smile;q=0.2        | true",
+            "application/*, application/x-jackson-smile;q=0.8    | false",
+            "*/*                                                 | false",
+            "nulo                                                | false",
+    })
+    void aceito_deveRespeitarPesosEPreferirJsonNosCuringas(String accept, boolean esperado) {
+        assertEquals(esperado, smile.aceito(accept));
+    }
+
+    /**
+     * O DTO escrito em Smile volta igual, inclusive os nanossegundos da data, e fica menor que o JSON.
+     */
+    @Test
+    void escrever_deveManterOsDtosEReduzirOCorpo() throws Exception {
+        List<RespostaTarefaDTO> tarefas = List.of(
+                new RespostaTarefaDTO(1, "Primeira", "Descrição", false, Instant.parse("2024-05-01T12:00:00.123456789Z"), 1),
+                new RespostaTarefaDTO(2, "Segunda", null, true, Instant.parse("2024-05-02T08:30:00Z"), 4));
+
+        byte[] corpo = smile.escrever(tarefas);
+        var emStream = new ByteArrayOutputStream();
+        smile.escreverStream(emStream, tarefas.stream());
+
+        assertEquals(tarefas, leitor.readValue(corpo, new TypeReference<List<RespostaTarefaDTO>>() {}));
+        assertEquals(tarefas, leitor.readValue(emStream.toByteArray(), new TypeReference<List<RespostaTarefaDTO>>() {}));
+        assertTrue(corpo.length < JavalinJackson.defaultMapper().writeValueAsBytes(tarefas).length);
+    }
+
+    @Test
+    void enviado_deveReconhecerOContentTypeComParametros() {
+        assertTrue(smile.enviado("application/x-jackson-smile; charset=binary"));
+        assertFalse(smile.enviado("application/json"));
+        assertFalse(smile.enviado(null));
+    }
+}
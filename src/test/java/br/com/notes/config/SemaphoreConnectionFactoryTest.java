@@ -0,0 +1,56 @@
+package br.com.notes.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes de unidade para a SemaphoreConnectionFactory.
+ * <p>
+ * O DataSource é mockado para verificar apenas a política de permissões:
+ * nunca há mais conexões abertas que o limite, e cada fechamento libera uma vaga.
+ */
+class SemaphoreConnectionFactoryTest {
+
+    /**
+     * Verifica se uma segunda conexão só é entregue depois que a primeira é fechada.
+     */
+    @Test
+    void openConnection_deveRespeitarLimiteDeConexoes() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conexao = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(conexao);
+
+        var factory = new SemaphoreConnectionFactory(dataSource, 1, 50);
+
+        Connection primeira = factory.openConnection();
+        assertThrows(SQLTransientConnectionException.class, factory::openConnection);
+
+        factory.closeConnection(primeira);
+
+        assertSame(conexao, factory.openConnection());
+        verify(conexao).close();
+    }
+
+    /**
+     * Verifica se a permissão é devolvida quando o pool falha ao entregar a conexão.
+     */
+    @Test
+    void openConnection_deveLiberarPermissaoQuandoPoolFalha() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection())
+                .thenThrow(new SQLException("pool indisponível"))
+                .thenReturn(mock(Connection.class));
+
+        var factory = new SemaphoreConnectionFactory(dataSource, 1, 50);
+
+        assertThrows(SQLException.class, factory::openConnection);
+        assertNotNull(factory.openConnection());
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.notes.controller;
+
+import br.com.notes.config.HttpMetrics;
+import br.com.notes.config.MetricsConfig;
+import io.javalin.Javalin;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.testtools.JavalinTest;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes para o MetricsController e o middleware HttpMetrics.
+ * <p>
+ * Sobe um Javalin com uma rota parametrizada de exemplo e verifica se as requisições
+ * aparecem em /metrics agregadas pelo template da rota e pela classe de status.
+ */
+class MetricsControllerTest {
+
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() {
+        PrometheusMeterRegistry registry = MetricsConfig.createRegistry();
+        var httpMetrics = new HttpMetrics(registry);
+
+        app = Javalin.create();
+        app.before(httpMetrics::inicio);
+        app.after(httpMetrics::fim);
+        app.get("/itens/{id}", ctx -> {
+            if (ctx.pathParam("id").equals("0")) {
+                throw new NotFoundResponse();
+            }
+            ctx.result("ok");
+        });
+        new MetricsController(registry).registrarRotas(app);
+    }
+
+    /**
+     * Verifica se /metrics agrega as requisições pelo template da rota e separa as classes de status.
+     */
+    @Test
+    void metrics_deveAgregarRequisicoesPorRotaEStatus() {
+        JavalinTest.test(app, (server, client) -> {
+            client.get("/itens/1");
+            client.get("/itens/2");
+            client.get("/itens/0");
+
+            var response = client.get("/metrics");
+            assertEquals(200, response.code());
+            assertThat(response.header("Content-Type")).startsWith("text/plain");
+
+            String corpo = response.body().string();
+            assertThat(corpo).contains(
+                    "http_server_requests_seconds_count{method=\"GET\",route=\"/itens/{id}\",status=\"2xx\"} 2",
+                    "http_server_requests_seconds_count{method=\"GET\",route=\"/itens/{id}\",status=\"4xx\"} 1",
+                    "http_server_requests_in_flight",
+                    "jvm_memory_used_bytes");
+        });
+    }
+}
@@ -1,15 +1,26 @@
 package br.com.notes.controller;
 
+import br.com.notes.config.Compressao;
+import br.com.notes.config.ConteudoSmile;
 import br.com.notes.dto.AtualizarTarefaDTO;
 import br.com.notes.dto.CriarTarefaDTO;
+import br.com.notes.dto.MudancasTarefasDTO;
+import br.com.notes.dto.PaginaTarefasDTO;
 import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.dto.ResultadoBuscaDTO;
+import br.com.notes.dto.ResultadoImportacaoDTO;
 import br.com.notes.model.Tarefa;
+import br.com.notes.repository.AlteracaoTarefa;
+import br.com.notes.repository.FiltroTarefas;
+import br.com.notes.repository.VisitanteTarefas;
 import br.com.notes.service.TarefaService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.javalin.Javalin;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.PreconditionFailedResponse;
 import io.javalin.json.JavalinJackson;
 import io.javalin.testtools.JavalinTest;
 import okhttp3.MediaType;
@@ -22,17 +33,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static br.com.notes.Utils.TarefaFixture.criarTarefaDTO;
 import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -137,6 +154,148 @@ class TarefaControllerTest {
         });
     }
 
+    /**
+     * Testa: GET /tarefas?limit=N&after=cursor
+     * Cenário: O cliente solicita uma página de tarefas.
+     * Verifica se: O endpoint retorna status 200 OK com as tarefas da página e o próximo cursor.
+     */
+    @Test
+    @DisplayName("Deve listar uma página de tarefas com o próximo cursor")
+    void deveListarPaginaDeTarefas() {
+        // Arrange
+        PaginaTarefasDTO pagina = new PaginaTarefasDTO(
+                List.of(new RespostaTarefaDTO(1, "Tarefa Teste 1", "Desc 1", false, Instant.now())),
+                "aWQ6MQ"
+        );
+        when(tarefaService.listarPagina("abc", 1)).thenReturn(pagina);
+
+        // Act & Assert
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?limit=1&after=abc");
+
+            assertEquals(200, response.code());
+
+            PaginaTarefasDTO responsePagina = objectMapper.readValue(
+                    response.body().string(),
+                    PaginaTarefasDTO.class
+            );
+
+            assertEquals(1, responsePagina.tarefas().size());
+            assertEquals("aWQ6MQ", responsePagina.proximoCursor());
+        });
+
+        verify(tarefaService, never()).listarTarefas();
+    }
+
+    /**
+     * Testa: GET /tarefas?concluida=false&criadaDe=...&criadaAte=...&sort=-dataCriacao
+     * Cenário: O cliente lista as tarefas pendentes de um período, das mais novas para as mais antigas.
+     * Verifica se: O endpoint converte os parâmetros no filtro e repassa o cursor e o limite para a service.
+     */
+    @Test
+    @DisplayName("Deve listar tarefas filtradas por status e data de criação")
+    void deveListarTarefasFiltradas() {
+        FiltroTarefas filtro = new FiltroTarefas(
+                false,
+                Instant.parse("2024-05-01T00:00:00Z"),
+                Instant.parse("2024-05-02T12:00:00Z"),
+                FiltroTarefas.Ordenacao.DATA_CRIACAO_DESC
+        );
+        when(tarefaService.listarPagina(filtro, "abc", 10)).thenReturn(new PaginaTarefasDTO(List.of(), null));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?concluida=false&criadaDe=2024-05-01"
+                    + "&criadaAte=2024-05-02T12:00:00Z&sort=-dataCriacao&limit=10&after=abc");
+
+            assertEquals(200, response.code());
+        });
+
+        verify(tarefaService).listarPagina(filtro, "abc", 10);
+    }
+
+    /**
+     * Testa: GET /tarefas com filtros inválidos
+     * Cenário: O status, a data ou a ordenação informados não são suportados.
+     * Verifica se: O endpoint retorna status 400 Bad Request e a service não é chamada.
+     */
+    @ParameterizedTest
+    @MethodSource("filtrosInvalidos")
+    @DisplayName("Deve retornar 400 ao listar com filtro inválido")
+    void deveRetornar400ComFiltroInvalido(String query) {
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?" + query);
+            assertEquals(400, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
+    private static Stream<String> filtrosInvalidos() {
+        return Stream.of("concluida=talvez", "criadaDe=ontem", "criadaAte=2024-13-01", "sort=titulo");
+    }
+
+    /**
+     * Testa: GET /tarefas?q=texto
+     * Cenário: O cliente faz uma busca textual.
+     * Verifica se: O endpoint repassa a consulta, o limite e o offset para a service e retorna os resultados.
+     */
+    @Test
+    @DisplayName("Deve buscar tarefas pelo texto")
+    void deveBuscarTarefasPorTexto() {
+        ResultadoBuscaDTO resultado = new ResultadoBuscaDTO(
+                List.of(new RespostaTarefaDTO(1, "Comprar café", null, false, Instant.now())), 3, 2
+        );
+        when(tarefaService.buscar("café", 1, 1)).thenReturn(resultado);
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?q=caf%C3%A9&limit=1&offset=1");
+
+            assertEquals(200, response.code());
+
+            ResultadoBuscaDTO responseResultado = objectMapper.readValue(
+                    response.body().string(),
+                    ResultadoBuscaDTO.class
+            );
+
+            assertEquals(3, responseResultado.total());
+            assertEquals(2, responseResultado.proximoOffset());
+            assertEquals("Comprar café", responseResultado.tarefas().get(0).titulo());
+        });
+    }
+
+    /**
+     * Testa: GET /tarefas?limit=abc
+     * Cenário: O limite informado não é um número.
+     * Verifica se: O endpoint retorna status 400 Bad Request e a service não é chamada.
+     */
+    @Test
+    @DisplayName("Deve retornar 400 ao listar com limite inválido")
+    void deveRetornar400ComLimiteInvalido() {
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?limit=abc");
+            assertEquals(400, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
+    /**
+     * Testa: GET /tarefas?limit=0 com If-None-Match
+     * Cenário: O limite ou o offset estão fora do intervalo e o cliente envia o ETag atual da listagem.
+     * Verifica se: O endpoint retorna 400 Bad Request, e não 304, sem ler a versão da listagem.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"limit=0", "limit=-5", "q=cafe&limit=0", "q=cafe&offset=-1"})
+    @DisplayName("Deve retornar 400, e não 304, ao listar com limite ou offset fora do intervalo")
+    void deveRetornar400ComLimiteForaDoIntervaloMesmoComEtagAtual(String query) {
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas?" + query, request -> request.header("If-None-Match", "*"));
+            assertEquals(400, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
     /**
      * Testa: GET /tarefas/{id}
      * Cenário: A tarefa com o ID solicitado existe.
@@ -284,6 +443,181 @@ class TarefaControllerTest {
         verifyNoInteractions(tarefaService);
     }
 
+    /**
+     * Testa: POST /tarefas/batch
+     * Cenário: Todas as tarefas do lote são válidas.
+     * Verifica se: O endpoint retorna status 201 Created e as tarefas criadas, na mesma ordem.
+     */
+    @Test
+    @DisplayName("Deve criar um lote de tarefas com sucesso")
+    void deveCriarLoteDeTarefas() {
+        // Arrange
+        List<CriarTarefaDTO> dtos = List.of(new CriarTarefaDTO("Lote 1", null), new CriarTarefaDTO("Lote 2", "Desc"));
+        when(tarefaService.criarEmLote(dtos)).thenReturn(List.of(
+                new RespostaTarefaDTO(10, "Lote 1", null, false, Instant.now()),
+                new RespostaTarefaDTO(11, "Lote 2", "Desc", false, Instant.now())
+        ));
+
+        // Act & Assert
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/batch", objectMapper.writeValueAsString(dtos));
+
+            assertEquals(201, response.code());
+
+            List<RespostaTarefaDTO> criadas = objectMapper.readValue(
+                    response.body().string(),
+                    new TypeReference<List<RespostaTarefaDTO>>() {
+                    }
+            );
+
+            assertEquals(2, criadas.size());
+            assertEquals("Lote 2", criadas.get(1).titulo());
+        });
+    }
+
+    /**
+     * Testa: POST /tarefas/batch
+     * Cenário: Uma das tarefas do lote está sem título.
+     * Verifica se: O endpoint retorna status 400 Bad Request indicando a posição e nenhuma tarefa é criada.
+     */
+    @Test
+    @DisplayName("Deve retornar 400 ao criar lote com uma tarefa sem título")
+    void deveRetornar400AoCriarLoteComTituloVazio() {
+        List<CriarTarefaDTO> dtos = List.of(new CriarTarefaDTO("Válida", null), new CriarTarefaDTO(" ", null));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/batch", objectMapper.writeValueAsString(dtos));
+
+            assertEquals(400, response.code());
+            assertTrue(response.body().string().contains("posição 1"));
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
+    /**
+     * Testa: POST /tarefas/batch
+     * Cenário: O corpo é o JSON 'null', um array vazio ou um array com um elemento nulo.
+     * Verifica se: O endpoint retorna status 400 Bad Request, e não 500, e nenhuma tarefa é criada.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"null", "[]", "[null]"})
+    @DisplayName("Deve retornar 400 ao criar lote com corpo nulo ou vazio")
+    void deveRetornar400AoCriarLoteNuloOuVazio(String corpo) {
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/batch", corpo);
+
+            assertEquals(400, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
+    /**
+     * Testa: POST /tarefas/import
+     * Cenário: Corpo NDJSON com linhas válidas, uma linha em branco e linhas inválidas, importado em lotes de 2.
+     * Verifica se: As linhas válidas são gravadas em lotes, na ordem, e cada linha inválida aparece no relatório
+     * com o seu número, sem interromper a importação.
+     */
+    @Test
+    @DisplayName("Deve importar NDJSON em lotes e relatar as linhas inválidas")
+    void deveImportarNdjsonEmLotes() {
+        String corpo = """
+                {"titulo":"Primeira","descricao":"Desc"}
+                {"titulo":"Segunda","extra":{"ignorado":[1,2]}}
+
+                {"titulo":
+                {"descricao":"Sem título"}
+                {"titulo":"Terceira"}
+                [1,2]
+                """;
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/import?batch=2", corpo);
+
+            assertEquals(200, response.code());
+            var resultado = objectMapper.readValue(response.body().string(), ResultadoImportacaoDTO.class);
+            assertEquals(3, resultado.importadas());
+            assertEquals(3, resultado.rejeitadas());
+            assertEquals(List.of(4L, 5L, 7L), resultado.erros().stream().map(ResultadoImportacaoDTO.ErroLinha::linha).toList());
+            assertTrue(resultado.erros().get(1).mensagem().contains("'titulo'"));
+        });
+
+        var ordem = inOrder(tarefaService);
+        ordem.verify(tarefaService).importar(List.of(new CriarTarefaDTO("Primeira", "Desc"), new CriarTarefaDTO("Segunda", null)));
+        ordem.verify(tarefaService).importar(List.of(new CriarTarefaDTO("Terceira", null)));
+    }
+
+    /**
+     * Testa: POST /tarefas/import
+     * Cenário: A gravação do primeiro lote falha no banco.
+     * Verifica se: As linhas desse lote são rejeitadas e os lotes seguintes continuam sendo gravados.
+     */
+    @Test
+    @DisplayName("Deve rejeitar as linhas de um lote cuja gravação falhou e continuar a importação")
+    void deveRejeitarLoteComFalhaNaImportacao() {
+        List<CriarTarefaDTO> primeiroLote = List.of(new CriarTarefaDTO("A", null), new CriarTarefaDTO("B", null));
+        doThrow(new IllegalStateException("banco indisponível")).when(tarefaService).importar(primeiroLote);
+        String corpo = "{\"titulo\":\"A\"}\n{\"titulo\":\"B\"}\n{\"titulo\":\"C\"}\n";
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/import?batch=2", corpo);
+
+            assertEquals(200, response.code());
+            var resultado = objectMapper.readValue(response.body().string(), ResultadoImportacaoDTO.class);
+            assertEquals(1, resultado.importadas());
+            assertEquals(2, resultado.rejeitadas());
+            assertEquals(List.of(1L, 2L), resultado.erros().stream().map(ResultadoImportacaoDTO.ErroLinha::linha).toList());
+        });
+
+        verify(tarefaService).importar(List.of(new CriarTarefaDTO("C", null)));
+    }
+
+    /**
+     * Testa: POST /tarefas/import
+     * Cenário: Uma linha passa do tamanho máximo, no meio do corpo e na última linha sem quebra.
+     * Verifica se: As linhas longas são rejeitadas com o seu número, sem chegar ao parser, e as
+     * linhas seguintes, inclusive as terminadas em CRLF, continuam sendo importadas.
+     */
+    @Test
+    @DisplayName("Deve rejeitar linhas maiores que o máximo e continuar a importação")
+    void deveRejeitarLinhasLongasNaImportacao() {
+        String longa = "{\"titulo\":\"" + "x".repeat(ImportacaoTarefas.TAMANHO_MAXIMO_LINHA) + "\"}";
+        String corpo = "{\"titulo\":\"A\"}\r\n" + longa + "\n{\"titulo\":\"B\"}\n" + longa;
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/import", corpo);
+
+            assertEquals(200, response.code());
+            var resultado = objectMapper.readValue(response.body().string(), ResultadoImportacaoDTO.class);
+            assertEquals(2, resultado.importadas());
+            assertEquals(List.of(2L, 4L), resultado.erros().stream().map(ResultadoImportacaoDTO.ErroLinha::linha).toList());
+            assertTrue(resultado.erros().get(0).mensagem().contains(String.valueOf(ImportacaoTarefas.TAMANHO_MAXIMO_LINHA)));
+        });
+
+        verify(tarefaService).importar(List.of(new CriarTarefaDTO("A", null), new CriarTarefaDTO("B", null)));
+    }
+
+    /**
+     * Testa: POST /tarefas/import
+     * Cenário: O tamanho do lote está fora dos limites ou o corpo está vazio.
+     * Verifica se: O endpoint retorna status 400 Bad Request sem gravar nada.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"batch=0", "batch=1001", "batch=abc", "batch=10&vazio"})
+    @DisplayName("Deve retornar 400 ao importar com lote inválido ou corpo vazio")
+    void deveRetornar400AoImportarComLoteInvalidoOuCorpoVazio(String parametros) {
+        String corpo = parametros.endsWith("vazio") ? "\n\n" : "{\"titulo\":\"A\"}\n";
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.post("/tarefas/import?" + parametros, corpo);
+
+            assertEquals(400, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
     /**
      * Testa: PUT /tarefas/{id}
      * Cenário: Os dados enviados para atualização são válidos e a tarefa existe.
@@ -319,6 +653,89 @@ class TarefaControllerTest {
         });
     }
 
+    /**
+     * Testa: PUT /tarefas/{id} com If-Match
+     * Cenário: O cliente envia o ETag de uma versão que não é mais a atual.
+     * Verifica se: A versão do ETag é repassada à service e o endpoint retorna 412 Precondition Failed.
+     */
+    @Test
+    @DisplayName("Deve retornar 412 ao atualizar com If-Match desatualizado")
+    void deveRetornar412ComIfMatchDesatualizado() {
+        AtualizarTarefaDTO dto = new AtualizarTarefaDTO("Tarefa", null, true);
+        when(tarefaService.atualizar(5, dto, 2))
+                .thenThrow(new PreconditionFailedResponse("A tarefa foi alterada por outra requisição. Versão atual: 3."));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.put("/tarefas/5", objectMapper.writeValueAsString(dto),
+                    request -> request.header("If-Match", "\"5-2\""));
+
+            assertEquals(412, response.code());
+            assertEquals("A tarefa foi alterada por outra requisição. Versão atual: 3.", response.body().string());
+        });
+
+        verify(tarefaService, never()).atualizar(anyInt(), any(AtualizarTarefaDTO.class));
+    }
+
+    /**
+     * Testa: PUT /tarefas/{id} com If-Match
+     * Cenário: O ETag é fraco ou pertence a outra tarefa.
+     * Verifica se: O endpoint retorna 412 sem chamar a service.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"W/\"5-2\"", "\"6-2\"", "\"5-x\"", "5-2"})
+    @DisplayName("Deve retornar 412 quando o If-Match não for desta tarefa")
+    void deveRetornar412ComIfMatchInvalido(String ifMatch) {
+        AtualizarTarefaDTO dto = new AtualizarTarefaDTO("Tarefa", null, true);
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.put("/tarefas/5", objectMapper.writeValueAsString(dto),
+                    request -> request.header("If-Match", ifMatch));
+            assertEquals(412, response.code());
+        });
+
+        verifyNoInteractions(tarefaService);
+    }
+
+    /**
+     * Testa: PATCH /tarefas/{id}
+     * Cenário: O corpo traz apenas o status, com ou sem espaços, e depois título e descrição nula.
+     * Verifica se: Só os campos presentes chegam à service e a resposta traz o novo ETag.
+     */
+    @Test
+    @DisplayName("Deve alterar apenas os campos presentes no PATCH")
+    void deveAlterarApenasCamposPresentes() {
+        RespostaTarefaDTO alterada = new RespostaTarefaDTO(5, "Tarefa", null, true, Instant.now(), 2);
+        when(tarefaService.alterar(eq(5), any(AlteracaoTarefa.class), any())).thenReturn(alterada);
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.patch("/tarefas/5", "{ \"concluida\" : true }");
+            assertEquals(200, response.code());
+            assertEquals("\"5-2\"", response.header("ETag"));
+
+            assertEquals(200, client.patch("/tarefas/5", "{\"titulo\":\"Novo\",\"descricao\":null}",
+                    request -> request.header("If-Match", "\"5-1\"")).code());
+        });
+
+        verify(tarefaService).alterar(5, AlteracaoTarefa.concluida(true), null);
+        verify(tarefaService).alterar(5, new AlteracaoTarefa("Novo", true, null, null), 1);
+    }
+
+    /**
+     * Testa: PATCH /tarefas/{id}
+     * Cenário: O corpo não é um objeto JSON ou traz campos desconhecidos ou com valores inválidos.
+     * Verifica se: O endpoint retorna 400 Bad Request sem chamar a service.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "[]", "{invalido", "{\"titulo\":null}", "{\"titulo\":\" \"}",
+            "{\"concluida\":null}", "{\"concluida\":\"sim\"}", "{\"descricao\":1}", "{\"versao\":3}"})
+    @DisplayName("Deve retornar 400 com corpo de PATCH inválido")
+    void deveRetornar400ComPatchInvalido(String corpo) {
+        JavalinTest.test(criarAppComRotas(), (server, client) ->
+                assertEquals(400, client.patch("/tarefas/5", corpo).code()));
+
+        verifyNoInteractions(tarefaService);
+    }
+
     /**
      * Testa: DELETE /tarefas/{id}
      * Cenário: A tarefa com o ID solicitado não existe.
@@ -363,6 +780,274 @@ class TarefaControllerTest {
         verify(tarefaService).deletar(idDaTarefa);
     }
 
+    /**
+     * Testa: GET /tarefas com If-None-Match
+     * Cenário: O cliente já tem a versão atual da listagem.
+     * Verifica se: O endpoint retorna 304 sem corpo e sem consultar as tarefas.
+     */
+    @Test
+    @DisplayName("Deve retornar 304 na listagem quando o ETag não mudou")
+    void deveRetornar304NaListagemSemModificacoes() {
+        when(tarefaService.versaoListagem()).thenReturn("abc-7");
+        when(tarefaService.listarPagina(null, 10)).thenReturn(new PaginaTarefasDTO(List.of(), null));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var primeira = client.get("/tarefas?limit=10");
+            assertEquals(200, primeira.code());
+            assertEquals("\"abc-7\"", primeira.header("ETag"));
+
+            var response = client.get("/tarefas?limit=10", request -> request.header("If-None-Match", "W/\"abc-6\", \"abc-7\""));
+            assertEquals(304, response.code());
+            assertEquals("\"abc-7\"", response.header("ETag"));
+            assertEquals("", response.body().string());
+
+            when(tarefaService.versaoListagem()).thenReturn("abc-8");
+            assertEquals(200, client.get("/tarefas?limit=10", request -> request.header("If-None-Match", "\"abc-7\"")).code());
+        });
+
+        verify(tarefaService, times(2)).listarPagina(null, 10);
+    }
+
+    /**
+     * Testa: GET /tarefas/{id} com If-None-Match
+     * Cenário: O cliente tem o ETag da versão atual e, depois, de uma versão antiga.
+     * Verifica se: O endpoint retorna 304 para a versão atual e 200 com o novo ETag para a antiga.
+     */
+    @Test
+    @DisplayName("Deve retornar 304 ao buscar tarefa com o ETag da versão atual")
+    void deveRetornar304AoBuscarTarefaSemModificacoes() {
+        when(tarefaService.buscarPorId(1))
+                .thenReturn(new RespostaTarefaDTO(1, "Tarefa", null, true, Instant.now(), 3));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var atual = client.get("/tarefas/1", request -> request.header("If-None-Match", "\"1-3\""));
+            assertEquals(304, atual.code());
+            assertEquals("", atual.body().string());
+
+            var antiga = client.get("/tarefas/1", request -> request.header("If-None-Match", "\"1-2\""));
+            assertEquals(200, antiga.code());
+            assertEquals("\"1-3\"", antiga.header("ETag"));
+            assertEquals(3, objectMapper.readValue(antiga.body().string(), RespostaTarefaDTO.class).versao());
+        });
+    }
+
+    /**
+     * Testa: GET /tarefas com a compressão habilitada
+     * Cenário: A listagem é pedida várias vezes, em gzip e em deflate, sem modificações entre as leituras.
+     * Verifica se: As respostas chegam comprimidas e a listagem é consultada uma única vez por versão.
+     */
+    @Test
+    @DisplayName("Deve servir a listagem comprimida a partir do cache enquanto a versão não muda")
+    void deveServirListagemComprimidaDoCache() {
+        var tarefa = new RespostaTarefaDTO(1, "Tarefa comprimida", "Descrição", false, Instant.now(), 1);
+        when(tarefaService.versaoListagem()).thenReturn("abc-1");
+        when(tarefaService.listarTarefas()).thenReturn(List.of(tarefa));
+        tarefaController.habilitarCompressao(new Compressao(0, false));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            for (int i = 0; i < 2; i++) {
+                var gzip = client.get("/tarefas", request -> request.header("Accept-Encoding", "br;q=0.9, gzip"));
+                assertEquals(200, gzip.code());
+                assertEquals("gzip", gzip.header("Content-Encoding"));
+                List<RespostaTarefaDTO> tarefas = objectMapper.readValue(
+                        new GZIPInputStream(gzip.body().byteStream()), new TypeReference<>() {});
+                assertEquals("Tarefa comprimida", tarefas.get(0).titulo());
+            }
+
+            var deflate = client.get("/tarefas", request -> request.header("Accept-Encoding", "gzip;q=0, deflate"));
+            assertEquals("deflate", deflate.header("Content-Encoding"));
+            assertTrue(new String(new InflaterInputStream(deflate.body().byteStream()).readAllBytes(), StandardCharsets.UTF_8)
+                    .contains("Tarefa comprimida"));
+
+            when(tarefaService.versaoListagem()).thenReturn("abc-2");
+            var identidade = client.get("/tarefas", request -> request.header("Accept-Encoding", "identity"));
+            assertNull(identidade.header("Content-Encoding"));
+            assertTrue(identidade.body().string().contains("Tarefa comprimida"));
+        });
+
+        verify(tarefaService, times(2)).listarTarefas();
+    }
+
+    /**
+     * Testa: POST /tarefas e GET /tarefas/{id} em Smile
+     * Cenário: O cliente envia o corpo em Smile e pede a resposta em Smile; depois, pede só JSON.
+     * Verifica se: O corpo é lido com os mesmos DTOs, a resposta vem em Smile com o Vary pelo Accept
+     * e, sem o Smile no Accept, a resposta continua em JSON.
+     */
+    @Test
+    @DisplayName("Deve aceitar e responder em Smile quando o cliente negocia o formato binário")
+    void deveAceitarEResponderEmSmile() {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        var criada = new RespostaTarefaDTO(5, "Binária", "Em Smile", false, Instant.parse("2024-05-01T12:00:00.123456789Z"), 1);
+        when(tarefaService.criar(new CriarTarefaDTO("Binária", "Em Smile"))).thenReturn(criada);
+        when(tarefaService.buscarPorId(5)).thenReturn(criada);
+        MediaType smile = MediaType.get(ConteudoSmile.CONTENT_TYPE);
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            byte[] corpo = smileMapper.writeValueAsBytes(new CriarTarefaDTO("Binária", "Em Smile"));
+            var response = client.request("/tarefas", request -> request
+                    .post(RequestBody.create(corpo, smile))
+                    .header("Accept", ConteudoSmile.CONTENT_TYPE + ", application/json;q=0.5"));
+            assertEquals(201, response.code());
+            assertEquals(ConteudoSmile.CONTENT_TYPE, response.header("Content-Type"));
+            assertEquals("Accept", response.header("Vary"));
+            assertEquals(criada, smileMapper.readValue(response.body().bytes(), RespostaTarefaDTO.class));
+
+            var json = client.get("/tarefas/5", request -> request.header("Accept", "application/json, */*"));
+            assertTrue(json.header("Content-Type").startsWith("application/json"));
+            assertEquals(criada, objectMapper.readValue(json.body().string(), RespostaTarefaDTO.class));
+        });
+    }
+
+    /**
+     * Testa: GET /tarefas em Smile, com a compressão habilitada
+     * Cenário: A listagem completa é pedida em Smile (duas vezes, com gzip) e em JSON.
+     * Verifica se: Cada formato tem a sua entrada no cache, consultada uma única vez por versão,
+     * e o Vary cita o Accept e o Accept-Encoding.
+     */
+    @Test
+    @DisplayName("Deve servir a listagem em Smile a partir do cache, separada da listagem em JSON")
+    void deveServirListagemEmSmileDoCache() {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        var tarefa = new RespostaTarefaDTO(1, "Tarefa binária", null, true, Instant.now(), 2);
+        when(tarefaService.versaoListagem()).thenReturn("abc-1");
+        when(tarefaService.listarTarefas()).thenReturn(List.of(tarefa));
+        tarefaController.habilitarCompressao(new Compressao(0, false));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            for (int i = 0; i < 2; i++) {
+                var response = client.get("/tarefas", request -> request
+                        .header("Accept", ConteudoSmile.CONTENT_TYPE).header("Accept-Encoding", "gzip"));
+                assertEquals(ConteudoSmile.CONTENT_TYPE, response.header("Content-Type"));
+                assertEquals("gzip", response.header("Content-Encoding"));
+                assertEquals("Accept, Accept-Encoding", response.header("Vary"));
+                List<RespostaTarefaDTO> tarefas = smileMapper.readValue(
+                        new GZIPInputStream(response.body().byteStream()), new TypeReference<>() {});
+                assertEquals(List.of(tarefa), tarefas);
+            }
+
+            var json = client.get("/tarefas", request -> request.header("Accept-Encoding", "identity"));
+            assertTrue(json.body().string().contains("Tarefa binária"));
+        });
+
+        verify(tarefaService, times(2)).listarTarefas();
+    }
+
+    /**
+     * Testa: ETags das representações da listagem e da tarefa
+     * Cenário: A mesma versão é pedida em JSON e em Smile, com e sem gzip, e depois revalidada.
+     * Verifica se: Cada representação tem o seu ETag forte; o If-None-Match ignora só o sufixo da codificação,
+     * não o formato; e o If-Match aceita o ETag de qualquer representação da versão.
+     */
+    @Test
+    @DisplayName("Deve dar um ETag diferente a cada formato e codificação da mesma versão")
+    void deveDarEtagPorRepresentacao() {
+        var tarefa = new RespostaTarefaDTO(5, "Tarefa", null, false, Instant.now(), 2);
+        AtualizarTarefaDTO dto = new AtualizarTarefaDTO("Tarefa", null, true);
+        when(tarefaService.versaoListagem()).thenReturn("abc-1");
+        when(tarefaService.listarTarefas()).thenReturn(List.of(tarefa));
+        when(tarefaService.buscarPorId(5)).thenReturn(tarefa);
+        when(tarefaService.atualizar(5, dto, 2)).thenReturn(tarefa);
+        tarefaController.habilitarCompressao(new Compressao(0, false));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            assertEquals("\"abc-1-gzip\"", client.get("/tarefas", request -> request
+                    .header("Accept-Encoding", "gzip")).header("ETag"));
+            assertEquals("\"abc-1-smile-gzip\"", client.get("/tarefas", request -> request
+                    .header("Accept", ConteudoSmile.CONTENT_TYPE).header("Accept-Encoding", "gzip")).header("ETag"));
+            assertEquals("\"abc-1\"", client.get("/tarefas", request -> request
+                    .header("Accept-Encoding", "identity")).header("ETag"));
+
+            var naoModificada = client.get("/tarefas", request -> request
+                    .header("Accept-Encoding", "gzip").header("If-None-Match", "\"abc-1-gzip\""));
+            assertEquals(304, naoModificada.code());
+            assertEquals("\"abc-1-gzip\"", naoModificada.header("ETag"));
+            assertEquals(200, client.get("/tarefas", request -> request
+                    .header("Accept", ConteudoSmile.CONTENT_TYPE).header("If-None-Match", "\"abc-1\"")).code());
+
+            assertEquals("\"5-2\"", client.get("/tarefas/5").header("ETag"));
+            assertEquals("\"5-2-smile\"", client.get("/tarefas/5", request -> request
+                    .header("Accept", ConteudoSmile.CONTENT_TYPE)).header("ETag"));
+            assertEquals(200, client.get("/tarefas/5", request -> request
+                    .header("If-None-Match", "\"5-2-smile\"")).code());
+
+            var atualizada = client.put("/tarefas/5", objectMapper.writeValueAsString(dto),
+                    request -> request.header("If-Match", "\"5-2-smile-gzip\""));
+            assertEquals(200, atualizada.code());
+        });
+
+        verify(tarefaService).atualizar(5, dto, 2);
+    }
+
+    /**
+     * Testa: GET /tarefas/changes
+     * Cenário: O cliente envia o cursor da última sincronização; depois, um limite inválido.
+     * Verifica se: A rota não é confundida com /tarefas/{id}, repassa o cursor e o limite à service
+     * e rejeita o limite inválido sem consultar a service.
+     */
+    @Test
+    @DisplayName("Deve retornar as alterações desde o cursor informado")
+    void deveRetornarAlteracoesDesdeOCursor() {
+        var alterada = new RespostaTarefaDTO(3, "Alterada", null, true, Instant.now(), 2);
+        when(tarefaService.listarMudancas("c1", 20))
+                .thenReturn(new MudancasTarefasDTO(List.of(alterada), List.of(4), "c2", false, false));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var response = client.get("/tarefas/changes?since=c1&limit=20");
+            assertEquals(200, response.code());
+            MudancasTarefasDTO mudancas = objectMapper.readValue(response.body().string(), MudancasTarefasDTO.class);
+            assertEquals(3, mudancas.alteradas().get(0).id());
+            assertEquals(List.of(4), mudancas.removidas());
+            assertEquals("c2", mudancas.proximo());
+
+            assertEquals(400, client.get("/tarefas/changes?since=c2&limit=abc").code());
+        });
+
+        verify(tarefaService, never()).buscarPorId(anyInt());
+        verify(tarefaService, times(1)).listarMudancas(any(), anyInt());
+    }
+
+    /**
+     * Testa: GET /tarefas/export
+     * Cenário: A exportação é pedida em NDJSON sem compressão e em CSV com gzip.
+     * Verifica se: Cada tarefa vira uma linha no formato pedido, com as aspas do CSV, a resposta é comprimida
+     * quando o cliente aceita gzip e um formato desconhecido é rejeitado sem consultar a service.
+     */
+    @Test
+    @DisplayName("Deve exportar as tarefas em NDJSON e em CSV comprimido")
+    void deveExportarTarefasEmNdjsonECsv() {
+        Instant criacao = Instant.parse("2024-05-01T12:00:00Z");
+        doAnswer(invocation -> {
+            VisitanteTarefas visitante = invocation.getArgument(0);
+            visitante.visitar(1, "Comprar café", null, false, criacao, 1);
+            visitante.visitar(2, "Ler \"Dom Casmurro\", cap. 1", "Linha 1\nLinha 2", true, criacao, 3);
+            return null;
+        }).when(tarefaService).exportar(any());
+        tarefaController.habilitarCompressao(new Compressao(0, false));
+
+        JavalinTest.test(criarAppComRotas(), (server, client) -> {
+            var ndjson = client.get("/tarefas/export", request -> request.header("Accept-Encoding", "identity"));
+            assertEquals(200, ndjson.code());
+            assertEquals("application/x-ndjson", ndjson.header("Content-Type"));
+            assertNull(ndjson.header("Content-Encoding"));
+            String[] linhas = ndjson.body().string().split("\n");
+            assertEquals(2, linhas.length);
+            RespostaTarefaDTO segunda = objectMapper.readValue(linhas[1], RespostaTarefaDTO.class);
+            assertEquals(new RespostaTarefaDTO(2, "Ler \"Dom Casmurro\", cap. 1", "Linha 1\nLinha 2", true, criacao, 3), segunda);
+
+            var csv = client.get("/tarefas/export?format=csv", request -> request.header("Accept-Encoding", "gzip"));
+            assertEquals("gzip", csv.header("Content-Encoding"));
+            assertEquals("id,titulo,descricao,concluida,dataCriacao,versao\r\n"
+                            + "1,Comprar café,,false,2024-05-01T12:00:00Z,1\r\n"
+                            + "2,\"Ler \"\"Dom Casmurro\"\", cap. 1\",\"Linha 1\nLinha 2\",true,2024-05-01T12:00:00Z,3\r\n",
+                    new String(new GZIPInputStream(csv.body().byteStream()).readAllBytes(), StandardCharsets.UTF_8));
+
+            assertEquals(400, client.get("/tarefas/export?format=xml").code());
+        });
+
+        verify(tarefaService, times(2)).exportar(any());
+    }
+
     @NotNull
     private Javalin criarAppComRotas() {
         Javalin app = Javalin.create();
@@ -2,7 +2,7 @@ package br.com.notes.controller;
 
 import br.com.notes.config.DbConfig;
 import br.com.notes.dto.CriarTarefaDTO;
-import br.com.notes.repository.TarefaRepository;
+import br.com.notes.repository.JdbiTarefaRepository;
 import br.com.notes.service.TarefaService;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -40,7 +40,7 @@ class UtilControllerTest {
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
         jdbi = DbConfig.createJdbi();
-        var tarefaRepository = new TarefaRepository(jdbi);
+        var tarefaRepository = new JdbiTarefaRepository(jdbi);
         var tarefaService = new TarefaService(tarefaRepository);
 
         new TarefaController(tarefaService).registrarRotas(app);
@@ -169,4 +169,50 @@ class UtilControllerTest {
             assertTrue(tarefaEncontrada, "A tarefa criada deve aparecer na listagem");
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Testa o endpoint GET /tarefas?stream=true.
+     * Propósito: Validar que a listagem em streaming produz o mesmo array JSON da listagem comum,
+     * escrito diretamente a partir do cursor do banco.
+     */
+    @Test
+    void testGET_tarefas_stream_retorna_array_com_todas_as_tarefas() {
+        JavalinTest.test(app, (server, client) -> {
+            JsonNode listaComum = objectMapper.readTree(client.get("/tarefas").body().string());
+
+            Response response = client.get("/tarefas?stream=true");
+            assertEquals(200, response.code());
+
+            JsonNode listaStream = objectMapper.readTree(response.body().string());
+            assertTrue(listaStream.isArray(), "A resposta deve ser um array JSON");
+            assertEquals(listaComum.size(), listaStream.size());
+            assertEquals(listaComum.get(0).get("titulo"), listaStream.get(0).get("titulo"));
+        });
+    }
+
+    /**
+     * Testa o endpoint POST /tarefas/batch.
+     * Propósito: Validar a criação em lote com um único PreparedBatch, verificando que cada
+     * tarefa recebe um ID próprio e pode ser buscada individualmente em seguida.
+     */
+    @Test
+    void testPOST_tarefas_batch_cria_todas_as_tarefas_e_retorna_201() {
+        JavalinTest.test(app, (server, client) -> {
+            String jsonBody = objectMapper.writeValueAsString(new CriarTarefaDTO[]{
+                    new CriarTarefaDTO("Lote A", "Primeira"),
+                    new CriarTarefaDTO("Lote B", null)
+            });
+
+            Response response = client.post("/tarefas/batch", jsonBody);
+            assertEquals(201, response.code());
+
+            JsonNode criadas = objectMapper.readTree(response.body().string());
+            assertEquals(2, criadas.size());
+            assertNotEquals(criadas.get(0).get("id").asInt(), criadas.get(1).get("id").asInt());
+            assertNotNull(criadas.get(1).get("dataCriacao"));
+
+            Response getResponse = client.get("/tarefas/" + criadas.get(1).get("id").asInt());
+            assertThat(getResponse.body().string()).contains("Lote B");
+        });
+    }
+}
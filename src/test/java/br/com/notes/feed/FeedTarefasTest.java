@@ -0,0 +1,159 @@
+package br.com.notes.feed;
+
+import br.com.notes.model.Tarefa;
+import io.javalin.Javalin;
+import io.javalin.testtools.HttpClient;
+import io.javalin.testtools.JavalinTest;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do feed de alterações por Server-Sent Events.
+ * <p>
+ * Cada teste abre uma conexão SSE real com o cliente do JavalinTest e lê os eventos
+ * linha a linha, como faria um EventSource no navegador.
+ */
+class FeedTarefasTest {
+    private FeedTarefas feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    /**
+     * Os eventos publicados depois da conexão chegam em ordem, com tipo, ID e a tarefa em JSON.
+     */
+    @Test
+    void assinar_deveEnviarAsAlteracoesEmOrdem() {
+        feed = new FeedTarefas(16, 16, Duration.ofMinutes(1), false);
+
+        JavalinTest.test(criarApp(), (server, client) -> {
+            try (Response response = conectar(client, null)) {
+                BufferedSource corpo = response.body().source();
+                assertTrue(lerEvento(corpo).containsKey("comentario"));
+
+                feed.tarefaCriada(tarefa(7, 1));
+                feed.tarefaAtualizada(tarefa(7, 2));
+                feed.tarefaRemovida(7, 2);
+
+                Map<String, String> criada = lerEvento(corpo);
+                assertEquals(FeedTarefas.EVENTO_CRIADA, criada.get("event"));
+                assertTrue(criada.get("data").contains("\"titulo\":\"Tarefa 7\""));
+                assertEquals(FeedTarefas.EVENTO_ATUALIZADA, lerEvento(corpo).get("event"));
+                Map<String, String> removida = lerEvento(corpo);
+                assertEquals(FeedTarefas.EVENTO_REMOVIDA, removida.get("event"));
+                assertEquals("{\"id\":7,\"versao\":2}", removida.get("data"));
+                assertTrue(removida.get("id").endsWith("-3"));
+            }
+        });
+    }
+
+    /**
+     * Com o Last-Event-ID, o cliente que reconecta recebe apenas os eventos que perdeu.
+     */
+    @Test
+    void assinar_deveRetomarAPartirDoLastEventId() {
+        feed = new FeedTarefas(16, 16, Duration.ofMinutes(1), false);
+
+        JavalinTest.test(criarApp(), (server, client) -> {
+            String primeiroId;
+            try (Response response = conectar(client, null)) {
+                BufferedSource corpo = response.body().source();
+                lerEvento(corpo);
+                feed.tarefaCriada(tarefa(1, 1));
+                primeiroId = lerEvento(corpo).get("id");
+            }
+            feed.tarefaCriada(tarefa(2, 1));
+            feed.tarefaCriada(tarefa(3, 1));
+
+            try (Response response = conectar(client, primeiroId)) {
+                BufferedSource corpo = response.body().source();
+                assertTrue(lerEvento(corpo).get("data").contains("\"id\":2"));
+                assertTrue(lerEvento(corpo).get("data").contains("\"id\":3"));
+            }
+        });
+    }
+
+    /**
+     * Se os eventos perdidos não cabem na fila do cliente, ou o Last-Event-ID é desconhecido,
+     * o cliente recebe o evento de ressincronização em vez de um histórico incompleto.
+     */
+    @Test
+    void assinar_deveRessincronizarQuandoEventosForamDescartados() {
+        feed = new FeedTarefas(16, 2, Duration.ofMinutes(1), false);
+
+        JavalinTest.test(criarApp(), (server, client) -> {
+            String primeiroId;
+            try (Response response = conectar(client, null)) {
+                BufferedSource corpo = response.body().source();
+                lerEvento(corpo);
+                feed.tarefaCriada(tarefa(1, 1));
+                primeiroId = lerEvento(corpo).get("id");
+            }
+            for (int id = 2; id <= 6; id++) {
+                feed.tarefaCriada(tarefa(id, 1));
+            }
+
+            // A fila comporta 2 eventos: o 4º não cabe, os pendentes são descartados e os seguintes voltam a ser entregues.
+            try (Response response = conectar(client, primeiroId)) {
+                BufferedSource corpo = response.body().source();
+                Map<String, String> evento = lerEvento(corpo);
+                assertEquals(FeedTarefas.EVENTO_RESSINCRONIZAR, evento.get("event"));
+                assertTrue(evento.get("id").endsWith("-4"));
+                assertTrue(lerEvento(corpo).get("data").contains("\"id\":5"));
+            }
+            try (Response response = conectar(client, "outra-execucao-42")) {
+                assertEquals(FeedTarefas.EVENTO_RESSINCRONIZAR, lerEvento(response.body().source()).get("event"));
+            }
+        });
+    }
+
+    private Javalin criarApp() {
+        Javalin app = Javalin.create();
+        app.sse("/stream", feed::assinar);
+        return app;
+    }
+
+    private static Response conectar(HttpClient client, String ultimoEvento) throws IOException {
+        var request = new Request.Builder().url(client.getOrigin() + "/stream").header("Accept", "text/event-stream");
+        if (ultimoEvento != null) {
+            request.header(FeedTarefas.CABECALHO_ULTIMO_EVENTO, ultimoEvento);
+        }
+        return client.getOkHttp().newBuilder().readTimeout(5, TimeUnit.SECONDS).build()
+                .newCall(request.build()).execute();
+    }
+
+    /**
+     * Lê um evento SSE (até a linha em branco) e devolve os seus campos. Um comentário, que não é seguido
+     * de linha em branco, é devolvido sozinho no campo "comentario".
+     */
+    private static Map<String, String> lerEvento(BufferedSource corpo) throws IOException {
+        Map<String, String> campos = new HashMap<>();
+        String linha;
+        while ((linha = corpo.readUtf8Line()) != null && !linha.isEmpty()) {
+            int separador = linha.indexOf(':');
+            if (separador == 0 && campos.isEmpty()) {
+                return Map.of("comentario", linha.substring(1).trim());
+            }
+            campos.put(linha.substring(0, separador), linha.substring(separador + 1).trim());
+        }
+        return campos;
+    }
+
+    private static Tarefa tarefa(int id, int versao) {
+        return new Tarefa(id, "Tarefa " + id, null, false, Instant.parse("2024-05-01T12:00:00Z"), versao);
+    }
+}
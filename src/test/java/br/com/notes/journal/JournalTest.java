@@ -0,0 +1,138 @@
+package br.com.notes.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o Journal.
+ * <p>
+ * Usam segmentos pequenos para exercitar a troca de segmento e simulam uma escrita
+ * interrompida corrompendo os bytes do último registro.
+ */
+class JournalTest {
+    private static final int TAMANHO_SEGMENTO = 256;
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Verifica se os registros são reaplicados em ordem, atravessando vários segmentos,
+     * e se as escritas continuam do ponto certo após reabrir.
+     */
+    @Test
+    void deveReaplicarRegistrosEntreSegmentos() throws IOException {
+        try (Journal journal = Journal.abrir(diretorio, TAMANHO_SEGMENTO, 0, registro -> fail())) {
+            for (int i = 0; i < 50; i++) {
+                journal.aguardar(journal.anexar(registro(i)));
+            }
+        }
+        assertTrue(segmentos() > 1);
+
+        List<Integer> lidos = new ArrayList<>();
+        try (Journal journal = Journal.abrir(diretorio, TAMANHO_SEGMENTO, 0, registro -> lidos.add(registro.getInt()))) {
+            journal.aguardar(journal.anexar(registro(50)));
+        }
+        assertEquals(50, lidos.size());
+
+        lidos.clear();
+        Journal.abrir(diretorio, TAMANHO_SEGMENTO, 0, registro -> lidos.add(registro.getInt())).close();
+        assertEquals(51, lidos.size());
+        for (int i = 0; i <= 50; i++) {
+            assertEquals(i, lidos.get(i));
+        }
+    }
+
+    /**
+     * Verifica se um registro corrompido no fim do journal é descartado na recuperação
+     * e sobrescrito pelas próximas escritas.
+     */
+    @Test
+    void deveDescartarRegistroIncompletoNoFim() throws IOException {
+        long antesDoUltimo;
+        try (Journal journal = Journal.abrir(diretorio, 4096, 0, registro -> fail())) {
+            journal.anexar(registro(1));
+            antesDoUltimo = journal.anexar(registro(2));
+            journal.aguardar(journal.anexar(registro(3)));
+        }
+        try (RandomAccessFile arquivo = new RandomAccessFile(ultimoSegmento().toFile(), "rw")) {
+            // Corrompe o conteúdo do terceiro registro, depois do quadro de tamanho e CRC.
+            arquivo.seek(antesDoUltimo + 8);
+            arquivo.writeInt(999);
+        }
+
+        List<Integer> lidos = new ArrayList<>();
+        try (Journal journal = Journal.abrir(diretorio, 4096, 0, registro -> lidos.add(registro.getInt()))) {
+            assertEquals(antesDoUltimo, journal.posicao());
+            journal.aguardar(journal.anexar(registro(4)));
+        }
+        assertEquals(List.of(1, 2), lidos);
+
+        lidos.clear();
+        Journal.abrir(diretorio, 4096, 0, registro -> lidos.add(registro.getInt())).close();
+        assertEquals(List.of(1, 2, 4), lidos);
+    }
+
+    /**
+     * Verifica se a recuperação começa na posição informada e se os segmentos anteriores
+     * a ela podem ser descartados.
+     */
+    @Test
+    void deveReaplicarAPartirDaPosicaoEDescartarSegmentosAnteriores() throws IOException {
+        long posicao;
+        try (Journal journal = Journal.abrir(diretorio, TAMANHO_SEGMENTO, 0, registro -> fail())) {
+            for (int i = 0; i < 30; i++) {
+                journal.anexar(registro(i));
+            }
+            posicao = journal.posicao();
+            for (int i = 30; i < 40; i++) {
+                journal.anexar(registro(i));
+            }
+            journal.aguardar(journal.posicao());
+            journal.descartarAte(posicao);
+        }
+
+        List<Integer> lidos = new ArrayList<>();
+        Journal.abrir(diretorio, TAMANHO_SEGMENTO, posicao, registro -> lidos.add(registro.getInt())).close();
+        assertEquals(List.of(30, 31, 32, 33, 34, 35, 36, 37, 38, 39), lidos);
+    }
+
+    /**
+     * Verifica se a espera falha, em vez de bloquear para sempre, depois que o journal é fechado.
+     */
+    @Test
+    void naoDeveAceitarEscritasDepoisDeFechado() throws IOException {
+        Journal journal = Journal.abrir(diretorio, TAMANHO_SEGMENTO, 0, registro -> fail());
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.anexar(registro(1)));
+        assertThrows(IllegalStateException.class, () -> journal.aguardar(Long.MAX_VALUE));
+    }
+
+    private static ByteBuffer registro(int valor) {
+        return ByteBuffer.allocate(20).putInt(valor).put(new byte[16]).flip();
+    }
+
+    private long segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("journal-")).count();
+        }
+    }
+
+    private Path ultimoSegmento() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("journal-"))
+                    .sorted().reduce((a, b) -> b).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.notes.repository;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para o CachedTarefaRepository.
+ * <p>
+ * Usam o banco H2 em memória para verificar que o cache serve leituras repetidas
+ * e que nunca devolve dados desatualizados após insert, update ou delete.
+ */
+class CachedTarefaRepositoryTest {
+
+    private CachedTarefaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachedTarefaRepository(DbConfig.createJdbi(), 100, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Verifica se a segunda leitura do mesmo ID é servida pelo cache.
+     */
+    @Test
+    void findById_deveServirLeiturasRepetidasDoCache() {
+        int id = repository.insert(criarTarefaFixture(0, "Cacheada", null, false)).getId();
+
+        repository.findById(id);
+        repository.findById(id);
+
+        assertEquals(1, repository.stats().missCount());
+        assertEquals(1, repository.stats().hitCount());
+    }
+
+    /**
+     * Verifica se alterações no objeto retornado não contaminam o cache.
+     */
+    @Test
+    void findById_deveRetornarCopiaDaTarefaEmCache() {
+        int id = repository.insert(criarTarefaFixture(0, "Original", null, false)).getId();
+
+        repository.findById(id).orElseThrow().setTitulo("Alterado sem salvar");
+
+        assertEquals("Original", repository.findById(id).orElseThrow().getTitulo());
+    }
+
+    /**
+     * Verifica se update e delete invalidam a entrada do cache.
+     */
+    @Test
+    void updateEDelete_devemInvalidarCache() {
+        int id = repository.insert(criarTarefaFixture(0, "Antes", null, false)).getId();
+        Tarefa tarefa = repository.findById(id).orElseThrow();
+
+        tarefa.setTitulo("Depois");
+        tarefa.setConcluida(true);
+        assertEquals("Depois", repository.update(tarefa).orElseThrow().getTitulo());
+
+        Tarefa atualizada = repository.findById(id).orElseThrow();
+        assertEquals("Depois", atualizada.getTitulo());
+        assertTrue(atualizada.isConcluida());
+
+        assertTrue(repository.delete(id));
+
+        assertTrue(repository.findById(id).isEmpty());
+        assertFalse(repository.delete(id));
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.notes.repository;
+
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o ColunarTarefaRepository.
+ * <p>
+ * Usam colunas e blocos de texto pequenos para exercitar o crescimento das colunas,
+ * o reaproveitamento de slots e a compactação da arena com poucas tarefas.
+ */
+class ColunarTarefaRepositoryTest {
+
+    private ColunarTarefaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ColunarTarefaRepository(64, 256);
+    }
+
+    /**
+     * Verifica o ciclo insert, update e delete, com textos acentuados e descrição nula.
+     */
+    @Test
+    void deveInserirAtualizarERemover() {
+        Tarefa inserida = repository.insert(criarTarefaFixture(0, "Ação rápida ☕", null, true));
+
+        assertEquals(1, inserida.getId());
+        assertEquals("Ação rápida ☕", inserida.getTitulo());
+        assertNull(inserida.getDescricao());
+        assertFalse(inserida.isConcluida());
+
+        Tarefa atualizada = repository.update(criarTarefaFixture(1, "Novo", "Descrição", true)).orElseThrow();
+        assertEquals("Descrição", atualizada.getDescricao());
+        assertTrue(atualizada.isConcluida());
+        assertEquals(inserida.getDataCriacao(), atualizada.getDataCriacao());
+        assertEquals(1, inserida.getVersao());
+        assertEquals(2, atualizada.getVersao());
+        assertEquals(3, repository.update(atualizada).orElseThrow().getVersao());
+        assertTrue(repository.update(atualizada, 2).isEmpty());
+        assertEquals(4, repository.update(atualizada, 3).orElseThrow().getVersao());
+        assertEquals(atualizada.getTitulo(), repository.findById(1).orElseThrow().getTitulo());
+
+        assertTrue(repository.delete(1));
+        assertFalse(repository.delete(1));
+        assertTrue(repository.findById(1).isEmpty());
+        assertTrue(repository.update(criarTarefaFixture(1, "X", null, false)).isEmpty());
+    }
+
+    /**
+     * Verifica se o PATCH altera só as colunas presentes e se a alteração só do status
+     * não grava nada na arena de textos.
+     */
+    @Test
+    void patch_deveAlterarApenasCamposPresentes() {
+        repository.insert(criarTarefaFixture(0, "Original", "Descrição", false));
+        long bytesAntes = repository.bytesArena();
+
+        Tarefa concluida = repository.patch(1, AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO).orElseThrow();
+        assertTrue(concluida.isConcluida());
+        assertEquals("Original", concluida.getTitulo());
+        assertEquals(2, concluida.getVersao());
+        assertEquals(bytesAntes, repository.bytesArena());
+
+        Tarefa novoTitulo = repository.patch(1, new AlteracaoTarefa("Novo", false, null, null), 2).orElseThrow();
+        assertEquals("Novo", novoTitulo.getTitulo());
+        assertEquals("Descrição", novoTitulo.getDescricao());
+        Tarefa semDescricao = repository.patch(1, new AlteracaoTarefa(null, true, null, false), 3).orElseThrow();
+        assertNull(semDescricao.getDescricao());
+        assertFalse(semDescricao.isConcluida());
+        assertTrue(repository.patch(1, AlteracaoTarefa.concluida(true), 3).isEmpty());
+    }
+
+    /**
+     * Verifica se os slots liberados pelo delete são reaproveitados, sem mudar a ordem por ID.
+     */
+    @Test
+    void delete_deveReaproveitarSlots() {
+        for (int i = 0; i < 100; i++) {
+            repository.insert(criarTarefaFixture(0, "Tarefa " + i, null, false));
+        }
+        for (int id = 1; id <= 50; id++) {
+            repository.delete(id);
+        }
+        for (int i = 0; i < 50; i++) {
+            repository.insert(criarTarefaFixture(0, "Nova " + i, null, false));
+        }
+
+        assertEquals(100, repository.slotsAlocados());
+        List<Integer> ids = repository.findAll().stream().map(Tarefa::getId).collect(Collectors.toList());
+        assertEquals(100, ids.size());
+        assertEquals(51, ids.get(0));
+        assertEquals(150, ids.get(99));
+        assertEquals("Nova 49", repository.findById(150).orElseThrow().getTitulo());
+    }
+
+    /**
+     * Verifica se a arena de textos é compactada após muitas atualizações, sem corromper os textos.
+     */
+    @Test
+    void update_deveCompactarArenaDeTextos() {
+        for (int i = 0; i < 10; i++) {
+            repository.insert(criarTarefaFixture(0, "Tarefa " + i, "Descrição " + i, false));
+        }
+        for (int rodada = 0; rodada < 200; rodada++) {
+            repository.update(criarTarefaFixture(1 + rodada % 10, "Título " + rodada, "Descrição " + rodada, false));
+        }
+
+        assertTrue(repository.bytesArena() < 2_000, "Arena não foi compactada: " + repository.bytesArena());
+        for (int id = 1; id <= 10; id++) {
+            Tarefa tarefa = repository.findById(id).orElseThrow();
+            int rodada = 190 + id - 1;
+            assertEquals("Título " + rodada, tarefa.getTitulo());
+            assertEquals("Descrição " + rodada, tarefa.getDescricao());
+        }
+    }
+
+    /**
+     * Verifica se os filtros por status e a ordenação por data percorrem todas as tarefas que atendem,
+     * página a página, na mesma ordem de uma ordenação completa.
+     */
+    @Test
+    void findPage_deveFiltrarEPaginarPorData() {
+        for (int i = 0; i < 300; i++) {
+            Tarefa tarefa = repository.insert(criarTarefaFixture(0, "Tarefa " + i, null, false));
+            repository.update(criarTarefaFixture(tarefa.getId(), tarefa.getTitulo(), null, i % 3 == 0));
+        }
+        FiltroTarefas filtro = new FiltroTarefas(true, null, null, FiltroTarefas.Ordenacao.DATA_CRIACAO_DESC);
+
+        List<Tarefa> lidas = new ArrayList<>();
+        List<Tarefa> pagina = repository.findPage(filtro, null, 7);
+        while (!pagina.isEmpty()) {
+            lidas.addAll(pagina);
+            Tarefa ultima = pagina.get(pagina.size() - 1);
+            pagina = repository.findPage(filtro, new FiltroTarefas.Posicao(ultima.getId(), ultima.getDataCriacao()), 7);
+        }
+
+        List<Tarefa> esperadas = repository.findAll().stream()
+                .filter(Tarefa::isConcluida)
+                .sorted(Comparator.comparing(Tarefa::getDataCriacao).thenComparing(Tarefa::getId).reversed())
+                .collect(Collectors.toList());
+        assertEquals(100, lidas.size());
+        assertEquals(ids(esperadas), ids(lidas));
+        assertEquals(List.of(297, 296, 294), ids(repository.findPage(
+                new FiltroTarefas(false, null, null, FiltroTarefas.Ordenacao.ID_DESC), new FiltroTarefas.Posicao(299, null), 3)));
+    }
+
+    /**
+     * Verifica se o intervalo de datas é inclusivo no início e exclusivo no fim,
+     * mesmo com limites de precisão maior que a de milissegundos guardada nas colunas.
+     */
+    @Test
+    void findPage_deveRespeitarLimitesDoIntervaloDeDatas() {
+        Instant criacao = repository.insert(criarTarefaFixture(0, "Tarefa", null, false)).getDataCriacao();
+
+        assertEquals(1, repository.findPage(new FiltroTarefas(null, criacao, null, null), null, 10).size());
+        assertEquals(0, repository.findPage(new FiltroTarefas(null, criacao.plusNanos(1), null, null), null, 10).size());
+        assertEquals(0, repository.findPage(new FiltroTarefas(null, null, criacao, null), null, 10).size());
+        assertEquals(1, repository.findPage(new FiltroTarefas(null, null, criacao.plusNanos(1), null), null, 10).size());
+    }
+
+    private static List<Integer> ids(List<Tarefa> tarefas) {
+        return tarefas.stream().map(Tarefa::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Verifica se a visita entrega as colunas de todas as tarefas em ordem de ID, pulando os slots
+     * liberados, e se as tarefas continuam iguais às do findById.
+     */
+    @Test
+    void visitarTodas_deveEntregarAsColunasEmOrdemDeId() {
+        for (int i = 1; i <= 100; i++) {
+            repository.insert(criarTarefaFixture(0, "Tarefa " + i, i % 2 == 0 ? null : "Descrição " + i, false));
+        }
+        repository.delete(10);
+        repository.patch(20, AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO);
+
+        List<RespostaTarefaDTO> visitadas = new ArrayList<>();
+        repository.visitarTodas((id, titulo, descricao, concluida, dataCriacao, versao) ->
+                visitadas.add(new RespostaTarefaDTO(id, titulo, descricao, concluida, dataCriacao, versao)));
+
+        assertEquals(99, visitadas.size());
+        assertFalse(visitadas.stream().anyMatch(tarefa -> tarefa.id() == 10));
+        assertEquals(visitadas.stream().sorted(Comparator.comparingInt(RespostaTarefaDTO::id)).toList(), visitadas);
+        for (RespostaTarefaDTO visitada : visitadas) {
+            assertEquals(RespostaTarefaDTO.de(repository.findById(visitada.id()).orElseThrow()), visitada);
+        }
+    }
+}
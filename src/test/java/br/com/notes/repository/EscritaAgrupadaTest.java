@@ -0,0 +1,154 @@
+package br.com.notes.repository;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.model.Tarefa;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para o EscritaAgrupada, usando o banco H2 em memória.
+ * <p>
+ * Verificam que as escritas concorrentes são confirmadas juntas e que o erro de uma
+ * escrita não afeta as outras do mesmo lote.
+ */
+class EscritaAgrupadaTest {
+
+    private Jdbi jdbi;
+    private JdbiTarefaRepository repository;
+    private EscritaAgrupada escritaAgrupada;
+
+    @BeforeEach
+    void setUp() {
+        jdbi = DbConfig.createJdbi();
+        repository = new JdbiTarefaRepository(jdbi);
+    }
+
+    @AfterEach
+    void tearDown() {
+        escritaAgrupada.close();
+    }
+
+    /**
+     * Verifica se inserts vindos de várias threads são todos gravados, com IDs distintos,
+     * usando menos transações do que escritas.
+     */
+    @Test
+    void deveAgruparEscritasConcorrentes() throws Exception {
+        escritaAgrupada = new EscritaAgrupada(jdbi, 64, Duration.ofMillis(2));
+        repository.habilitarEscritaAgrupada(escritaAgrupada);
+        int antes = repository.findAll().size();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Tarefa>> futuros = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int numero = i;
+            futuros.add(executor.submit(() -> repository.insert(criarTarefaFixture(0, "Tarefa " + numero, null, false))));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Tarefa> futuro : futuros) {
+            ids.add(futuro.get().getId());
+        }
+        executor.shutdown();
+
+        assertEquals(400, ids.size());
+        assertEquals(antes + 400, repository.findAll().size());
+        assertEquals(400, escritaAgrupada.operacoes());
+        assertTrue(escritaAgrupada.commits() < escritaAgrupada.operacoes());
+    }
+
+    /**
+     * Verifica se uma escrita inválida recebe o seu erro sem desfazer as outras escritas do lote.
+     */
+    @Test
+    void deveIsolarErroDeUmaEscritaDoLote() {
+        // Janela longa e lote de três: as três escritas abaixo entram na mesma transação.
+        escritaAgrupada = new EscritaAgrupada(jdbi, 3, Duration.ofSeconds(5));
+        CompletableFuture<Tarefa> primeira = escritaAgrupada.enfileirar(handle -> inserir(handle, "Primeira"));
+        CompletableFuture<Tarefa> invalida = escritaAgrupada.enfileirar(handle -> inserir(handle, null));
+        CompletableFuture<Tarefa> terceira = escritaAgrupada.enfileirar(handle -> inserir(handle, "Terceira"));
+
+        assertEquals("Primeira", primeira.join().getTitulo());
+        assertEquals("Terceira", terceira.join().getTitulo());
+        assertThrows(CompletionException.class, invalida::join);
+        assertTrue(repository.findById(primeira.join().getId()).isPresent());
+        assertTrue(repository.findById(terceira.join().getId()).isPresent());
+        assertEquals(2, escritaAgrupada.commits());
+    }
+
+    /**
+     * Verifica se update e delete pelo agrupador mantêm o mesmo retorno do modo sem agrupamento.
+     */
+    @Test
+    void deveManterOResultadoDeUpdateEDelete() {
+        escritaAgrupada = new EscritaAgrupada(jdbi, 64, Duration.ofNanos(200_000));
+        repository.habilitarEscritaAgrupada(escritaAgrupada);
+        Tarefa criada = repository.insert(criarTarefaFixture(0, "Original", null, false));
+
+        Tarefa atualizada = repository.update(criarTarefaFixture(criada.getId(), "Alterada", "Nova", true)).orElseThrow();
+        assertEquals("Alterada", atualizada.getTitulo());
+        assertTrue(atualizada.isConcluida());
+        assertTrue(repository.update(criarTarefaFixture(999_999, "Inexistente", null, false)).isEmpty());
+
+        assertTrue(repository.delete(criada.getId()));
+        assertFalse(repository.delete(criada.getId()));
+    }
+
+    /**
+     * Verifica se as escritas enfileiradas durante o fechamento são executadas ou rejeitadas, sem deixar
+     * nenhum futuro pendente, e se as escritas depois do fechamento são rejeitadas.
+     */
+    @Test
+    void deveCompletarTodasAsEscritasEnfileiradasDuranteOFechamento() throws Exception {
+        escritaAgrupada = new EscritaAgrupada(jdbi, 4, Duration.ofMillis(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<CompletableFuture<Integer>>> enfileiradas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            enfileiradas.add(executor.submit(() -> {
+                try {
+                    return escritaAgrupada.enfileirar(handle -> 1);
+                } catch (IllegalStateException e) {
+                    return CompletableFuture.completedFuture(0);
+                }
+            }));
+        }
+        escritaAgrupada.close();
+
+        for (Future<CompletableFuture<Integer>> enfileirada : enfileiradas) {
+            CompletableFuture<Integer> futuro = enfileirada.get(5, TimeUnit.SECONDS);
+            try {
+                futuro.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        executor.shutdown();
+        assertThrows(IllegalStateException.class, () -> escritaAgrupada.enfileirar(handle -> 1));
+    }
+
+    private static Tarefa inserir(Handle handle, String titulo) {
+        return handle.createUpdate("INSERT INTO tarefas (titulo) VALUES (:titulo)")
+                .bind("titulo", titulo)
+                .executeAndReturnGeneratedKeys("id", "titulo", "descricao", "concluida", "dataCriacao")
+                .mapToBean(Tarefa.class)
+                .one();
+    }
+}
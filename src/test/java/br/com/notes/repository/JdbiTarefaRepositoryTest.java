@@ -0,0 +1,281 @@
+package br.com.notes.repository;
+
+import br.com.notes.config.DbConfig;
+import br.com.notes.dto.RespostaTarefaDTO;
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para as consultas filtradas do JdbiTarefaRepository.
+ * <p>
+ * Usam o banco H2 em memória e o EXPLAIN do H2 para garantir que cada filtro suportado
+ * pela listagem é atendido por um índice, e não por uma varredura da tabela.
+ */
+class JdbiTarefaRepositoryTest {
+
+    private static final String INDICE_CONCLUIDA = "IDX_TAREFAS_CONCLUIDA_ID";
+    private static final String INDICE_DATA_CRIACAO = "IDX_TAREFAS_DATACRIACAO_ID";
+
+    private JdbiTarefaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JdbiTarefaRepository(DbConfig.createJdbi());
+    }
+
+    /**
+     * Verifica se o filtro por status usa o índice (concluida, id), com ou sem cursor.
+     */
+    @ParameterizedTest
+    @EnumSource(FiltroTarefas.Ordenacao.class)
+    void explain_filtroPorConcluidaDeveUsarIndice(FiltroTarefas.Ordenacao ordenacao) {
+        FiltroTarefas filtro = new FiltroTarefas(false, null, null, ordenacao);
+
+        assertUsaIndice(repository.explainPage(filtro, null, 10), INDICE_CONCLUIDA);
+        assertUsaIndice(repository.explainPage(filtro, new FiltroTarefas.Posicao(3, Instant.now()), 10), INDICE_CONCLUIDA);
+    }
+
+    /**
+     * Verifica se o filtro por intervalo de data de criação usa o índice (dataCriacao, id),
+     * tanto com os dois limites quanto com apenas um deles.
+     */
+    @ParameterizedTest
+    @EnumSource(FiltroTarefas.Ordenacao.class)
+    void explain_filtroPorDataCriacaoDeveUsarIndice(FiltroTarefas.Ordenacao ordenacao) {
+        Instant agora = Instant.now();
+        Instant ontem = agora.minus(1, ChronoUnit.DAYS);
+
+        assertUsaIndice(repository.explainPage(new FiltroTarefas(null, ontem, agora, ordenacao), null, 10), INDICE_DATA_CRIACAO);
+        assertUsaIndice(repository.explainPage(new FiltroTarefas(null, ontem, null, ordenacao), null, 10), INDICE_DATA_CRIACAO);
+        assertUsaIndice(repository.explainPage(new FiltroTarefas(null, null, agora, ordenacao), null, 10), INDICE_DATA_CRIACAO);
+    }
+
+    /**
+     * Verifica se o filtro por status em ordem de ID lê o índice já ordenado, sem ordenar
+     * todas as tarefas com aquele status antes de aplicar o LIMIT.
+     */
+    @Test
+    void explain_filtroPorConcluidaDeveSeguirOIndice() {
+        FiltroTarefas filtro = new FiltroTarefas(true, null, null, FiltroTarefas.Ordenacao.ID);
+
+        String plano = repository.explainPage(filtro, new FiltroTarefas.Posicao(3, null), 10);
+
+        assertUsaIndice(plano, INDICE_CONCLUIDA);
+        assertTrue(plano.contains("index sorted"), plano);
+    }
+
+    /**
+     * Verifica se a ordenação por data de criação continua a partir do cursor pelo índice,
+     * sem ordenar o resultado em memória.
+     */
+    @Test
+    void explain_ordenacaoPorDataCriacaoDeveSeguirOIndice() {
+        FiltroTarefas filtro = new FiltroTarefas(null, null, null, FiltroTarefas.Ordenacao.DATA_CRIACAO);
+
+        String plano = repository.explainPage(filtro, new FiltroTarefas.Posicao(3, Instant.now()), 10);
+
+        assertUsaIndice(plano, INDICE_DATA_CRIACAO);
+        assertTrue(plano.contains("index sorted"), plano);
+    }
+
+    /**
+     * Verifica se a listagem filtrada por status percorre todas as tarefas pendentes, página a página.
+     */
+    @Test
+    void findPage_deveFiltrarPorConcluidaEPaginarPorCursor() {
+        int concluida = repository.insert(criarTarefaFixture(0, "Concluída", null, false)).getId();
+        repository.update(criarTarefaFixture(concluida, "Concluída", null, true));
+        int pendentes = repository.findPage(new FiltroTarefas(false, null, null, null), null, 1000).size();
+        FiltroTarefas filtro = new FiltroTarefas(false, null, null, FiltroTarefas.Ordenacao.ID_DESC);
+
+        List<Integer> ids = new ArrayList<>();
+        FiltroTarefas.Posicao posicao = null;
+        List<Tarefa> pagina;
+        do {
+            pagina = repository.findPage(filtro, posicao, 2);
+            pagina.forEach(tarefa -> ids.add(tarefa.getId()));
+            posicao = pagina.isEmpty() ? null : new FiltroTarefas.Posicao(pagina.get(pagina.size() - 1).getId(), null);
+        } while (!pagina.isEmpty());
+
+        assertEquals(pendentes, ids.size());
+        assertFalse(ids.contains(concluida));
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+        assertEquals(List.of(concluida), repository.findPage(new FiltroTarefas(true, null, null, null), null, 10)
+                .stream().map(Tarefa::getId).toList());
+    }
+
+    /**
+     * Verifica se o intervalo de datas é inclusivo no início e exclusivo no fim.
+     */
+    @Test
+    void findPage_deveFiltrarPorIntervaloDeDataCriacao() {
+        Tarefa tarefa = repository.findById(1).orElseThrow();
+        Instant criacao = tarefa.getDataCriacao();
+
+        List<Tarefa> aPartir = repository.findPage(new FiltroTarefas(null, criacao, null, FiltroTarefas.Ordenacao.DATA_CRIACAO), null, 10);
+        List<Tarefa> antes = repository.findPage(new FiltroTarefas(null, null, criacao, FiltroTarefas.Ordenacao.DATA_CRIACAO), null, 10);
+
+        assertTrue(aPartir.stream().anyMatch(t -> t.getId() == 1));
+        assertTrue(antes.stream().noneMatch(t -> t.getId() == 1));
+    }
+
+    /**
+     * Verifica se a versão começa em 1 e é incrementada pelo próprio UPDATE.
+     */
+    @Test
+    void update_deveIncrementarVersao() {
+        Tarefa inserida = repository.insert(criarTarefaFixture(0, "Versionada", null, false));
+        assertEquals(1, inserida.getVersao());
+
+        Tarefa atualizada = repository.update(criarTarefaFixture(inserida.getId(), "Versionada", null, true)).orElseThrow();
+        assertEquals(2, atualizada.getVersao());
+        assertEquals(2, repository.findById(inserida.getId()).orElseThrow().getVersao());
+    }
+
+    /**
+     * Verifica se incrementos concorrentes com update condicional não perdem atualizações:
+     * cada thread lê a tarefa, incrementa o contador guardado no título e só grava se a versão
+     * não mudou, tentando de novo em caso de conflito.
+     */
+    @Test
+    void update_comVersaoNaoDevePerderAtualizacoesConcorrentes() throws Exception {
+        int id = repository.insert(criarTarefaFixture(0, "0", null, false)).getId();
+        int threads = 8;
+        int porThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        while (true) {
+                            Tarefa lida = repository.findById(id).orElseThrow();
+                            lida.setTitulo(String.valueOf(Integer.parseInt(lida.getTitulo()) + 1));
+                            if (repository.update(lida, lida.getVersao()).isPresent()) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Tarefa fim = repository.findById(id).orElseThrow();
+        assertEquals(threads * porThread, Integer.parseInt(fim.getTitulo()));
+        assertEquals(threads * porThread + 1, fim.getVersao());
+    }
+
+    /**
+     * Verifica se o PATCH altera só as colunas presentes e respeita a versão esperada.
+     */
+    @Test
+    void patch_deveAlterarApenasCamposPresentes() {
+        Tarefa inserida = repository.insert(criarTarefaFixture(0, "Original", "Descrição", false));
+        int id = inserida.getId();
+
+        Tarefa concluida = repository.patch(id, AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO).orElseThrow();
+        assertTrue(concluida.isConcluida());
+        assertEquals("Original", concluida.getTitulo());
+        assertEquals("Descrição", concluida.getDescricao());
+        assertEquals(2, concluida.getVersao());
+
+        Tarefa semDescricao = repository.patch(id, new AlteracaoTarefa("Novo", true, null, null), 2).orElseThrow();
+        assertEquals("Novo", semDescricao.getTitulo());
+        assertNull(semDescricao.getDescricao());
+        assertTrue(semDescricao.isConcluida());
+        assertEquals(3, semDescricao.getVersao());
+
+        assertTrue(repository.patch(id, AlteracaoTarefa.concluida(false), 2).isEmpty());
+        assertTrue(repository.patch(999_999, AlteracaoTarefa.concluida(false), TarefaRepository.QUALQUER_VERSAO).isEmpty());
+    }
+
+    /**
+     * Verifica se cada escrita entra no log de alterações com uma sequência nova, se a tarefa aparece
+     * uma única vez (com o estado mais recente) e se a remoção vira uma lápide.
+     */
+    @Test
+    void findMudancas_deveDevolverAsAlteracoesDesdeASequencia() {
+        long inicio = repository.ultimaSequencia();
+        Tarefa primeira = repository.insert(criarTarefaFixture(0, "Primeira", null, false));
+        List<Tarefa> lote = repository.insertAll(List.of(
+                criarTarefaFixture(0, "Lote 1", null, false), criarTarefaFixture(0, "Lote 2", null, false)));
+        repository.patch(primeira.getId(), AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO);
+        repository.delete(lote.get(0).getId());
+        assertFalse(repository.delete(999_999));
+
+        assertEquals(inicio + 5, repository.ultimaSequencia());
+        List<MudancaTarefa> mudancas = repository.findMudancas(inicio, 10).orElseThrow();
+        assertEquals(List.of(lote.get(1).getId(), primeira.getId(), lote.get(0).getId()),
+                mudancas.stream().map(MudancaTarefa::id).toList());
+        assertEquals(List.of(inicio + 3, inicio + 4, inicio + 5), mudancas.stream().map(MudancaTarefa::seq).toList());
+        assertTrue(mudancas.get(1).tarefa().isConcluida());
+        assertTrue(mudancas.get(2).removida());
+
+        assertEquals(1, repository.findMudancas(inicio, 1).orElseThrow().size());
+        assertTrue(repository.findMudancas(inicio + 5, 10).orElseThrow().isEmpty());
+        assertTrue(repository.findMudancas(inicio + 6, 10).isEmpty());
+    }
+
+    /**
+     * Verifica se a compactação apaga só as lápides e se os cursores anteriores a elas passam a pedir ressincronização.
+     */
+    @Test
+    void compactarMudancas_deveApagarLapidesEAvancarOHorizonte() {
+        long inicio = repository.ultimaSequencia();
+        Tarefa removida = repository.insert(criarTarefaFixture(0, "Removida", null, false));
+        repository.insert(criarTarefaFixture(0, "Mantida", null, false));
+        repository.delete(removida.getId());
+
+        assertEquals(1, repository.compactarMudancas(repository.ultimaSequencia()));
+
+        assertTrue(repository.findMudancas(inicio, 10).isEmpty());
+        assertTrue(repository.findMudancas(inicio + 2, 10).isEmpty());
+        assertTrue(repository.findMudancas(inicio + 3, 10).orElseThrow().isEmpty());
+        assertEquals(0, repository.compactarMudancas(repository.ultimaSequencia()));
+    }
+
+    /**
+     * Verifica se a visita com o cursor do H2 entrega todas as tarefas em ordem de ID, com as mesmas colunas
+     * do findAll.
+     */
+    @Test
+    void visitarTodas_deveEntregarTodasAsTarefasEmOrdemDeId() {
+        repository.insertAll(List.of(criarTarefaFixture(0, "Com descrição", "Texto", false),
+                criarTarefaFixture(0, "Sem descrição", null, false)));
+
+        List<RespostaTarefaDTO> visitadas = new ArrayList<>();
+        repository.visitarTodas((id, titulo, descricao, concluida, dataCriacao, versao) ->
+                visitadas.add(new RespostaTarefaDTO(id, titulo, descricao, concluida, dataCriacao, versao)));
+
+        List<RespostaTarefaDTO> todas = repository.findAll().stream()
+                .map(RespostaTarefaDTO::de)
+                .sorted(Comparator.comparingInt(RespostaTarefaDTO::id))
+                .toList();
+        assertEquals(todas, visitadas);
+    }
+
+    private static void assertUsaIndice(String plano, String indice) {
+        assertTrue(plano.contains(indice), "Plano sem o índice " + indice + ":\n" + plano);
+        assertFalse(plano.contains("tableScan"), "Plano com varredura da tabela:\n" + plano);
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.notes.repository;
+
+import br.com.notes.journal.Registros;
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o JournaledTarefaRepository.
+ * <p>
+ * Simulam reinícios da aplicação reabrindo o mesmo diretório com um motor vazio
+ * e verificam que as tarefas confirmadas são recuperadas exatamente como estavam.
+ */
+class JournaledTarefaRepositoryTest {
+    private static final int TAMANHO_SEGMENTO = 4096;
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Verifica se criações, atualizações, remoções e lotes sobrevivem a um reinício nos dois motores em memória.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"memoria", "colunar"})
+    void deveRecuperarEscritasAposReinicio(String motor) throws IOException {
+        List<Tarefa> esperadas;
+        try (JournaledTarefaRepository repository = abrir(motor, Long.MAX_VALUE)) {
+            repository.insert(criarTarefaFixture(0, "Primeira", "Descrição", false));
+            repository.insertAll(List.of(criarTarefaFixture(0, "Segunda", null, false),
+                    criarTarefaFixture(0, "Terceira", "Ação", false)));
+            repository.update(criarTarefaFixture(2, "Segunda alterada", null, true));
+            repository.delete(1);
+            esperadas = repository.findAll();
+        }
+
+        try (JournaledTarefaRepository repository = abrir(motor, Long.MAX_VALUE)) {
+            assertTarefasIguais(esperadas, repository.findAll());
+            assertEquals(4, repository.insert(criarTarefaFixture(0, "Quarta", null, false)).getId());
+        }
+    }
+
+    /**
+     * Verifica se, após um snapshot, os segmentos antigos são apagados e a recuperação
+     * combina o snapshot com o journal posterior, sem reaproveitar IDs de tarefas removidas.
+     */
+    @Test
+    void deveRecuperarDoSnapshotMaisJournal() throws IOException {
+        List<Tarefa> esperadas;
+        try (JournaledTarefaRepository repository = abrir("memoria", Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                repository.insert(criarTarefaFixture(0, "Tarefa " + i, null, false));
+            }
+            repository.snapshot();
+            assertEquals(1, contar("journal-"));
+            assertEquals(1, contar("snapshot-"));
+
+            repository.update(criarTarefaFixture(10, "Depois do snapshot", null, true));
+            repository.delete(100);
+            esperadas = repository.findAll();
+        }
+
+        try (JournaledTarefaRepository repository = abrir("memoria", Long.MAX_VALUE)) {
+            assertTarefasIguais(esperadas, repository.findAll());
+            assertEquals(101, repository.insert(criarTarefaFixture(0, "Nova", null, false)).getId());
+        }
+    }
+
+    /**
+     * Verifica se escritas concorrentes são todas confirmadas e recuperadas.
+     */
+    @Test
+    void deveRecuperarEscritasConcorrentes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (JournaledTarefaRepository repository = abrir("colunar", Long.MAX_VALUE)) {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futuros.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        repository.insert(criarTarefaFixture(0, "Concorrente", null, false));
+                    }
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (JournaledTarefaRepository repository = abrir("colunar", Long.MAX_VALUE)) {
+            assertEquals(800, repository.findAll().size());
+        }
+    }
+
+    /**
+     * Verifica se um lote maior que o segmento do journal é recusado sem chegar ao motor:
+     * nada fica visível para as leituras nem no log de alterações, e nada volta após o reinício.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"memoria", "colunar"})
+    void deveRecusarLoteMaiorQueOSegmentoSemAlterarOMotor(String motor) throws IOException {
+        List<Tarefa> lote = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lote.add(criarTarefaFixture(0, "Tarefa çãé 🙂 " + i, i % 2 == 0 ? null : "Descrição " + i, false));
+        }
+        assertEquals(Registros.lote(lote).remaining(), Registros.tamanhoLote(lote));
+
+        try (JournaledTarefaRepository repository = abrir(motor, Long.MAX_VALUE)) {
+            assertThrows(IllegalArgumentException.class, () -> repository.insertAll(lote));
+            assertTrue(repository.findAll().isEmpty());
+            assertEquals(0, repository.ultimaSequencia());
+            repository.insert(criarTarefaFixture(0, "Depois do lote", null, false));
+        }
+
+        try (JournaledTarefaRepository repository = abrir(motor, Long.MAX_VALUE)) {
+            List<Tarefa> recuperadas = repository.findAll();
+            assertEquals(1, recuperadas.size());
+            assertEquals("Depois do lote", recuperadas.get(0).getTitulo());
+        }
+    }
+
+    private JournaledTarefaRepository abrir(String motor, long limiarSnapshot) throws IOException {
+        TarefaRepositoryRestauravel restauravel = motor.equals("memoria")
+                ? new MemoriaTarefaRepository() : new ColunarTarefaRepository();
+        return JournaledTarefaRepository.abrir(diretorio, restauravel, TAMANHO_SEGMENTO, limiarSnapshot);
+    }
+
+    private long contar(String prefixo) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith(prefixo)).count();
+        }
+    }
+
+    private static void assertTarefasIguais(List<Tarefa> esperadas, List<Tarefa> atuais) {
+        assertEquals(esperadas.size(), atuais.size());
+        for (int i = 0; i < esperadas.size(); i++) {
+            Tarefa esperada = esperadas.get(i);
+            Tarefa atual = atuais.get(i);
+            assertEquals(esperada.getId(), atual.getId());
+            assertEquals(esperada.getTitulo(), atual.getTitulo());
+            assertEquals(esperada.getDescricao(), atual.getDescricao());
+            assertEquals(esperada.isConcluida(), atual.isConcluida());
+            assertEquals(esperada.getDataCriacao(), atual.getDataCriacao());
+            assertEquals(esperada.getVersao(), atual.getVersao());
+        }
+    }
+}
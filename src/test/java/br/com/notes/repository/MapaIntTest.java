@@ -0,0 +1,66 @@
+package br.com.notes.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o MapaInt.
+ */
+class MapaIntTest {
+
+    /**
+     * Verifica as operações básicas e o valor anterior devolvido por put e remove.
+     */
+    @Test
+    void deveInserirSubstituirERemover() {
+        MapaInt<String> mapa = new MapaInt<>();
+
+        assertNull(mapa.put(1, "a"));
+        assertEquals("a", mapa.put(1, "b"));
+        assertEquals("b", mapa.get(1));
+        assertEquals(1, mapa.tamanho());
+
+        assertEquals("b", mapa.remove(1));
+        assertNull(mapa.remove(1));
+        assertNull(mapa.get(1));
+        assertEquals(0, mapa.tamanho());
+    }
+
+    /**
+     * Verifica se a chave reservada para posições livres é rejeitada.
+     */
+    @Test
+    void deveRejeitarChaveNaoPositiva() {
+        assertThrows(IllegalArgumentException.class, () -> new MapaInt<String>().put(0, "a"));
+    }
+
+    /**
+     * Compara o mapa com um HashMap em uma sequência aleatória de operações, cobrindo o
+     * redimensionamento e o recuo das entradas após remoções em agrupamentos.
+     */
+    @Test
+    void deveSeComportarComoHashMapEmOperacoesAleatorias() {
+        MapaInt<Integer> mapa = new MapaInt<>();
+        Map<Integer, Integer> referencia = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            int chave = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(referencia.remove(chave), mapa.remove(chave));
+            } else {
+                assertEquals(referencia.put(chave, i), mapa.put(chave, i));
+            }
+        }
+
+        assertEquals(referencia.size(), mapa.tamanho());
+        for (int chave = 1; chave <= 5_000; chave++) {
+            assertEquals(referencia.get(chave), mapa.get(chave));
+        }
+    }
+}
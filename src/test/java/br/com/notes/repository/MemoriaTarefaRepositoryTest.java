@@ -0,0 +1,207 @@
+package br.com.notes.repository;
+
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o MemoriaTarefaRepository.
+ * <p>
+ * Verificam que o motor em memória segue o mesmo contrato do motor H2
+ * (IDs sequenciais, inserção sempre pendente, cópias independentes, paginação e filtros)
+ * e que inserções concorrentes não perdem tarefas nem repetem IDs.
+ */
+class MemoriaTarefaRepositoryTest {
+
+    private MemoriaTarefaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MemoriaTarefaRepository();
+    }
+
+    /**
+     * Verifica o ciclo insert, update e delete, e que o status informado no insert é ignorado.
+     */
+    @Test
+    void deveInserirAtualizarERemover() {
+        Tarefa inserida = repository.insert(criarTarefaFixture(0, "Título", "Descrição", true));
+
+        assertEquals(1, inserida.getId());
+        assertFalse(inserida.isConcluida());
+        assertNotNull(inserida.getDataCriacao());
+
+        Tarefa atualizada = repository.update(criarTarefaFixture(1, "Novo", null, true)).orElseThrow();
+        assertEquals("Novo", atualizada.getTitulo());
+        assertTrue(atualizada.isConcluida());
+        assertEquals(inserida.getDataCriacao(), atualizada.getDataCriacao());
+        assertEquals(1, inserida.getVersao());
+        assertEquals(2, atualizada.getVersao());
+        assertEquals(3, repository.update(atualizada).orElseThrow().getVersao());
+
+        assertTrue(repository.delete(1));
+        assertFalse(repository.delete(1));
+        assertTrue(repository.findById(1).isEmpty());
+        assertTrue(repository.update(criarTarefaFixture(1, "X", null, false)).isEmpty());
+    }
+
+    /**
+     * Verifica se o PATCH altera só os campos presentes e respeita a versão esperada.
+     */
+    @Test
+    void patch_deveAlterarApenasCamposPresentes() {
+        repository.insert(criarTarefaFixture(0, "Original", "Descrição", false));
+
+        Tarefa concluida = repository.patch(1, AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO).orElseThrow();
+        assertTrue(concluida.isConcluida());
+        assertEquals("Descrição", concluida.getDescricao());
+        assertEquals(2, concluida.getVersao());
+
+        Tarefa semDescricao = repository.patch(1, new AlteracaoTarefa(null, true, null, null), 2).orElseThrow();
+        assertEquals("Original", semDescricao.getTitulo());
+        assertNull(semDescricao.getDescricao());
+        assertTrue(repository.patch(1, AlteracaoTarefa.concluida(false), 2).isEmpty());
+    }
+
+    /**
+     * Verifica se o log de alterações segue o mesmo contrato do H2: uma entrada por tarefa, com a sequência
+     * da última escrita, lápides para as removidas e ressincronização para cursores anteriores à compactação.
+     */
+    @Test
+    void findMudancas_deveSeguirOContratoDoLogDeAlteracoes() {
+        Tarefa primeira = repository.insert(criarTarefaFixture(0, "Primeira", null, false));
+        Tarefa segunda = repository.insert(criarTarefaFixture(0, "Segunda", null, false));
+        repository.update(criarTarefaFixture(primeira.getId(), "Primeira alterada", null, true));
+        repository.delete(segunda.getId());
+
+        List<MudancaTarefa> mudancas = repository.findMudancas(0, 10).orElseThrow();
+        assertEquals(List.of(3L, 4L), mudancas.stream().map(MudancaTarefa::seq).toList());
+        assertEquals("Primeira alterada", mudancas.get(0).tarefa().getTitulo());
+        assertTrue(mudancas.get(1).removida());
+        assertTrue(repository.findMudancas(5, 10).isEmpty());
+
+        assertEquals(1, repository.compactarMudancas(4));
+        assertTrue(repository.findMudancas(3, 10).isEmpty());
+        assertTrue(repository.findMudancas(4, 10).orElseThrow().isEmpty());
+    }
+
+    /**
+     * Verifica se alterar a tarefa devolvida não altera a tarefa armazenada.
+     */
+    @Test
+    void findById_deveDevolverCopia() {
+        repository.insert(criarTarefaFixture(0, "Original", null, false));
+
+        repository.findById(1).orElseThrow().setTitulo("Alterado");
+
+        assertEquals("Original", repository.findById(1).orElseThrow().getTitulo());
+    }
+
+    /**
+     * Verifica se a paginação por ID e o filtro por status pulam as tarefas removidas e as que não atendem.
+     */
+    @Test
+    void findPage_devePaginarEFiltrar() {
+        repository.insertAll(List.of(
+                criarTarefaFixture(0, "1", null, false), criarTarefaFixture(0, "2", null, false),
+                criarTarefaFixture(0, "3", null, false), criarTarefaFixture(0, "4", null, false)));
+        repository.delete(2);
+        repository.update(criarTarefaFixture(3, "3", null, true));
+
+        assertEquals(List.of(3, 4), ids(repository.findPage(1, 2)));
+        FiltroTarefas pendentes = new FiltroTarefas(false, null, null, FiltroTarefas.Ordenacao.ID_DESC);
+        assertEquals(List.of(4, 1), ids(repository.findPage(pendentes, null, 10)));
+        assertEquals(List.of(1), ids(repository.findPage(pendentes, new FiltroTarefas.Posicao(4, null), 10)));
+
+        // Tarefas criadas no mesmo instante são desempatadas pelo ID.
+        FiltroTarefas porData = new FiltroTarefas(null, null, null, FiltroTarefas.Ordenacao.DATA_CRIACAO_DESC);
+        Tarefa primeira = repository.findPage(porData, null, 1).get(0);
+        assertEquals(4, primeira.getId());
+        assertEquals(List.of(3, 1), ids(repository.findPage(porData,
+                new FiltroTarefas.Posicao(primeira.getId(), primeira.getDataCriacao()), 10)));
+    }
+
+    /**
+     * Verifica se inserções concorrentes geram IDs únicos e não perdem tarefas.
+     */
+    @Test
+    void insert_concorrenteDeveGerarIdsUnicos() throws Exception {
+        int threads = 8;
+        int porThread = 2_000;
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        ids.add(repository.insert(criarTarefaFixture(0, "Concorrente", null, false)).getId());
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * porThread, ids.size());
+        assertEquals(threads * porThread, repository.tamanho());
+        assertEquals(threads * porThread, repository.findAll().size());
+    }
+
+    /**
+     * Verifica se incrementos concorrentes com update condicional não perdem atualizações:
+     * cada thread lê a tarefa, incrementa o contador guardado no título e só grava se a versão
+     * não mudou, tentando de novo em caso de conflito.
+     */
+    @Test
+    void update_comVersaoNaoDevePerderAtualizacoesConcorrentes() throws Exception {
+        int id = repository.insert(criarTarefaFixture(0, "0", null, false)).getId();
+        int threads = 8;
+        int porThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        while (true) {
+                            Tarefa lida = repository.findById(id).orElseThrow();
+                            lida.setTitulo(String.valueOf(Integer.parseInt(lida.getTitulo()) + 1));
+                            if (repository.update(lida, lida.getVersao()).isPresent()) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Tarefa fim = repository.findById(id).orElseThrow();
+        assertEquals(threads * porThread, Integer.parseInt(fim.getTitulo()));
+        assertEquals(threads * porThread + 1, fim.getVersao());
+    }
+
+    private static List<Integer> ids(List<Tarefa> tarefas) {
+        return tarefas.stream().map(Tarefa::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.notes.search;
+
+import br.com.notes.model.Tarefa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de unidade para o IndiceTarefas.
+ * <p>
+ * Verificam a normalização dos termos, a ordenação por relevância, a paginação
+ * e a atualização do índice quando tarefas são alteradas ou removidas.
+ */
+class IndiceTarefasTest {
+
+    private IndiceTarefas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTarefas();
+        indice.tarefaCriada(tarefa(1, "Comprar café", "Tipo arábica, moído na hora."));
+        indice.tarefaCriada(tarefa(2, "Estudar para a prova", "Revisar café com os colegas."));
+        indice.tarefaCriada(tarefa(3, "Pagar conta de luz", null));
+    }
+
+    /**
+     * A busca ignora acentos e maiúsculas e prioriza as tarefas com o termo no título.
+     */
+    @Test
+    void buscar_deveIgnorarAcentosEPriorizarTitulo() {
+        IndiceTarefas.Resultado resultado = indice.buscar("CAFE", 0, 10);
+
+        assertEquals(List.of(1, 2), resultado.ids());
+        assertEquals(2, resultado.total());
+    }
+
+    /**
+     * Palavras de ligação e termos inexistentes não retornam resultados.
+     */
+    @Test
+    void buscar_naoDeveRetornarResultadosParaStopwordsOuTermosInexistentes() {
+        assertTrue(indice.buscar("para de", 0, 10).ids().isEmpty());
+        assertTrue(indice.buscar("inexistente", 0, 10).ids().isEmpty());
+    }
+
+    /**
+     * A página respeita o offset e o limite, mas o total considera todos os resultados.
+     */
+    @Test
+    void buscar_devePaginarResultados() {
+        IndiceTarefas.Resultado resultado = indice.buscar("cafe", 1, 1);
+
+        assertEquals(List.of(2), resultado.ids());
+        assertEquals(2, resultado.total());
+    }
+
+    /**
+     * Atualizações reindexam a tarefa e remoções a retiram do índice.
+     */
+    @Test
+    void tarefaAtualizadaERemovida_devemManterIndiceSincronizado() {
+        indice.tarefaAtualizada(tarefa(1, "Comprar chá", null));
+        assertEquals(List.of(2), indice.buscar("cafe", 0, 10).ids());
+        assertEquals(List.of(1), indice.buscar("cha", 0, 10).ids());
+
+        indice.tarefaRemovida(3, 1);
+        assertTrue(indice.buscar("luz", 0, 10).ids().isEmpty());
+    }
+
+    private static Tarefa tarefa(int id, String titulo, String descricao) {
+        return criarTarefaFixture(id, titulo, descricao, false);
+    }
+}
@@ -2,10 +2,19 @@ package br.com.notes.service;
 
 import br.com.notes.dto.AtualizarTarefaDTO;
 import br.com.notes.dto.CriarTarefaDTO;
+import br.com.notes.dto.MudancasTarefasDTO;
+import br.com.notes.dto.PaginaTarefasDTO;
+import br.com.notes.dto.ResultadoBuscaDTO;
 import br.com.notes.dto.RespostaTarefaDTO;
 import br.com.notes.model.Tarefa;
+import br.com.notes.repository.AlteracaoTarefa;
+import br.com.notes.repository.MudancaTarefa;
 import br.com.notes.repository.TarefaRepository;
+import br.com.notes.repository.VisitanteTarefas;
+import br.com.notes.search.IndiceTarefas;
+import io.javalin.http.BadRequestResponse;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.PreconditionFailedResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,13 +23,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static br.com.notes.Utils.TarefaFixture.criarTarefaFixture;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -60,7 +78,7 @@ class TarefaServiceTest {
      * <b>Verifica se:</b>
      * <ul>
      * <li>O método 'insert' do repositório é chamado.</li>
-     * <li>O método 'findById' é chamado para retornar a tarefa recém-criada.</li>
+     * <li>Nenhuma consulta adicional ('findById') é feita após o insert.</li>
      * <li>O DTO de resposta contém os dados corretos.</li>
      * </ul>
      */
@@ -68,8 +86,7 @@ class TarefaServiceTest {
     void criar_deveRetornarDtoDaTarefaSalva() {
 
         // Configura o comportamento do mock
-        when(repository.insert(any(Tarefa.class))).thenReturn(1);
-        when(repository.findById(tarefaExemplo.getId())).thenReturn(Optional.of(tarefaExemplo));
+        when(repository.insert(any(Tarefa.class))).thenReturn(tarefaExemplo);
 
         // Act (Ação)
         RespostaTarefaDTO result = service.criar(criarDtoExemplo);
@@ -77,6 +94,33 @@ class TarefaServiceTest {
         // Assert (Verificação)
         assertNotNull(result);
         assertEquals(tarefaExemplo.getId(), result.id());
+        assertEquals(tarefaExemplo.getDataCriacao(), result.dataCriacao());
+        verify(repository, never()).findById(anyInt());
+    }
+
+    /**
+     * Testa a versão das listagens, base do ETag de GET /tarefas.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>A versão muda após uma escrita bem-sucedida.</li>
+     * <li>A versão não muda após uma escrita que falhou.</li>
+     * </ul>
+     */
+    @Test
+    void versaoListagem_deveMudarApenasAposEscritas() {
+        when(repository.insert(any(Tarefa.class))).thenReturn(tarefaExemplo);
+        when(repository.delete(99)).thenReturn(false);
+
+        String inicial = service.versaoListagem();
+        assertEquals(inicial, service.versaoListagem());
+
+        service.criar(criarDtoExemplo);
+        String aposCriar = service.versaoListagem();
+        assertNotEquals(inicial, aposCriar);
+
+        assertThrows(NotFoundResponse.class, () -> service.deletar(99));
+        assertEquals(aposCriar, service.versaoListagem());
     }
 
     /**
@@ -84,14 +128,14 @@ class TarefaServiceTest {
      * <p>
      * <b>Verifica se:</b>
      * <ul>
-     * <li>O repositório é consultado para encontrar a tarefa.</li>
      * <li>O método 'update' do repositório é chamado com os dados corretos.</li>
+     * <li>Nenhuma consulta prévia ('findById') é feita antes do update.</li>
      * </ul>
      */
     @Test
     void atualizar_deveModificarTarefaExistente() {
 
-        when(repository.findById(1)).thenReturn(Optional.of(tarefaExemplo));
+        when(repository.update(any(Tarefa.class))).thenReturn(Optional.of(tarefaExemplo));
 
         service.atualizar(1, atualizarDtoExemplo);
 
@@ -99,8 +143,83 @@ class TarefaServiceTest {
         verify(repository).update(tarefaCaptor.capture());
 
         Tarefa tarefaAtualizada = tarefaCaptor.getValue();
+        assertEquals(1, tarefaAtualizada.getId());
         assertEquals("Tarefa Atualizada", tarefaAtualizada.getTitulo());
         assertTrue(tarefaAtualizada.isConcluida());
+        verify(repository, never()).findById(anyInt());
+    }
+
+    /**
+     * Testa a atualização condicional com uma versão que não é mais a atual.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Uma exceção 'PreconditionFailedResponse' é lançada com a versão atual na mensagem.</li>
+     * <li>Os ouvintes não são notificados.</li>
+     * </ul>
+     */
+    @Test
+    void atualizar_comVersaoDesatualizadaDeveLancarPreconditionFailed() {
+        Tarefa atual = criarTarefaFixture(1, "Tarefa Padrão", null, false);
+        atual.setVersao(4);
+        when(repository.update(any(Tarefa.class), eq(3))).thenReturn(Optional.empty());
+        when(repository.findById(1)).thenReturn(Optional.of(atual));
+        OuvinteTarefas ouvinte = mock(OuvinteTarefas.class);
+        service.adicionarOuvinte(ouvinte);
+
+        PreconditionFailedResponse exception = assertThrows(PreconditionFailedResponse.class,
+                () -> service.atualizar(1, atualizarDtoExemplo, 3));
+
+        assertEquals("A tarefa foi alterada por outra requisição. Versão atual: 4.", exception.getMessage());
+        verifyNoInteractions(ouvinte);
+    }
+
+    /**
+     * Testa a alteração parcial (PATCH) de uma tarefa existente.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>A alteração é repassada ao 'patch' do repositório sem verificação de versão.</li>
+     * <li>Nenhuma consulta ('findById') é feita antes ou depois da escrita.</li>
+     * </ul>
+     */
+    @Test
+    void alterar_deveUsarPatchSemConsultarATarefa() {
+        when(repository.patch(1, AlteracaoTarefa.concluida(true), TarefaRepository.QUALQUER_VERSAO))
+                .thenReturn(Optional.of(tarefaExemplo));
+
+        RespostaTarefaDTO result = service.alterar(1, AlteracaoTarefa.concluida(true), null);
+
+        assertEquals(tarefaExemplo.getId(), result.id());
+        verify(repository, never()).findById(anyInt());
+    }
+
+    /**
+     * Testa a alteração parcial sem nenhum campo.
+     * <p>
+     * <b>Verifica se:</b> Nada é gravado e a tarefa atual é devolvida.
+     */
+    @Test
+    void alterar_semCamposDeveDevolverTarefaAtual() {
+        when(repository.findById(1)).thenReturn(Optional.of(tarefaExemplo));
+
+        RespostaTarefaDTO result = service.alterar(1, new AlteracaoTarefa(null, false, null, null), null);
+
+        assertEquals(tarefaExemplo.getTitulo(), result.titulo());
+        verify(repository, never()).patch(anyInt(), any(AlteracaoTarefa.class), anyInt());
+    }
+
+    /**
+     * Testa a atualização condicional de uma tarefa que não existe.
+     * <p>
+     * <b>Verifica se:</b> Uma exceção 'NotFoundResponse' é lançada, e não 'PreconditionFailedResponse'.
+     */
+    @Test
+    void atualizar_comVersaoDeTarefaInexistenteDeveLancarNotFound() {
+        when(repository.update(any(Tarefa.class), eq(1))).thenReturn(Optional.empty());
+        when(repository.findById(99)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundResponse.class, () -> service.atualizar(99, atualizarDtoExemplo, 1));
     }
 
     /**
@@ -115,7 +234,7 @@ class TarefaServiceTest {
     @Test
     void atualizar_deveLancarExcecaoSeTarefaNaoExiste() {
         int idInexistente = 999;
-        when(repository.findById(idInexistente)).thenReturn(Optional.empty());
+        when(repository.update(any(Tarefa.class))).thenReturn(Optional.empty());
 
         assertThrows(NotFoundResponse.class, () ->
                 service.atualizar(999, atualizarDtoExemplo));
@@ -225,8 +344,8 @@ class TarefaServiceTest {
      * <p>
      * <b>Verifica se:</b>
      * <ul>
-     * <li>O serviço primeiro busca a tarefa para garantir que ela existe.</li>
      * <li>O método 'delete' do repositório é chamado com o ID correto.</li>
+     * <li>Nenhuma consulta prévia ('findById') é feita antes do delete.</li>
      * </ul>
      */
     @Test
@@ -243,17 +362,279 @@ class TarefaServiceTest {
         tarefaSalva.setConcluida(false);
         tarefaSalva.setDataCriacao(Instant.now());
 
-        when(repository.insert(any(Tarefa.class))).thenReturn(1);
-
-        when(repository.findById(1)).thenReturn(Optional.of(tarefaSalva));
+        when(repository.insert(any(Tarefa.class))).thenReturn(tarefaSalva);
 
         RespostaTarefaDTO result = service.criar(dto);
 
-        doNothing().when(repository).delete(expectedId);
+        when(repository.delete(expectedId)).thenReturn(true);
 
         service.deletar(expectedId);
 
         verify(repository, times(1)).delete(anyInt());
+        verify(repository, never()).findById(anyInt());
+    }
+
+    /**
+     * Testa o cenário de falha ao tentar deletar uma tarefa que não existe.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Uma exceção 'NotFoundResponse' é lançada quando nenhuma linha é removida.</li>
+     * </ul>
+     */
+    @Test
+    void deletar_deveLancarExcecaoSeTarefaNaoExiste() {
+        int idInexistente = 999;
+        when(repository.delete(idInexistente)).thenReturn(false);
+
+        var exception = assertThrows(NotFoundResponse.class, () ->
+                service.deletar(idInexistente));
+
+        assertEquals("Tarefa não encontrada com o ID: " + idInexistente, exception.getMessage());
+    }
+
+    /**
+     * Testa a listagem paginada quando existem mais tarefas que o limite.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>O repositório é consultado com um item a mais que o limite.</li>
+     * <li>A página contém apenas 'limite' itens e um cursor para a próxima página.</li>
+     * <li>O cursor retornado leva à consulta a partir do último ID da página.</li>
+     * </ul>
+     */
+    @Test
+    void listarPagina_deveRetornarCursorQuandoHouverMaisTarefas() {
+        when(repository.findPage(0, 3)).thenReturn(List.of(
+                criarTarefaFixture(1, "T1", null, false),
+                criarTarefaFixture(2, "T2", null, false),
+                criarTarefaFixture(3, "T3", null, false)
+        ));
+
+        PaginaTarefasDTO pagina = service.listarPagina(null, 2);
+
+        assertEquals(2, pagina.tarefas().size());
+        assertEquals(2, pagina.tarefas().get(1).id());
+        assertNotNull(pagina.proximoCursor());
+
+        when(repository.findPage(2, 3)).thenReturn(List.of(criarTarefaFixture(3, "T3", null, false)));
+
+        PaginaTarefasDTO ultimaPagina = service.listarPagina(pagina.proximoCursor(), 2);
+
+        assertEquals(1, ultimaPagina.tarefas().size());
+        assertNull(ultimaPagina.proximoCursor());
+    }
+
+    /**
+     * Testa se o limite solicitado é reduzido ao tamanho máximo de página.
+     */
+    @Test
+    void listarPagina_deveLimitarTamanhoMaximoDaPagina() {
+        when(repository.findPage(0, TarefaService.TAMANHO_MAXIMO_PAGINA + 1)).thenReturn(List.of());
+
+        PaginaTarefasDTO pagina = service.listarPagina(null, Integer.MAX_VALUE);
+
+        assertTrue(pagina.tarefas().isEmpty());
+        verify(repository).findPage(0, TarefaService.TAMANHO_MAXIMO_PAGINA + 1);
+    }
+
+    /**
+     * Testa se cursores e limites inválidos são rejeitados sem consultar o repositório.
+     */
+    @Test
+    void listarPagina_deveLancarExcecaoComCursorOuLimiteInvalido() {
+        assertThrows(BadRequestResponse.class, () -> service.listarPagina("nao-e-um-cursor", 10));
+        assertThrows(BadRequestResponse.class, () -> service.listarPagina(null, 0));
+
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * Testa a ordem das notificações quando escritas concorrentes na mesma tarefa retornam fora de ordem.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Uma atualização que retorna depois de outra mais nova não é notificada.</li>
+     * <li>Nada da tarefa é notificado depois da sua remoção.</li>
+     * </ul>
+     */
+    @Test
+    void notificacoes_deveDescartarAtualizacoesAtrasadasOuPosterioresARemocao() {
+        Tarefa versao3 = criarTarefaFixture(1, "Versão 3", null, false);
+        versao3.setVersao(3);
+        Tarefa versao2 = criarTarefaFixture(1, "Versão 2", null, false);
+        versao2.setVersao(2);
+        Tarefa versao4 = criarTarefaFixture(1, "Versão 4", null, false);
+        versao4.setVersao(4);
+        when(repository.update(any(Tarefa.class))).thenReturn(Optional.of(versao3))
+                .thenReturn(Optional.of(versao2)).thenReturn(Optional.of(versao4));
+        when(repository.delete(1)).thenReturn(true);
+        OuvinteTarefas ouvinte = mock(OuvinteTarefas.class);
+        service.adicionarOuvinte(ouvinte);
+
+        service.atualizar(1, atualizarDtoExemplo);
+        service.atualizar(1, atualizarDtoExemplo);
+        service.deletar(1);
+        service.atualizar(1, atualizarDtoExemplo);
+
+        var ordem = inOrder(ouvinte);
+        ordem.verify(ouvinte).tarefaAtualizada(versao3);
+        ordem.verify(ouvinte).tarefaRemovida(1, 3);
+        verifyNoMoreInteractions(ouvinte);
+    }
+
+    /**
+     * Testa a versão enviada na remoção de uma tarefa que não foi escrita desde o início da aplicação.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>A versão carregada do repositório por 'carregarVersoes' acompanha a notificação de remoção.</li>
+     * </ul>
+     */
+    @Test
+    void deletar_deveNotificarAVersaoCarregadaDoRepositorio() {
+        doAnswer(invocation -> {
+            VisitanteTarefas visitante = invocation.getArgument(0);
+            visitante.visitar(1, "Tarefa 1", null, false, Instant.now(), 5);
+            return null;
+        }).when(repository).visitarTodas(any());
+        when(repository.delete(1)).thenReturn(true);
+        OuvinteTarefas ouvinte = mock(OuvinteTarefas.class);
+        service.adicionarOuvinte(ouvinte);
+
+        service.carregarVersoes();
+        service.deletar(1);
+
+        verify(ouvinte).tarefaRemovida(1, 5);
+    }
+
+    /**
+     * Testa o percurso em streaming de todas as tarefas.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Cada 'Tarefa' do Stream do repositório é convertida para 'RespostaTarefaDTO'.</li>
+     * <li>O 'findAll' (que materializa a lista) não é usado.</li>
+     * </ul>
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void percorrerTarefas_deveConverterCadaTarefaDoStream() {
+        doAnswer(invocation -> {
+            Consumer<Stream<Tarefa>> consumidor = invocation.getArgument(0);
+            consumidor.accept(Stream.of(tarefaExemplo, criarTarefaFixture(2, "Outra", null, true)));
+            return null;
+        }).when(repository).streamAll(any(Consumer.class));
+
+        List<Integer> ids = new ArrayList<>();
+        service.percorrerTarefas(dtos -> ids.addAll(dtos.map(RespostaTarefaDTO::id).collect(Collectors.toList())));
+
+        assertEquals(List.of(1, 2), ids);
+        verify(repository, never()).findAll();
     }
 
-}
\ No newline at end of file
+    /**
+     * Testa a busca textual integrada ao índice.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>As tarefas são retornadas na ordem de relevância do índice, e não na ordem do banco.</li>
+     * <li>Tarefas criadas pela service passam a ser encontradas pelo índice.</li>
+     * </ul>
+     */
+    @Test
+    void buscar_deveRetornarTarefasNaOrdemDoIndice() {
+        var indice = new IndiceTarefas();
+        service.habilitarBusca(indice);
+
+        Tarefa cafe = criarTarefaFixture(7, "Comprar café", null, false);
+        Tarefa cafeNaDescricao = criarTarefaFixture(3, "Mercado", "café e pão", false);
+        when(repository.insert(any(Tarefa.class))).thenReturn(cafe, cafeNaDescricao);
+        service.criar(new CriarTarefaDTO("Comprar café", null));
+        service.criar(new CriarTarefaDTO("Mercado", "café e pão"));
+
+        when(repository.findByIds(List.of(7, 3))).thenReturn(List.of(cafeNaDescricao, cafe));
+
+        ResultadoBuscaDTO resultado = service.buscar("cafe", 10, 0);
+
+        assertEquals(List.of(7, 3), resultado.tarefas().stream().map(RespostaTarefaDTO::id).toList());
+        assertEquals(2, resultado.total());
+        assertNull(resultado.proximoOffset());
+    }
+
+    /**
+     * Testa se a busca é rejeitada quando o índice não foi habilitado.
+     */
+    @Test
+    void buscar_deveLancarExcecaoSemIndiceHabilitado() {
+        assertThrows(BadRequestResponse.class, () -> service.buscar("cafe", 10, 0));
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * Testa a sincronização incremental a partir de um cursor.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Sem cursor, o cliente é mandado ressincronizar com o cursor da última sequência.</li>
+     * <li>Com esse cursor, vêm só as alterações posteriores, separadas em alteradas e removidas.</li>
+     * <li>O item a mais buscado no repositório indica que há outra página, e não é devolvido.</li>
+     * </ul>
+     */
+    @Test
+    void listarMudancas_deveDevolverApenasAsAlteracoesDesdeOCursor() {
+        when(repository.ultimaSequencia()).thenReturn(10L);
+        MudancasTarefasDTO inicial = service.listarMudancas(null, 2);
+        assertTrue(inicial.ressincronizar());
+        assertTrue(inicial.alteradas().isEmpty());
+
+        when(repository.findMudancas(10, 3)).thenReturn(Optional.of(List.of(
+                new MudancaTarefa(11, 1, tarefaExemplo),
+                new MudancaTarefa(12, 4, null),
+                new MudancaTarefa(13, 5, criarTarefaFixture(5, "Depois", null, false)))));
+        MudancasTarefasDTO mudancas = service.listarMudancas(inicial.proximo(), 2);
+
+        assertFalse(mudancas.ressincronizar());
+        assertTrue(mudancas.temMais());
+        assertEquals(List.of(1), mudancas.alteradas().stream().map(RespostaTarefaDTO::id).toList());
+        assertEquals(List.of(4), mudancas.removidas());
+
+        when(repository.findMudancas(12, 3)).thenReturn(Optional.of(List.of()));
+        MudancasTarefasDTO semNovidades = service.listarMudancas(mudancas.proximo(), 2);
+        assertFalse(semNovidades.temMais());
+        assertEquals(mudancas.proximo(), semNovidades.proximo());
+    }
+
+    /**
+     * Testa os cursores que não podem ser usados na sincronização incremental.
+     * <p>
+     * <b>Verifica se:</b>
+     * <ul>
+     * <li>Um cursor anterior à compactação do log leva à ressincronização.</li>
+     * <li>Um cursor de outra execução da aplicação leva à ressincronização, sem consultar o log.</li>
+     * <li>Um cursor de outra rota é rejeitado com 400.</li>
+     * </ul>
+     */
+    @Test
+    void listarMudancas_deveRessincronizarComCursorAntigoOuDeOutraExecucao() {
+        when(repository.ultimaSequencia()).thenReturn(3L);
+        String cursor = service.listarMudancas(null, 10).proximo();
+        when(repository.findMudancas(3, 11)).thenReturn(Optional.empty());
+        assertTrue(service.listarMudancas(cursor, 10).ressincronizar());
+
+        assertTrue(service.listarMudancas(deOutraExecucao(cursor), 10).ressincronizar());
+        verify(repository, times(1)).findMudancas(anyLong(), anyInt());
+
+        String cursorDaListagem = Base64.getUrlEncoder().withoutPadding().encodeToString("id:7".getBytes(StandardCharsets.UTF_8));
+        assertThrows(BadRequestResponse.class, () -> service.listarMudancas(cursorDaListagem, 10));
+    }
+
+    /**
+     * Troca a execução gravada no cursor da sincronização, simulando um cursor emitido antes de um reinício.
+     */
+    private static String deOutraExecucao(String cursor) {
+        String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String trocado = "sq:outra-" + valor.substring(valor.lastIndexOf('-') + 1);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(trocado.getBytes(StandardCharsets.UTF_8));
+    }
+}